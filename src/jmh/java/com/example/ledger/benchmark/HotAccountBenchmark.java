@@ -0,0 +1,76 @@
+package com.example.ledger.benchmark;
+
+import com.example.ledger.domain.InsufficientFundsException;
+import com.example.ledger.domain.LedgerService;
+import com.example.ledger.domain.Money;
+import com.example.ledger.domain.Transaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Clock;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes that all land on one account. {@code deposit} scales with {@code -t} since deposits don't
+ * take the account monitor; {@code mixed} runs three depositors against one withdrawer, the only
+ * writer that has to validate the balance, with the account's balance whole or split into
+ * sub-balances.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class HotAccountBenchmark {
+
+    private static final String ACCOUNT = "hot";
+
+    @Param({"0", "8"})
+    public int subBalances;
+
+    private final Money amount = Money.of("1.00");
+    private LedgerService ledgerService;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        ledgerService = new LedgerService(1, Clock.systemUTC());
+        if (subBalances > 0) {
+            ledgerService.setHotAccounts(List.of(ACCOUNT), subBalances);
+        }
+    }
+
+    @Benchmark
+    public Transaction deposit() {
+        return ledgerService.deposit(ACCOUNT, amount);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(3)
+    public Transaction mixedDeposit() {
+        return ledgerService.deposit(ACCOUNT, amount);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public Transaction mixedWithdraw() {
+        try {
+            return ledgerService.withdraw(ACCOUNT, amount);
+        } catch (InsufficientFundsException ex) {
+            return null;
+        }
+    }
+}
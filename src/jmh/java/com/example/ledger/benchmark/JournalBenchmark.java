@@ -0,0 +1,71 @@
+package com.example.ledger.benchmark;
+
+import com.example.ledger.domain.LedgerService;
+import com.example.ledger.domain.Money;
+import com.example.ledger.journal.JournalTailer;
+import com.example.ledger.journal.JournalWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Rows per second a change-data-capture consumer reads from the mapped journal, summing amounts
+ * straight from the segments as an analytical consumer would.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class JournalBenchmark {
+
+    private static final int ROWS = 200_000;
+
+    private Path directory;
+    private JournalWriter writer;
+    private long total;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("journal-benchmark");
+        LedgerService ledgerService = new LedgerService(4, Clock.systemUTC());
+        writer = new JournalWriter(ledgerService, directory, 65_536);
+        writer.start();
+        Money amount = Money.of("1.00");
+        for (int i = 0; i < ROWS; i++) {
+            ledgerService.deposit("account-" + (i & 1023), amount);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        writer.stop();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long tail() throws IOException {
+        total = 0;
+        try (JournalTailer tailer = JournalTailer.open(directory, 0)) {
+            while (tailer.poll(entry -> total += entry.getAmountMinorUnits(), 4096) > 0) {
+                // keep reading
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.ledger.benchmark;
+
+import com.example.ledger.domain.InsufficientFundsException;
+import com.example.ledger.domain.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of raising an insufficient-funds rejection: the original message-concatenating
+ * {@link IllegalArgumentException} against the stackless {@link InsufficientFundsException}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RejectionBenchmark {
+
+    private final Money balance = Money.of("50.00");
+    private final Money requested = Money.of("100.00");
+
+    @Benchmark
+    public RuntimeException concatenatedIllegalArgument() {
+        return new IllegalArgumentException(
+                "Insufficient funds: available balance is " + balance + ", requested " + requested);
+    }
+
+    @Benchmark
+    public RuntimeException stacklessInsufficientFunds() {
+        return new InsufficientFundsException(balance, requested);
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.ledger.benchmark;
+
+import com.example.ledger.api.dto.TransactionCommand;
+import com.example.ledger.api.dto.TransactionRequest;
+import com.example.ledger.domain.Money;
+import com.example.ledger.domain.TransactionType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the original request path (Jackson into {@link TransactionRequest}, bean validation,
+ * {@link Money#of} and an upper-cased enum lookup) with the {@link TransactionCommand} fast path.
+ * Run with {@code -prof gc} and compare {@code gc.alloc.rate.norm} to see bytes allocated per request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RequestParsingBenchmark {
+
+    private final byte[] body = "{\"type\": \"deposit\", \"amount\": 100.50}".getBytes(StandardCharsets.UTF_8);
+
+    private ObjectMapper objectMapper;
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper();
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public void validatedRequest(Blackhole blackhole) throws Exception {
+        TransactionRequest request = objectMapper.readValue(body, TransactionRequest.class);
+        if (!validator.validate(request).isEmpty()) {
+            throw new IllegalStateException("Unexpected validation failure");
+        }
+        blackhole.consume(Money.of(request.amount()));
+        blackhole.consume(TransactionType.valueOf(request.type().toUpperCase()));
+    }
+
+    @Benchmark
+    public void parsedCommand(Blackhole blackhole) throws Exception {
+        TransactionCommand command = objectMapper.readValue(body, TransactionCommand.class);
+        blackhole.consume(Money.ofMinorUnits(command.amountMinorUnits()));
+        blackhole.consume(command.type());
+    }
+}
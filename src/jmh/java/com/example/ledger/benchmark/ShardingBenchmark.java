@@ -0,0 +1,56 @@
+package com.example.ledger.benchmark;
+
+import com.example.ledger.domain.LedgerService;
+import com.example.ledger.domain.Money;
+import com.example.ledger.domain.Transaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Clock;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deposit throughput against the number of shards. Every thread writes to random accounts, so with
+ * more shards fewer writers meet on the same storage; vary the writer count with {@code -t} to see
+ * how throughput scales with cores, e.g. {@code -Djmh.args="ShardingBenchmark -t 8"}.
+ * Iterations are short and the ledger is rebuilt for each, because every deposit is kept in memory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ShardingBenchmark {
+
+    private static final int ACCOUNTS = 1024;
+
+    @Param({"1", "4", "16"})
+    public int shards;
+
+    private final Money amount = Money.of("1.00");
+    private final String[] accounts = new String[ACCOUNTS];
+    private LedgerService ledgerService;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        ledgerService = new LedgerService(shards, Clock.systemUTC());
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accounts[i] = "account-" + i;
+        }
+    }
+
+    @Benchmark
+    public Transaction deposit() {
+        return ledgerService.deposit(accounts[ThreadLocalRandom.current().nextInt(ACCOUNTS)], amount);
+    }
+}
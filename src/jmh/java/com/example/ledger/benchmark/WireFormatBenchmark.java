@@ -0,0 +1,92 @@
+package com.example.ledger.benchmark;
+
+import com.example.ledger.api.LedgerBinaryCodec;
+import com.example.ledger.api.dto.TransactionCommand;
+import com.example.ledger.api.dto.TransactionRequest;
+import com.example.ledger.api.dto.TransactionResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the JSON and binary representations of the ledger DTOs. Run with {@code -prof gc} to see
+ * allocation per operation as well as time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class WireFormatBenchmark {
+
+    @Param({"1", "100"})
+    public int historySize;
+
+    private ObjectMapper objectMapper;
+    private byte[] jsonRequest;
+    private byte[] binaryRequest;
+    private TransactionResponse transaction;
+    private List<TransactionResponse> history;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        TransactionRequest request = new TransactionRequest("DEPOSIT", new BigDecimal("100.50"));
+        jsonRequest = objectMapper.writeValueAsBytes(request);
+        binaryRequest = LedgerBinaryCodec.encodeRequest(request);
+
+        history = new ArrayList<>(historySize);
+        Instant now = Instant.parse("2023-10-01T10:15:30.123Z");
+        for (int i = 0; i < historySize; i++) {
+            history.add(new TransactionResponse(UUID.randomUUID(), i + 1, "default", i % 2 == 0 ? "DEPOSIT" : "WITHDRAW",
+                    BigDecimal.valueOf(1000 + i, 2), now.plusMillis(i)));
+        }
+        transaction = history.getFirst();
+    }
+
+    @Benchmark
+    public TransactionCommand readRequestJson() throws Exception {
+        return objectMapper.readValue(jsonRequest, TransactionCommand.class);
+    }
+
+    @Benchmark
+    public TransactionCommand readRequestBinary() {
+        return LedgerBinaryCodec.decodeRequest(binaryRequest);
+    }
+
+    @Benchmark
+    public byte[] writeTransactionJson() throws Exception {
+        return objectMapper.writeValueAsBytes(transaction);
+    }
+
+    @Benchmark
+    public byte[] writeTransactionBinary() {
+        return LedgerBinaryCodec.encode(transaction);
+    }
+
+    @Benchmark
+    public byte[] writeHistoryJson() throws Exception {
+        return objectMapper.writeValueAsBytes(history);
+    }
+
+    @Benchmark
+    public byte[] writeHistoryBinary() {
+        return LedgerBinaryCodec.encode(history);
+    }
+}
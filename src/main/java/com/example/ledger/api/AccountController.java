@@ -0,0 +1,216 @@
+package com.example.ledger.api;
+
+import com.example.ledger.api.dto.AccountContentionResponse;
+import com.example.ledger.api.dto.BalanceResponse;
+import com.example.ledger.api.dto.CaptureRequest;
+import com.example.ledger.api.dto.HoldRequest;
+import com.example.ledger.api.dto.HoldResponse;
+import com.example.ledger.api.dto.TransactionCommand;
+import com.example.ledger.api.dto.TransactionResponse;
+import com.example.ledger.api.dto.TransferRequest;
+import com.example.ledger.api.dto.TransferResponse;
+import com.example.ledger.domain.Currencies;
+import com.example.ledger.domain.Hold;
+import com.example.ledger.domain.LedgerService;
+import com.example.ledger.domain.Money;
+import com.example.ledger.domain.Transaction;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Currency;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Per-account operations, holds and transfers. The unscoped endpoints of {@link LedgerController} keep
+ * working on the default account.
+ */
+@RestController
+@RequestMapping("/api/v1/ledger")
+@Tag(name = "Accounts", description = "Account-scoped transactions and transfers between accounts")
+public class AccountController {
+    
+    private final LedgerService ledgerService;
+    private final Duration hotMeanWait;
+    
+    public AccountController(LedgerService ledgerService,
+                             @Value("${ledger.hot-accounts.flag-mean-wait:PT0.0001S}") Duration hotMeanWait) {
+        this.ledgerService = ledgerService;
+        this.hotMeanWait = hotMeanWait;
+    }
+    
+    @Operation(summary = "Record a transaction on an account", description = "Creates a new deposit or withdrawal on the given account")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Transaction created successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid request or account id"),
+            @ApiResponse(responseCode = "422", description = "Insufficient funds")
+    })
+    @PostMapping("/accounts/{accountId}/transactions")
+    public CompletableFuture<ResponseEntity<TransactionResponse>> recordTransaction(
+            @PathVariable String accountId,
+            @RequestBody TransactionCommand request) {
+        Money amount = Money.ofMinorUnits(request.amountMinorUnits(), request.currency());
+        
+        CompletableFuture<Transaction> transaction = switch (request.type()) {
+            case DEPOSIT -> ledgerService.depositAsync(accountId, amount);
+            case WITHDRAW -> ledgerService.withdrawAsync(accountId, amount);
+            case TRANSFER_IN, TRANSFER_OUT, BALANCE_FORWARD -> throw new IllegalArgumentException("Invalid transaction type: " + request.type());
+        };
+        
+        return transaction.thenApply(recorded -> ResponseEntity.status(HttpStatus.CREATED).body(TransactionResponse.from(recorded)));
+    }
+    
+    @Operation(summary = "Get account balance",
+            description = "Returns the current balance of the given account in one currency, EUR unless given, or its balance at the asOf instant")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Balance retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid account id, currency or instant")
+    })
+    @GetMapping("/accounts/{accountId}/balance")
+    public ResponseEntity<BalanceResponse> getBalance(@PathVariable String accountId,
+                                                      @RequestParam(required = false) String currency,
+                                                      @RequestParam(required = false) Instant asOf) {
+        Money balance;
+        if (currency == null) {
+            balance = asOf == null ? ledgerService.getBalance(accountId) : ledgerService.getBalance(accountId, asOf);
+        } else {
+            Currency resolved = Currencies.of(currency);
+            balance = asOf == null
+                    ? ledgerService.getBalance(accountId, resolved)
+                    : ledgerService.getBalance(accountId, resolved, asOf);
+        }
+        return ResponseEntity.ok(BalanceResponse.from(balance));
+    }
+    
+    @Operation(summary = "Get account balances per currency",
+            description = "Returns the balance of the given account in EUR followed by one per other currency it has used")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Balances retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid account id")
+    })
+    @GetMapping("/accounts/{accountId}/balances")
+    public ResponseEntity<List<BalanceResponse>> getBalances(@PathVariable String accountId) {
+        return ResponseEntity.ok(ledgerService.getBalances(accountId).stream()
+                .map(BalanceResponse::from)
+                .toList());
+    }
+    
+    @Operation(summary = "Get available account balance",
+            description = "Returns the balance of the given account in one currency, EUR unless given, minus its open holds, which is what it can spend")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Available balance retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid account id or currency")
+    })
+    @GetMapping("/accounts/{accountId}/available-balance")
+    public ResponseEntity<BalanceResponse> getAvailableBalance(@PathVariable String accountId,
+                                                               @RequestParam(required = false) String currency) {
+        Money available = currency == null
+                ? ledgerService.getAvailableBalance(accountId)
+                : ledgerService.getAvailableBalance(accountId, Currencies.of(currency));
+        return ResponseEntity.ok(BalanceResponse.from(available));
+    }
+    
+    @Operation(summary = "Get account history",
+            description = "Returns the transactions of the given account ordered by timestamp, up to the asOf instant if given")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Transaction history retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid account id or instant")
+    })
+    @GetMapping("/accounts/{accountId}/transactions")
+    public ResponseEntity<List<TransactionResponse>> getTransactions(@PathVariable String accountId,
+                                                                     @RequestParam(required = false) Instant asOf) {
+        List<Transaction> history = asOf == null
+                ? ledgerService.getTransactions(accountId)
+                : ledgerService.getTransactions(accountId, asOf);
+        List<TransactionResponse> transactions = history.stream()
+                .map(TransactionResponse::from)
+                .toList();
+        return ResponseEntity.ok(transactions);
+    }
+    
+    @Operation(summary = "Get account lock contention",
+            description = "Returns the accounts writers waited longest for, flagging those worth splitting into sub-balances")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Contention retrieved successfully")
+    })
+    @GetMapping("/accounts/contention")
+    public ResponseEntity<List<AccountContentionResponse>> getContention(@RequestParam(defaultValue = "20") int limit) {
+        List<AccountContentionResponse> contention = ledgerService.getLockContention(limit).stream()
+                .map(account -> AccountContentionResponse.from(account, hotMeanWait))
+                .toList();
+        return ResponseEntity.ok(contention);
+    }
+    
+    @Operation(summary = "Place a hold", description = "Reserves funds on the given account until they are captured, released or the hold expires")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Hold placed successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid request or account id"),
+            @ApiResponse(responseCode = "422", description = "Insufficient available funds")
+    })
+    @PostMapping("/accounts/{accountId}/holds")
+    public ResponseEntity<HoldResponse> placeHold(@PathVariable String accountId, @Valid @RequestBody HoldRequest request) {
+        Money amount = Money.of(request.amount(), currencyOf(request.currency()));
+        Hold hold = ledgerService.placeHold(accountId, amount, request.expiresIn());
+        return ResponseEntity.status(HttpStatus.CREATED).body(HoldResponse.from(hold));
+    }
+    
+    @Operation(summary = "Capture a hold", description = "Records a withdrawal of the held funds, or of part of them, and releases the rest")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Withdrawal recorded successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid request or amount above the held one"),
+            @ApiResponse(responseCode = "404", description = "No open hold with that id")
+    })
+    @PostMapping("/holds/{holdId}/capture")
+    public ResponseEntity<TransactionResponse> captureHold(@PathVariable UUID holdId,
+                                                           @Valid @RequestBody(required = false) CaptureRequest request) {
+        Money amount = request == null || request.amount() == null
+                ? null
+                : Money.of(request.amount(), currencyOf(request.currency()));
+        Transaction transaction = ledgerService.captureHold(holdId, amount);
+        return ResponseEntity.status(HttpStatus.CREATED).body(TransactionResponse.from(transaction));
+    }
+    
+    @Operation(summary = "Release a hold", description = "Gives the held funds back to the available balance")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Hold released successfully"),
+            @ApiResponse(responseCode = "404", description = "No open hold with that id")
+    })
+    @DeleteMapping("/holds/{holdId}")
+    public ResponseEntity<HoldResponse> releaseHold(@PathVariable UUID holdId) {
+        return ResponseEntity.ok(HoldResponse.from(ledgerService.releaseHold(holdId)));
+    }
+    
+    @Operation(summary = "Transfer between accounts", description = "Atomically debits one account and credits another")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Transfer recorded successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid request, account id or same source and destination"),
+            @ApiResponse(responseCode = "422", description = "Insufficient funds on the source account")
+    })
+    @PostMapping("/transfers")
+    public CompletableFuture<ResponseEntity<TransferResponse>> transfer(@Valid @RequestBody TransferRequest request) {
+        Money amount = Money.of(request.amount(), currencyOf(request.currency()));
+        return ledgerService.transferAsync(request.fromAccountId(), request.toAccountId(), amount)
+                .thenApply(transfer -> ResponseEntity.status(HttpStatus.CREATED).body(TransferResponse.from(transfer)));
+    }
+    
+    private static Currency currencyOf(String code) {
+        return code == null ? Currencies.DEFAULT : Currencies.of(code);
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.ledger.api;
+
+import com.example.ledger.api.dto.BalanceResponse;
+import com.example.ledger.api.dto.JournalEntryRequest;
+import com.example.ledger.api.dto.JournalEntryResponse;
+import com.example.ledger.api.dto.RollupResponse;
+import com.example.ledger.api.dto.TrialBalanceResponse;
+import com.example.ledger.domain.Currencies;
+import com.example.ledger.domain.LedgerService;
+import com.example.ledger.domain.Money;
+import com.example.ledger.domain.Posting;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/ledger")
+@Tag(name = "Accounting", description = "Double-entry journal entries, the trial balance and account hierarchy rollups")
+public class AccountingController {
+
+    private final LedgerService ledgerService;
+
+    public AccountingController(LedgerService ledgerService) {
+        this.ledgerService = ledgerService;
+    }
+
+    @Operation(summary = "Post a journal entry", description = "Atomically records balanced debits and credits across the chart of accounts")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Journal entry recorded successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid request, unbalanced entry or account posted twice"),
+            @ApiResponse(responseCode = "422", description = "Insufficient funds on an account the entry lowers")
+    })
+    @PostMapping("/journal-entries")
+    public ResponseEntity<JournalEntryResponse> post(@Valid @RequestBody JournalEntryRequest request) {
+        List<Posting> postings = request.postings().stream()
+                .map(posting -> new Posting(posting.accountId(), posting.side(), Money.of(posting.amount(),
+                        posting.currency() == null ? Currencies.DEFAULT : Currencies.of(posting.currency()))))
+                .toList();
+        return ResponseEntity.status(HttpStatus.CREATED).body(JournalEntryResponse.from(ledgerService.post(postings)));
+    }
+
+    @Operation(summary = "Get the trial balance", description = "Returns every account's balance in the debit or credit column, kept up to date as transactions are recorded")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Trial balance retrieved successfully"),
+            @ApiResponse(responseCode = "404", description = "Trial balance is not enabled")
+    })
+    @GetMapping("/trial-balance")
+    public ResponseEntity<TrialBalanceResponse> getTrialBalance() {
+        if (!ledgerService.isTrialBalanceEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(TrialBalanceResponse.from(ledgerService.getTrialBalance()));
+    }
+
+    @Operation(summary = "Get a rolled-up balance", description = "Returns the balance of an account and every account under it in the hierarchy, kept up to date as each write lands")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Rollup retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid account id")
+    })
+    @GetMapping("/accounts/{accountId}/rollup")
+    public ResponseEntity<RollupResponse> getRollup(@PathVariable String accountId) {
+        List<BalanceResponse> balances = ledgerService.getRollupBalances(accountId).stream()
+                .map(BalanceResponse::from)
+                .toList();
+        return ResponseEntity.ok(new RollupResponse(accountId, ledgerService.getParent(accountId),
+                ledgerService.getChildren(accountId), balances));
+    }
+}
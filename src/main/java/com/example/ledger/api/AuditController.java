@@ -0,0 +1,73 @@
+package com.example.ledger.api;
+
+import com.example.ledger.api.dto.ChainCheckpointResponse;
+import com.example.ledger.api.dto.ChainHeadResponse;
+import com.example.ledger.api.dto.ChainVerificationResponse;
+import com.example.ledger.domain.LedgerService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/ledger/audit")
+@Tag(name = "Audit", description = "Tamper-evident hash chain over the recorded transactions")
+public class AuditController {
+
+    private final LedgerService ledgerService;
+
+    public AuditController(LedgerService ledgerService) {
+        this.ledgerService = ledgerService;
+    }
+
+    @Operation(summary = "Get the chain head", description = "Returns the latest chain hash, which covers every transaction up to its sequence")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Head retrieved successfully"),
+            @ApiResponse(responseCode = "404", description = "Hash chain is not enabled")
+    })
+    @GetMapping("/head")
+    public ResponseEntity<ChainHeadResponse> getHead() {
+        if (!ledgerService.isHashChained()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(ChainHeadResponse.from(ledgerService.getChainHead()));
+    }
+
+    @Operation(summary = "List chain checkpoints", description = "Returns the closed segments ending after the given sequence, oldest first")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Checkpoints retrieved successfully"),
+            @ApiResponse(responseCode = "404", description = "Hash chain is not enabled")
+    })
+    @GetMapping("/checkpoints")
+    public ResponseEntity<List<ChainCheckpointResponse>> getCheckpoints(@RequestParam(defaultValue = "0") long after,
+                                                                        @RequestParam(defaultValue = "100") int limit) {
+        if (!ledgerService.isHashChained()) {
+            return ResponseEntity.notFound().build();
+        }
+        List<ChainCheckpointResponse> checkpoints = ledgerService.getChainCheckpoints(after, limit).stream()
+                .map(ChainCheckpointResponse::from)
+                .toList();
+        return ResponseEntity.ok(checkpoints);
+    }
+
+    @Operation(summary = "Verify the chain", description = "Recomputes the chain from stored history, segments in parallel, and reports any that no longer match")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Verification finished; see intact"),
+            @ApiResponse(responseCode = "404", description = "Hash chain is not enabled")
+    })
+    @PostMapping("/verify")
+    public ResponseEntity<ChainVerificationResponse> verify() {
+        if (!ledgerService.isHashChained()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(ChainVerificationResponse.from(ledgerService.verifyHashChain()));
+    }
+}
@@ -1,8 +1,20 @@
 package com.example.ledger.api;
 
 import com.example.ledger.api.dto.ErrorResponse;
+import com.example.ledger.api.dto.InvalidRequestException;
+import com.example.ledger.consensus.CommitTimeoutException;
+import com.example.ledger.consensus.NotLeaderException;
+import com.example.ledger.domain.HistoryCompactedException;
+import com.example.ledger.domain.HoldNotFoundException;
+import com.example.ledger.domain.InsufficientFundsException;
+import com.example.ledger.domain.InvalidAccountException;
+import com.example.ledger.domain.OverloadedException;
+import com.example.ledger.domain.ReadOnlyReplicaException;
+import com.example.ledger.domain.VelocityLimitExceededException;
+import com.example.ledger.repo.ConcurrentUpdateException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -10,7 +22,9 @@ import org.springframework.web.HttpMediaTypeNotSupportedException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
+import java.time.Duration;
 import java.util.stream.Collectors;
 
 @RestControllerAdvice
@@ -18,6 +32,90 @@ public class GlobalExceptionHandler {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(GlobalExceptionHandler.class);
 
+    private final LogThrottle insufficientFundsLog = new LogThrottle(10, Duration.ofSeconds(1));
+    private final LogThrottle velocityLog = new LogThrottle(10, Duration.ofSeconds(1));
+    private final LogThrottle overloadLog = new LogThrottle(10, Duration.ofSeconds(1));
+
+    @ExceptionHandler(InsufficientFundsException.class)
+    public ResponseEntity<ErrorResponse> handleInsufficientFundsException(InsufficientFundsException ex) {
+        long suppressed = insufficientFundsLog.tryAcquire();
+        if (suppressed != LogThrottle.SUPPRESSED) {
+            LOGGER.warn("Rejected: {} ({} similar rejections suppressed)", ex.getMessage(), suppressed);
+        }
+
+        ErrorResponse error = ErrorResponse.of(ex.getMessage(), "INSUFFICIENT_FUNDS");
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(error);
+    }
+
+    @ExceptionHandler(ReadOnlyReplicaException.class)
+    public ResponseEntity<ErrorResponse> handleReadOnlyReplicaException(ReadOnlyReplicaException ex) {
+        ErrorResponse error = ErrorResponse.of(ex.getMessage(), "READ_ONLY_REPLICA");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(error);
+    }
+
+    @ExceptionHandler(VelocityLimitExceededException.class)
+    public ResponseEntity<ErrorResponse> handleVelocityLimitExceededException(VelocityLimitExceededException ex) {
+        long suppressed = velocityLog.tryAcquire();
+        if (suppressed != LogThrottle.SUPPRESSED) {
+            LOGGER.warn("Rejected: {} ({} similar rejections suppressed)", ex.getMessage(), suppressed);
+        }
+
+        ErrorResponse error = ErrorResponse.of(ex.getMessage(), "VELOCITY_LIMIT_EXCEEDED");
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(error);
+    }
+
+    @ExceptionHandler(OverloadedException.class)
+    public ResponseEntity<ErrorResponse> handleOverloadedException(OverloadedException ex) {
+        long suppressed = overloadLog.tryAcquire();
+        if (suppressed != LogThrottle.SUPPRESSED) {
+            LOGGER.warn("Shed: {} ({} similar rejections suppressed)", ex.getMessage(), suppressed);
+        }
+
+        ErrorResponse error = ErrorResponse.of(ex.getMessage(), "OVERLOADED");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(error);
+    }
+
+    @ExceptionHandler(HoldNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleHoldNotFoundException(HoldNotFoundException ex) {
+        ErrorResponse error = ErrorResponse.of(ex.getMessage(), "HOLD_NOT_FOUND");
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+    }
+
+    @ExceptionHandler(HistoryCompactedException.class)
+    public ResponseEntity<ErrorResponse> handleHistoryCompactedException(HistoryCompactedException ex) {
+        ErrorResponse error = ErrorResponse.of(ex.getMessage(), "HISTORY_COMPACTED");
+        return ResponseEntity.status(HttpStatus.GONE).body(error);
+    }
+
+    @ExceptionHandler(NotLeaderException.class)
+    public ResponseEntity<ErrorResponse> handleNotLeaderException(NotLeaderException ex) {
+        ErrorResponse error = ErrorResponse.of(ex.getMessage(), "NOT_LEADER");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(error);
+    }
+
+    @ExceptionHandler(CommitTimeoutException.class)
+    public ResponseEntity<ErrorResponse> handleCommitTimeoutException(CommitTimeoutException ex) {
+        LOGGER.warn("Commit timed out: {}", ex.getMessage());
+        ErrorResponse error = ErrorResponse.of(ex.getMessage(), "COMMIT_TIMEOUT");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(error);
+    }
+
+    @ExceptionHandler(ConcurrentUpdateException.class)
+    public ResponseEntity<ErrorResponse> handleConcurrentUpdateException(ConcurrentUpdateException ex) {
+        LOGGER.warn("Conflict: {}", ex.getMessage());
+        ErrorResponse error = ErrorResponse.of(ex.getMessage(), "CONCURRENT_UPDATE");
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+
+    @ExceptionHandler(InvalidAccountException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidAccountException(InvalidAccountException ex) {
+        LOGGER.warn("Bad request: {}", ex.getMessage());
+        ErrorResponse error = ErrorResponse.of(ex.getMessage(), "INVALID_ACCOUNT");
+        return ResponseEntity.badRequest().body(error);
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<ErrorResponse> handleIllegalArgumentException(IllegalArgumentException ex) {
         LOGGER.warn("Bad request: {}", ex.getMessage());
@@ -31,6 +129,13 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(status).body(error);
     }
 
+    @ExceptionHandler(InvalidRequestException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidRequestException(InvalidRequestException ex) {
+        LOGGER.warn("Validation error: {}", ex.getMessage());
+        ErrorResponse error = ErrorResponse.of(ex.getMessage(), ex.getCode());
+        return ResponseEntity.badRequest().body(error);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ErrorResponse> handleValidationException(MethodArgumentNotValidException ex) {
         String message = ex.getBindingResult().getFieldErrors().stream()
@@ -51,8 +156,17 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler(HttpMediaTypeNotSupportedException.class)
     public ResponseEntity<ErrorResponse> handleHttpMediaTypeNotSupportedException(HttpMediaTypeNotSupportedException ex) {
-        LOGGER.warn("Bad request - unsupported media type: {}", ex.getMessage());
-        ErrorResponse error = ErrorResponse.of("Invalid request body", "BAD_REQUEST");
+        LOGGER.warn("Unsupported media type: {}", ex.getMessage());
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(ex.getSupportedMediaTypes());
+        ErrorResponse error = ErrorResponse.of("Unsupported content type", "UNSUPPORTED_MEDIA_TYPE");
+        return ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE).headers(headers).body(error);
+    }
+
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<ErrorResponse> handleMethodArgumentTypeMismatchException(MethodArgumentTypeMismatchException ex) {
+        LOGGER.warn("Bad request - invalid parameter '{}': {}", ex.getName(), ex.getValue());
+        ErrorResponse error = ErrorResponse.of("Invalid value for parameter '" + ex.getName() + "'", "BAD_REQUEST");
         return ResponseEntity.badRequest().body(error);
     }
 
@@ -0,0 +1,45 @@
+package com.example.ledger.api;
+
+import com.example.ledger.api.dto.ImportResponse;
+import com.example.ledger.bulk.BulkImporter;
+import com.example.ledger.bulk.ImportFormat;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/api/v1/ledger/imports")
+@Tag(name = "Import", description = "Bulk import of historic transactions")
+public class ImportController {
+
+    private final BulkImporter bulkImporter;
+
+    public ImportController(BulkImporter bulkImporter) {
+        this.bulkImporter = bulkImporter;
+    }
+
+    @Operation(summary = "Import transactions",
+            description = "Streams a CSV or NDJSON file of deposits and withdrawals into the ledger in order, skipping invalid rows")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import finished; see rejected"),
+            @ApiResponse(responseCode = "400", description = "CSV header is missing a required column"),
+            @ApiResponse(responseCode = "415", description = "Body is neither text/csv nor application/x-ndjson")
+    })
+    @PostMapping(consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<ImportResponse> importTransactions(HttpServletRequest request) throws IOException {
+        // Read straight from the request, so the file is never held in memory as a whole
+        try (InputStream body = request.getInputStream()) {
+            ImportFormat format = ImportFormat.fromMediaType(request.getContentType());
+            return ResponseEntity.ok(ImportResponse.from(bulkImporter.importFrom(body, format)));
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.example.ledger.api;
+
+import com.example.ledger.api.dto.BalanceResponse;
+import com.example.ledger.api.dto.ErrorResponse;
+import com.example.ledger.api.dto.InvalidRequestException;
+import com.example.ledger.api.dto.TransactionCommand;
+import com.example.ledger.api.dto.TransactionRequest;
+import com.example.ledger.api.dto.TransactionResponse;
+import com.example.ledger.domain.Currencies;
+import com.example.ledger.domain.Money;
+import com.example.ledger.domain.TransactionType;
+import org.springframework.http.MediaType;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Currency;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Fixed-layout, big-endian binary representation of the ledger DTOs for high-volume clients.
+ * <p>
+ * Amounts travel as signed 64-bit minor units of their currency, currencies as
+ * {@link Currencies} codes, timestamps as epoch seconds plus nanos and ids as two raw longs, so
+ * neither side has to format or parse decimal, ISO-8601 or UUID strings. The account id is the only
+ * variable-length part of a transaction and trails the fixed 47 bytes.
+ * <pre>
+ * request      type:u8 amount:i64 currency:u16                                       (11 bytes)
+ * transaction  idHigh:i64 idLow:i64 sequence:i64 type:u8 amount:i64 currency:u16 seconds:i64
+ *              nanos:i32 accountLength:u8 account:ascii                              (48+ bytes)
+ * history      count:i32 transaction*
+ * balance      amount:i64 currency:u16                                               (10 bytes)
+ * error        codeLength:u16 code:utf8 messageLength:u16 message:utf8 seconds:i64 nanos:i32
+ * </pre>
+ */
+public final class LedgerBinaryCodec {
+
+    public static final String MEDIA_TYPE_VALUE = "application/vnd.tinyledger.v1+binary";
+    public static final MediaType MEDIA_TYPE = MediaType.valueOf(MEDIA_TYPE_VALUE);
+
+    static final int REQUEST_SIZE = 11;
+    static final int TRANSACTION_SIZE = 47;
+    static final int BALANCE_SIZE = 10;
+
+    private LedgerBinaryCodec() {
+    }
+
+    public static TransactionCommand decodeRequest(byte[] bytes) {
+        if (bytes.length != REQUEST_SIZE) {
+            throw new IllegalArgumentException("Binary transaction request must be " + REQUEST_SIZE + " bytes");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        TransactionType type = typeOf(buffer.get());
+        if (type != TransactionType.DEPOSIT && type != TransactionType.WITHDRAW) {
+            throw new IllegalArgumentException("Binary transaction request must be a deposit or withdrawal");
+        }
+        long amount = buffer.getLong();
+        if (amount <= 0) {
+            throw new InvalidRequestException(InvalidRequestException.VALIDATION_ERROR, "amount: Amount must be positive");
+        }
+        return new TransactionCommand(type, amount, getCurrency(buffer));
+    }
+
+    public static byte[] encodeRequest(TransactionRequest request) {
+        Currency currency = request.currency() == null ? Currencies.DEFAULT : Currencies.of(request.currency());
+        return ByteBuffer.allocate(REQUEST_SIZE)
+                .put(codeOf(TransactionType.valueOf(request.type())))
+                .putLong(minorUnits(request.amount(), currency))
+                .putShort((short) Currencies.codeOf(currency))
+                .array();
+    }
+
+    public static byte[] encode(Object body) {
+        if (body instanceof TransactionResponse transaction) {
+            return putTransaction(ByteBuffer.allocate(sizeOf(transaction)), transaction).array();
+        }
+        if (body instanceof BalanceResponse balance) {
+            Currency currency = Currencies.of(balance.currency());
+            return ByteBuffer.allocate(BALANCE_SIZE)
+                    .putLong(minorUnits(balance.balance(), currency))
+                    .putShort((short) Currencies.codeOf(currency))
+                    .array();
+        }
+        if (body instanceof ErrorResponse error) {
+            return encodeError(error);
+        }
+        if (body instanceof List<?> list) {
+            int size = Integer.BYTES;
+            for (Object item : list) {
+                size += sizeOf((TransactionResponse) item);
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(size).putInt(list.size());
+            for (Object item : list) {
+                putTransaction(buffer, (TransactionResponse) item);
+            }
+            return buffer.array();
+        }
+        throw new IllegalArgumentException("Unsupported binary body: " + body.getClass().getName());
+    }
+
+    public static TransactionResponse decodeTransaction(byte[] bytes) {
+        return getTransaction(ByteBuffer.wrap(bytes));
+    }
+
+    public static List<TransactionResponse> decodeTransactions(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        int count = buffer.getInt();
+        TransactionResponse[] transactions = new TransactionResponse[count];
+        for (int i = 0; i < count; i++) {
+            transactions[i] = getTransaction(buffer);
+        }
+        return List.of(transactions);
+    }
+
+    public static BalanceResponse decodeBalance(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        long minorUnits = buffer.getLong();
+        return BalanceResponse.from(Money.ofMinorUnits(minorUnits, getCurrency(buffer)));
+    }
+
+    public static ErrorResponse decodeError(byte[] bytes) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            String code = getString(buffer);
+            String message = getString(buffer);
+            return new ErrorResponse(message, code, Instant.ofEpochSecond(buffer.getLong(), buffer.getInt()));
+        } catch (BufferUnderflowException ex) {
+            throw new IllegalArgumentException("Truncated binary error response", ex);
+        }
+    }
+
+    static boolean canEncode(Class<?> type) {
+        return TransactionResponse.class.isAssignableFrom(type)
+                || BalanceResponse.class.isAssignableFrom(type)
+                || ErrorResponse.class.isAssignableFrom(type);
+    }
+
+    static int sizeOf(TransactionResponse transaction) {
+        return TRANSACTION_SIZE + 1 + transaction.accountId().length();
+    }
+
+    private static byte[] encodeError(ErrorResponse error) {
+        byte[] code = utf8(error.code());
+        byte[] message = utf8(error.message());
+        return ByteBuffer.allocate(2 + code.length + 2 + message.length + Long.BYTES + Integer.BYTES)
+                .putShort((short) code.length).put(code)
+                .putShort((short) message.length).put(message)
+                .putLong(error.timestamp().getEpochSecond())
+                .putInt(error.timestamp().getNano())
+                .array();
+    }
+
+    private static ByteBuffer putTransaction(ByteBuffer buffer, TransactionResponse transaction) {
+        Currency currency = Currencies.of(transaction.currency());
+        return buffer.putLong(transaction.id().getMostSignificantBits())
+                .putLong(transaction.id().getLeastSignificantBits())
+                .putLong(transaction.sequence())
+                .put(codeOf(TransactionType.valueOf(transaction.type())))
+                .putLong(minorUnits(transaction.amount(), currency))
+                .putShort((short) Currencies.codeOf(currency))
+                .putLong(transaction.createdAt().getEpochSecond())
+                .putInt(transaction.createdAt().getNano())
+                .put((byte) transaction.accountId().length())
+                .put(transaction.accountId().getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static TransactionResponse getTransaction(ByteBuffer buffer) {
+        UUID id = new UUID(buffer.getLong(), buffer.getLong());
+        long sequence = buffer.getLong();
+        TransactionType type = typeOf(buffer.get());
+        long minorUnits = buffer.getLong();
+        Currency currency = getCurrency(buffer);
+        Instant createdAt = Instant.ofEpochSecond(buffer.getLong(), buffer.getInt());
+        byte[] accountId = new byte[Byte.toUnsignedInt(buffer.get())];
+        buffer.get(accountId);
+        return new TransactionResponse(id, sequence, new String(accountId, StandardCharsets.US_ASCII),
+                type.name(), BigDecimal.valueOf(minorUnits, currency.getDefaultFractionDigits()), createdAt,
+                currency.getCurrencyCode());
+    }
+
+    private static byte codeOf(TransactionType type) {
+        return switch (type) {
+            case DEPOSIT -> 0;
+            case WITHDRAW -> 1;
+            case TRANSFER_IN -> 2;
+            case TRANSFER_OUT -> 3;
+            case BALANCE_FORWARD -> 4;
+        };
+    }
+
+    private static TransactionType typeOf(byte code) {
+        return switch (code) {
+            case 0 -> TransactionType.DEPOSIT;
+            case 1 -> TransactionType.WITHDRAW;
+            case 2 -> TransactionType.TRANSFER_IN;
+            case 3 -> TransactionType.TRANSFER_OUT;
+            case 4 -> TransactionType.BALANCE_FORWARD;
+            default -> throw new IllegalArgumentException("Invalid transaction type code: " + code);
+        };
+    }
+
+    private static long minorUnits(BigDecimal amount, Currency currency) {
+        return amount.setScale(currency.getDefaultFractionDigits(), RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+    }
+
+    private static Currency getCurrency(ByteBuffer buffer) {
+        return Currencies.fromCode(Short.toUnsignedInt(buffer.getShort()));
+    }
+
+    private static byte[] utf8(String value) {
+        byte[] bytes = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("String too long for binary encoding");
+        }
+        return bytes;
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[Short.toUnsignedInt(buffer.getShort())];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
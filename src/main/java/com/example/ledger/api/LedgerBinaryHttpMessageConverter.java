@@ -0,0 +1,51 @@
+package com.example.ledger.api;
+
+import com.example.ledger.api.dto.TransactionCommand;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+
+/**
+ * Reads {@link TransactionCommand} and writes the response DTOs in the {@link LedgerBinaryCodec}
+ * format when a client negotiates {@value LedgerBinaryCodec#MEDIA_TYPE_VALUE}.
+ */
+public class LedgerBinaryHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+    public LedgerBinaryHttpMessageConverter() {
+        super(LedgerBinaryCodec.MEDIA_TYPE);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return TransactionCommand.class.equals(clazz) || LedgerBinaryCodec.canEncode(clazz);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return TransactionCommand.class.equals(clazz) && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return LedgerBinaryCodec.canEncode(clazz) && canWrite(mediaType);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        byte[] bytes = inputMessage.getBody().readNBytes(LedgerBinaryCodec.REQUEST_SIZE + 1);
+        try {
+            return LedgerBinaryCodec.decodeRequest(bytes);
+        } catch (IllegalArgumentException ex) {
+            throw new HttpMessageNotReadableException(ex.getMessage(), ex, inputMessage);
+        }
+    }
+
+    @Override
+    protected void writeInternal(Object body, HttpOutputMessage outputMessage) throws IOException {
+        outputMessage.getBody().write(LedgerBinaryCodec.encode(body));
+    }
+}
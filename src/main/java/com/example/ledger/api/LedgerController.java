@@ -1,26 +1,33 @@
 package com.example.ledger.api;
 
 import com.example.ledger.api.dto.BalanceResponse;
-import com.example.ledger.api.dto.TransactionRequest;
+import com.example.ledger.api.dto.TransactionCommand;
 import com.example.ledger.api.dto.TransactionResponse;
 import com.example.ledger.domain.LedgerService;
 import com.example.ledger.domain.Money;
 import com.example.ledger.domain.Transaction;
-import com.example.ledger.domain.TransactionType;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
-import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 
 @RestController
@@ -29,9 +36,15 @@ import java.util.List;
 public class LedgerController {
     
     private final LedgerService ledgerService;
+    private final VersionedResponseCache balanceJson;
+    private final VersionedResponseCache historyJson;
+    private final VersionedResponseCache balanceBinary = VersionedResponseCache.binary();
+    private final VersionedResponseCache historyBinary = VersionedResponseCache.binary();
     
-    public LedgerController(LedgerService ledgerService) {
+    public LedgerController(LedgerService ledgerService, ObjectMapper objectMapper) {
         this.ledgerService = ledgerService;
+        this.balanceJson = VersionedResponseCache.json(objectMapper);
+        this.historyJson = VersionedResponseCache.json(objectMapper);
     }
     
     @Operation(summary = "Record a new transaction", description = "Creates a new deposit or withdrawal transaction")
@@ -40,38 +53,73 @@ public class LedgerController {
             @ApiResponse(responseCode = "400", description = "Invalid request or insufficient funds")
     })
     @PostMapping("/transactions")
-    public ResponseEntity<TransactionResponse> recordTransaction(@Valid @RequestBody TransactionRequest request) {
-        Money amount = Money.of(request.amount());
-        TransactionType type = TransactionType.valueOf(request.type().toUpperCase());
+    public CompletableFuture<ResponseEntity<TransactionResponse>> recordTransaction(
+            @RequestBody TransactionCommand request) {
+        Money amount = Money.ofMinorUnits(request.amountMinorUnits(), request.currency());
         
-        Transaction transaction = switch (type) {
-            case DEPOSIT -> ledgerService.deposit(amount);
-            case WITHDRAW -> ledgerService.withdraw(amount);
+        CompletableFuture<Transaction> transaction = switch (request.type()) {
+            case DEPOSIT -> ledgerService.depositAsync(amount);
+            case WITHDRAW -> ledgerService.withdrawAsync(amount);
+            case TRANSFER_IN, TRANSFER_OUT, BALANCE_FORWARD -> throw new IllegalArgumentException("Invalid transaction type: " + request.type());
         };
         
-        return ResponseEntity.status(HttpStatus.CREATED).body(TransactionResponse.from(transaction));
+        return transaction.thenApply(recorded -> ResponseEntity.status(HttpStatus.CREATED).body(TransactionResponse.from(recorded)));
     }
     
     @Operation(summary = "Get current balance", description = "Returns the current account balance")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Balance retrieved successfully")
+            @ApiResponse(responseCode = "200", description = "Balance retrieved successfully",
+                    content = @Content(schema = @Schema(implementation = BalanceResponse.class))),
+            @ApiResponse(responseCode = "304", description = "Balance unchanged since the given ETag")
     })
-    @GetMapping("/balance")
-    public ResponseEntity<BalanceResponse> getBalance() {
-        Money balance = ledgerService.getBalance();
-        return ResponseEntity.ok(BalanceResponse.from(balance));
+    @GetMapping(value = "/balance", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getBalance(WebRequest request) {
+        return cached(request, balanceJson, this::balance);
+    }
+    
+    @Operation(hidden = true)
+    @GetMapping(value = "/balance", produces = LedgerBinaryCodec.MEDIA_TYPE_VALUE)
+    public ResponseEntity<byte[]> getBalanceBinary(WebRequest request) {
+        return cached(request, balanceBinary, this::balance);
     }
     
     @Operation(summary = "Get transaction history", description = "Returns all transactions ordered by timestamp")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Transaction history retrieved successfully")
+            @ApiResponse(responseCode = "200", description = "Transaction history retrieved successfully",
+                    content = @Content(array = @ArraySchema(schema = @Schema(implementation = TransactionResponse.class)))),
+            @ApiResponse(responseCode = "304", description = "History unchanged since the given ETag")
     })
-    @GetMapping("/transactions")
-    public ResponseEntity<List<TransactionResponse>> getTransactions() {
-        List<Transaction> transaction = ledgerService.getAllTransactions();
-        List<TransactionResponse> response = transaction.stream()
+    @GetMapping(value = "/transactions", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getTransactions(WebRequest request) {
+        return cached(request, historyJson, this::history);
+    }
+    
+    @Operation(hidden = true)
+    @GetMapping(value = "/transactions", produces = LedgerBinaryCodec.MEDIA_TYPE_VALUE)
+    public ResponseEntity<byte[]> getTransactionsBinary(WebRequest request) {
+        return cached(request, historyBinary, this::history);
+    }
+
+    private BalanceResponse balance() {
+        return BalanceResponse.from(ledgerService.getBalance());
+    }
+
+    private List<TransactionResponse> history() {
+        return ledgerService.getAllTransactions().stream()
                 .map(TransactionResponse::from)
                 .toList();
-        return ResponseEntity.ok(response);
+    }
+
+    private ResponseEntity<byte[]> cached(WebRequest request, VersionedResponseCache cache, Supplier<?> body) {
+        long version = ledgerService.getVersion();
+        String etag = cache.etag(version);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .contentType(cache.mediaType())
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(cache.get(version, body));
     }
 }
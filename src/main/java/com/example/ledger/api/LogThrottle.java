@@ -0,0 +1,54 @@
+package com.example.ledger.api;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Lets through at most a fixed number of log events per interval and counts the rest, so a burst of
+ * identical rejections produces a handful of log lines instead of one per request.
+ */
+final class LogThrottle {
+
+    static final long SUPPRESSED = -1;
+
+    private final int permitsPerInterval;
+    private final long intervalNanos;
+    private final LongSupplier nanoTime;
+
+    private final AtomicLong windowStart;
+    private final AtomicInteger used = new AtomicInteger();
+    private final AtomicLong suppressed = new AtomicLong();
+
+    LogThrottle(int permitsPerInterval, Duration interval) {
+        this(permitsPerInterval, interval, System::nanoTime);
+    }
+
+    LogThrottle(int permitsPerInterval, Duration interval, LongSupplier nanoTime) {
+        if (permitsPerInterval <= 0) {
+            throw new IllegalArgumentException("Permits per interval must be positive");
+        }
+        this.permitsPerInterval = permitsPerInterval;
+        this.intervalNanos = interval.toNanos();
+        this.nanoTime = nanoTime;
+        this.windowStart = new AtomicLong(nanoTime.getAsLong());
+    }
+
+    /**
+     * Returns {@link #SUPPRESSED} when the event should not be logged, otherwise the number of events
+     * suppressed since the last one that was let through.
+     */
+    long tryAcquire() {
+        long now = nanoTime.getAsLong();
+        long start = windowStart.get();
+        if (now - start >= intervalNanos && windowStart.compareAndSet(start, now)) {
+            used.set(0);
+        }
+        if (used.incrementAndGet() > permitsPerInterval) {
+            suppressed.incrementAndGet();
+            return SUPPRESSED;
+        }
+        return suppressed.getAndSet(0);
+    }
+}
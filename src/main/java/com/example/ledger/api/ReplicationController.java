@@ -0,0 +1,57 @@
+package com.example.ledger.api;
+
+import com.example.ledger.api.dto.ReplicationStatusResponse;
+import com.example.ledger.domain.LedgerService;
+import com.example.ledger.replication.ReplicationClient;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/ledger/replication")
+@Tag(name = "Replication", description = "Replication status and follower promotion")
+public class ReplicationController {
+
+    private final LedgerService ledgerService;
+    private final ObjectProvider<ReplicationClient> replicationClient;
+
+    public ReplicationController(LedgerService ledgerService, ObjectProvider<ReplicationClient> replicationClient) {
+        this.ledgerService = ledgerService;
+        this.replicationClient = replicationClient;
+    }
+
+    @Operation(summary = "Get replication status", description = "Returns whether this instance is a primary or a read-only replica")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Status retrieved successfully")
+    })
+    @GetMapping
+    public ResponseEntity<ReplicationStatusResponse> getStatus() {
+        return ResponseEntity.ok(status());
+    }
+
+    @Operation(summary = "Promote this replica", description = "Stops following the leader and starts accepting writes from the last replicated sequence")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Instance is now a primary")
+    })
+    @PostMapping("/promote")
+    public ResponseEntity<ReplicationStatusResponse> promote() throws InterruptedException {
+        ReplicationClient client = replicationClient.getIfAvailable();
+        if (client != null) {
+            client.promote();
+        } else {
+            ledgerService.setReplica(false);
+        }
+        return ResponseEntity.ok(status());
+    }
+
+    private ReplicationStatusResponse status() {
+        return new ReplicationStatusResponse(ledgerService.isReplica() ? "REPLICA" : "PRIMARY", ledgerService.getVersion());
+    }
+}
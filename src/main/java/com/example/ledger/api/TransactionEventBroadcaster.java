@@ -0,0 +1,232 @@
+package com.example.ledger.api;
+
+import com.example.ledger.api.dto.TransactionResponse;
+import com.example.ledger.domain.LedgerService;
+import com.example.ledger.domain.Transaction;
+import com.example.ledger.domain.TransactionListener;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Fans recorded transactions out to Server-Sent Events subscribers and long-poll waiters.
+ * <p>
+ * The ledger delivers transactions one at a time and in sequence order, and holds up the next
+ * delivery until this one returns, so nothing here waits on a client. Each subscriber gets a buffer
+ * of {@code ledger.events.buffer-size} transactions, drained by a sender thread of its own while it
+ * has anything to send; a subscriber whose buffer fills up is disconnected and can resume from its
+ * last event id. Long-poll waiters are answered straight away, since completing a deferred result
+ * only hands it back to the servlet container.
+ */
+@Component
+public class TransactionEventBroadcaster implements TransactionListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TransactionEventBroadcaster.class);
+    private static final String EVENT_NAME = "transaction";
+
+    private final LedgerService ledgerService;
+    private final Duration streamTimeout;
+    private final Duration longPollTimeout;
+    private final int bufferSize;
+    private final ExecutorService senders = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "ledger-events");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final Set<Waiter> waiters = ConcurrentHashMap.newKeySet();
+
+    public TransactionEventBroadcaster(LedgerService ledgerService,
+                                       @Value("${ledger.events.stream-timeout:PT30M}") Duration streamTimeout,
+                                       @Value("${ledger.events.long-poll-timeout:PT30S}") Duration longPollTimeout,
+                                       @Value("${ledger.events.buffer-size:1024}") int bufferSize) {
+        this.ledgerService = Objects.requireNonNull(ledgerService, "LedgerService can't be null");
+        this.streamTimeout = Objects.requireNonNull(streamTimeout, "Stream timeout can't be null");
+        this.longPollTimeout = Objects.requireNonNull(longPollTimeout, "Long-poll timeout can't be null");
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("Buffer size must be positive");
+        }
+        this.bufferSize = bufferSize;
+    }
+
+    @PostConstruct
+    void start() {
+        ledgerService.addListener(this);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        ledgerService.removeListener(this);
+        for (Subscriber subscriber : subscribers) {
+            disconnect(subscriber);
+        }
+        for (Waiter waiter : waiters) {
+            waiter.result().setResult(List.of());
+        }
+        waiters.clear();
+        senders.shutdown();
+        senders.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void onTransaction(Transaction transaction) {
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.buffer.offer(transaction)) {
+                LOGGER.debug("Dropping transaction event subscriber that fell {} events behind", bufferSize);
+                disconnect(subscriber);
+            } else if (subscriber.scheduled.compareAndSet(false, true)) {
+                senders.execute(() -> drain(subscriber));
+            }
+        }
+
+        for (Waiter waiter : waiters) {
+            if (transaction.getSequence() > waiter.since() && waiters.remove(waiter)) {
+                waiter.result().setResult(List.of(TransactionResponse.from(transaction)));
+            }
+        }
+    }
+
+    /**
+     * Opens a stream that first replays every transaction after {@code since} and then pushes new
+     * ones as they are recorded.
+     */
+    public SseEmitter subscribe(long since) {
+        requireValidSequence(since);
+        SseEmitter emitter = new SseEmitter(streamTimeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter, since, bufferSize);
+
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(emitter::complete);
+        // Buffers new transactions from now on; the sender replays the backlog before draining them
+        subscriber.scheduled.set(true);
+        subscribers.add(subscriber);
+        senders.execute(() -> {
+            for (Transaction transaction : ledgerService.getTransactionsSince(since)) {
+                if (!send(subscriber, transaction)) {
+                    return;
+                }
+            }
+            drain(subscriber);
+        });
+        return emitter;
+    }
+
+    /**
+     * Completes with the transactions after {@code since} as soon as there is at least one, or with an
+     * empty list once the long-poll timeout elapses.
+     */
+    public DeferredResult<List<TransactionResponse>> poll(long since) {
+        requireValidSequence(since);
+        DeferredResult<List<TransactionResponse>> result = new DeferredResult<>(longPollTimeout.toMillis(), List.of());
+        Waiter waiter = new Waiter(since, result);
+
+        result.onCompletion(() -> waiters.remove(waiter));
+        // Registered before reading the backlog, so a transaction recorded in between isn't missed
+        waiters.add(waiter);
+        List<Transaction> backlog = ledgerService.getTransactionsSince(since);
+        if (!backlog.isEmpty() && waiters.remove(waiter)) {
+            result.setResult(toResponses(backlog));
+        }
+        return result;
+    }
+
+    // Runs on one sender thread at a time per subscriber, until its buffer is empty
+    private void drain(Subscriber subscriber) {
+        do {
+            for (Transaction transaction = subscriber.buffer.poll(); transaction != null; transaction = subscriber.buffer.poll()) {
+                if (!send(subscriber, transaction)) {
+                    return;
+                }
+            }
+            subscriber.scheduled.set(false);
+        } while (!subscriber.buffer.isEmpty() && subscriber.scheduled.compareAndSet(false, true));
+    }
+
+    private boolean send(Subscriber subscriber, Transaction transaction) {
+        if (subscriber.closed) {
+            return false;
+        }
+        if (transaction.getSequence() <= subscriber.lastSequence) {
+            return true;
+        }
+        try {
+            subscriber.emitter().send(SseEmitter.event()
+                    .id(Long.toString(transaction.getSequence()))
+                    .name(EVENT_NAME)
+                    .data(TransactionResponse.from(transaction), MediaType.APPLICATION_JSON));
+            subscriber.lastSequence = transaction.getSequence();
+            return true;
+        } catch (IOException | IllegalStateException ex) {
+            LOGGER.debug("Dropping transaction event subscriber: {}", ex.getMessage());
+            subscribers.remove(subscriber);
+            subscriber.closed = true;
+            subscriber.emitter().completeWithError(ex);
+            return false;
+        }
+    }
+
+    // Completing takes the emitter's lock, which a send to a stalled client may hold, so it's done on a sender
+    private void disconnect(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            subscriber.closed = true;
+            senders.execute(subscriber.emitter()::complete);
+        }
+    }
+
+    private static List<TransactionResponse> toResponses(List<Transaction> transactions) {
+        return transactions.stream()
+                .map(TransactionResponse::from)
+                .toList();
+    }
+
+    private void requireValidSequence(long since) {
+        if (since < 0) {
+            throw new IllegalArgumentException("Sequence can't be negative");
+        }
+        ledgerService.requireHistoryAfter(since);
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final BlockingQueue<Transaction> buffer;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile boolean closed;
+
+        // Written by the subscriber's current sender only
+        private long lastSequence;
+
+        private Subscriber(SseEmitter emitter, long lastSequence, int bufferSize) {
+            this.emitter = emitter;
+            this.lastSequence = lastSequence;
+            this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        private SseEmitter emitter() {
+            return emitter;
+        }
+    }
+
+    private record Waiter(long since, DeferredResult<List<TransactionResponse>> result) {
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.ledger.api;
+
+import com.example.ledger.api.dto.TransactionResponse;
+import com.example.ledger.domain.LedgerService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/ledger/transactions/events")
+@Tag(name = "Ledger", description = "Ledger API for managing financial transactions")
+public class TransactionEventsController {
+
+    private final LedgerService ledgerService;
+    private final TransactionEventBroadcaster broadcaster;
+
+    public TransactionEventsController(LedgerService ledgerService, TransactionEventBroadcaster broadcaster) {
+        this.ledgerService = ledgerService;
+        this.broadcaster = broadcaster;
+    }
+
+    @Operation(summary = "Stream new transactions",
+            description = "Server-Sent Events feed of recorded transactions. Resumes after 'since' or Last-Event-ID when given, otherwise starts with the next transaction")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Event stream opened")
+    })
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamTransactions(@RequestParam(required = false) Long since,
+                                         @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        long from = since != null ? since
+                : lastEventId != null ? lastEventId
+                : ledgerService.getVersion();
+        return broadcaster.subscribe(from);
+    }
+
+    @Operation(summary = "Long-poll for new transactions",
+            description = "Returns the transactions recorded after 'since', oldest first, waiting for the next one if there are none yet")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "New transactions, or an empty list if none arrived before the timeout"),
+            @ApiResponse(responseCode = "400", description = "Invalid sequence")
+    })
+    @GetMapping(params = "since", produces = MediaType.APPLICATION_JSON_VALUE)
+    public DeferredResult<List<TransactionResponse>> pollTransactions(@RequestParam long since) {
+        return broadcaster.poll(since);
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.ledger.api;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Holds the serialized form of a single response body together with the ledger version it was
+ * built from. The body is rebuilt only when the requested version differs from the cached one.
+ */
+final class VersionedResponseCache {
+
+    private record Entry(long version, byte[] body) {
+    }
+
+    private final MediaType mediaType;
+    private final String etagSuffix;
+    private final Function<Object, byte[]> serializer;
+    private final AtomicReference<Entry> current = new AtomicReference<>();
+
+    VersionedResponseCache(MediaType mediaType, String etagSuffix, Function<Object, byte[]> serializer) {
+        this.mediaType = Objects.requireNonNull(mediaType, "Media type can't be null");
+        this.etagSuffix = Objects.requireNonNull(etagSuffix, "ETag suffix can't be null");
+        this.serializer = Objects.requireNonNull(serializer, "Serializer can't be null");
+    }
+
+    static VersionedResponseCache json(ObjectMapper objectMapper) {
+        Objects.requireNonNull(objectMapper, "ObjectMapper can't be null");
+        return new VersionedResponseCache(MediaType.APPLICATION_JSON, "", body -> {
+            try {
+                return objectMapper.writeValueAsBytes(body);
+            } catch (JsonProcessingException ex) {
+                throw new IllegalStateException("Failed to serialize response body", ex);
+            }
+        });
+    }
+
+    static VersionedResponseCache binary() {
+        return new VersionedResponseCache(LedgerBinaryCodec.MEDIA_TYPE, "-bin", LedgerBinaryCodec::encode);
+    }
+
+    MediaType mediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Strong validator for this representation at the given version. Each representation gets its own
+     * tag so a cached JSON body is never revalidated against a binary one.
+     */
+    String etag(long version) {
+        return "\"" + version + etagSuffix + "\"";
+    }
+
+    byte[] get(long version, Supplier<?> body) {
+        Entry entry = current.get();
+        if (entry != null && entry.version() == version) {
+            return entry.body();
+        }
+
+        Entry fresh = new Entry(version, serializer.apply(body.get()));
+        current.accumulateAndGet(fresh, (old, candidate) ->
+                old == null || candidate.version() >= old.version() ? candidate : old);
+        return fresh.body();
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.ledger.api.dto;
+
+import com.example.ledger.domain.AccountContention;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.Duration;
+
+@Schema(description = "Time writers spent waiting for an account's lock since startup")
+public record AccountContentionResponse(
+        
+        @Schema(description = "Account id", example = "merchant-1")
+        String accountId,
+        
+        @Schema(description = "Times a writer took the account's lock", example = "120000")
+        long lockAcquisitions,
+        
+        @Schema(description = "Total time spent waiting for the lock, in microseconds", example = "5400000")
+        long lockWaitMicros,
+        
+        @Schema(description = "Mean wait per acquisition, in microseconds", example = "45")
+        long meanLockWaitMicros,
+        
+        @Schema(description = "Sub-balances the account's balance is split into; 1 when not split", example = "1")
+        int subBalances,
+        
+        @Schema(description = "Whether the mean wait reaches the configured threshold, so splitting the account should help")
+        boolean hot
+) {
+    
+    public static AccountContentionResponse from(AccountContention contention, Duration hotMeanWait) {
+        return new AccountContentionResponse(
+                contention.accountId(),
+                contention.lockAcquisitions(),
+                contention.lockWaitNanos() / 1_000,
+                contention.meanLockWaitNanos() / 1_000,
+                contention.subBalances(),
+                contention.meanLockWaitNanos() >= hotMeanWait.toNanos()
+        );
+    }
+}
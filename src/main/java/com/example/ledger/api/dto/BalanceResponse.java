@@ -1,5 +1,6 @@
 package com.example.ledger.api.dto;
 
+import com.example.ledger.domain.Currencies;
 import com.example.ledger.domain.Money;
 import io.swagger.v3.oas.annotations.media.Schema;
 
@@ -8,11 +9,18 @@ import java.math.BigDecimal;
 @Schema(description = "Current account balance")
 public record BalanceResponse(
         
-        @Schema(description = "Current balance in EUR")
-        BigDecimal balance
+        @Schema(description = "Current balance in the currency's major units", example = "100.50")
+        BigDecimal balance,
+        
+        @Schema(description = "ISO 4217 code of the balance's currency", example = "EUR")
+        String currency
 ) {
     
+    public BalanceResponse(BigDecimal balance) {
+        this(balance, Currencies.DEFAULT.getCurrencyCode());
+    }
+    
     public static BalanceResponse from(Money money) {
-        return new BalanceResponse(money.getAmount());
+        return new BalanceResponse(money.getAmount(), money.getCurrency().getCurrencyCode());
     }
 }
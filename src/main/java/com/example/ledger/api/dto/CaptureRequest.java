@@ -0,0 +1,22 @@
+package com.example.ledger.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.DecimalMin;
+
+import java.math.BigDecimal;
+
+@Schema(description = "Request to capture a hold, in full or in part")
+public record CaptureRequest(
+        
+        @Schema(description = "Amount to capture, at most the held amount; the whole hold when omitted", example = "20.00")
+        @DecimalMin(value = "0.0", inclusive = false, message = "Amount must be positive")
+        BigDecimal amount,
+        
+        @Schema(description = "ISO 4217 code of the amount's currency, which must be the hold's; EUR when omitted", example = "EUR")
+        String currency
+) {
+    
+    public CaptureRequest(BigDecimal amount) {
+        this(amount, null);
+    }
+}
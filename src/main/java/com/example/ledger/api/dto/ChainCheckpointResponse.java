@@ -0,0 +1,30 @@
+package com.example.ledger.api.dto;
+
+import com.example.ledger.domain.ChainCheckpoint;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Closed segment of the hash chain")
+public record ChainCheckpointResponse(
+        
+        @Schema(description = "First sequence the segment covers", example = "1")
+        long fromSequence,
+        
+        @Schema(description = "Last sequence the segment covers", example = "1024")
+        long toSequence,
+        
+        @Schema(description = "Hex SHA-256 chain hash at the end of the segment")
+        String chainHash,
+        
+        @Schema(description = "Hex SHA-256 Merkle root of the segment's transactions")
+        String merkleRoot
+) {
+    
+    public static ChainCheckpointResponse from(ChainCheckpoint checkpoint) {
+        return new ChainCheckpointResponse(
+                checkpoint.fromSequence(),
+                checkpoint.toSequence(),
+                checkpoint.chainHash(),
+                checkpoint.merkleRoot()
+        );
+    }
+}
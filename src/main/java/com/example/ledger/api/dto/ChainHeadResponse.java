@@ -0,0 +1,22 @@
+package com.example.ledger.api.dto;
+
+import com.example.ledger.domain.ChainHead;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Latest link of the tamper-evident hash chain")
+public record ChainHeadResponse(
+        
+        @Schema(description = "Sequence of the last chained transaction", example = "42")
+        long sequence,
+        
+        @Schema(description = "Number of chained transactions", example = "42")
+        long length,
+        
+        @Schema(description = "Hex SHA-256 chain hash covering every transaction up to the sequence")
+        String hash
+) {
+    
+    public static ChainHeadResponse from(ChainHead head) {
+        return new ChainHeadResponse(head.sequence(), head.length(), head.hash());
+    }
+}
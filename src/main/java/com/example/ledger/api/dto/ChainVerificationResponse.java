@@ -0,0 +1,42 @@
+package com.example.ledger.api.dto;
+
+import com.example.ledger.domain.ChainVerification;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Outcome of recomputing the hash chain from stored history")
+public record ChainVerificationResponse(
+        
+        @Schema(description = "Whether every verifiable segment matched its checkpoint")
+        boolean intact,
+        
+        @Schema(description = "Head the history was verified up to")
+        ChainHeadResponse head,
+        
+        @Schema(description = "Segments up to the head", example = "3")
+        int segments,
+        
+        @Schema(description = "Segments skipped because retention compacted their transactions", example = "0")
+        int skippedSegments,
+        
+        @Schema(description = "Segments that no longer match their checkpoint", example = "0")
+        int brokenSegments,
+        
+        @Schema(description = "First sequence of the earliest broken segment, 0 when none is", example = "0")
+        long firstBrokenSequence,
+        
+        @Schema(description = "Transactions recomputed and found intact", example = "42")
+        long verifiedTransactions
+) {
+    
+    public static ChainVerificationResponse from(ChainVerification verification) {
+        return new ChainVerificationResponse(
+                verification.intact(),
+                ChainHeadResponse.from(verification.head()),
+                verification.segments(),
+                verification.skippedSegments(),
+                verification.brokenSegments(),
+                verification.firstBrokenSequence(),
+                verification.verifiedTransactions()
+        );
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.ledger.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+@Schema(description = "Request to reserve funds on an account until they are captured or released")
+public record HoldRequest(
+        
+        @Schema(description = "Amount to hold, with at most as many decimals as the currency has", example = "25.00")
+        @NotNull(message = "Amount is required")
+        @DecimalMin(value = "0.0", inclusive = false, message = "Amount must be positive")
+        BigDecimal amount,
+        
+        @Schema(description = "How long the hold stays open if it is neither captured nor released, as an ISO-8601 duration",
+                example = "PT15M")
+        @NotNull(message = "Expiry is required")
+        Duration expiresIn,
+        
+        @Schema(description = "ISO 4217 code of the amount's currency; EUR when omitted", example = "EUR")
+        String currency
+) {
+    
+    public HoldRequest(BigDecimal amount, Duration expiresIn) {
+        this(amount, expiresIn, null);
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.ledger.api.dto;
+
+import com.example.ledger.domain.Hold;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+@Schema(description = "Funds held on an account")
+public record HoldResponse(
+        
+        @Schema(description = "Unique hold identifier")
+        UUID id,
+        
+        @Schema(description = "Account the funds are held on", example = "default")
+        String accountId,
+        
+        @Schema(description = "Held amount in the currency's major units", example = "25.00")
+        BigDecimal amount,
+        
+        @Schema(description = "ISO 4217 code of the held amount's currency", example = "EUR")
+        String currency,
+        
+        @Schema(description = "Timestamp when the hold was placed", example = "2023-10-01T10:15:30.123Z")
+        Instant createdAt,
+        
+        @Schema(description = "Timestamp after which an open hold is released", example = "2023-10-01T10:30:30.123Z")
+        Instant expiresAt
+) {
+    
+    public static HoldResponse from(Hold hold) {
+        return new HoldResponse(
+                hold.getId(),
+                hold.getAccountId(),
+                hold.getAmount().getAmount(),
+                hold.getAmount().getCurrency().getCurrencyCode(),
+                hold.getCreatedAt(),
+                hold.getExpiresAt()
+        );
+    }
+}
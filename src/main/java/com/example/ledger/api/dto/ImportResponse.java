@@ -0,0 +1,51 @@
+package com.example.ledger.api.dto;
+
+import com.example.ledger.bulk.ImportReport;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Outcome of a bulk import")
+public record ImportResponse(
+        
+        @Schema(description = "Data rows read", example = "1000000")
+        long rows,
+        
+        @Schema(description = "Rows recorded as transactions", example = "999998")
+        long imported,
+        
+        @Schema(description = "Rows skipped", example = "2")
+        long rejected,
+        
+        @Schema(description = "The first rejected rows with their reasons")
+        List<RejectedRow> rejections,
+        
+        @Schema(description = "Time the import took, in milliseconds", example = "4200")
+        long elapsedMillis,
+        
+        @Schema(description = "Rows read per second", example = "238095")
+        long rowsPerSecond
+) {
+    
+    public static ImportResponse from(ImportReport report) {
+        return new ImportResponse(
+                report.rows(),
+                report.imported(),
+                report.rejected(),
+                report.rejections().stream().map(row -> new RejectedRow(row.line(), row.reason())).toList(),
+                report.elapsed().toMillis(),
+                report.rowsPerSecond()
+        );
+    }
+    
+    @Schema(description = "A row that wasn't imported")
+    public record RejectedRow(
+            
+            @Schema(description = "Line number in the file, starting at 1", example = "17")
+            long line,
+            
+            @Schema(description = "Why the row was rejected", example = "Insufficient funds")
+            String reason
+    ) {
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.ledger.api.dto;
+
+import java.util.Objects;
+
+/**
+ * Raised while parsing a request body when the payload is well-formed but its values are not
+ * acceptable. Carries the error code reported to the client.
+ */
+public class InvalidRequestException extends RuntimeException {
+
+    public static final String VALIDATION_ERROR = "VALIDATION_ERROR";
+    public static final String INVALID_TRANSACTION_TYPE = "INVALID_TRANSACTION_TYPE";
+
+    private final String code;
+
+    public InvalidRequestException(String code, String message) {
+        super(message);
+        this.code = Objects.requireNonNull(code, "Code can't be null");
+    }
+
+    public String getCode() {
+        return code;
+    }
+}
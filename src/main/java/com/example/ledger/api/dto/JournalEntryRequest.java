@@ -0,0 +1,43 @@
+package com.example.ledger.api.dto;
+
+import com.example.ledger.domain.Posting;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Schema(description = "Request to record a balanced journal entry")
+public record JournalEntryRequest(
+        
+        @Schema(description = "Debits and credits of the entry; they must add up to the same amount in every currency")
+        @NotNull(message = "Postings are required")
+        @Size(min = 2, message = "A journal entry needs at least two postings")
+        List<@Valid PostingRequest> postings
+) {
+    
+    @Schema(description = "One debit or credit of a journal entry")
+    public record PostingRequest(
+            
+            @Schema(description = "Account posted to", example = "cash")
+            @NotBlank(message = "Account id is required")
+            String accountId,
+            
+            @Schema(description = "Whether the account is debited or credited", example = "DEBIT")
+            @NotNull(message = "Side is required")
+            Posting.Side side,
+            
+            @Schema(description = "Amount, with at most as many decimals as the currency has", example = "100.00")
+            @NotNull(message = "Amount is required")
+            @DecimalMin(value = "0.0", inclusive = false, message = "Amount must be positive")
+            BigDecimal amount,
+            
+            @Schema(description = "ISO 4217 code of the amount's currency; EUR when omitted", example = "EUR")
+            String currency
+    ) {
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.ledger.api.dto;
+
+import com.example.ledger.domain.PostedEntry;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "The legs a journal entry was recorded as, one per posting and in the same order")
+public record JournalEntryResponse(
+        
+        @Schema(description = "TRANSFER_IN for a leg raising its account's balance, TRANSFER_OUT for one lowering it")
+        List<TransactionResponse> legs
+) {
+    
+    public static JournalEntryResponse from(PostedEntry entry) {
+        return new JournalEntryResponse(entry.legs().stream().map(TransactionResponse::from).toList());
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.ledger.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Replication role of this instance")
+public record ReplicationStatusResponse(
+        
+        @Schema(description = "Whether this instance accepts writes or follows a leader", allowableValues = {"PRIMARY", "REPLICA"})
+        String role,
+        
+        @Schema(description = "Last recorded or replicated sequence", example = "42")
+        long sequence
+) {
+}
@@ -0,0 +1,22 @@
+package com.example.ledger.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Balance of an account together with every account under it in the hierarchy")
+public record RollupResponse(
+        
+        @Schema(description = "Account id", example = "region-eu")
+        String accountId,
+        
+        @Schema(description = "Parent in the hierarchy; null for a root or an account outside it", example = "tenant-a")
+        String parentId,
+        
+        @Schema(description = "Direct children in the hierarchy")
+        List<String> children,
+        
+        @Schema(description = "Rolled-up balance in the default currency followed by every other currency used under the account")
+        List<BalanceResponse> balances
+) {
+}
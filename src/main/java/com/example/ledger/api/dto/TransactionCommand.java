@@ -0,0 +1,35 @@
+package com.example.ledger.api.dto;
+
+import com.example.ledger.domain.Currencies;
+import com.example.ledger.domain.TransactionType;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.Currency;
+import java.util.Objects;
+
+/**
+ * Already-validated form of a {@link TransactionRequest}: the type and currency resolved and the
+ * amount in the currency's minor units.
+ * Request bodies are parsed straight into this shape, so no decimal or string intermediates are
+ * created on the way to the ledger; the API docs describe the body with the request's schema.
+ */
+@Schema(implementation = TransactionRequest.class)
+@JsonDeserialize(using = TransactionCommandDeserializer.class)
+public record TransactionCommand(TransactionType type, long amountMinorUnits, Currency currency) {
+
+    public TransactionCommand(TransactionType type, long amountMinorUnits) {
+        this(type, amountMinorUnits, Currencies.DEFAULT);
+    }
+
+    public TransactionCommand {
+        Objects.requireNonNull(type, "Transaction type can't be null");
+        Objects.requireNonNull(currency, "Currency can't be null");
+        if (type != TransactionType.DEPOSIT && type != TransactionType.WITHDRAW) {
+            throw new IllegalArgumentException("Invalid transaction type: " + type);
+        }
+        if (amountMinorUnits <= 0) {
+            throw new IllegalArgumentException("Amount must be positive");
+        }
+    }
+}
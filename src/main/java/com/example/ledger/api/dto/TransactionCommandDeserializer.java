@@ -0,0 +1,249 @@
+package com.example.ledger.api.dto;
+
+import com.example.ledger.domain.Currencies;
+import com.example.ledger.domain.TransactionType;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+
+/**
+ * Parses a transaction request body directly from the parser's character buffer into a
+ * {@link TransactionCommand}. Type names and the default currency are matched case-insensitively in
+ * place and plain decimal amounts are accumulated into an unscaled long without building a
+ * {@link BigDecimal}; only unusual number forms such as exponents fall back to it. The amount is
+ * scaled to minor units once the currency, which may come after it, is known. Validation mirrors
+ * the constraints on {@link TransactionRequest} and reports the same field messages.
+ */
+public class TransactionCommandDeserializer extends JsonDeserializer<TransactionCommand> {
+
+    private static final String NOT_POSITIVE = "amount: Amount must be positive";
+    private static final String TOO_LARGE = "amount: Amount is too large";
+    private static final TransactionType[] TYPES = {TransactionType.DEPOSIT, TransactionType.WITHDRAW};
+
+    // The fields read, in the order of TransactionRequest's components; any other is skipped
+    static final List<String> FIELDS = List.of("type", "amount", "currency");
+
+    @Override
+    public TransactionCommand deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        if (!parser.isExpectedStartObjectToken()) {
+            return context.reportInputMismatch(this, "Expected a JSON object, got %s", parser.currentToken());
+        }
+
+        TransactionType type = null;
+        String invalidType = null;
+        Decimal amount = null;
+        boolean amountPresent = false;
+        Currency currency = Currencies.DEFAULT;
+        String currencyError = null;
+
+        for (String field = parser.nextFieldName(); field != null; field = parser.nextFieldName()) {
+            JsonToken token = parser.nextToken();
+            boolean structured = token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY;
+            if (structured && FIELDS.contains(field)) {
+                return context.reportInputMismatch(this, "Expected a value for '%s', got %s", field, token);
+            }
+            switch (field) {
+                case "type" -> {
+                    type = null;
+                    invalidType = null;
+                    if (token != JsonToken.VALUE_NULL) {
+                        type = parseType(parser);
+                        if (type == null) {
+                            invalidType = parser.getText();
+                        }
+                    }
+                }
+                case "amount" -> {
+                    amountPresent = token != JsonToken.VALUE_NULL;
+                    amount = amountPresent ? parseAmount(parser, context) : null;
+                }
+                case "currency" -> {
+                    currency = Currencies.DEFAULT;
+                    currencyError = null;
+                    if (token != JsonToken.VALUE_NULL) {
+                        try {
+                            currency = parseCurrency(parser);
+                        } catch (IllegalArgumentException ex) {
+                            currencyError = "currency: " + ex.getMessage();
+                        }
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+
+        long minorUnits = 0;
+        String amountError = null;
+        if (amount != null && currencyError == null) {
+            try {
+                minorUnits = toMinorUnits(amount, currency.getDefaultFractionDigits());
+            } catch (InvalidAmountException ex) {
+                amountError = ex.getMessage();
+            }
+        }
+
+        List<String> errors = null;
+        if (type == null && invalidType == null) {
+            errors = add(errors, "type: Transaction type is required");
+        }
+        if (!amountPresent) {
+            errors = add(errors, "amount: Amount is required");
+        } else if (amountError != null) {
+            errors = add(errors, amountError);
+        }
+        if (currencyError != null) {
+            errors = add(errors, currencyError);
+        }
+        if (errors != null) {
+            throw new InvalidRequestException(InvalidRequestException.VALIDATION_ERROR, String.join(", ", errors));
+        }
+        if (invalidType != null) {
+            throw new InvalidRequestException(InvalidRequestException.INVALID_TRANSACTION_TYPE,
+                    "Invalid transaction type: " + invalidType);
+        }
+        return new TransactionCommand(type, minorUnits, currency);
+    }
+
+    private static Currency parseCurrency(JsonParser parser) throws IOException {
+        if (equalsIgnoreCase(Currencies.DEFAULT.getCurrencyCode(),
+                parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength())) {
+            return Currencies.DEFAULT;
+        }
+        return Currencies.of(parser.getText());
+    }
+
+    private static TransactionType parseType(JsonParser parser) throws IOException {
+        char[] text = parser.getTextCharacters();
+        int offset = parser.getTextOffset();
+        int length = parser.getTextLength();
+        for (TransactionType candidate : TYPES) {
+            if (equalsIgnoreCase(candidate.name(), text, offset, length)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private static boolean equalsIgnoreCase(String name, char[] text, int offset, int length) {
+        if (name.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = text[offset + i];
+            if (c >= 'a' && c <= 'z') {
+                c -= 'a' - 'A';
+            }
+            if (c != name.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Decimal parseAmount(JsonParser parser, DeserializationContext context) throws IOException {
+        char[] text = parser.getTextCharacters();
+        int index = parser.getTextOffset();
+        int end = index + parser.getTextLength();
+
+        boolean negative = index < end && text[index] == '-';
+        if (negative) {
+            index++;
+        }
+
+        long value = 0;
+        int digits = 0;
+        int decimals = -1;
+        boolean overflow = false;
+        for (; index < end; index++) {
+            char c = text[index];
+            if (c >= '0' && c <= '9') {
+                int digit = c - '0';
+                if (overflow || value > (Long.MAX_VALUE - digit) / 10) {
+                    overflow = true;
+                } else {
+                    value = value * 10 + digit;
+                }
+                digits++;
+                if (decimals >= 0) {
+                    decimals++;
+                }
+            } else if (c == '.' && decimals < 0) {
+                decimals = 0;
+            } else {
+                return parseUnusualAmount(parser.getText(), context);
+            }
+        }
+        if (digits == 0) {
+            return parseUnusualAmount(parser.getText(), context);
+        }
+
+        return new Decimal(negative || value == 0, Math.max(decimals, 0), overflow, value);
+    }
+
+    private static Decimal parseUnusualAmount(String text, DeserializationContext context) throws IOException {
+        BigDecimal amount;
+        try {
+            amount = new BigDecimal(text);
+        } catch (NumberFormatException ex) {
+            throw context.weirdStringException(text, BigDecimal.class, "not a valid amount");
+        }
+        int scale = Math.max(amount.scale(), 0);
+        long value = 0;
+        boolean overflow = false;
+        try {
+            value = amount.abs().unscaledValue().longValueExact();
+            if (amount.scale() < 0) {
+                value = Math.multiplyExact(value, pow10(-amount.scale()));
+            }
+        } catch (ArithmeticException ex) {
+            overflow = true;
+        }
+        return new Decimal(amount.signum() <= 0, scale, overflow, value);
+    }
+
+    private static long toMinorUnits(Decimal amount, int currencyScale) {
+        if (amount.scale() > currencyScale) {
+            String tooManyDecimals = "amount: Amount can't have more than " + currencyScale + " decimals";
+            throw new InvalidAmountException(amount.notPositive() ? NOT_POSITIVE + ", " + tooManyDecimals : tooManyDecimals);
+        }
+        if (amount.notPositive()) {
+            throw new InvalidAmountException(NOT_POSITIVE);
+        }
+        long factor = pow10(currencyScale - amount.scale());
+        if (amount.overflow() || amount.value() > Long.MAX_VALUE / factor) {
+            throw new InvalidAmountException(TOO_LARGE);
+        }
+        return amount.value() * factor;
+    }
+
+    private static long pow10(int exponent) {
+        long result = 1;
+        for (int i = 0; i < exponent; i++) {
+            result = Math.multiplyExact(result, 10);
+        }
+        return result;
+    }
+
+    private static List<String> add(List<String> errors, String error) {
+        List<String> result = errors == null ? new ArrayList<>(2) : errors;
+        result.add(error);
+        return result;
+    }
+
+    // An amount as written: its digits without the decimal point and how many of them are decimals
+    private record Decimal(boolean notPositive, int scale, boolean overflow, long value) {
+    }
+
+    private static final class InvalidAmountException extends RuntimeException {
+        private InvalidAmountException(String message) {
+            super(message, null, false, false);
+        }
+    }
+}
@@ -2,7 +2,6 @@ package com.example.ledger.api.dto;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.DecimalMin;
-import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotNull;
 
 import java.math.BigDecimal;
@@ -14,10 +13,16 @@ public record TransactionRequest(
         @NotNull(message = "Transaction type is required")
         String type,
         
-        @Schema(description = "Amount in EUR")
+        @Schema(description = "Amount, with at most as many decimals as the currency has")
         @NotNull(message = "Amount is required")
         @DecimalMin(value = "0.0", inclusive = false, message = "Amount must be positive")
-        @Digits(integer = Integer.MAX_VALUE, fraction = 2, message = "Amount can't have more than 2 decimals")
-        BigDecimal amount
+        BigDecimal amount,
+        
+        @Schema(description = "ISO 4217 code of the amount's currency; EUR when omitted", example = "EUR")
+        String currency
 ) {
+    
+    public TransactionRequest(String type, BigDecimal amount) {
+        this(type, amount, null);
+    }
 }
@@ -1,5 +1,6 @@
 package com.example.ledger.api.dto;
 
+import com.example.ledger.domain.Currencies;
 import com.example.ledger.domain.Transaction;
 import io.swagger.v3.oas.annotations.media.Schema;
 
@@ -13,22 +14,38 @@ public record TransactionResponse(
         @Schema(description = "Unique transaction identifier")
         UUID id,
         
-        @Schema(description = "Type of transaction", example = "DEPOSIT")
+        @Schema(description = "Position of the transaction in the ledger's write order", example = "42")
+        long sequence,
+        
+        @Schema(description = "Account the transaction belongs to", example = "default")
+        String accountId,
+        
+        @Schema(description = "Type of transaction", example = "DEPOSIT", allowableValues = {"DEPOSIT", "WITHDRAW", "TRANSFER_IN", "TRANSFER_OUT", "BALANCE_FORWARD"})
         String type,
         
-        @Schema(description = "Amount in EUR", example = "100.50")
+        @Schema(description = "Amount in the currency's major units", example = "100.50")
         BigDecimal amount,
         
         @Schema(description = "Timestamp when the transaction was created", example = "2023-10-01T10:15:30.123Z")
-        Instant createdAt
+        Instant createdAt,
+        
+        @Schema(description = "ISO 4217 code of the amount's currency", example = "EUR")
+        String currency
 ) {
     
+    public TransactionResponse(UUID id, long sequence, String accountId, String type, BigDecimal amount, Instant createdAt) {
+        this(id, sequence, accountId, type, amount, createdAt, Currencies.DEFAULT.getCurrencyCode());
+    }
+    
     public static TransactionResponse from(Transaction transaction) {
         return new TransactionResponse(
                 transaction.getId(),
+                transaction.getSequence(),
+                transaction.getAccountId(),
                 transaction.getType().name(),
                 transaction.getAmount().getAmount(),
-                transaction.getCreatedAt()
+                transaction.getCreatedAt(),
+                transaction.getAmount().getCurrency().getCurrencyCode()
         );
     }
 }
@@ -0,0 +1,33 @@
+package com.example.ledger.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+import java.math.BigDecimal;
+
+@Schema(description = "Request to move money from one account to another")
+public record TransferRequest(
+        
+        @Schema(description = "Account to debit", example = "default")
+        @NotBlank(message = "Source account is required")
+        String fromAccountId,
+        
+        @Schema(description = "Account to credit", example = "savings")
+        @NotBlank(message = "Destination account is required")
+        String toAccountId,
+        
+        @Schema(description = "Amount, with at most as many decimals as the currency has")
+        @NotNull(message = "Amount is required")
+        @DecimalMin(value = "0.0", inclusive = false, message = "Amount must be positive")
+        BigDecimal amount,
+        
+        @Schema(description = "ISO 4217 code of the amount's currency; EUR when omitted", example = "EUR")
+        String currency
+) {
+    
+    public TransferRequest(String fromAccountId, String toAccountId, BigDecimal amount) {
+        this(fromAccountId, toAccountId, amount, null);
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.ledger.api.dto;
+
+import com.example.ledger.domain.Transfer;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Both legs of a recorded transfer")
+public record TransferResponse(
+        
+        @Schema(description = "Debit recorded on the source account")
+        TransactionResponse debit,
+        
+        @Schema(description = "Credit recorded on the destination account")
+        TransactionResponse credit
+) {
+    
+    public static TransferResponse from(Transfer transfer) {
+        return new TransferResponse(
+                TransactionResponse.from(transfer.debit()),
+                TransactionResponse.from(transfer.credit())
+        );
+    }
+}
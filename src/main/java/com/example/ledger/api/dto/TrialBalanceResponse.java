@@ -0,0 +1,70 @@
+package com.example.ledger.api.dto;
+
+import com.example.ledger.domain.TrialBalance;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Schema(description = "Every account's balance in the debit or credit column, with the column totals per currency")
+public record TrialBalanceResponse(
+        
+        @Schema(description = "Whether debits equal credits in every currency", example = "true")
+        boolean balanced,
+        
+        @Schema(description = "One line per account and currency; deposits and withdrawals are balanced by the @external line")
+        List<Line> lines,
+        
+        @Schema(description = "Column totals per currency")
+        List<Total> totals
+) {
+    
+    public static TrialBalanceResponse from(TrialBalance trialBalance) {
+        return new TrialBalanceResponse(
+                trialBalance.isBalanced(),
+                trialBalance.lines().stream()
+                        .map(line -> new Line(line.accountId(), line.kind().name(),
+                                line.debit().getCurrency().getCurrencyCode(),
+                                line.debit().getAmount(), line.credit().getAmount()))
+                        .toList(),
+                trialBalance.totals().stream()
+                        .map(total -> new Total(total.currency().getCurrencyCode(),
+                                total.debits().getAmount(), total.credits().getAmount()))
+                        .toList()
+        );
+    }
+    
+    @Schema(description = "An account's balance in one currency")
+    public record Line(
+            
+            @Schema(description = "Account id", example = "cash")
+            String accountId,
+            
+            @Schema(description = "Kind of the account in the chart of accounts", example = "ASSET")
+            String kind,
+            
+            @Schema(description = "ISO 4217 code of the currency", example = "EUR")
+            String currency,
+            
+            @Schema(description = "Debit balance, zero if the balance is on the credit side", example = "100.00")
+            BigDecimal debit,
+            
+            @Schema(description = "Credit balance, zero if the balance is on the debit side", example = "0.00")
+            BigDecimal credit
+    ) {
+    }
+    
+    @Schema(description = "Column totals in one currency")
+    public record Total(
+            
+            @Schema(description = "ISO 4217 code of the currency", example = "EUR")
+            String currency,
+            
+            @Schema(description = "Sum of the debit column", example = "100.00")
+            BigDecimal debits,
+            
+            @Schema(description = "Sum of the credit column", example = "100.00")
+            BigDecimal credits
+    ) {
+    }
+}
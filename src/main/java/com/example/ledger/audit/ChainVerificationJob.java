@@ -0,0 +1,84 @@
+package com.example.ledger.audit;
+
+import com.example.ledger.domain.ChainVerification;
+import com.example.ledger.domain.LedgerService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically recomputes the ledger's hash chain from stored history and logs an error naming the
+ * first broken segment when stored transactions no longer match what was chained.
+ */
+@Component
+@ConditionalOnProperty(name = "ledger.audit.verify.enabled", havingValue = "true")
+public class ChainVerificationJob {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ChainVerificationJob.class);
+
+    private final LedgerService ledgerService;
+    private final Duration interval;
+
+    private ScheduledExecutorService scheduler;
+
+    public ChainVerificationJob(LedgerService ledgerService,
+                                @Value("${ledger.audit.verify.interval:PT1H}") Duration interval) {
+        this.ledgerService = Objects.requireNonNull(ledgerService, "LedgerService can't be null");
+        if (interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("Verification interval must be positive");
+        }
+        this.interval = interval;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!ledgerService.isHashChained()) {
+            throw new IllegalStateException("Verification needs the hash chain (ledger.audit.enabled=true)");
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ledger-chain-verification");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::run, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+        LOGGER.info("Verifying the hash chain every {}", interval);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Verifies the chain up to its current head; failures to read history are logged and retried
+     * on the next run.
+     */
+    public ChainVerification run() {
+        try {
+            ChainVerification verification = ledgerService.verifyHashChain();
+            if (verification.intact()) {
+                LOGGER.info("Hash chain intact through sequence {}: {} transactions verified, {} segments skipped",
+                        verification.head().sequence(), verification.verifiedTransactions(), verification.skippedSegments());
+            } else {
+                LOGGER.error("Hash chain broken in {} segments, the first starting at sequence {}",
+                        verification.brokenSegments(), verification.firstBrokenSequence());
+            }
+            return verification;
+        } catch (Exception ex) {
+            LOGGER.warn("Hash chain verification failed: {}", ex.toString());
+            return null;
+        }
+    }
+}
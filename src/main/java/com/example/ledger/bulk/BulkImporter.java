@@ -0,0 +1,210 @@
+package com.example.ledger.bulk;
+
+import com.example.ledger.domain.LedgerService;
+import com.example.ledger.domain.Transaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Streams transactions from a CSV or NDJSON file into the ledger in three stages. The calling thread
+ * reads the file in chunks of {@code batchSize} lines and hands each chunk to a pool of parser
+ * threads; it then applies the parsed chunks strictly in file order, each as one
+ * {@link LedgerService#importBatch} call, while the parsers work on the chunks behind it. At most
+ * two chunks per parser are in flight, so memory stays bounded however large the file is.
+ * <p>
+ * Rows that fail to parse, go back in time or can't be applied, e.g. a withdrawal the account can't
+ * cover at that point, are counted and skipped; the first {@code maxRejections} are reported with
+ * their line numbers. Rows must be in time order and no older than the newest transaction the ledger
+ * already holds, since history and retention assume transactions are recorded in the order they were
+ * created.
+ */
+public final class BulkImporter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BulkImporter.class);
+
+    private final LedgerService ledgerService;
+    private final Clock clock;
+    private final int parsers;
+    private final int batchSize;
+    private final int maxRejections;
+
+    public BulkImporter(LedgerService ledgerService, Clock clock, int parsers, int batchSize, int maxRejections) {
+        this.ledgerService = Objects.requireNonNull(ledgerService, "LedgerService can't be null");
+        this.clock = Objects.requireNonNull(clock, "Clock can't be null");
+        if (parsers < 1 || batchSize < 1 || maxRejections < 0) {
+            throw new IllegalArgumentException("Import needs at least one parser and a positive batch size");
+        }
+        this.parsers = parsers;
+        this.batchSize = batchSize;
+        this.maxRejections = maxRejections;
+    }
+
+    /**
+     * Imports every row of the UTF-8 input and reports the outcome. Fails only if the input can't be
+     * read, a CSV header is missing a required column, or storage fails, in which case everything
+     * applied before stays recorded.
+     */
+    public ImportReport importFrom(InputStream input, ImportFormat format) throws IOException {
+        long started = System.nanoTime();
+        Instant now = clock.instant();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), 1 << 16);
+        long line = 0;
+        RowParser parser;
+        if (format == ImportFormat.CSV) {
+            String header = reader.readLine();
+            if (header == null) {
+                return new ImportReport(0, 0, 0, List.of(), Duration.ofNanos(System.nanoTime() - started));
+            }
+            line++;
+            parser = RowParser.csv(header, now);
+        } else {
+            parser = RowParser.ndjson(now);
+        }
+
+        Progress progress = new Progress(now);
+        AtomicInteger ids = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(parsers, runnable -> {
+            Thread thread = new Thread(runnable, "ledger-import-" + ids.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            Deque<Future<Row[]>> inFlight = new ArrayDeque<>();
+            List<String> lines = new ArrayList<>(batchSize);
+            long firstLine = line + 1;
+            String text;
+            while ((text = reader.readLine()) != null) {
+                line++;
+                if (text.isBlank()) {
+                    continue;
+                }
+                if (lines.isEmpty()) {
+                    firstLine = line;
+                }
+                lines.add(text);
+                if (lines.size() == batchSize) {
+                    inFlight.add(submit(pool, parser, lines, firstLine));
+                    lines = new ArrayList<>(batchSize);
+                    if (inFlight.size() >= 2 * parsers) {
+                        apply(await(inFlight.poll()), progress);
+                    }
+                }
+            }
+            if (!lines.isEmpty()) {
+                inFlight.add(submit(pool, parser, lines, firstLine));
+            }
+            while (!inFlight.isEmpty()) {
+                apply(await(inFlight.poll()), progress);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        ImportReport report = new ImportReport(progress.rows, progress.imported, progress.rejected,
+                List.copyOf(progress.rejections), Duration.ofNanos(System.nanoTime() - started));
+        LOGGER.info("Imported {} of {} rows in {} ({} rows/s), {} rejected",
+                report.imported(), report.rows(), report.elapsed(), report.rowsPerSecond(), report.rejected());
+        return report;
+    }
+
+    // Blank lines are skipped, so line numbers are kept per row
+    private static Future<Row[]> submit(ExecutorService pool, RowParser parser, List<String> lines, long firstLine) {
+        return pool.submit(() -> {
+            Row[] rows = new Row[lines.size()];
+            long line = firstLine;
+            for (int i = 0; i < rows.length; i++) {
+                rows[i] = parse(parser, lines.get(i), line++);
+            }
+            return rows;
+        });
+    }
+
+    private static Row parse(RowParser parser, String text, long line) {
+        try {
+            return new Row(line, parser.parse(text), null);
+        } catch (RuntimeException ex) {
+            return new Row(line, null, ex.getMessage());
+        }
+    }
+
+    private void apply(Row[] rows, Progress progress) {
+        List<Transaction> batch = new ArrayList<>(rows.length);
+        long[] lines = new long[rows.length];
+        for (Row row : rows) {
+            progress.rows++;
+            if (row.transaction() == null) {
+                progress.reject(row.line(), row.error(), maxRejections);
+                continue;
+            }
+            Instant createdAt = row.transaction().getCreatedAt();
+            if (createdAt.isBefore(progress.lastCreatedAt)) {
+                progress.reject(row.line(), "createdAt: Before the previous row", maxRejections);
+            } else if (createdAt.isAfter(progress.importStarted)) {
+                progress.reject(row.line(), "createdAt: In the future", maxRejections);
+            } else {
+                progress.lastCreatedAt = createdAt;
+                lines[batch.size()] = row.line();
+                batch.add(row.transaction());
+            }
+        }
+        if (!batch.isEmpty()) {
+            progress.imported += ledgerService.importBatch(batch,
+                    (ex, index) -> progress.reject(lines[index], ex.getMessage(), maxRejections));
+        }
+    }
+
+    private static Row[] await(Future<Row[]> chunk) throws IOException {
+        try {
+            return chunk.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import interrupted", ex);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Parsing failed", ex.getCause());
+        }
+    }
+
+    private record Row(long line, Transaction transaction, String error) {
+    }
+
+    // Only touched by the applying thread
+    private static final class Progress {
+
+        private final Instant importStarted;
+        private final List<ImportReport.RejectedRow> rejections = new ArrayList<>();
+        private Instant lastCreatedAt = Instant.MIN;
+        private long rows;
+        private long imported;
+        private long rejected;
+
+        private Progress(Instant importStarted) {
+            this.importStarted = importStarted;
+        }
+
+        private void reject(long line, String reason, int maxRejections) {
+            rejected++;
+            if (rejections.size() < maxRejections) {
+                rejections.add(new ImportReport.RejectedRow(line, reason));
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.ledger.bulk;
+
+import java.util.Locale;
+
+/**
+ * Line-oriented file formats a bulk import reads. Both carry the same fields: {@code accountId},
+ * {@code type} ({@code DEPOSIT} or {@code WITHDRAW}) and {@code amount} are required, while
+ * {@code currency} defaults to EUR, {@code createdAt} to the time of the import and {@code id} to a
+ * new one. A CSV file starts with a header naming its columns in any order; columns it doesn't know,
+ * such as the {@code sequence} of a retention archive, are ignored.
+ */
+public enum ImportFormat {
+
+    CSV("text/csv"),
+    NDJSON("application/x-ndjson");
+
+    private final String mediaType;
+
+    ImportFormat(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Returns the format of the given content type, ignoring parameters such as the charset.
+     */
+    public static ImportFormat fromMediaType(String contentType) {
+        if (contentType != null) {
+            String type = contentType.split(";", 2)[0].trim().toLowerCase(Locale.ROOT);
+            for (ImportFormat format : values()) {
+                if (format.mediaType.equals(type)) {
+                    return format;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Unsupported import format: " + contentType);
+    }
+}
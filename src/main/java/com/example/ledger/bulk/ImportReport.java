@@ -0,0 +1,22 @@
+package com.example.ledger.bulk;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Outcome of a bulk import: how many data rows were read, recorded and rejected, the first
+ * rejected rows with their reasons, and how long it took.
+ */
+public record ImportReport(long rows, long imported, long rejected, List<RejectedRow> rejections, Duration elapsed) {
+
+    public long rowsPerSecond() {
+        long nanos = elapsed.toNanos();
+        return nanos == 0 ? rows : (long) (rows * 1_000_000_000d / nanos);
+    }
+
+    /**
+     * A row that wasn't imported, by its line number in the file, starting at 1.
+     */
+    public record RejectedRow(long line, String reason) {
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.ledger.bulk;
+
+import com.example.ledger.domain.Account;
+import com.example.ledger.domain.Currencies;
+import com.example.ledger.domain.Money;
+import com.example.ledger.domain.Transaction;
+import com.example.ledger.domain.TransactionType;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Currency;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Turns one line of an import file into a transaction with sequence zero, or fails with an
+ * {@link IllegalArgumentException} saying which field is wrong. Stateless once built, so chunks of
+ * lines are parsed on several threads at once.
+ */
+final class RowParser {
+
+    // Exact decimals, so an amount with too many decimals is rejected rather than rounded
+    private static final ObjectMapper JSON = JsonMapper.builder()
+            .enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS)
+            .build();
+
+    private static final int ABSENT = -1;
+
+    private final ImportFormat format;
+    private final Instant defaultCreatedAt;
+    private final int accountIdColumn;
+    private final int typeColumn;
+    private final int amountColumn;
+    private final int currencyColumn;
+    private final int createdAtColumn;
+    private final int idColumn;
+
+    private RowParser(ImportFormat format, Instant defaultCreatedAt, int[] columns) {
+        this.format = format;
+        this.defaultCreatedAt = defaultCreatedAt;
+        this.accountIdColumn = columns[0];
+        this.typeColumn = columns[1];
+        this.amountColumn = columns[2];
+        this.currencyColumn = columns[3];
+        this.createdAtColumn = columns[4];
+        this.idColumn = columns[5];
+    }
+
+    static RowParser ndjson(Instant defaultCreatedAt) {
+        return new RowParser(ImportFormat.NDJSON, defaultCreatedAt, new int[6]);
+    }
+
+    /**
+     * Reads the column positions from a CSV header line.
+     */
+    static RowParser csv(String header, Instant defaultCreatedAt) {
+        int[] columns = {ABSENT, ABSENT, ABSENT, ABSENT, ABSENT, ABSENT};
+        String[] names = split(header);
+        for (int i = 0; i < names.length; i++) {
+            switch (names[i].toLowerCase(Locale.ROOT)) {
+                case "accountid" -> columns[0] = i;
+                case "type" -> columns[1] = i;
+                case "amount" -> columns[2] = i;
+                case "currency" -> columns[3] = i;
+                case "createdat" -> columns[4] = i;
+                case "id" -> columns[5] = i;
+                default -> {
+                    // Ignored, e.g. the sequence column of an archive
+                }
+            }
+        }
+        String[] required = {"accountId", "type", "amount"};
+        for (int i = 0; i < required.length; i++) {
+            if (columns[i] == ABSENT) {
+                throw new IllegalArgumentException("Missing column: " + required[i]);
+            }
+        }
+        return new RowParser(ImportFormat.CSV, defaultCreatedAt, columns);
+    }
+
+    Transaction parse(String line) {
+        if (format == ImportFormat.CSV) {
+            String[] fields = split(line);
+            return transaction(field(fields, accountIdColumn), field(fields, typeColumn), field(fields, amountColumn),
+                    field(fields, currencyColumn), field(fields, createdAtColumn), field(fields, idColumn));
+        }
+        JsonNode row;
+        try {
+            row = JSON.readTree(line);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException("Malformed JSON: " + ex.getOriginalMessage());
+        }
+        if (!row.isObject()) {
+            throw new IllegalArgumentException("Malformed JSON: expected an object");
+        }
+        JsonNode amount = row.get("amount");
+        return transaction(text(row, "accountId"), text(row, "type"),
+                amount != null && amount.isNumber() ? amount.decimalValue().toPlainString() : text(row, "amount"),
+                text(row, "currency"), text(row, "createdAt"), text(row, "id"));
+    }
+
+    private Transaction transaction(String accountId, String type, String amount, String currency,
+                                    String createdAt, String id) {
+        if (accountId == null) {
+            throw new IllegalArgumentException("accountId: Account id is required");
+        }
+        Account.requireValidId(accountId);
+        return new Transaction(id(id), 0, accountId, type(type), money(amount, currency), createdAt(createdAt));
+    }
+
+    private static TransactionType type(String type) {
+        if (type == null) {
+            throw new IllegalArgumentException("type: Transaction type is required");
+        }
+        return switch (type.toUpperCase(Locale.ROOT)) {
+            case "DEPOSIT" -> TransactionType.DEPOSIT;
+            case "WITHDRAW" -> TransactionType.WITHDRAW;
+            default -> throw new IllegalArgumentException("Invalid transaction type: " + type);
+        };
+    }
+
+    private static Money money(String amount, String currency) {
+        if (amount == null) {
+            throw new IllegalArgumentException("amount: Amount is required");
+        }
+        Currency unit = currency == null ? Currencies.DEFAULT : Currencies.of(currency);
+        BigDecimal value;
+        try {
+            value = new BigDecimal(amount);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("amount: Invalid amount: " + amount);
+        }
+        if (value.signum() <= 0) {
+            throw new IllegalArgumentException("amount: Amount must be positive");
+        }
+        try {
+            return Money.of(value, unit);
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("amount: " + ex.getMessage());
+        }
+    }
+
+    private Instant createdAt(String createdAt) {
+        if (createdAt == null) {
+            return defaultCreatedAt;
+        }
+        try {
+            return Instant.parse(createdAt);
+        } catch (DateTimeParseException ex) {
+            throw new IllegalArgumentException("createdAt: Invalid instant: " + createdAt);
+        }
+    }
+
+    private static UUID id(String id) {
+        if (id == null) {
+            return UUID.randomUUID();
+        }
+        try {
+            return UUID.fromString(id);
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("id: Invalid id: " + id);
+        }
+    }
+
+    // Account ids, amounts, codes and instants never contain commas, so no quoting is needed
+    private static String[] split(String line) {
+        String[] fields = line.split(",", -1);
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = fields[i].trim();
+        }
+        return fields;
+    }
+
+    private static String field(String[] fields, int column) {
+        return column == ABSENT || column >= fields.length || fields[column].isEmpty() ? null : fields[column];
+    }
+
+    private static String text(JsonNode row, String name) {
+        JsonNode value = row.get(name);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.ledger.config;
+
+import com.example.ledger.consensus.FileRaftStorage;
+import com.example.ledger.consensus.RaftNode;
+import com.example.ledger.consensus.RaftOptions;
+import com.example.ledger.consensus.TcpRaftTransport;
+import com.example.ledger.domain.LedgerService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Puts a {@link RaftNode} in front of the ledger's writes when {@code ledger.consensus.enabled} is
+ * set. {@code ledger.consensus.members} lists every node of the cluster, this one included, as
+ * comma-separated {@code id=host:port} pairs. The node's term, vote, log and applied index are kept
+ * in {@code ledger.consensus.data-dir}, so it neither votes twice in a term nor applies an entry to a
+ * durable ledger again after a restart.
+ */
+@Configuration
+@ConditionalOnProperty(name = "ledger.consensus.enabled", havingValue = "true")
+public class ConsensusConfig {
+
+    @Bean(destroyMethod = "stop")
+    public TcpRaftTransport raftTransport(@Value("${ledger.consensus.node-id}") String nodeId,
+                                          @Value("${ledger.consensus.members}") String members) {
+        Map<String, InetSocketAddress> peers = new HashMap<>(parseMembers(members));
+        peers.remove(nodeId);
+        return new TcpRaftTransport(peers);
+    }
+
+    @Bean(destroyMethod = "stop")
+    public RaftNode raftNode(@Value("${ledger.consensus.node-id}") String nodeId,
+                             @Value("${ledger.consensus.members}") String members,
+                             @Value("${ledger.consensus.heartbeat-interval:PT0.05S}") Duration heartbeatInterval,
+                             @Value("${ledger.consensus.election-timeout:PT0.3S}") Duration electionTimeout,
+                             @Value("${ledger.consensus.commit-timeout:PT5S}") Duration commitTimeout,
+                             @Value("${ledger.consensus.max-batch-size:512}") int maxBatchSize,
+                             @Value("${ledger.consensus.max-in-flight:4}") int maxInFlight,
+                             @Value("${ledger.consensus.data-dir:raft}") Path dataDir,
+                             LedgerService ledgerService, TcpRaftTransport transport) throws IOException {
+        Map<String, InetSocketAddress> addresses = parseMembers(members);
+        InetSocketAddress self = addresses.get(nodeId);
+        if (self == null) {
+            throw new IllegalArgumentException("Node " + nodeId + " is not one of the cluster members");
+        }
+        List<String> peers = new ArrayList<>(addresses.keySet());
+        peers.remove(nodeId);
+
+        RaftOptions options = new RaftOptions(heartbeatInterval, electionTimeout, commitTimeout, maxBatchSize, maxInFlight);
+        RaftNode node = new RaftNode(nodeId, peers, ledgerService, transport, options, new FileRaftStorage(dataDir));
+        transport.start(node, self.getHostString(), self.getPort());
+        node.start();
+        return node;
+    }
+
+    static Map<String, InetSocketAddress> parseMembers(String members) {
+        Map<String, InetSocketAddress> addresses = new HashMap<>();
+        for (String member : members.split(",")) {
+            String[] parts = member.trim().split("[=:]");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Invalid cluster member: " + member);
+            }
+            addresses.put(parts[0], new InetSocketAddress(parts[1], Integer.parseInt(parts[2])));
+        }
+        return addresses;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.ledger.config;
+
+import com.example.ledger.repo.JdbcTransactionStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Stores the ledger in a relational database when {@code ledger.storage=jdbc}, using the standard
+ * {@code spring.datasource.*} connection properties. The in-memory default needs no database, so
+ * the DataSource is only created here.
+ */
+@Configuration
+@ConditionalOnProperty(name = "ledger.storage", havingValue = "jdbc")
+public class JdbcConfig {
+
+    @Bean
+    public DataSource dataSource(@Value("${spring.datasource.url}") String url,
+                                 @Value("${spring.datasource.username:}") String username,
+                                 @Value("${spring.datasource.password:}") String password) {
+        return DataSourceBuilder.create().url(url).username(username).password(password).build();
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public JdbcTransactionStore transactionStore(DataSource dataSource,
+                                                 @Value("${ledger.jdbc.max-batch-size:256}") int maxBatchSize) {
+        return new JdbcTransactionStore(dataSource, maxBatchSize);
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.ledger.config;
+
+import com.example.ledger.bulk.BulkImporter;
+import com.example.ledger.domain.AccountKind;
+import com.example.ledger.domain.AdmissionControl;
+import com.example.ledger.domain.ChartOfAccounts;
+import com.example.ledger.domain.LedgerService;
+import com.example.ledger.domain.Money;
+import com.example.ledger.domain.VelocityLimit;
+import com.example.ledger.repo.TransactionStore;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+public class LedgerConfig {
+
+    // Shards for a new durable store when none are configured; fixed so every host agrees on it
+    private static final int DEFAULT_STORED_SHARDS = 16;
+
+    // Kept out of the context so Spring's own task executor auto-configuration doesn't back off
+    private ExecutorService writer;
+    private ScheduledExecutorService holdExpiry;
+
+    @Bean
+    public LedgerService ledgerService(@Value("${ledger.shards:0}") int shards,
+                                       @Value("${ledger.writer.threads:0}") int writerThreads,
+                                       @Value("${ledger.hot-accounts.ids:}") String hotAccounts,
+                                       @Value("${ledger.hot-accounts.sub-balances:0}") int subBalances,
+                                       @Value("${ledger.admission.enabled:true}") boolean admission,
+                                       @Value("${ledger.admission.limit:0}") int admissionLimit,
+                                       @Value("${ledger.admission.max-limit:0}") int admissionMaxLimit,
+                                       @Value("${ledger.admission.queue-size:1024}") int admissionQueueSize,
+                                       @Value("${ledger.admission.queue-timeout:PT1S}") Duration admissionQueueTimeout,
+                                       @Value("${ledger.velocity.max-transactions:0}") long velocityMaxTransactions,
+                                       @Value("${ledger.velocity.max-amount:0}") BigDecimal velocityMaxAmount,
+                                       @Value("${ledger.velocity.window:PT1M}") Duration velocityWindow,
+                                       @Value("${ledger.holds.expiry-interval:PT0.1S}") Duration holdExpiryInterval,
+                                       @Value("${ledger.audit.enabled:false}") boolean audit,
+                                       @Value("${ledger.audit.checkpoint-interval:1024}") int auditCheckpointInterval,
+                                       @Value("${ledger.accounting.accounts:}") String chartOfAccounts,
+                                       @Value("${ledger.accounting.trial-balance.enabled:false}") boolean trialBalance,
+                                       @Value("${ledger.accounting.parents:}") String accountParents,
+                                       Clock clock,
+                                       ObjectProvider<TransactionStore> transactionStore) {
+        // Zero means the count a durable store was written with, since accounts are hashed by it, a
+        // fixed count for a new one, or one shard per available core when nothing outlives the process
+        TransactionStore store = transactionStore.getIfAvailable();
+        int shardCount = shards > 0 ? shards
+                : store != null && store.isDurable() ? store.storedShardCount().orElse(DEFAULT_STORED_SHARDS)
+                : Runtime.getRuntime().availableProcessors();
+        LedgerService ledgerService = store != null
+                ? LedgerService.resume(store.repositories(shardCount), clock)
+                : new LedgerService(shardCount, clock);
+
+        // Chained before anything else can write, starting with the stored history
+        if (audit) {
+            ledgerService.enableHashChain(auditCheckpointInterval);
+        }
+
+        // Accounts that aren't listed are customer accounts, i.e. liabilities
+        ledgerService.setChartOfAccounts(parseChart(chartOfAccounts));
+        if (trialBalance) {
+            ledgerService.enableTrialBalance();
+        }
+
+        // Zero means one sub-balance per available core
+        List<String> hotAccountIds = Arrays.stream(hotAccounts.split(","))
+                .map(String::trim)
+                .filter(id -> !id.isEmpty())
+                .toList();
+        ledgerService.setHotAccounts(hotAccountIds,
+                subBalances > 0 ? subBalances : Runtime.getRuntime().availableProcessors());
+
+        // After the hot accounts, which can only be split before they are first used
+        ledgerService.setAccountHierarchy(parseParents(accountParents));
+
+        // Zero means one writer per available core
+        int threads = writerThreads > 0 ? writerThreads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger ids = new AtomicInteger();
+        writer = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "ledger-writer-" + ids.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        ledgerService.setWriter(writer);
+
+        // Zero leaves that dimension of the velocity limit off
+        ledgerService.setVelocityLimit(
+                new VelocityLimit(velocityMaxTransactions, Money.of(velocityMaxAmount), velocityWindow));
+
+        // Zero means one write in progress per writer, and a maximum equal to the limit turns adapting off
+        if (admission) {
+            int limit = admissionLimit > 0 ? admissionLimit : threads;
+            int maxLimit = admissionMaxLimit > 0 ? Math.max(limit, admissionMaxLimit) : limit;
+            ledgerService.setAdmissionControl(
+                    new AdmissionControl(limit, maxLimit, admissionQueueSize, admissionQueueTimeout));
+        }
+
+        // Only the holds that came due are visited, so a short interval costs little
+        holdExpiry = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ledger-hold-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = holdExpiryInterval.toMillis();
+        holdExpiry.scheduleWithFixedDelay(ledgerService::expireHolds, interval, interval, TimeUnit.MILLISECONDS);
+        return ledgerService;
+    }
+
+    @Bean
+    public BulkImporter bulkImporter(LedgerService ledgerService, Clock clock,
+                                     @Value("${ledger.import.parsers:0}") int parsers,
+                                     @Value("${ledger.import.batch-size:8192}") int batchSize,
+                                     @Value("${ledger.import.max-rejections:1000}") int maxRejections) {
+        // Zero means one parser per available core
+        return new BulkImporter(ledgerService, clock,
+                parsers > 0 ? parsers : Runtime.getRuntime().availableProcessors(), batchSize, maxRejections);
+    }
+
+    @PreDestroy
+    public void stopExecutors() {
+        if (writer != null) {
+            writer.shutdown();
+        }
+        if (holdExpiry != null) {
+            holdExpiry.shutdownNow();
+        }
+    }
+
+    static Map<String, String> parseParents(String parents) {
+        Map<String, String> parentIds = new HashMap<>();
+        for (String child : parents.split(",")) {
+            if (child.isBlank()) {
+                continue;
+            }
+            String[] parts = child.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid account hierarchy entry: " + child);
+            }
+            parentIds.put(parts[0].trim(), parts[1].trim());
+        }
+        return parentIds;
+    }
+
+    static ChartOfAccounts parseChart(String accounts) {
+        Map<String, AccountKind> kinds = new HashMap<>();
+        for (String account : accounts.split(",")) {
+            if (account.isBlank()) {
+                continue;
+            }
+            String[] parts = account.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid chart of accounts entry: " + account);
+            }
+            kinds.put(parts[0].trim(), AccountKind.valueOf(parts[1].trim().toUpperCase(Locale.ROOT)));
+        }
+        return new ChartOfAccounts(kinds);
+    }
+}
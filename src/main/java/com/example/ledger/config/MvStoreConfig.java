@@ -0,0 +1,25 @@
+package com.example.ledger.config;
+
+import com.example.ledger.repo.MvStoreTransactionStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Stores the ledger in an embedded file when {@code ledger.storage=mvstore}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "ledger.storage", havingValue = "mvstore")
+public class MvStoreConfig {
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public MvStoreTransactionStore transactionStore(@Value("${ledger.mvstore.file:ledger.mv.db}") Path file,
+                                                    @Value("${ledger.mvstore.cache-size-mb:64}") int cacheSizeMb,
+                                                    @Value("${ledger.mvstore.auto-commit-delay:PT1S}") Duration autoCommitDelay) {
+        return new MvStoreTransactionStore(file, cacheSizeMb, autoCommitDelay);
+    }
+}
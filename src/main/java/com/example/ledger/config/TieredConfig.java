@@ -0,0 +1,25 @@
+package com.example.ledger.config;
+
+import com.example.ledger.repo.TieredTransactionStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+/**
+ * Bounds the heap used by history when {@code ledger.storage=tiered}, moving older transactions
+ * into compressed blocks on disk.
+ */
+@Configuration
+@ConditionalOnProperty(name = "ledger.storage", havingValue = "tiered")
+public class TieredConfig {
+
+    @Bean(initMethod = "start")
+    public TieredTransactionStore transactionStore(@Value("${ledger.tiered.directory:history}") Path directory,
+                                                   @Value("${ledger.tiered.hot-capacity:65536}") int hotCapacity,
+                                                   @Value("${ledger.tiered.block-size:8192}") int blockSize) {
+        return new TieredTransactionStore(directory, hotCapacity, blockSize);
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.ledger.config;
+
+import com.example.ledger.api.LedgerBinaryHttpMessageConverter;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // Appended after Jackson so JSON stays the default for clients that accept anything
+        converters.add(new LedgerBinaryHttpMessageConverter());
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.ledger.consensus;
+
+/**
+ * Raised when a write was not committed by a majority within the commit timeout, typically because
+ * the leader lost contact with the rest of the cluster. The write may still be committed later.
+ */
+public class CommitTimeoutException extends IllegalStateException {
+
+    public CommitTimeoutException() {
+        super("Write was not acknowledged by a majority of the cluster in time");
+    }
+}
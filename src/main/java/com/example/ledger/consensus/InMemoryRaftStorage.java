@@ -0,0 +1,61 @@
+package com.example.ledger.consensus;
+
+import com.example.ledger.consensus.RaftMessages.LogEntry;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link RaftStorage} that lives as long as the object does. A node using it forgets everything when
+ * its process exits, so it only suits a ledger that is in memory as well.
+ */
+public class InMemoryRaftStorage implements RaftStorage {
+
+    // Guarded by this
+    private final List<LogEntry> log = new ArrayList<>();
+    private Term term = Term.INITIAL;
+    private Applied applied = Applied.INITIAL;
+
+    @Override
+    public synchronized Term loadTerm() {
+        return term;
+    }
+
+    @Override
+    public synchronized Applied loadApplied() {
+        return applied;
+    }
+
+    @Override
+    public synchronized List<LogEntry> loadLog() {
+        return List.copyOf(log);
+    }
+
+    @Override
+    public synchronized void saveTerm(Term term) {
+        this.term = term;
+    }
+
+    @Override
+    public synchronized void saveApplied(Applied applied) {
+        this.applied = applied;
+    }
+
+    @Override
+    public synchronized void append(List<LogEntry> entries) {
+        log.addAll(entries);
+    }
+
+    @Override
+    public synchronized void truncateFrom(long index) {
+        log.subList((int) index - 1, log.size()).clear();
+    }
+
+    @Override
+    public void sync() {
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.ledger.consensus;
+
+/**
+ * Raised for a write submitted to a node that is not, or is no longer, the cluster leader. The
+ * write may still have been committed if leadership was lost after it was replicated.
+ */
+public class NotLeaderException extends IllegalStateException {
+
+    private final String leaderId;
+
+    public NotLeaderException(String leaderId) {
+        super(leaderId == null ? "No cluster leader elected" : "Not the cluster leader; send writes to " + leaderId);
+        this.leaderId = leaderId;
+    }
+
+    public String getLeaderId() {
+        return leaderId;
+    }
+}
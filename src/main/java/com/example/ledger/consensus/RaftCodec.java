@@ -0,0 +1,148 @@
+package com.example.ledger.consensus;
+
+import com.example.ledger.consensus.RaftMessages.AppendEntries;
+import com.example.ledger.consensus.RaftMessages.AppendEntriesResult;
+import com.example.ledger.consensus.RaftMessages.LogEntry;
+import com.example.ledger.consensus.RaftMessages.RequestVote;
+import com.example.ledger.consensus.RaftMessages.RequestVoteResult;
+import com.example.ledger.domain.Currencies;
+import com.example.ledger.domain.LedgerCommand;
+import com.example.ledger.domain.Money;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Binary form of the {@link RaftMessages} on a {@link TcpRaftTransport} connection. Every request
+ * and response is framed by a correlation id and the kind of RPC.
+ * <pre>
+ * request        correlationId:i64 kind:u8 message
+ * response       correlationId:i64 kind:u8 failed:bool (result | error:utf)
+ * appendEntries  term:i64 leaderId:utf prevLogIndex:i64 prevLogTerm:i64 leaderCommit:i64 count:i32 entry*
+ * entry          term:i64 index:i64 hasCommand:bool command?
+ * command        kind:u8 account:utf hasTo:bool to:utf? amount:i64 currency:u16 idHigh:i64 idLow:i64
+ *                hasCredit:bool creditHigh:i64? creditLow:i64? seconds:i64 nanos:i32
+ * requestVote    term:i64 candidateId:utf lastLogIndex:i64 lastLogTerm:i64
+ * </pre>
+ * Log entries use the same {@code entry} form in a {@link FileRaftStorage} log.
+ */
+final class RaftCodec {
+
+    static final byte APPEND_ENTRIES = 1;
+    static final byte REQUEST_VOTE = 2;
+
+    private static final LedgerCommand.Kind[] KINDS = LedgerCommand.Kind.values();
+
+    private RaftCodec() {
+    }
+
+    static void write(DataOutput out, AppendEntries request) throws IOException {
+        out.writeLong(request.term());
+        out.writeUTF(request.leaderId());
+        out.writeLong(request.prevLogIndex());
+        out.writeLong(request.prevLogTerm());
+        out.writeLong(request.leaderCommit());
+        out.writeInt(request.entries().size());
+        for (LogEntry entry : request.entries()) {
+            write(out, entry);
+        }
+    }
+
+    static AppendEntries readAppendEntries(DataInput in) throws IOException {
+        long term = in.readLong();
+        String leaderId = in.readUTF();
+        long prevLogIndex = in.readLong();
+        long prevLogTerm = in.readLong();
+        long leaderCommit = in.readLong();
+        int count = in.readInt();
+        List<LogEntry> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            entries.add(readEntry(in));
+        }
+        return new AppendEntries(term, leaderId, prevLogIndex, prevLogTerm, entries, leaderCommit);
+    }
+
+    static void write(DataOutput out, LogEntry entry) throws IOException {
+        out.writeLong(entry.term());
+        out.writeLong(entry.index());
+        out.writeBoolean(entry.command() != null);
+        if (entry.command() != null) {
+            write(out, entry.command());
+        }
+    }
+
+    static LogEntry readEntry(DataInput in) throws IOException {
+        long term = in.readLong();
+        long index = in.readLong();
+        return new LogEntry(term, index, in.readBoolean() ? readCommand(in) : null);
+    }
+
+    static void write(DataOutput out, AppendEntriesResult result) throws IOException {
+        out.writeLong(result.term());
+        out.writeBoolean(result.success());
+        out.writeLong(result.matchIndex());
+    }
+
+    static AppendEntriesResult readAppendEntriesResult(DataInput in) throws IOException {
+        return new AppendEntriesResult(in.readLong(), in.readBoolean(), in.readLong());
+    }
+
+    static void write(DataOutput out, RequestVote request) throws IOException {
+        out.writeLong(request.term());
+        out.writeUTF(request.candidateId());
+        out.writeLong(request.lastLogIndex());
+        out.writeLong(request.lastLogTerm());
+    }
+
+    static RequestVote readRequestVote(DataInput in) throws IOException {
+        return new RequestVote(in.readLong(), in.readUTF(), in.readLong(), in.readLong());
+    }
+
+    static void write(DataOutput out, RequestVoteResult result) throws IOException {
+        out.writeLong(result.term());
+        out.writeBoolean(result.voteGranted());
+    }
+
+    static RequestVoteResult readRequestVoteResult(DataInput in) throws IOException {
+        return new RequestVoteResult(in.readLong(), in.readBoolean());
+    }
+
+    private static void write(DataOutput out, LedgerCommand command) throws IOException {
+        out.writeByte(command.kind().ordinal());
+        out.writeUTF(command.accountId());
+        out.writeBoolean(command.toAccountId() != null);
+        if (command.toAccountId() != null) {
+            out.writeUTF(command.toAccountId());
+        }
+        out.writeLong(command.amount().getMinorUnits());
+        out.writeShort(Currencies.codeOf(command.amount().getCurrency()));
+        out.writeLong(command.id().getMostSignificantBits());
+        out.writeLong(command.id().getLeastSignificantBits());
+        out.writeBoolean(command.creditId() != null);
+        if (command.creditId() != null) {
+            out.writeLong(command.creditId().getMostSignificantBits());
+            out.writeLong(command.creditId().getLeastSignificantBits());
+        }
+        out.writeLong(command.createdAt().getEpochSecond());
+        out.writeInt(command.createdAt().getNano());
+    }
+
+    private static LedgerCommand readCommand(DataInput in) throws IOException {
+        int code = in.readUnsignedByte();
+        if (code >= KINDS.length) {
+            throw new IOException("Invalid command kind code: " + code);
+        }
+        String accountId = in.readUTF();
+        String toAccountId = in.readBoolean() ? in.readUTF() : null;
+        Money amount = Money.ofMinorUnits(in.readLong(), Currencies.fromCode(in.readUnsignedShort()));
+        UUID id = new UUID(in.readLong(), in.readLong());
+        UUID creditId = in.readBoolean() ? new UUID(in.readLong(), in.readLong()) : null;
+        Instant createdAt = Instant.ofEpochSecond(in.readLong(), in.readInt());
+        return new LedgerCommand(KINDS[code], accountId, toAccountId, amount, id, creditId, createdAt);
+    }
+}
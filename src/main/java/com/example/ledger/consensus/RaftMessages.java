@@ -0,0 +1,39 @@
+package com.example.ledger.consensus;
+
+import com.example.ledger.domain.LedgerCommand;
+
+import java.util.List;
+
+/**
+ * Messages exchanged between {@link RaftNode}s. Log indexes start at 1; index 0 with term 0 stands
+ * for the empty log.
+ */
+public final class RaftMessages {
+
+    private RaftMessages() {
+    }
+
+    /**
+     * One slot of the replicated log. The entry a new leader appends to commit earlier terms carries
+     * no command.
+     */
+    public record LogEntry(long term, long index, LedgerCommand command) {
+    }
+
+    public record AppendEntries(long term, String leaderId, long prevLogIndex, long prevLogTerm,
+                                List<LogEntry> entries, long leaderCommit) {
+    }
+
+    /**
+     * {@code matchIndex} is the last index known to match the leader after a success, or a hint of
+     * where to retry from after a rejection.
+     */
+    public record AppendEntriesResult(long term, boolean success, long matchIndex) {
+    }
+
+    public record RequestVote(long term, String candidateId, long lastLogIndex, long lastLogTerm) {
+    }
+
+    public record RequestVoteResult(long term, boolean voteGranted) {
+    }
+}
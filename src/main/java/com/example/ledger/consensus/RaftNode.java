@@ -0,0 +1,632 @@
+package com.example.ledger.consensus;
+
+import com.example.ledger.consensus.RaftMessages.AppendEntries;
+import com.example.ledger.consensus.RaftMessages.AppendEntriesResult;
+import com.example.ledger.consensus.RaftMessages.LogEntry;
+import com.example.ledger.consensus.RaftMessages.RequestVote;
+import com.example.ledger.consensus.RaftMessages.RequestVoteResult;
+import com.example.ledger.domain.LedgerCommand;
+import com.example.ledger.domain.LedgerService;
+import com.example.ledger.domain.Transaction;
+import com.example.ledger.domain.WriteCoordinator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Raft-style consensus in front of a {@link LedgerService}: leader election, log replication and a
+ * commit index that only moves once a majority stores an entry. Writes submitted on the leader are
+ * appended to its log, replicated and applied to every node's ledger in log order, and the caller
+ * is answered after the leader applied its committed entry.
+ * <p>
+ * Entries are sent in batches of up to {@link RaftOptions#maxBatchSize()} and up to
+ * {@link RaftOptions#maxInFlight()} append requests per follower are pipelined without waiting for
+ * replies; writes arriving while a follower's pipeline is full ride along in the next batch.
+ * <p>
+ * The term and vote are saved to the {@link RaftStorage} before the node votes or asks for votes,
+ * and log entries are synced before a follower acknowledges them or the leader counts itself towards
+ * a majority; the leader syncs on a separate thread, so writes arriving meanwhile share one sync.
+ * After applying a batch of entries the node saves how far it got, together with the ledger version,
+ * and only then answers the callers. On restart it resumes from there: a ledger that starts out
+ * empty is rebuilt from the log, and a durable ledger that kept writes applied after the saved index
+ * is matched against the log by transaction id, so no entry is applied twice.
+ */
+public class RaftNode implements WriteCoordinator {
+
+    public enum Role {
+        FOLLOWER,
+        CANDIDATE,
+        LEADER
+    }
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RaftNode.class);
+
+    private final String id;
+    private final List<String> peers;
+    private final LedgerService ledgerService;
+    private final RaftTransport transport;
+    private final RaftOptions options;
+    private final RaftStorage storage;
+    private final ScheduledExecutorService timer;
+    private final ExecutorService applier;
+    private final ExecutorService syncer;
+
+    // Guarded by this
+    private final List<LogEntry> log = new ArrayList<>();
+    private final Map<String, Follower> followers = new HashMap<>();
+    private final Map<Long, Pending> pending = new HashMap<>();
+    private long currentTerm;
+    private String votedFor;
+    private long commitIndex;
+    private long syncedIndex;
+    private long truncations;
+    private boolean syncScheduled;
+    private Role role = Role.FOLLOWER;
+    private String leaderId;
+    private long electionDeadline;
+    private int votes;
+    private boolean running;
+
+    // Written by the applier thread only
+    private volatile long lastApplied;
+
+    public RaftNode(String id, List<String> peers, LedgerService ledgerService, RaftTransport transport, RaftOptions options) {
+        this(id, peers, ledgerService, transport, options, new InMemoryRaftStorage());
+    }
+
+    public RaftNode(String id, List<String> peers, LedgerService ledgerService, RaftTransport transport,
+                    RaftOptions options, RaftStorage storage) {
+        this.id = Objects.requireNonNull(id, "Node id can't be null");
+        this.peers = List.copyOf(peers);
+        this.ledgerService = Objects.requireNonNull(ledgerService, "LedgerService can't be null");
+        this.transport = Objects.requireNonNull(transport, "Transport can't be null");
+        this.options = Objects.requireNonNull(options, "Options can't be null");
+        this.storage = Objects.requireNonNull(storage, "Storage can't be null");
+        try {
+            RaftStorage.Term term = storage.loadTerm();
+            currentTerm = term.term();
+            votedFor = term.votedFor();
+            log.addAll(storage.loadLog());
+            syncedIndex = log.size();
+            RaftStorage.Applied applied = storage.loadApplied();
+            lastApplied = recoverLastApplied(applied);
+            // Whatever was applied before had been committed
+            commitIndex = Math.max(lastApplied, applied.index());
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to load Raft state of node " + id, ex);
+        }
+        this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> daemon(runnable, "raft-" + id));
+        this.applier = Executors.newSingleThreadExecutor(runnable -> daemon(runnable, "raft-" + id + "-apply"));
+        this.syncer = Executors.newSingleThreadExecutor(runnable -> daemon(runnable, "raft-" + id + "-sync"));
+    }
+
+    public void start() {
+        synchronized (this) {
+            running = true;
+            resetElectionDeadline();
+        }
+        ledgerService.setWriteCoordinator(this);
+        applier.execute(this::applyCommitted);
+        long tick = Math.max(1, options.heartbeatInterval().toMillis() / 5);
+        timer.scheduleAtFixedRate(this::tick, tick, tick, TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        List<Pending> abandoned;
+        synchronized (this) {
+            running = false;
+            role = Role.FOLLOWER;
+            abandoned = new ArrayList<>(pending.values());
+            pending.clear();
+        }
+        timer.shutdownNow();
+        // Interrupting an apply or a sync would close a storage channel under it, and an interrupted
+        // save of the applied index would forget entries this node already applied
+        applier.shutdown();
+        syncer.shutdown();
+        try {
+            applier.awaitTermination(5, TimeUnit.SECONDS);
+            syncer.awaitTermination(5, TimeUnit.SECONDS);
+            storage.close();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (IOException ex) {
+            LOGGER.warn("Failed to close Raft storage of node {}", id, ex);
+        }
+        abandoned.forEach(waiting -> waiting.result().completeExceptionally(new NotLeaderException(null)));
+    }
+
+    @Override
+    public CompletableFuture<Object> submit(LedgerCommand command) {
+        Objects.requireNonNull(command, "Command can't be null");
+        CompletableFuture<Object> result = new CompletableFuture<>();
+        synchronized (this) {
+            if (!running || role != Role.LEADER) {
+                return CompletableFuture.failedFuture(new NotLeaderException(leaderId));
+            }
+            LogEntry entry = new LogEntry(currentTerm, log.size() + 1, command);
+            appendToLog(List.of(entry));
+            pending.put(entry.index(), new Pending(command, result));
+            followers.forEach((peerId, follower) -> replicate(peerId, follower, false));
+            scheduleSync();
+        }
+        return result.orTimeout(options.commitTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                .handle((value, failure) -> {
+                    if (failure == null) {
+                        return value;
+                    }
+                    Throwable cause = failure instanceof CompletionException ? failure.getCause() : failure;
+                    if (cause instanceof TimeoutException) {
+                        throw new CommitTimeoutException();
+                    }
+                    throw cause instanceof RuntimeException runtime ? runtime : new CompletionException(cause);
+                });
+    }
+
+    public synchronized AppendEntriesResult handleAppendEntries(AppendEntries request) {
+        requireRunning();
+        if (request.term() < currentTerm) {
+            return new AppendEntriesResult(currentTerm, false, log.size());
+        }
+        becomeFollower(request.term(), request.leaderId());
+
+        long previous = request.prevLogIndex();
+        if (previous > log.size()) {
+            return new AppendEntriesResult(currentTerm, false, log.size());
+        }
+        if (termAt(previous) != request.prevLogTerm()) {
+            return new AppendEntriesResult(currentTerm, false, previous - 1);
+        }
+
+        long index = previous;
+        List<LogEntry> appended = new ArrayList<>();
+        for (LogEntry entry : request.entries()) {
+            index++;
+            if (index <= log.size()) {
+                if (termAt(index) == entry.term()) {
+                    continue;
+                }
+                // Conflicting suffix from a deposed leader; never committed, so never applied
+                truncateLog(index);
+            }
+            appended.add(entry);
+        }
+        if (!appended.isEmpty()) {
+            appendToLog(appended);
+        }
+        if (syncedIndex < log.size()) {
+            // The leader counts this reply towards a majority, so the entries must survive a crash
+            syncLog();
+        }
+
+        long committed = Math.min(request.leaderCommit(), index);
+        if (committed > commitIndex) {
+            commitIndex = committed;
+            applier.execute(this::applyCommitted);
+        }
+        return new AppendEntriesResult(currentTerm, true, index);
+    }
+
+    public synchronized RequestVoteResult handleRequestVote(RequestVote request) {
+        requireRunning();
+        if (request.term() > currentTerm) {
+            becomeFollower(request.term(), null);
+        }
+        long lastTerm = termAt(log.size());
+        boolean upToDate = request.lastLogTerm() > lastTerm
+                || (request.lastLogTerm() == lastTerm && request.lastLogIndex() >= log.size());
+        boolean granted = request.term() == currentTerm
+                && (votedFor == null || votedFor.equals(request.candidateId()))
+                && upToDate;
+        if (granted) {
+            saveTerm(currentTerm, request.candidateId());
+            resetElectionDeadline();
+        }
+        return new RequestVoteResult(currentTerm, granted);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public synchronized Role getRole() {
+        return role;
+    }
+
+    public synchronized boolean isLeader() {
+        return running && role == Role.LEADER;
+    }
+
+    public synchronized String getLeaderId() {
+        return leaderId;
+    }
+
+    public synchronized long getCurrentTerm() {
+        return currentTerm;
+    }
+
+    public synchronized long getCommitIndex() {
+        return commitIndex;
+    }
+
+    public synchronized long getLastLogIndex() {
+        return log.size();
+    }
+
+    public long getLastApplied() {
+        return lastApplied;
+    }
+
+    private void tick() {
+        try {
+            synchronized (this) {
+                if (!running) {
+                    return;
+                }
+                if (role == Role.LEADER) {
+                    long now = System.nanoTime();
+                    long heartbeat = options.heartbeatInterval().toNanos();
+                    followers.forEach((peerId, follower) -> {
+                        if (now - follower.lastSent >= heartbeat) {
+                            replicate(peerId, follower, true);
+                        }
+                    });
+                } else if (System.nanoTime() - electionDeadline >= 0) {
+                    startElection();
+                }
+            }
+        } catch (RuntimeException ex) {
+            LOGGER.error("Raft node {} tick failed", id, ex);
+        }
+    }
+
+    // Sends the follower its next batch, if its pipeline has room; heartbeats go out even when empty
+    private void replicate(String peerId, Follower follower, boolean heartbeat) {
+        if (follower.inFlight >= options.maxInFlight()) {
+            return;
+        }
+        long from = follower.nextIndex;
+        int count = (int) Math.max(0, Math.min(options.maxBatchSize(), log.size() - from + 1));
+        if (count == 0 && !heartbeat) {
+            return;
+        }
+        List<LogEntry> entries = count == 0 ? List.of() : List.copyOf(log.subList((int) from - 1, (int) from - 1 + count));
+        AppendEntries request = new AppendEntries(currentTerm, id, from - 1, termAt(from - 1), entries, commitIndex);
+        follower.nextIndex = from + count;
+        follower.inFlight++;
+        follower.lastSent = System.nanoTime();
+        transport.appendEntries(peerId, request)
+                .orTimeout(options.electionTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                .whenCompleteAsync((result, failure) -> onAppendEntriesResult(peerId, request, result, failure), timer);
+    }
+
+    private synchronized void onAppendEntriesResult(String peerId, AppendEntries request,
+                                                    AppendEntriesResult result, Throwable failure) {
+        if (result != null && result.term() > currentTerm) {
+            becomeFollower(result.term(), null);
+            return;
+        }
+        Follower follower = followers.get(peerId);
+        if (!running || role != Role.LEADER || request.term() != currentTerm || follower == null) {
+            return;
+        }
+        follower.inFlight--;
+        if (failure != null) {
+            // Later pipelined requests build on this one, so resend everything after the known match
+            follower.nextIndex = follower.matchIndex + 1;
+            return;
+        }
+        if (result.success()) {
+            follower.matchIndex = Math.max(follower.matchIndex, result.matchIndex());
+            follower.nextIndex = Math.max(follower.nextIndex, follower.matchIndex + 1);
+            advanceCommitIndex();
+        } else {
+            follower.nextIndex = Math.max(1, Math.min(follower.nextIndex, result.matchIndex() + 1));
+        }
+        replicate(peerId, follower, false);
+    }
+
+    private void startElection() {
+        saveTerm(currentTerm + 1, id);
+        role = Role.CANDIDATE;
+        leaderId = null;
+        votes = 1;
+        resetElectionDeadline();
+        if (hasMajority(votes)) {
+            becomeLeader();
+            return;
+        }
+        RequestVote request = new RequestVote(currentTerm, id, log.size(), termAt(log.size()));
+        for (String peerId : peers) {
+            transport.requestVote(peerId, request)
+                    .orTimeout(options.electionTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                    .whenCompleteAsync((result, failure) -> onRequestVoteResult(request, result), timer);
+        }
+    }
+
+    private synchronized void onRequestVoteResult(RequestVote request, RequestVoteResult result) {
+        if (result == null || !running) {
+            return;
+        }
+        if (result.term() > currentTerm) {
+            becomeFollower(result.term(), null);
+        } else if (role == Role.CANDIDATE && request.term() == currentTerm && result.voteGranted()) {
+            votes++;
+            if (hasMajority(votes)) {
+                becomeLeader();
+            }
+        }
+    }
+
+    private void becomeLeader() {
+        role = Role.LEADER;
+        leaderId = id;
+        followers.clear();
+        for (String peerId : peers) {
+            followers.put(peerId, new Follower(log.size() + 1));
+        }
+        // Entries from earlier terms only commit once an entry of the current term does
+        appendToLog(List.of(new LogEntry(currentTerm, log.size() + 1, null)));
+        LOGGER.info("Raft node {} elected leader for term {}", id, currentTerm);
+        followers.forEach((peerId, follower) -> replicate(peerId, follower, true));
+        scheduleSync();
+    }
+
+    private void becomeFollower(long term, String leader) {
+        if (term > currentTerm) {
+            saveTerm(term, null);
+        }
+        if (role == Role.LEADER) {
+            LOGGER.info("Raft node {} stepped down in term {}", id, currentTerm);
+            followers.clear();
+        }
+        role = Role.FOLLOWER;
+        leaderId = leader;
+        resetElectionDeadline();
+    }
+
+    private void advanceCommitIndex() {
+        for (long index = log.size(); index > commitIndex && termAt(index) == currentTerm; index--) {
+            int replicas = syncedIndex >= index ? 1 : 0;
+            for (Follower follower : followers.values()) {
+                if (follower.matchIndex >= index) {
+                    replicas++;
+                }
+            }
+            if (hasMajority(replicas)) {
+                commitIndex = index;
+                applier.execute(this::applyCommitted);
+                return;
+            }
+        }
+    }
+
+    private void applyCommitted() {
+        while (true) {
+            List<LogEntry> entries;
+            List<Pending> waiting = new ArrayList<>();
+            synchronized (this) {
+                if (lastApplied >= commitIndex) {
+                    return;
+                }
+                entries = new ArrayList<>(log.subList((int) lastApplied, (int) commitIndex));
+                for (LogEntry entry : entries) {
+                    waiting.add(pending.remove(entry.index()));
+                }
+            }
+            List<Outcome> outcomes = new ArrayList<>(entries.size());
+            for (LogEntry entry : entries) {
+                outcomes.add(apply(entry));
+            }
+            // Saved before anyone hears back, so a restart never applies an acknowledged entry again
+            RuntimeException saveFailure = null;
+            try {
+                storage.saveApplied(new RaftStorage.Applied(lastApplied, ledgerService.getVersion()));
+            } catch (IOException ex) {
+                LOGGER.error("Raft node {} failed to save applied index {}", id, lastApplied, ex);
+                saveFailure = new UncheckedIOException("Failed to save applied Raft index", ex);
+            }
+            for (int i = 0; i < entries.size(); i++) {
+                complete(entries.get(i), waiting.get(i), outcomes.get(i), saveFailure);
+            }
+        }
+    }
+
+    private Outcome apply(LogEntry entry) {
+        Object result = null;
+        RuntimeException error = null;
+        if (entry.command() != null) {
+            try {
+                result = ledgerService.apply(entry.command());
+            } catch (RuntimeException ex) {
+                error = ex;
+            }
+        }
+        lastApplied = entry.index();
+        return new Outcome(result, error);
+    }
+
+    private void complete(LogEntry entry, Pending waiting, Outcome outcome, RuntimeException saveFailure) {
+        if (waiting == null) {
+            return;
+        }
+        if (!waiting.command().equals(entry.command())) {
+            // Our entry was overwritten by a later leader
+            waiting.result().completeExceptionally(new NotLeaderException(getLeaderId()));
+        } else if (outcome.error() != null) {
+            waiting.result().completeExceptionally(outcome.error());
+        } else if (saveFailure != null) {
+            waiting.result().completeExceptionally(saveFailure);
+        } else {
+            waiting.result().complete(outcome.result());
+        }
+    }
+
+    /**
+     * Where to resume applying after a restart. A ledger that starts out empty while the storage
+     * says otherwise is in memory, and is rebuilt from the start of the log; a durable ledger may be
+     * ahead of the saved index by the writes of the batch being applied when the node stopped.
+     */
+    private long recoverLastApplied(RaftStorage.Applied applied) {
+        long version = ledgerService.getVersion();
+        if (version == applied.ledgerVersion()) {
+            return applied.index();
+        }
+        if (version < applied.ledgerVersion()) {
+            if (version == 0) {
+                LOGGER.info("Raft node {} rebuilding the ledger from its log", id);
+                return 0;
+            }
+            throw new IllegalStateException("Ledger version " + version + " is behind version "
+                    + applied.ledgerVersion() + " saved with Raft log index " + applied.index());
+        }
+        Set<UUID> stored = new HashSet<>();
+        for (Transaction transaction : ledgerService.getTransactionsSince(applied.ledgerVersion())) {
+            stored.add(transaction.getId());
+        }
+        long recovered = applied.index();
+        for (long index = applied.index() + 1; index <= log.size(); index++) {
+            LedgerCommand command = log.get((int) index - 1).command();
+            if (command != null && stored.contains(command.id())) {
+                recovered = index;
+            }
+        }
+        if (recovered == applied.index()) {
+            throw new IllegalStateException("Ledger version " + version + " holds writes after Raft log index "
+                    + applied.index() + " that aren't in the log");
+        }
+        return recovered;
+    }
+
+    private void saveTerm(long term, String vote) {
+        try {
+            storage.saveTerm(new RaftStorage.Term(term, vote));
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to save Raft term " + term, ex);
+        }
+        currentTerm = term;
+        votedFor = vote;
+    }
+
+    private void appendToLog(List<LogEntry> entries) {
+        try {
+            storage.append(entries);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to append to the Raft log", ex);
+        }
+        log.addAll(entries);
+    }
+
+    private void truncateLog(long index) {
+        try {
+            storage.truncateFrom(index);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to truncate the Raft log", ex);
+        }
+        log.subList((int) index - 1, log.size()).clear();
+        syncedIndex = Math.min(syncedIndex, index - 1);
+        truncations++;
+    }
+
+    private void syncLog() {
+        try {
+            storage.sync();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to sync the Raft log", ex);
+        }
+        syncedIndex = log.size();
+    }
+
+    // The leader's own appends are synced off the lock; one sync covers whatever piled up meanwhile
+    private void scheduleSync() {
+        if (!syncScheduled) {
+            syncScheduled = true;
+            syncer.execute(this::syncInBackground);
+        }
+    }
+
+    private void syncInBackground() {
+        long target;
+        long truncated;
+        synchronized (this) {
+            syncScheduled = false;
+            target = log.size();
+            truncated = truncations;
+        }
+        try {
+            storage.sync();
+        } catch (IOException | RuntimeException ex) {
+            LOGGER.error("Raft node {} failed to sync its log", id, ex);
+            return;
+        }
+        synchronized (this) {
+            // A truncation since then may have replaced entries the sync didn't cover
+            if (truncated == truncations && target > syncedIndex) {
+                syncedIndex = target;
+                if (running && role == Role.LEADER) {
+                    advanceCommitIndex();
+                }
+            }
+        }
+    }
+
+    private long termAt(long index) {
+        return index == 0 ? 0 : log.get((int) index - 1).term();
+    }
+
+    private boolean hasMajority(int count) {
+        return count * 2 > peers.size() + 1;
+    }
+
+    private void resetElectionDeadline() {
+        long timeout = options.electionTimeout().toNanos();
+        electionDeadline = System.nanoTime() + timeout + ThreadLocalRandom.current().nextLong(timeout);
+    }
+
+    private void requireRunning() {
+        if (!running) {
+            throw new IllegalStateException("Raft node " + id + " is stopped");
+        }
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private static final class Follower {
+        private long nextIndex;
+        private long matchIndex;
+        private int inFlight;
+        private long lastSent;
+
+        private Follower(long nextIndex) {
+            this.nextIndex = nextIndex;
+        }
+    }
+
+    private record Pending(LedgerCommand command, CompletableFuture<Object> result) {
+    }
+
+    private record Outcome(Object result, RuntimeException error) {
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.ledger.consensus;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Timing and batching knobs of a {@link RaftNode}. The election timeout is randomized between one
+ * and two times {@code electionTimeout}; it should be several heartbeats long.
+ */
+public record RaftOptions(Duration heartbeatInterval, Duration electionTimeout, Duration commitTimeout,
+                          int maxBatchSize, int maxInFlight) {
+
+    public RaftOptions {
+        Objects.requireNonNull(heartbeatInterval, "Heartbeat interval can't be null");
+        Objects.requireNonNull(electionTimeout, "Election timeout can't be null");
+        Objects.requireNonNull(commitTimeout, "Commit timeout can't be null");
+        if (maxBatchSize < 1 || maxInFlight < 1) {
+            throw new IllegalArgumentException("Batch size and in-flight limit must be positive");
+        }
+    }
+
+    public static RaftOptions defaults() {
+        return new RaftOptions(Duration.ofMillis(50), Duration.ofMillis(300), Duration.ofSeconds(5), 512, 4);
+    }
+}
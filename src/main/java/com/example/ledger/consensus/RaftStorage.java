@@ -0,0 +1,50 @@
+package com.example.ledger.consensus;
+
+import com.example.ledger.consensus.RaftMessages.LogEntry;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Where a {@link RaftNode} keeps the state it must not forget across restarts: its term and vote,
+ * its log, and how far into the log it has applied to the ledger.
+ * <p>
+ * {@link #saveTerm} and {@link #saveApplied} are durable when they return. Log appends and
+ * truncations may be buffered until the next {@link #sync()}; the node doesn't count an entry as
+ * stored, for itself or in its reply to the leader, before that.
+ */
+public interface RaftStorage extends Closeable {
+
+    record Term(long term, String votedFor) {
+
+        public static final Term INITIAL = new Term(0, null);
+    }
+
+    /**
+     * The last applied log index, and the ledger version right after applying it.
+     */
+    record Applied(long index, long ledgerVersion) {
+
+        public static final Applied INITIAL = new Applied(0, 0);
+    }
+
+    Term loadTerm() throws IOException;
+
+    Applied loadApplied() throws IOException;
+
+    List<LogEntry> loadLog() throws IOException;
+
+    void saveTerm(Term term) throws IOException;
+
+    void saveApplied(Applied applied) throws IOException;
+
+    void append(List<LogEntry> entries) throws IOException;
+
+    /**
+     * Drops the entry at {@code index} and everything after it.
+     */
+    void truncateFrom(long index) throws IOException;
+
+    void sync() throws IOException;
+}
@@ -0,0 +1,19 @@
+package com.example.ledger.consensus;
+
+import com.example.ledger.consensus.RaftMessages.AppendEntries;
+import com.example.ledger.consensus.RaftMessages.AppendEntriesResult;
+import com.example.ledger.consensus.RaftMessages.RequestVote;
+import com.example.ledger.consensus.RaftMessages.RequestVoteResult;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Delivers RPCs to other nodes. Requests to the same peer must be handled in the order they were
+ * sent, so a leader can pipeline several append requests without waiting for each reply.
+ */
+public interface RaftTransport {
+
+    CompletableFuture<AppendEntriesResult> appendEntries(String peerId, AppendEntries request);
+
+    CompletableFuture<RequestVoteResult> requestVote(String peerId, RequestVote request);
+}
@@ -0,0 +1,290 @@
+package com.example.ledger.consensus;
+
+import com.example.ledger.consensus.RaftMessages.AppendEntries;
+import com.example.ledger.consensus.RaftMessages.AppendEntriesResult;
+import com.example.ledger.consensus.RaftMessages.RequestVote;
+import com.example.ledger.consensus.RaftMessages.RequestVoteResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link RaftTransport} over plain TCP. Each node listens on its own port and keeps one outgoing
+ * connection per peer; requests on a connection are handled one after another, which gives the
+ * per-peer ordering pipelined appends rely on. Writes to a peer happen on a dedicated thread so a
+ * slow peer never blocks the node's lock, and replies are matched to requests by correlation id.
+ */
+public class TcpRaftTransport implements RaftTransport {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TcpRaftTransport.class);
+    private static final int CONNECT_TIMEOUT_MILLIS = 1000;
+
+    private final Map<String, InetSocketAddress> peers;
+    private final Map<String, Connection> connections = new ConcurrentHashMap<>();
+    private final Set<Socket> accepted = ConcurrentHashMap.newKeySet();
+    private final AtomicLong correlationIds = new AtomicLong();
+
+    private volatile boolean running;
+    private ServerSocket serverSocket;
+    private Thread acceptor;
+    private RaftNode node;
+
+    public TcpRaftTransport(Map<String, InetSocketAddress> peers) {
+        this.peers = Map.copyOf(peers);
+    }
+
+    /**
+     * Starts answering RPCs from peers on behalf of {@code node}.
+     */
+    public void start(RaftNode node, String host, int port) throws IOException {
+        this.node = Objects.requireNonNull(node, "Node can't be null");
+        serverSocket = new ServerSocket();
+        serverSocket.setReuseAddress(true);
+        serverSocket.bind(new InetSocketAddress(host, port));
+        running = true;
+        acceptor = new Thread(this::accept, "raft-acceptor-" + node.getId());
+        acceptor.setDaemon(true);
+        acceptor.start();
+        LOGGER.info("Raft node {} listening on {}:{}", node.getId(), host, getPort());
+    }
+
+    public void stop() throws IOException, InterruptedException {
+        running = false;
+        if (serverSocket != null) {
+            serverSocket.close();
+            // The listening socket is only released once the blocked accept returns
+            acceptor.join(1000);
+        }
+        accepted.forEach(TcpRaftTransport::closeQuietly);
+        connections.values().forEach(Connection::close);
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    @Override
+    public CompletableFuture<AppendEntriesResult> appendEntries(String peerId, AppendEntries request) {
+        return connection(peerId).send(RaftCodec.APPEND_ENTRIES, out -> RaftCodec.write(out, request));
+    }
+
+    @Override
+    public CompletableFuture<RequestVoteResult> requestVote(String peerId, RequestVote request) {
+        return connection(peerId).send(RaftCodec.REQUEST_VOTE, out -> RaftCodec.write(out, request));
+    }
+
+    private Connection connection(String peerId) {
+        InetSocketAddress address = peers.get(peerId);
+        if (address == null) {
+            throw new IllegalArgumentException("Unknown peer: " + peerId);
+        }
+        return connections.computeIfAbsent(peerId, id -> new Connection(id, address));
+    }
+
+    private void accept() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                accepted.add(socket);
+                Thread thread = new Thread(() -> serve(socket), "raft-peer-" + socket.getPort());
+                thread.setDaemon(true);
+                thread.start();
+            } catch (IOException ex) {
+                if (running) {
+                    LOGGER.warn("Failed to accept peer connection", ex);
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try {
+            socket.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            while (running) {
+                long correlationId = in.readLong();
+                byte kind = in.readByte();
+                Object message = switch (kind) {
+                    case RaftCodec.APPEND_ENTRIES -> RaftCodec.readAppendEntries(in);
+                    case RaftCodec.REQUEST_VOTE -> RaftCodec.readRequestVote(in);
+                    default -> throw new IOException("Invalid RPC kind: " + kind);
+                };
+                out.writeLong(correlationId);
+                out.writeByte(kind);
+                try {
+                    if (message instanceof AppendEntries request) {
+                        AppendEntriesResult result = node.handleAppendEntries(request);
+                        out.writeBoolean(false);
+                        RaftCodec.write(out, result);
+                    } else {
+                        RequestVoteResult result = node.handleRequestVote((RequestVote) message);
+                        out.writeBoolean(false);
+                        RaftCodec.write(out, result);
+                    }
+                } catch (RuntimeException ex) {
+                    out.writeBoolean(true);
+                    out.writeUTF(String.valueOf(ex.getMessage()));
+                }
+                if (in.available() == 0) {
+                    out.flush();
+                }
+            }
+        } catch (IOException ex) {
+            LOGGER.debug("Peer connection {} closed: {}", socket.getRemoteSocketAddress(), ex.getMessage());
+        } finally {
+            accepted.remove(socket);
+            closeQuietly(socket);
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException ex) {
+            LOGGER.debug("Failed to close peer connection", ex);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Body {
+        void writeTo(DataOutputStream out) throws IOException;
+    }
+
+    /**
+     * Outgoing connection to one peer, opened lazily and reopened on the next request after a
+     * failure. Requests still waiting for a reply fail when the connection breaks.
+     */
+    private final class Connection {
+
+        private final String peerId;
+        private final InetSocketAddress address;
+        private final ExecutorService writer;
+        private final Map<Long, CompletableFuture<Object>> waiting = new ConcurrentHashMap<>();
+
+        // Accessed by the writer thread only
+        private Socket socket;
+        private DataOutputStream out;
+
+        private Connection(String peerId, InetSocketAddress address) {
+            this.peerId = peerId;
+            this.address = address;
+            this.writer = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "raft-send-" + peerId);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        @SuppressWarnings("unchecked")
+        private <T> CompletableFuture<T> send(byte kind, Body body) {
+            long correlationId = correlationIds.incrementAndGet();
+            CompletableFuture<Object> result = new CompletableFuture<>();
+            waiting.put(correlationId, result);
+            result.whenComplete((value, failure) -> waiting.remove(correlationId));
+            try {
+                writer.execute(() -> write(correlationId, kind, body));
+            } catch (RejectedExecutionException ex) {
+                result.completeExceptionally(new IOException("Transport stopped"));
+            }
+            return (CompletableFuture<T>) result;
+        }
+
+        private void write(long correlationId, byte kind, Body body) {
+            try {
+                DataOutputStream stream = open();
+                stream.writeLong(correlationId);
+                stream.writeByte(kind);
+                body.writeTo(stream);
+                stream.flush();
+            } catch (IOException ex) {
+                disconnect(ex);
+            }
+        }
+
+        private DataOutputStream open() throws IOException {
+            if (socket == null) {
+                Socket connected = new Socket();
+                try {
+                    connected.setTcpNoDelay(true);
+                    connected.connect(address, CONNECT_TIMEOUT_MILLIS);
+                } catch (IOException ex) {
+                    closeQuietly(connected);
+                    throw ex;
+                }
+                socket = connected;
+                out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+                DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                Thread reader = new Thread(() -> read(connected, in), "raft-receive-" + peerId);
+                reader.setDaemon(true);
+                reader.start();
+            }
+            return out;
+        }
+
+        private void read(Socket connected, DataInputStream in) {
+            try {
+                while (true) {
+                    long correlationId = in.readLong();
+                    byte kind = in.readByte();
+                    boolean failed = in.readBoolean();
+                    CompletableFuture<Object> result = waiting.get(correlationId);
+                    if (failed) {
+                        String message = in.readUTF();
+                        if (result != null) {
+                            result.completeExceptionally(new IllegalStateException(message));
+                        }
+                        continue;
+                    }
+                    Object value = kind == RaftCodec.APPEND_ENTRIES
+                            ? RaftCodec.readAppendEntriesResult(in)
+                            : RaftCodec.readRequestVoteResult(in);
+                    if (result != null) {
+                        result.complete(value);
+                    }
+                }
+            } catch (IOException ex) {
+                try {
+                    writer.execute(() -> {
+                        if (socket == connected) {
+                            disconnect(ex);
+                        }
+                    });
+                } catch (RejectedExecutionException stopped) {
+                    waiting.values().forEach(result -> result.completeExceptionally(ex));
+                }
+            }
+        }
+
+        private void disconnect(IOException cause) {
+            if (socket != null) {
+                closeQuietly(socket);
+                socket = null;
+                out = null;
+            }
+            waiting.values().forEach(result -> result.completeExceptionally(cause));
+        }
+
+        private void close() {
+            writer.execute(() -> disconnect(new IOException("Transport stopped")));
+            writer.shutdown();
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package com.example.ledger.domain;
+
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Running state of one account. Credits commute and can't overdraw, so they are added without any
+ * lock; debits are taken under the account's own monitor, where the balance includes every
+ * completed credit, and before the debit is stored, so a failed write gives the amount back. A hot
+ * account keeps its balance in {@link SubBalances} instead and takes most debits from one slot
+ * without the monitor. An open hold is debited like a withdrawal and counted apart, so it leaves
+ * the available balance but not the balance. The fields below hold the balance in
+ * {@link Currencies#DEFAULT}; every other currency lives in {@link CurrencyBalances}, which the
+ * methods taking a currency go to after a single reference comparison. Ids are short URL-safe
+ * strings; operations that don't name an account work on {@link #DEFAULT_ID}, the single account
+ * the ledger started out with. An account in a hierarchy also adds every change to its balance to
+ * its {@link Rollup}.
+ */
+public final class Account {
+
+    public static final String DEFAULT_ID = "default";
+
+    private static final Pattern ID_PATTERN = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+
+    private final String id;
+    private final SubBalances split;
+    private volatile long balance;
+    private final LongAdder credits = new LongAdder();
+    private final AtomicLong held = new AtomicLong();
+    private volatile boolean loaded;
+    private final LongAdder lockAcquisitions = new LongAdder();
+    private final LongAdder lockWaitNanos = new LongAdder();
+    private final VelocityWindow velocity = new VelocityWindow();
+    private final CurrencyBalances currencies = new CurrencyBalances();
+    private volatile Rollup rollup;
+
+    Account(String id) {
+        this(id, 0);
+    }
+
+    Account(String id, int subBalances) {
+        this.id = id;
+        this.split = subBalances > 0 ? new SubBalances(subBalances) : null;
+    }
+
+    public static String requireValidId(String id) {
+        Objects.requireNonNull(id, "Account id can't be null");
+        if (!ID_PATTERN.matcher(id).matches()) {
+            throw new InvalidAccountException(id);
+        }
+        return id;
+    }
+
+    String getId() {
+        return id;
+    }
+
+    boolean isSplit() {
+        return split != null;
+    }
+
+    int getSubBalanceCount() {
+        return split != null ? split.getCount() : 1;
+    }
+
+    /**
+     * The available balance plus every open hold.
+     */
+    long getBalance() {
+        return getAvailable() + held.get();
+    }
+
+    /**
+     * What debits can take, open holds excluded. Never below the true value: credits only add,
+     * and every completed one is counted. A split account is read under the monitor, so a
+     * consolidation in progress isn't seen half done.
+     */
+    long getAvailable() {
+        if (split == null) {
+            return balance + credits.sum();
+        }
+        synchronized (this) {
+            return split.sum();
+        }
+    }
+
+    // Only while loading, under the monitor and before any credit or debit
+    void setBalance(long balance) {
+        if (split != null) {
+            split.spread(balance);
+        } else {
+            this.balance = balance;
+        }
+    }
+
+    void credit(long amount) {
+        if (split != null) {
+            split.credit(amount);
+        } else {
+            credits.add(amount);
+        }
+    }
+
+    /**
+     * Takes the amount from the calling thread's sub-balance without the monitor, if the account
+     * is split and that sub-balance covers it.
+     */
+    boolean tryDebit(long amount) {
+        return split != null && split.tryDebit(amount);
+    }
+
+    /**
+     * Takes the amount if the balance covers it, consolidating and evenly spreading the
+     * sub-balances of a split account. Under the monitor.
+     */
+    boolean debitIfCovered(long amount) {
+        if (split == null) {
+            if (balance + credits.sum() < amount) {
+                return false;
+            }
+            balance -= amount;
+            return true;
+        }
+        long total = split.drain();
+        boolean covered = total >= amount;
+        split.spread(covered ? total - amount : total);
+        return covered;
+    }
+
+    // Under the monitor, for debits validated elsewhere such as replicated ones
+    void debit(long amount) {
+        if (split != null) {
+            split.spread(split.drain() - amount);
+        } else {
+            balance -= amount;
+        }
+    }
+
+    // Moves an amount already debited from the available balance into the open holds, or back
+    void hold(long amount) {
+        held.addAndGet(amount);
+    }
+
+    void unhold(long amount) {
+        held.addAndGet(-amount);
+    }
+
+    long getBalance(Currency currency) {
+        return currency == Currencies.DEFAULT
+                ? getBalance()
+                : currencies.available(currency) + currencies.held(currency);
+    }
+
+    long getAvailable(Currency currency) {
+        return currency == Currencies.DEFAULT ? getAvailable() : currencies.available(currency);
+    }
+
+    /**
+     * The balance in the default currency followed by every other currency the account has used.
+     */
+    List<Money> getBalances() {
+        Currency[] others = currencies.currencies();
+        List<Money> balances = new ArrayList<>(1 + others.length);
+        balances.add(Money.ofMinorUnits(getBalance()));
+        for (Currency currency : others) {
+            balances.add(Money.ofMinorUnits(getBalance(currency), currency));
+        }
+        return balances;
+    }
+
+    void setBalance(Currency currency, long balance) {
+        if (currency == Currencies.DEFAULT) {
+            setBalance(balance);
+        } else {
+            currencies.set(currency, balance);
+        }
+        rollUp(currency, balance);
+    }
+
+    void credit(Currency currency, long amount) {
+        credit(currency, amount, null);
+    }
+
+    // A transfer's legs roll up only below the rollup both accounts share, which they leave unchanged
+    void credit(Currency currency, long amount, Rollup shared) {
+        if (currency == Currencies.DEFAULT) {
+            credit(amount);
+        } else {
+            currencies.credit(currency, amount);
+        }
+        rollUp(currency, amount, shared);
+    }
+
+    boolean tryDebit(Currency currency, long amount) {
+        return tryDebit(currency, amount, null);
+    }
+
+    // Other currencies have a single balance, so there is no sub-balance to take from
+    boolean tryDebit(Currency currency, long amount, Rollup shared) {
+        boolean debited = currency == Currencies.DEFAULT && tryDebit(amount);
+        if (debited) {
+            rollUp(currency, -amount, shared);
+        }
+        return debited;
+    }
+
+    boolean debitIfCovered(Currency currency, long amount) {
+        return debitIfCovered(currency, amount, null);
+    }
+
+    boolean debitIfCovered(Currency currency, long amount, Rollup shared) {
+        boolean debited = currency == Currencies.DEFAULT
+                ? debitIfCovered(amount)
+                : currencies.debitIfCovered(currency, amount);
+        if (debited) {
+            rollUp(currency, -amount, shared);
+        }
+        return debited;
+    }
+
+    void debit(Currency currency, long amount) {
+        if (currency == Currencies.DEFAULT) {
+            debit(amount);
+        } else {
+            currencies.debit(currency, amount);
+        }
+        rollUp(currency, -amount);
+    }
+
+    // The balance counts open holds, so a hold adds back what its debit took
+    void hold(Currency currency, long amount) {
+        if (currency == Currencies.DEFAULT) {
+            hold(amount);
+        } else {
+            currencies.hold(currency, amount);
+        }
+        rollUp(currency, amount);
+    }
+
+    void unhold(Currency currency, long amount) {
+        hold(currency, -amount);
+    }
+
+    Rollup getRollup() {
+        return rollup;
+    }
+
+    // Under the monitor, before the account is loaded
+    void setRollup(Rollup rollup) {
+        this.rollup = rollup;
+    }
+
+    private void rollUp(Currency currency, long delta) {
+        rollUp(currency, delta, null);
+    }
+
+    private void rollUp(Currency currency, long delta, Rollup shared) {
+        Rollup target = rollup;
+        if (target != null) {
+            target.add(currency, delta, shared);
+        }
+    }
+
+    boolean isLoaded() {
+        return loaded;
+    }
+
+    void markLoaded() {
+        loaded = true;
+    }
+
+    // Called right after entering the monitor with the time the caller started waiting for it
+    void lockAcquired(long waitStartNanos) {
+        lockAcquisitions.increment();
+        lockWaitNanos.add(System.nanoTime() - waitStartNanos);
+    }
+
+    long getLockAcquisitions() {
+        return lockAcquisitions.sum();
+    }
+
+    long getLockWaitNanos() {
+        return lockWaitNanos.sum();
+    }
+
+    VelocityWindow getVelocity() {
+        return velocity;
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.ledger.domain;
+
+/**
+ * How often and how long writers waited for an account's monitor since startup, which tells the
+ * accounts worth splitting into sub-balances.
+ */
+public record AccountContention(String accountId, long lockAcquisitions, long lockWaitNanos, int subBalances) {
+
+    public long meanLockWaitNanos() {
+        return lockAcquisitions == 0 ? 0 : lockWaitNanos / lockAcquisitions;
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.ledger.domain;
+
+/**
+ * Kind of an account in the {@link ChartOfAccounts}. Assets and expenses are increased by debits,
+ * liabilities, equity and revenue by credits; an account's balance is kept on its normal side, so
+ * it stays positive however the account is used.
+ */
+public enum AccountKind {
+    ASSET(true),
+    LIABILITY(false),
+    EQUITY(false),
+    REVENUE(false),
+    EXPENSE(true);
+
+    private final boolean debitNormal;
+
+    AccountKind(boolean debitNormal) {
+        this.debitNormal = debitNormal;
+    }
+
+    public boolean isDebitNormal() {
+        return debitNormal;
+    }
+
+    /**
+     * Whether a posting on the given side raises the balance of an account of this kind.
+     */
+    public boolean isIncreasedBy(Posting.Side side) {
+        return (side == Posting.Side.DEBIT) == debitNormal;
+    }
+}
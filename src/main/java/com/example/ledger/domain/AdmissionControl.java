@@ -0,0 +1,223 @@
+package com.example.ledger.domain;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bounds the writes in progress at once. Writes over the limit wait in a bounded FIFO queue and
+ * are rejected with {@link OverloadedException} once it is full, or when they waited longer than
+ * the queue timeout by the time they would start, so callers see a fast failure instead of a
+ * timeout.
+ * <p>
+ * With a maximum limit above the initial one the limit adapts to latency: every window it is moved
+ * towards {@code limit * min(1, tolerance * minLatency / latency) + sqrt(limit)}, so it grows while
+ * latency stays near the best seen and shrinks as writes start queueing for the shared resources
+ * behind it. The best latency is re-measured periodically, so a lasting change in the workload is
+ * not mistaken for congestion.
+ */
+public class AdmissionControl {
+
+    private static final long WINDOW_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final int MIN_LATENCY_WINDOWS = 600;
+    private static final double TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+
+    private final int maxLimit;
+    private final int maxQueued;
+    private final long maxQueueNanos;
+    private final boolean adaptive;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final ArrayDeque<Pending<?>> queue = new ArrayDeque<>();
+    private final LongAdder rejected = new LongAdder();
+    private volatile double limit;
+
+    // Latency of the current window; only the thread that closes a window touches the minimum
+    private final LongAdder windowLatency = new LongAdder();
+    private final LongAdder windowSamples = new LongAdder();
+    private final AtomicInteger windowPeak = new AtomicInteger();
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+    private long minLatency = Long.MAX_VALUE;
+    private int windows;
+
+    public AdmissionControl(int limit, int maxLimit, int maxQueued, Duration maxQueueWait) {
+        if (limit < 1 || maxLimit < limit) {
+            throw new IllegalArgumentException("Admission limits must satisfy 1 <= limit <= max limit");
+        }
+        if (maxQueued < 0) {
+            throw new IllegalArgumentException("Admission queue size can't be negative");
+        }
+        this.limit = limit;
+        this.maxLimit = maxLimit;
+        this.maxQueued = maxQueued;
+        this.maxQueueNanos = maxQueueWait.toNanos();
+        this.adaptive = maxLimit > limit;
+    }
+
+    /**
+     * Starts the write on the executor now if the limit allows, or once an earlier write completes.
+     * The returned future fails with {@link OverloadedException} if the write was shed.
+     */
+    public <T> CompletableFuture<T> submit(Executor executor, Supplier<CompletableFuture<T>> write) {
+        Pending<T> pending = new Pending<>(executor, write, System.nanoTime());
+        // Only overtake the queue when it's empty, so admission stays first come, first served
+        if (queued.get() == 0 && tryAcquire()) {
+            dispatch(pending);
+            return pending.result;
+        }
+        synchronized (queue) {
+            if (queue.size() >= maxQueued) {
+                rejected.increment();
+                return CompletableFuture.failedFuture(new OverloadedException());
+            }
+            queue.add(pending);
+            queued.incrementAndGet();
+        }
+        drain();
+        return pending.result;
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public int getQueued() {
+        return queued.get();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * Moves the limit given a window's mean latency and the most writes in flight during it. A
+     * window that never came close to the limit says nothing about it and leaves it alone.
+     */
+    void adapt(long meanLatencyNanos, int peakInFlight) {
+        if (meanLatencyNanos <= 0) {
+            return;
+        }
+        if (meanLatencyNanos < minLatency || ++windows >= MIN_LATENCY_WINDOWS) {
+            minLatency = meanLatencyNanos;
+            windows = 0;
+        }
+        double current = limit;
+        if (peakInFlight < current / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * minLatency / meanLatencyNanos));
+        double target = current * gradient + Math.sqrt(current);
+        limit = Math.max(1, Math.min(maxLimit, current * (1 - SMOOTHING) + target * SMOOTHING));
+    }
+
+    private boolean tryAcquire() {
+        for (int running = inFlight.get(); running < (int) limit; running = inFlight.get()) {
+            if (inFlight.compareAndSet(running, running + 1)) {
+                if (adaptive) {
+                    windowPeak.accumulateAndGet(running + 1, Math::max);
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void drain() {
+        while (queued.get() > 0 && tryAcquire()) {
+            Pending<?> next;
+            synchronized (queue) {
+                next = queue.poll();
+                if (next != null) {
+                    queued.decrementAndGet();
+                }
+            }
+            if (next == null) {
+                inFlight.decrementAndGet();
+            } else {
+                dispatch(next);
+            }
+        }
+    }
+
+    private <T> void dispatch(Pending<T> pending) {
+        try {
+            pending.executor.execute(() -> run(pending));
+        } catch (RejectedExecutionException ex) {
+            shed(pending);
+        }
+    }
+
+    private <T> void run(Pending<T> pending) {
+        long start = System.nanoTime();
+        if (start - pending.submittedAt > maxQueueNanos) {
+            shed(pending);
+            return;
+        }
+        CompletableFuture<T> write;
+        try {
+            write = pending.write.get();
+        } catch (RuntimeException | Error ex) {
+            write = CompletableFuture.failedFuture(ex);
+        }
+        write.whenComplete((value, failure) -> {
+            inFlight.decrementAndGet();
+            record(System.nanoTime() - start);
+            if (failure != null) {
+                pending.result.completeExceptionally(failure);
+            } else {
+                pending.result.complete(value);
+            }
+            drain();
+        });
+    }
+
+    private void shed(Pending<?> pending) {
+        inFlight.decrementAndGet();
+        rejected.increment();
+        pending.result.completeExceptionally(new OverloadedException());
+        drain();
+    }
+
+    private void record(long latencyNanos) {
+        if (!adaptive) {
+            return;
+        }
+        windowLatency.add(latencyNanos);
+        windowSamples.increment();
+        long start = windowStart.get();
+        long now = System.nanoTime();
+        if (now - start >= WINDOW_NANOS && windowStart.compareAndSet(start, now)) {
+            long samples = windowSamples.sumThenReset();
+            long latency = windowLatency.sumThenReset();
+            if (samples > 0) {
+                adapt(latency / samples, windowPeak.getAndSet(0));
+            }
+        }
+    }
+
+    private static final class Pending<T> {
+        private final Executor executor;
+        private final Supplier<CompletableFuture<T>> write;
+        private final long submittedAt;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+
+        private Pending(Executor executor, Supplier<CompletableFuture<T>> write, long submittedAt) {
+            this.executor = executor;
+            this.write = write;
+            this.submittedAt = submittedAt;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.ledger.domain;
+
+/**
+ * A closed segment of the hash chain, covering the sequences from {@code fromSequence} through
+ * {@code toSequence}: the chain hash it ends at and the Merkle root of its transactions' leaf hashes.
+ */
+public record ChainCheckpoint(long fromSequence, long toSequence, String chainHash, String merkleRoot) {
+}
@@ -0,0 +1,9 @@
+package com.example.ledger.domain;
+
+/**
+ * Latest link of the ledger's hash chain: the sequence of the last chained transaction, how many
+ * transactions were chained, and the hex SHA-256 chain hash an auditor can record to detect later
+ * changes to anything up to it.
+ */
+public record ChainHead(long sequence, long length, String hash) {
+}
@@ -0,0 +1,15 @@
+package com.example.ledger.domain;
+
+/**
+ * Outcome of recomputing the hash chain from stored history. Segments whose transactions were
+ * compacted away are skipped; a broken segment holds a transaction that was altered, removed or
+ * inserted since it was chained, and {@code firstBrokenSequence} is where the earliest one starts,
+ * or zero when none is.
+ */
+public record ChainVerification(ChainHead head, int segments, int skippedSegments, int brokenSegments,
+                                long firstBrokenSequence, long verifiedTransactions) {
+
+    public boolean intact() {
+        return brokenSegments == 0;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.ledger.domain;
+
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The kind of every account journal entries are posted to. Accounts that aren't listed are customer
+ * accounts, whose balance the ledger owes, so they are liabilities; that is what every account was
+ * before the chart existed. The chart decides which side each stored leg lands on, so it must stay
+ * the same for the life of the storage, and be the same on every node.
+ */
+public final class ChartOfAccounts {
+
+    public static final ChartOfAccounts DEFAULT = new ChartOfAccounts(Map.of());
+
+    private final Map<String, AccountKind> kinds;
+
+    public ChartOfAccounts(Map<String, AccountKind> kinds) {
+        Objects.requireNonNull(kinds, "Account kinds can't be null");
+        kinds.forEach((accountId, kind) -> {
+            Account.requireValidId(accountId);
+            Objects.requireNonNull(kind, "Account kind can't be null");
+        });
+        this.kinds = Map.copyOf(kinds);
+    }
+
+    public AccountKind kindOf(String accountId) {
+        return kinds.getOrDefault(accountId, AccountKind.LIABILITY);
+    }
+
+    public Map<String, AccountKind> getKinds() {
+        return kinds;
+    }
+}
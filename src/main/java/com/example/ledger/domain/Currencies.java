@@ -0,0 +1,75 @@
+package com.example.ledger.domain;
+
+import java.util.Currency;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Compact form of the ISO 4217 currencies the ledger accepts, for storage and the wire. A code packs
+ * the three letters five bits each into 15 bits, so it fits an unsigned 16-bit field, needs no
+ * lookup table to compute and, unlike the ISO numeric codes, is never shared by two currencies.
+ * {@link #DEFAULT} is code zero instead, which is exactly what storage written before currencies
+ * existed holds in the field.
+ */
+public final class Currencies {
+
+    public static final Currency DEFAULT = Currency.getInstance("EUR");
+
+    private static final Currency[] BY_CODE = new Currency[1 << 15];
+
+    private Currencies() {
+    }
+
+    /**
+     * Returns the currency with the given ISO code, if it has a fixed number of minor units.
+     */
+    public static Currency of(String isoCode) {
+        Objects.requireNonNull(isoCode, "Currency can't be null");
+        if (isoCode.equals(DEFAULT.getCurrencyCode())) {
+            return DEFAULT;
+        }
+        Currency currency;
+        try {
+            currency = Currency.getInstance(isoCode.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Unknown currency: " + isoCode, ex);
+        }
+        return requireSupported(currency);
+    }
+
+    /**
+     * Rejects currencies such as gold or special drawing rights that have no minor unit.
+     */
+    public static Currency requireSupported(Currency currency) {
+        Objects.requireNonNull(currency, "Currency can't be null");
+        if (currency.getDefaultFractionDigits() < 0) {
+            throw new IllegalArgumentException("Unsupported currency: " + currency.getCurrencyCode());
+        }
+        return currency;
+    }
+
+    public static int codeOf(Currency currency) {
+        if (currency == DEFAULT) {
+            return 0;
+        }
+        String letters = currency.getCurrencyCode();
+        return (letters.charAt(0) - 'A') << 10 | (letters.charAt(1) - 'A') << 5 | (letters.charAt(2) - 'A');
+    }
+
+    public static Currency fromCode(int code) {
+        if (code == 0) {
+            return DEFAULT;
+        }
+        if (code < 0 || code >= BY_CODE.length) {
+            throw new IllegalArgumentException("Invalid currency code: " + code);
+        }
+        Currency currency = BY_CODE[code];
+        if (currency == null) {
+            char[] letters = {(char) ('A' + (code >>> 10 & 31)), (char) ('A' + (code >>> 5 & 31)), (char) ('A' + (code & 31))};
+            currency = of(new String(letters));
+            // Racing threads store the same singleton instance
+            BY_CODE[code] = currency;
+        }
+        return currency;
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.ledger.domain;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.Currency;
+
+/**
+ * An account's balances in currencies other than {@link Currencies#DEFAULT}. Each currency the
+ * account has ever used gets one small entry with its available and held minor units; an account
+ * that never leaves the default currency carries just the shared empty array. The array is copied
+ * only when a currency is added, so credits and debits update their entry in place with atomics,
+ * and debits are checked against the available amount with a compare-and-set instead of a lock.
+ */
+final class CurrencyBalances {
+
+    private static final Entry[] EMPTY = new Entry[0];
+
+    private volatile Entry[] entries = EMPTY;
+
+    long available(Currency currency) {
+        Entry entry = find(currency);
+        return entry == null ? 0 : entry.available;
+    }
+
+    long held(Currency currency) {
+        Entry entry = find(currency);
+        return entry == null ? 0 : entry.held;
+    }
+
+    Currency[] currencies() {
+        Entry[] current = entries;
+        Currency[] currencies = new Currency[current.length];
+        for (int i = 0; i < current.length; i++) {
+            currencies[i] = current[i].currency;
+        }
+        return currencies;
+    }
+
+    void set(Currency currency, long amount) {
+        entry(currency).available = amount;
+    }
+
+    void credit(Currency currency, long amount) {
+        Entry.AVAILABLE.getAndAdd(entry(currency), amount);
+    }
+
+    boolean debitIfCovered(Currency currency, long amount) {
+        Entry entry = entry(currency);
+        long current = entry.available;
+        while (current >= amount) {
+            long witness = (long) Entry.AVAILABLE.compareAndExchange(entry, current, current - amount);
+            if (witness == current) {
+                return true;
+            }
+            current = witness;
+        }
+        return false;
+    }
+
+    void debit(Currency currency, long amount) {
+        Entry.AVAILABLE.getAndAdd(entry(currency), -amount);
+    }
+
+    void hold(Currency currency, long amount) {
+        Entry.HELD.getAndAdd(entry(currency), amount);
+    }
+
+    private Entry find(Currency currency) {
+        for (Entry entry : entries) {
+            if (entry.currency == currency) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    private Entry entry(Currency currency) {
+        Entry entry = find(currency);
+        if (entry != null) {
+            return entry;
+        }
+        synchronized (this) {
+            entry = find(currency);
+            if (entry == null) {
+                Entry[] grown = Arrays.copyOf(entries, entries.length + 1);
+                entry = new Entry(currency);
+                grown[grown.length - 1] = entry;
+                entries = grown;
+            }
+            return entry;
+        }
+    }
+
+    private static final class Entry {
+
+        private static final VarHandle AVAILABLE;
+        private static final VarHandle HELD;
+
+        static {
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.lookup();
+                AVAILABLE = lookup.findVarHandle(Entry.class, "available", long.class);
+                HELD = lookup.findVarHandle(Entry.class, "held", long.class);
+            } catch (ReflectiveOperationException ex) {
+                throw new ExceptionInInitializerError(ex);
+            }
+        }
+
+        private final Currency currency;
+        private volatile long available;
+        private volatile long held;
+
+        private Entry(Currency currency) {
+            this.currency = currency;
+        }
+    }
+}
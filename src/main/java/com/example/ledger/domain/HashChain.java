@@ -0,0 +1,348 @@
+package com.example.ledger.domain;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Tamper-evident SHA-256 chain over the recorded transactions in sequence order. A transaction's
+ * leaf hash covers every field of it, and its chain hash is the hash of the previous chain hash and
+ * that leaf, so altering, dropping, inserting or reordering any transaction changes every chain hash
+ * after it. Appending costs two hashes however long the history is, plus one Merkle node on average.
+ * <p>
+ * Every {@code interval} transactions the chain closes a segment into a checkpoint holding the chain
+ * hash it ends at and the Merkle root of its leaves, built incrementally from at most one pending
+ * subtree root per level. Since the previous checkpoint pins where a segment starts, segments are
+ * verified independently of each other, in parallel on the common fork-join pool. Leaves and nodes
+ * are hashed with distinct prefixes, so a node can't pass for a leaf.
+ * <p>
+ * Only checkpoints are kept, not the hash of every transaction; they take about 100 bytes each.
+ */
+final class HashChain implements TransactionListener {
+
+    private static final int HASH_SIZE = 32;
+    private static final byte[] GENESIS = new byte[HASH_SIZE];
+    private static final byte LEAF = 0;
+    private static final byte NODE = 1;
+    private static final int LEAF_FIELDS = 52;
+
+    private final int interval;
+    private final MessageDigest digest = sha256();
+    private final ByteBuffer fields = ByteBuffer.allocate(LEAF_FIELDS);
+    private final List<Checkpoint> checkpoints = new ArrayList<>();
+    private final MerkleTree tree = new MerkleTree();
+    private byte[] head = GENESIS;
+    private long headSequence;
+    private long length;
+    private int openLength;
+    private long compactedThrough;
+
+    HashChain(int interval) {
+        if (interval < 1) {
+            throw new IllegalArgumentException("Checkpoint interval must be positive");
+        }
+        this.interval = interval;
+    }
+
+    @Override
+    public synchronized void onTransaction(Transaction transaction) {
+        byte[] leaf = leaf(digest, fields, transaction);
+        head = link(digest, head, leaf);
+        tree.add(digest, leaf);
+        headSequence = transaction.getSequence();
+        length++;
+        if (++openLength == interval) {
+            checkpoints.add(new Checkpoint(headSequence, head, tree.root(digest)));
+            tree.clear();
+            openLength = 0;
+        }
+    }
+
+    /**
+     * Notes that the transactions up to the given sequence were folded into balance-forward entries,
+     * so the segments holding them can no longer be verified.
+     */
+    synchronized void compacted(long through) {
+        compactedThrough = Math.max(compactedThrough, through);
+    }
+
+    synchronized ChainHead head() {
+        return new ChainHead(headSequence, length, HexFormat.of().formatHex(head));
+    }
+
+    /**
+     * Closed checkpoints ending after the given sequence, oldest first, at most {@code limit} of them.
+     */
+    synchronized List<ChainCheckpoint> checkpoints(long afterSequence, int limit) {
+        int first = firstEndingAfter(afterSequence);
+        List<ChainCheckpoint> found = new ArrayList<>(Math.min(limit, checkpoints.size() - first));
+        HexFormat hex = HexFormat.of();
+        for (int i = first; i < checkpoints.size() && found.size() < limit; i++) {
+            Checkpoint checkpoint = checkpoints.get(i);
+            long firstSequence = i == 0 ? 1 : checkpoints.get(i - 1).lastSequence() + 1;
+            found.add(new ChainCheckpoint(firstSequence, checkpoint.lastSequence(),
+                    hex.formatHex(checkpoint.chainHash()), hex.formatHex(checkpoint.merkleRoot())));
+        }
+        return found;
+    }
+
+    /**
+     * Takes what verifying needs: every segment up to the current head, the open one last.
+     */
+    synchronized Snapshot snapshot() {
+        List<Segment> segments = new ArrayList<>(checkpoints.size() + 1);
+        long previous = 0;
+        byte[] start = GENESIS;
+        for (Checkpoint checkpoint : checkpoints) {
+            segments.add(new Segment(previous, checkpoint.lastSequence(), interval, start, checkpoint.chainHash(),
+                    checkpoint.merkleRoot(), previous < compactedThrough));
+            previous = checkpoint.lastSequence();
+            start = checkpoint.chainHash();
+        }
+        if (openLength > 0) {
+            segments.add(new Segment(previous, headSequence, openLength, start, head, null, previous < compactedThrough));
+        }
+        return new Snapshot(head(), segments);
+    }
+
+    /**
+     * Recomputes every segment of the snapshot that wasn't compacted, each reading its own sequence
+     * range from the history, so no task waits for or holds more than one segment of it. Segments
+     * cover consecutive sequence ranges, so every transaction up to the head lands in exactly one of
+     * them, and one inserted anywhere breaks its segment; later ones aren't chained yet.
+     */
+    static ChainVerification verify(Snapshot snapshot, History history) {
+        List<Segment> segments = snapshot.segments();
+        Result result = segments.isEmpty()
+                ? new Result(0, 0, 0, 0)
+                : new VerifySegments(segments, history, 0, segments.size()).invoke();
+        return new ChainVerification(snapshot.head(), segments.size(), result.skipped(), result.broken(),
+                result.firstBrokenSequence(), result.verified());
+    }
+
+    /**
+     * Verifies against history already in memory, which must hold the transactions after
+     * {@link Snapshot#verifiableFrom()} in sequence order.
+     */
+    static ChainVerification verify(Snapshot snapshot, List<Transaction> history) {
+        return verify(snapshot, (afterSequence, lastSequence) ->
+                history.subList(indexAfter(history, afterSequence), indexAfter(history, lastSequence)));
+    }
+
+    // Position of the first transaction with a sequence above the given one
+    private static int indexAfter(List<Transaction> history, long sequence) {
+        int low = 0;
+        int high = history.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (history.get(middle).getSequence() <= sequence) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static byte[] leaf(MessageDigest digest, ByteBuffer fields, Transaction transaction) {
+        byte[] accountId = transaction.getAccountId().getBytes(StandardCharsets.UTF_8);
+        fields.clear();
+        fields.put(LEAF)
+                .putLong(transaction.getId().getMostSignificantBits())
+                .putLong(transaction.getId().getLeastSignificantBits())
+                .putLong(transaction.getSequence())
+                .put(codeOf(transaction.getType()))
+                .putLong(transaction.getAmount().getMinorUnits())
+                .putShort((short) Currencies.codeOf(transaction.getAmount().getCurrency()))
+                .putLong(transaction.getCreatedAt().getEpochSecond())
+                .putInt(transaction.getCreatedAt().getNano())
+                .putInt(accountId.length)
+                .flip();
+        digest.update(fields);
+        digest.update(accountId);
+        return digest.digest();
+    }
+
+    private static byte[] link(MessageDigest digest, byte[] previous, byte[] leaf) {
+        digest.update(previous);
+        digest.update(leaf);
+        return digest.digest();
+    }
+
+    private static byte[] node(MessageDigest digest, byte[] left, byte[] right) {
+        digest.update(NODE);
+        digest.update(left);
+        digest.update(right);
+        return digest.digest();
+    }
+
+    private static byte codeOf(TransactionType type) {
+        return switch (type) {
+            case DEPOSIT -> 0;
+            case WITHDRAW -> 1;
+            case TRANSFER_IN -> 2;
+            case TRANSFER_OUT -> 3;
+            case BALANCE_FORWARD -> 4;
+        };
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    private int firstEndingAfter(long sequence) {
+        int low = 0;
+        int high = checkpoints.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (checkpoints.get(middle).lastSequence() <= sequence) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private record Checkpoint(long lastSequence, byte[] chainHash, byte[] merkleRoot) {
+    }
+
+    /**
+     * The transactions with a sequence in {@code (afterSequence, lastSequence]}; the open segment
+     * has no Merkle root yet and is checked against the head alone.
+     */
+    record Segment(long afterSequence, long lastSequence, int length, byte[] startHash, byte[] endHash,
+                   byte[] merkleRoot, boolean compacted) {
+    }
+
+    /**
+     * Reads the recorded transactions with a sequence in {@code (afterSequence, lastSequence]}, in
+     * sequence order. Called from the fork-join pool, once per segment and concurrently.
+     */
+    @FunctionalInterface
+    interface History {
+
+        List<Transaction> read(long afterSequence, long lastSequence);
+    }
+
+    record Snapshot(ChainHead head, List<Segment> segments) {
+
+        /**
+         * Sequence after which history has to be read: the end of the last compacted segment.
+         */
+        long verifiableFrom() {
+            long from = 0;
+            for (Segment segment : segments) {
+                if (segment.compacted()) {
+                    from = segment.lastSequence();
+                }
+            }
+            return from;
+        }
+    }
+
+    private record Result(long verified, int skipped, int broken, long firstBrokenSequence) {
+
+        Result plus(Result other) {
+            long first = broken == 0 ? other.firstBrokenSequence
+                    : other.broken == 0 ? firstBrokenSequence : Math.min(firstBrokenSequence, other.firstBrokenSequence);
+            return new Result(verified + other.verified, skipped + other.skipped, broken + other.broken, first);
+        }
+    }
+
+    /**
+     * Pending subtree roots by level, like the carries of a binary counter: adding a leaf merges
+     * equal-sized subtrees, and the root folds what is left from the smallest up.
+     */
+    private static final class MerkleTree {
+
+        private final byte[][] roots = new byte[Integer.SIZE][];
+
+        void add(MessageDigest digest, byte[] leaf) {
+            byte[] subtree = leaf;
+            int level = 0;
+            while (roots[level] != null) {
+                subtree = node(digest, roots[level], subtree);
+                roots[level++] = null;
+            }
+            roots[level] = subtree;
+        }
+
+        byte[] root(MessageDigest digest) {
+            byte[] root = null;
+            for (byte[] subtree : roots) {
+                if (subtree != null) {
+                    root = root == null ? subtree : node(digest, subtree, root);
+                }
+            }
+            return root;
+        }
+
+        void clear() {
+            Arrays.fill(roots, null);
+        }
+    }
+
+    // Splits the segments in halves down to one per task
+    private static final class VerifySegments extends RecursiveTask<Result> {
+
+        private final List<Segment> segments;
+        private final History history;
+        private final int from;
+        private final int to;
+
+        private VerifySegments(List<Segment> segments, History history, int from, int to) {
+            this.segments = segments;
+            this.history = history;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Result compute() {
+            if (to - from == 1) {
+                Segment segment = segments.get(from);
+                return segment.compacted()
+                        ? new Result(0, 1, 0, 0)
+                        : verify(segment, history.read(segment.afterSequence(), segment.lastSequence()));
+            }
+            int middle = (from + to) >>> 1;
+            VerifySegments left = new VerifySegments(segments, history, from, middle);
+            left.fork();
+            Result right = new VerifySegments(segments, history, middle, to).compute();
+            return left.join().plus(right);
+        }
+
+        private static Result verify(Segment segment, List<Transaction> transactions) {
+            boolean intact = transactions.size() == segment.length();
+            if (intact) {
+                MessageDigest digest = sha256();
+                ByteBuffer fields = ByteBuffer.allocate(LEAF_FIELDS);
+                MerkleTree tree = new MerkleTree();
+                byte[] chain = segment.startHash();
+                for (Transaction transaction : transactions) {
+                    byte[] leaf = leaf(digest, fields, transaction);
+                    chain = link(digest, chain, leaf);
+                    if (segment.merkleRoot() != null) {
+                        tree.add(digest, leaf);
+                    }
+                }
+                intact = Arrays.equals(chain, segment.endHash())
+                        && (segment.merkleRoot() == null || Arrays.equals(tree.root(digest), segment.merkleRoot()));
+            }
+            return intact
+                    ? new Result(transactions.size(), 0, 0, 0)
+                    : new Result(0, 0, 1, segment.afterSequence() + 1);
+        }
+    }
+}
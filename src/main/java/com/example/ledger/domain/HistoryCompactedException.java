@@ -0,0 +1,12 @@
+package com.example.ledger.domain;
+
+/**
+ * Raised when a reader asks for the transactions after a sequence that retention has already
+ * folded into balance-forward entries. It has to start over from sequence zero.
+ */
+public class HistoryCompactedException extends IllegalStateException {
+
+    public HistoryCompactedException(long sequence, long compactedThrough) {
+        super("Transactions up to sequence " + compactedThrough + " were compacted, can't resume after " + sequence);
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.ledger.domain;
+
+import java.time.Instant;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Funds reserved on an account, card-authorization style, until they are captured into a
+ * withdrawal, released, or the hold expires. While it is open the amount still counts towards the
+ * account's balance but not towards what it has available to spend.
+ */
+public final class Hold {
+
+    private final UUID id;
+    private final String accountId;
+    private final Money amount;
+    private final Instant createdAt;
+    private final Instant expiresAt;
+
+    // Set right after the hold is opened, before its id is handed out
+    volatile TimingWheel.Timeout<Hold> expiry;
+
+    public Hold(UUID id, String accountId, Money amount, Instant createdAt, Instant expiresAt) {
+        this.id = Objects.requireNonNull(id, "Hold id can't be null");
+        this.accountId = Objects.requireNonNull(accountId, "Account id can't be null");
+        this.amount = Objects.requireNonNull(amount, "Amount can't be null");
+        this.createdAt = Objects.requireNonNull(createdAt, "Creation time can't be null");
+        this.expiresAt = Objects.requireNonNull(expiresAt, "Expiry can't be null");
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public String getAccountId() {
+        return accountId;
+    }
+
+    public Money getAmount() {
+        return amount;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    @Override
+    public String toString() {
+        return "Hold{id=" + id + ", accountId=" + accountId + ", amount=" + amount + ", expiresAt=" + expiresAt + "}";
+    }
+}
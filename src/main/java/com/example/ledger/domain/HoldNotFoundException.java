@@ -0,0 +1,14 @@
+package com.example.ledger.domain;
+
+import java.util.UUID;
+
+/**
+ * Raised when a hold to capture or release is unknown, or was already captured, released or
+ * expired.
+ */
+public class HoldNotFoundException extends RuntimeException {
+
+    public HoldNotFoundException(UUID holdId) {
+        super("No open hold " + holdId);
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.ledger.domain;
+
+import java.util.Objects;
+
+/**
+ * Rejects a withdrawal larger than the available balance, i.e. the balance less any open holds. This is an expected business outcome, not a
+ * programming error, so no stack trace is captured and the message is only built if someone reads it.
+ */
+public class InsufficientFundsException extends IllegalArgumentException {
+
+    private final Money available;
+    private final Money requested;
+
+    public InsufficientFundsException(Money available, Money requested) {
+        this.available = Objects.requireNonNull(available, "Available balance can't be null");
+        this.requested = Objects.requireNonNull(requested, "Requested amount can't be null");
+    }
+
+    public Money getAvailable() {
+        return available;
+    }
+
+    public Money getRequested() {
+        return requested;
+    }
+
+    @Override
+    public String getMessage() {
+        return "Insufficient funds: available balance is " + available + ", requested " + requested;
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.ledger.domain;
+
+/**
+ * Raised when an account id doesn't have the form accounts are named in.
+ */
+public class InvalidAccountException extends IllegalArgumentException {
+
+    public InvalidAccountException(String accountId) {
+        super("Invalid account id: " + accountId);
+    }
+}
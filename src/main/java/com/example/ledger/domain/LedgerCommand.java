@@ -0,0 +1,45 @@
+package com.example.ledger.domain;
+
+import java.time.Instant;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * A write request with everything that would otherwise be decided while recording it: transaction
+ * ids and timestamp. Applying the same commands in the same order to two ledgers therefore yields
+ * identical transactions, which is what a {@link WriteCoordinator} relies on.
+ */
+public record LedgerCommand(Kind kind, String accountId, String toAccountId, Money amount,
+                            UUID id, UUID creditId, Instant createdAt) {
+
+    public enum Kind {
+        DEPOSIT,
+        WITHDRAW,
+        TRANSFER
+    }
+
+    public LedgerCommand {
+        Objects.requireNonNull(kind, "Kind can't be null");
+        Account.requireValidId(accountId);
+        Objects.requireNonNull(amount, "Amount can't be null");
+        Objects.requireNonNull(id, "Id can't be null");
+        Objects.requireNonNull(createdAt, "Created at timestamp can't be null");
+        if (kind == Kind.TRANSFER) {
+            Account.requireValidId(toAccountId);
+            Objects.requireNonNull(creditId, "Credit id can't be null");
+        }
+    }
+
+    public static LedgerCommand deposit(String accountId, Money amount, Instant createdAt) {
+        return new LedgerCommand(Kind.DEPOSIT, accountId, null, amount, UUID.randomUUID(), null, createdAt);
+    }
+
+    public static LedgerCommand withdraw(String accountId, Money amount, Instant createdAt) {
+        return new LedgerCommand(Kind.WITHDRAW, accountId, null, amount, UUID.randomUUID(), null, createdAt);
+    }
+
+    public static LedgerCommand transfer(String fromAccountId, String toAccountId, Money amount, Instant createdAt) {
+        return new LedgerCommand(Kind.TRANSFER, fromAccountId, toAccountId, amount,
+                UUID.randomUUID(), UUID.randomUUID(), createdAt);
+    }
+}
@@ -1,71 +1,1591 @@
 package com.example.ledger.domain;
 
+import com.example.ledger.repo.CompactableTransactionRepository;
 import com.example.ledger.repo.InMemoryTransactionRepository;
-import org.springframework.stereotype.Service;
+import com.example.ledger.repo.TransactionArchive;
+import com.example.ledger.repo.TransactionRepository;
 
-import java.math.BigDecimal;
+import java.io.IOException;
 import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Supplier;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
-@Service
+/**
+ * Records deposits, withdrawals, transfers and journal entries. Accounts are hashed to independent shards, each with
+ * its own storage and account state. Withdrawals are validated under the account's own monitor, so
+ * operations on different accounts run in parallel; deposits can't overdraw and skip it entirely. A
+ * transfer takes both account monitors in id order, which keeps two opposite transfers from
+ * deadlocking. Sequences come from a single counter and listeners see transactions in sequence
+ * order.
+ */
 public class LedgerService {
 
-    private final InMemoryTransactionRepository transactionRepository;
+    private static final Runnable NO_RELEASE = () -> { };
+    private static final Duration HOLD_EXPIRY_TICK = Duration.ofMillis(10);
+
+    private final LedgerShard[] shards;
     private final Clock clock;
 
-    private final Object lock = new Object();
+    private final AtomicLong sequence = new AtomicLong();
+    private final List<TransactionListener> listeners = new CopyOnWriteArrayList<>();
+    private final SequencedPublisher publisher = new SequencedPublisher(listeners);
+    private volatile boolean replica;
+    private volatile WriteCoordinator coordinator;
+    private volatile Executor writer = Runnable::run;
+    private volatile AdmissionControl admission;
+    private volatile VelocityLimit velocityLimit;
+    private volatile HashChain hashChain;
+    private volatile ChartOfAccounts chart = ChartOfAccounts.DEFAULT;
+    private volatile RunningTrialBalance trialBalance;
+    private volatile Map<String, Rollup> rollups = Map.of();
+    private volatile Map<String, List<String>> children = Map.of();
+
+    // A hold is open while it is in the map; whoever removes it captures, releases or expires it
+    private final ConcurrentMap<UUID, Hold> holds = new ConcurrentHashMap<>();
+    private final TimingWheel<Hold> holdExpiries = new TimingWheel<>(HOLD_EXPIRY_TICK, 5);
+
+    // Compaction swaps history out under the write lock, so a backlog read never sees it half done
+    private final ReadWriteLock compaction = new ReentrantReadWriteLock();
+    private final Object compacting = new Object();
+    private volatile long compactedThrough;
 
-    public LedgerService(InMemoryTransactionRepository transactionRepository, Clock clock) {
-        this.transactionRepository = Objects.requireNonNull(transactionRepository, "TransactionRepository can´t be null");
+    public LedgerService(TransactionRepository transactionRepository, Clock clock) {
+        this(new LedgerShard[] {new LedgerShard(0, transactionRepository)}, clock);
+    }
+
+    /**
+     * Creates a ledger with one shard per repository, e.g. over persistent storage, continuing
+     * the sequence after the highest one already stored. The shard count must stay the same for
+     * the life of the storage, since accounts are hashed to shards by it.
+     */
+    public static LedgerService resume(List<? extends TransactionRepository> shardRepositories, Clock clock) {
+        LedgerService ledger = new LedgerService(newShards(shardRepositories), clock);
+        long last = 0;
+        for (LedgerShard shard : ledger.shards) {
+            last = Math.max(last, shard.getRepository().findLastSequence());
+        }
+        ledger.sequence.set(last);
+        ledger.publisher.startAfter(last);
+        return ledger;
+    }
+
+    /**
+     * Creates a ledger partitioned into {@code shardCount} in-memory shards.
+     */
+    public LedgerService(int shardCount, Clock clock) {
+        this(newShards(shardCount), clock);
+    }
+
+    private LedgerService(LedgerShard[] shards, Clock clock) {
+        this.shards = shards;
         this.clock = Objects.requireNonNull(clock, "Clock can´t be null");
     }
 
     public Transaction deposit(Money amount) {
+        return deposit(Account.DEFAULT_ID, amount);
+    }
+
+    public Transaction deposit(String accountId, Money amount) {
         Objects.requireNonNull(amount, "Amount can´t be null");
-        synchronized (lock) {
-            Transaction transaction = new Transaction(TransactionType.DEPOSIT, amount, clock.instant());
-            return transactionRepository.save(transaction);
+        requireWritable();
+        Runnable release = countVelocity(accountId, amount);
+        try {
+            WriteCoordinator coordinator = this.coordinator;
+            if (coordinator != null) {
+                return (Transaction) await(coordinator.submit(LedgerCommand.deposit(accountId, amount, clock.instant())));
+            }
+            return recordDeposit(accountId, amount, null, null);
+        } catch (RuntimeException ex) {
+            release.run();
+            throw ex;
         }
     }
 
     public Transaction withdraw(Money amount) {
+        return withdraw(Account.DEFAULT_ID, amount);
+    }
+
+    public Transaction withdraw(String accountId, Money amount) {
+        Objects.requireNonNull(amount, "Amount can´t be null");
+        requireWritable();
+        Runnable release = countVelocity(accountId, amount);
+        try {
+            WriteCoordinator coordinator = this.coordinator;
+            if (coordinator != null) {
+                return (Transaction) await(coordinator.submit(LedgerCommand.withdraw(accountId, amount, clock.instant())));
+            }
+            return recordWithdrawal(accountId, amount, null, null);
+        } catch (RuntimeException ex) {
+            release.run();
+            throw ex;
+        }
+    }
+
+    /**
+     * Moves money between two accounts atomically. Both monitors are taken in account id order, so
+     * concurrent transfers in opposite directions can't deadlock and transfers between disjoint
+     * pairs of accounts don't wait for each other.
+     */
+    public Transfer transfer(String fromAccountId, String toAccountId, Money amount) {
+        Objects.requireNonNull(amount, "Amount can´t be null");
+        requireWritable();
+        requireTransferable(fromAccountId, toAccountId);
+        Runnable release = countVelocity(fromAccountId, toAccountId, amount);
+        try {
+            WriteCoordinator coordinator = this.coordinator;
+            if (coordinator != null) {
+                return (Transfer) await(coordinator.submit(LedgerCommand.transfer(fromAccountId, toAccountId, amount, clock.instant())));
+            }
+            return recordTransfer(fromAccountId, toAccountId, amount, null, null, null);
+        } catch (RuntimeException ex) {
+            release.run();
+            throw ex;
+        }
+    }
+
+    public CompletableFuture<Transaction> depositAsync(Money amount) {
+        return depositAsync(Account.DEFAULT_ID, amount);
+    }
+
+    /**
+     * Queues a deposit for the writer stage instead of waiting on the caller's thread for the
+     * account monitor and for storage. Arguments and writability are checked up front; any later
+     * failure completes the returned future exceptionally.
+     */
+    public CompletableFuture<Transaction> depositAsync(String accountId, Money amount) {
+        Objects.requireNonNull(amount, "Amount can´t be null");
+        requireWritable();
+        Account.requireValidId(accountId);
+        Runnable release = countVelocity(accountId, amount);
+        WriteCoordinator coordinator = this.coordinator;
+        if (coordinator != null) {
+            LedgerCommand command = LedgerCommand.deposit(accountId, amount, clock.instant());
+            return releaseOnFailure(admit(Runnable::run, () -> coordinator.submit(command)), release)
+                    .thenApply(Transaction.class::cast);
+        }
+        return releaseOnFailure(admit(writer, () -> CompletableFuture.completedFuture(
+                recordDeposit(accountId, amount, null, null))), release);
+    }
+
+    public CompletableFuture<Transaction> withdrawAsync(Money amount) {
+        return withdrawAsync(Account.DEFAULT_ID, amount);
+    }
+
+    public CompletableFuture<Transaction> withdrawAsync(String accountId, Money amount) {
+        Objects.requireNonNull(amount, "Amount can´t be null");
+        requireWritable();
+        Account.requireValidId(accountId);
+        Runnable release = countVelocity(accountId, amount);
+        WriteCoordinator coordinator = this.coordinator;
+        if (coordinator != null) {
+            LedgerCommand command = LedgerCommand.withdraw(accountId, amount, clock.instant());
+            return releaseOnFailure(admit(Runnable::run, () -> coordinator.submit(command)), release)
+                    .thenApply(Transaction.class::cast);
+        }
+        return releaseOnFailure(admit(writer, () -> CompletableFuture.completedFuture(
+                recordWithdrawal(accountId, amount, null, null))), release);
+    }
+
+    public CompletableFuture<Transfer> transferAsync(String fromAccountId, String toAccountId, Money amount) {
+        Objects.requireNonNull(amount, "Amount can´t be null");
+        requireWritable();
+        requireTransferable(fromAccountId, toAccountId);
+        Runnable release = countVelocity(fromAccountId, toAccountId, amount);
+        WriteCoordinator coordinator = this.coordinator;
+        if (coordinator != null) {
+            LedgerCommand command = LedgerCommand.transfer(fromAccountId, toAccountId, amount, clock.instant());
+            return releaseOnFailure(admit(Runnable::run, () -> coordinator.submit(command)), release)
+                    .thenApply(Transfer.class::cast);
+        }
+        return releaseOnFailure(admit(writer, () -> CompletableFuture.completedFuture(
+                recordTransfer(fromAccountId, toAccountId, amount, null, null, null))), release);
+    }
+
+    /**
+     * Records a journal entry: each posting becomes a leg on its account, all of them or none. Debits
+     * must equal credits in every currency and no account may be posted twice. A leg that lowers its
+     * account's balance on the account's normal side is checked against what is available, like a
+     * withdrawal, so no account goes below zero. The account monitors are taken in id order, as for
+     * a transfer, and the legs get consecutive sequences. Not available behind a write coordinator,
+     * which only replicates deposits, withdrawals and transfers.
+     */
+    public PostedEntry post(List<Posting> postings) {
+        Objects.requireNonNull(postings, "Postings can´t be null");
+        requireWritable();
+        if (coordinator != null) {
+            throw new IllegalStateException("Journal entries aren't available behind a write coordinator");
+        }
+        requireBalanced(postings);
+        ChartOfAccounts chart = this.chart;
+        int size = postings.size();
+        LedgerShard[] legShards = new LedgerShard[size];
+        Account[] accounts = new Account[size];
+        boolean[] raises = new boolean[size];
+        for (int i = 0; i < size; i++) {
+            Posting posting = postings.get(i);
+            legShards[i] = shardFor(posting.accountId());
+            accounts[i] = legShards[i].account(posting.accountId());
+            raises[i] = chart.kindOf(posting.accountId()).isIncreasedBy(posting.side());
+        }
+        Account[] locked = accounts.clone();
+        Arrays.sort(locked, Comparator.comparing(Account::getId));
+        return underMonitors(locked, 0, () -> recordEntry(legShards, accounts, postings, raises));
+    }
+
+    /**
+     * Records historic deposits and withdrawals in the given order, keeping their ids and timestamps,
+     * and returns how many were recorded. Meant for bulk imports: velocity limits and admission
+     * control don't apply, and instead of one shard monitor acquisition and one save per write, each
+     * run of the batch is stored under the monitors of the shards it touches, taken once.
+     * <p>
+     * An entry that isn't valid at its place in the order, e.g. a withdrawal its account can't cover,
+     * is handed to {@code rejected} with its index and skipped; the rest are still recorded. Sequences
+     * follow the order of the batch, so an entry created before the latest transaction already
+     * recorded, or before the entry accepted ahead of it, is rejected too: as-of reads cut history in
+     * sequence order and would miss it. Not available behind a write coordinator, since imported
+     * entries aren't replicated through it.
+     */
+    public int importBatch(List<Transaction> batch, ObjIntConsumer<RuntimeException> rejected) {
+        Objects.requireNonNull(batch, "Batch can´t be null");
+        requireWritable();
+        if (coordinator != null) {
+            throw new IllegalStateException("Bulk imports aren't available behind a write coordinator");
+        }
+        List<Transaction> accepted = new ArrayList<>(batch.size());
+        List<Account> accounts = new ArrayList<>(batch.size());
+        Set<Account> credited = Collections.newSetFromMap(new IdentityHashMap<>());
+        Instant latest = latestCreatedAt();
+        int recorded = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            Transaction transaction = batch.get(i);
+            try {
+                if (transaction.getCreatedAt().isBefore(latest)) {
+                    throw new IllegalArgumentException("createdAt: Before the latest recorded transaction at " + latest);
+                }
+                LedgerShard shard = shardFor(transaction.getAccountId());
+                Account account = loaded(shard, transaction.getAccountId());
+                Money amount = transaction.getAmount();
+                switch (transaction.getType()) {
+                    case DEPOSIT -> {
+                        requireCreditable(account, amount);
+                        credited.add(account);
+                    }
+                    case WITHDRAW -> {
+                        try {
+                            reserveImported(account, amount);
+                        } catch (InsufficientFundsException ex) {
+                            if (!credited.contains(account)) {
+                                throw ex;
+                            }
+                            // Credits only count once stored, so store the run that funds this withdrawal first
+                            recorded += storeImported(accepted, accounts);
+                            credited.clear();
+                            reserveImported(account, amount);
+                        }
+                    }
+                    default -> throw new IllegalArgumentException("Only deposits and withdrawals can be imported");
+                }
+                accepted.add(transaction);
+                accounts.add(account);
+                latest = transaction.getCreatedAt();
+            } catch (RuntimeException ex) {
+                rejected.accept(ex, i);
+            }
+        }
+        return recorded + storeImported(accepted, accounts);
+    }
+
+    /**
+     * Reserves the amount on the account until the hold is captured, released or expires. The amount
+     * leaves the available balance right away, so withdrawals and transfers can't spend it, but it
+     * stays in the balance. Holds live in memory only and aren't replicated, so they can't be placed
+     * behind a write coordinator.
+     */
+    public Hold placeHold(String accountId, Money amount, Duration expiresIn) {
         Objects.requireNonNull(amount, "Amount can´t be null");
-        synchronized (lock) {
-            Money currentBalance = calculateBalanceInternal();
-            if (currentBalance.getAmount().compareTo(amount.getAmount()) < 0) {
-                throw new IllegalArgumentException(
-                        "Insufficient funds: current balance is " + currentBalance + ", requested " + amount
-                );
+        Objects.requireNonNull(expiresIn, "Expiry can´t be null");
+        if (expiresIn.isNegative() || expiresIn.isZero()) {
+            throw new IllegalArgumentException("Hold expiry must be positive");
+        }
+        requireWritable();
+        requireUncoordinated();
+        LedgerShard shard = shardFor(accountId);
+        Account account = loaded(shard, accountId);
+        Currency currency = amount.getCurrency();
+        long minorUnits = amount.getMinorUnits();
+        // Counted as held before it leaves the available balance, so the balance never dips
+        account.hold(currency, minorUnits);
+        boolean reserved = false;
+        try {
+            if (!account.tryDebit(currency, minorUnits)) {
+                long waitStart = System.nanoTime();
+                synchronized (account) {
+                    account.lockAcquired(waitStart);
+                    reserve(account, amount);
+                }
+            }
+            reserved = true;
+        } finally {
+            if (!reserved) {
+                account.unhold(currency, minorUnits);
+            }
+        }
+        Instant now = clock.instant();
+        Hold hold = new Hold(UUID.randomUUID(), accountId, amount, now, now.plus(expiresIn));
+        holds.put(hold.getId(), hold);
+        hold.expiry = holdExpiries.schedule(hold, hold.getExpiresAt(), now);
+        return hold;
+    }
+
+    public Transaction captureHold(UUID holdId) {
+        return captureHold(holdId, null);
+    }
+
+    /**
+     * Turns the hold into a withdrawal of the given amount, or of all of it when {@code null}, and
+     * gives what wasn't captured back to the available balance. If the withdrawal can't be stored
+     * the hold stays open.
+     */
+    public Transaction captureHold(UUID holdId, Money amount) {
+        Objects.requireNonNull(holdId, "Hold id can´t be null");
+        requireWritable();
+        requireUncoordinated();
+        Hold hold = holds.get(holdId);
+        if (hold == null) {
+            throw new HoldNotFoundException(holdId);
+        }
+        Money captured = amount != null ? amount : hold.getAmount();
+        hold.getAmount().requireSameCurrency(captured);
+        Currency currency = captured.getCurrency();
+        long held = hold.getAmount().getMinorUnits();
+        if (captured.getMinorUnits() > held) {
+            throw new IllegalArgumentException("Can't capture more than the held " + hold.getAmount());
+        }
+        claim(hold);
+        LedgerShard shard = shardFor(hold.getAccountId());
+        Account account = shard.account(hold.getAccountId());
+        boolean recorded = false;
+        long waitStart = System.nanoTime();
+        // Already debited when it was placed, so it stays held until the withdrawal is stored, and
+        // what wasn't captured is credited before it stops counting as held
+        synchronized (account) {
+            account.lockAcquired(waitStart);
+            try {
+                Transaction transaction = append(shard, account, TransactionType.WITHDRAW, captured, null, null);
+                recorded = true;
+                if (held > captured.getMinorUnits()) {
+                    account.credit(currency, held - captured.getMinorUnits());
+                }
+                account.unhold(currency, held);
+                return transaction;
+            } finally {
+                if (!recorded) {
+                    holds.put(hold.getId(), hold);
+                    hold.expiry = holdExpiries.schedule(hold, hold.getExpiresAt(), clock.instant());
+                }
             }
-            Transaction transaction = new Transaction(TransactionType.WITHDRAW, amount, clock.instant());
-            return transactionRepository.save(transaction);
         }
     }
 
+    /**
+     * Gives the held amount back to the available balance without recording anything.
+     */
+    public Hold releaseHold(UUID holdId) {
+        Objects.requireNonNull(holdId, "Hold id can´t be null");
+        requireWritable();
+        Hold hold = holds.get(holdId);
+        if (hold == null) {
+            throw new HoldNotFoundException(holdId);
+        }
+        claim(hold);
+        restore(hold);
+        return hold;
+    }
+
+    /**
+     * Releases every open hold whose expiry has passed. Only the holds that came due are looked at,
+     * so this stays cheap with millions open; it should run about every few milliseconds to a
+     * second, depending on how late an expiry may be. Returns how many came due.
+     */
+    public int expireHolds() {
+        return holdExpiries.advance(clock.instant(), hold -> {
+            // A capture or release that claimed it first wins
+            if (holds.remove(hold.getId(), hold)) {
+                restore(hold);
+            }
+        });
+    }
+
+    /**
+     * The balance minus the account's open holds, which is what withdrawals and transfers can take.
+     */
+    public Money getAvailableBalance(String accountId) {
+        return getAvailableBalance(accountId, Currencies.DEFAULT);
+    }
+
+    public Money getAvailableBalance(String accountId, Currency currency) {
+        LedgerShard shard = shardFor(accountId);
+        return Money.ofMinorUnits(loaded(shard, accountId).getAvailable(currency), currency);
+    }
+
+    public int getOpenHoldCount() {
+        return holds.size();
+    }
+
+    /**
+     * Runs the writes queued by the asynchronous methods on the given executor, or on the calling
+     * thread again when {@code null}. Writes queued together may complete in any order.
+     */
+    public void setWriter(Executor writer) {
+        this.writer = writer != null ? writer : Runnable::run;
+    }
+
+    /**
+     * Bounds the asynchronous writes in progress at once, or admits all of them again when
+     * {@code null}. Writes over the limit queue, and are shed with {@link OverloadedException} once
+     * the queue is full or they waited too long. With a coordinator the limit covers writes waiting
+     * to commit.
+     */
+    public void setAdmissionControl(AdmissionControl admission) {
+        this.admission = admission;
+    }
+
+    public AdmissionControl getAdmissionControl() {
+        return admission;
+    }
+
+    /**
+     * Caps how many transactions and how much money each account moves per sliding window, or lifts
+     * the cap when {@code null}. Writes are counted against every account they touch before they are
+     * applied, and given back if they fail. Replicated and coordinator-applied writes were already
+     * counted where they were submitted.
+     */
+    public void setVelocityLimit(VelocityLimit velocityLimit) {
+        this.velocityLimit = velocityLimit == null || velocityLimit.isUnlimited() ? null : velocityLimit;
+    }
+
+    /**
+     * Splits the balance of each given account into sub-balances that concurrent credits and debits
+     * use independently; a debit its writer's sub-balance can't cover consolidates them under the
+     * account's monitor. Must run before the accounts are first used.
+     */
+    public void setHotAccounts(Collection<String> accountIds, int subBalances) {
+        for (String accountId : accountIds) {
+            shardFor(accountId).split(accountId, subBalances);
+        }
+    }
+
+    /**
+     * Returns the accounts writers waited longest for, most contended first.
+     */
+    public List<AccountContention> getLockContention(int limit) {
+        List<AccountContention> contention = new ArrayList<>();
+        for (LedgerShard shard : shards) {
+            for (Account account : shard.accounts()) {
+                if (account.getLockAcquisitions() > 0) {
+                    contention.add(new AccountContention(account.getId(), account.getLockAcquisitions(),
+                            account.getLockWaitNanos(), account.getSubBalanceCount()));
+                }
+            }
+        }
+        contention.sort(Comparator.comparingLong(AccountContention::lockWaitNanos).reversed());
+        return contention.subList(0, Math.min(limit, contention.size()));
+    }
+
+    /**
+     * Applies a command ordered by the installed {@link WriteCoordinator}, with the ids and timestamp
+     * it carries. Returns the recorded {@link Transaction}, or the {@link Transfer} for a transfer.
+     */
+    public Object apply(LedgerCommand command) {
+        Objects.requireNonNull(command, "Command can´t be null");
+        return switch (command.kind()) {
+            case DEPOSIT -> recordDeposit(command.accountId(), command.amount(), command.id(), command.createdAt());
+            case WITHDRAW -> recordWithdrawal(command.accountId(), command.amount(), command.id(), command.createdAt());
+            case TRANSFER -> {
+                if (command.accountId().equals(command.toAccountId())) {
+                    throw new IllegalArgumentException("Can't transfer to the same account");
+                }
+                yield recordTransfer(command.accountId(), command.toAccountId(), command.amount(),
+                        command.id(), command.creditId(), command.createdAt());
+            }
+        };
+    }
+
+    /**
+     * Routes every subsequent write through the given coordinator, or records writes directly again
+     * when {@code null}.
+     */
+    public void setWriteCoordinator(WriteCoordinator coordinator) {
+        this.coordinator = coordinator;
+    }
+
+    /**
+     * Applies a transaction recorded by the leader. The leader already validated it, so it is stored
+     * as is; transactions must arrive one at a time and in sequence order.
+     */
+    public void replicate(Transaction transaction) {
+        Objects.requireNonNull(transaction, "Transaction can´t be null");
+        if (!replica) {
+            throw new IllegalStateException("Only a replica applies replicated transactions");
+        }
+        long expected = sequence.get() + 1;
+        // Balance-forward entries stand in for compacted transactions, so they may skip sequences
+        boolean forward = transaction.getType() == TransactionType.BALANCE_FORWARD;
+        if (forward ? transaction.getSequence() < expected : transaction.getSequence() != expected) {
+            throw new IllegalStateException("Expected sequence " + expected + " but got " + transaction.getSequence());
+        }
+        LedgerShard shard = shardFor(transaction.getAccountId());
+        Account account = shard.account(transaction.getAccountId());
+        synchronized (account) {
+            shard.load(account);
+            synchronized (shard) {
+                sequence.set(transaction.getSequence());
+                shard.getRepository().save(transaction);
+            }
+            applyTo(account, transaction.getType(), transaction.getAmount());
+        }
+        if (forward) {
+            compactedThrough = Math.max(compactedThrough, transaction.getSequence());
+            publisher.skipTo(transaction.getSequence() - 1);
+        }
+        publisher.publish(transaction.getSequence(), transaction);
+    }
+
+    /**
+     * Turns this ledger into a read-only replica of a leader, or promotes it back to accepting
+     * writes, continuing from the last replicated sequence.
+     */
+    public void setReplica(boolean replica) {
+        this.replica = replica;
+    }
+
+    public boolean isReplica() {
+        return replica;
+    }
+
     public Money getBalance() {
-        synchronized (lock) {
-            return calculateBalanceInternal();
+        return getBalance(Account.DEFAULT_ID);
+    }
+
+    public Money getBalance(String accountId) {
+        LedgerShard shard = shardFor(accountId);
+        return Money.ofMinorUnits(loaded(shard, accountId).getBalance());
+    }
+
+    public Money getBalance(String accountId, Currency currency) {
+        LedgerShard shard = shardFor(accountId);
+        return Money.ofMinorUnits(loaded(shard, accountId).getBalance(currency), currency);
+    }
+
+    /**
+     * Returns the account's balance in the default currency followed by one per other currency it
+     * has used.
+     */
+    public List<Money> getBalances(String accountId) {
+        LedgerShard shard = shardFor(accountId);
+        return loaded(shard, accountId).getBalances();
+    }
+
+    public Money getBalance(String accountId, Instant asOf) {
+        return getBalance(accountId, Currencies.DEFAULT, asOf);
+    }
+
+    /**
+     * Returns the balance in the given currency the account had at the given instant, counting only
+     * the transactions created at or before it.
+     */
+    public Money getBalance(String accountId, Currency currency, Instant asOf) {
+        long balance = 0;
+        for (Transaction transaction : getTransactions(accountId, asOf)) {
+            if (transaction.getAmount().getCurrency() != currency) {
+                continue;
+            }
+            long amount = transaction.getAmount().getMinorUnits();
+            balance = transaction.getType().isCredit()
+                    ? Math.addExact(balance, amount)
+                    : Math.subtractExact(balance, amount);
         }
+        return Money.ofMinorUnits(balance, currency);
     }
 
+    /**
+     * Returns the transactions of the default account, newest first.
+     */
     public List<Transaction> getAllTransactions() {
-        synchronized (lock) {
-            return transactionRepository.findAllOrderByTimestampDesc();
+        return getTransactions(Account.DEFAULT_ID);
+    }
+
+    /**
+     * Returns the transactions of the given account, newest first.
+     */
+    public List<Transaction> getTransactions(String accountId) {
+        return shardFor(accountId).transactions(accountId);
+    }
+
+    /**
+     * Returns the transactions of the given account created at or before the given instant, newest
+     * first.
+     */
+    public List<Transaction> getTransactions(String accountId, Instant asOf) {
+        Objects.requireNonNull(asOf, "As-of instant can't be null");
+        return shardFor(accountId).transactions(accountId, asOf);
+    }
+
+    /**
+     * Returns the committed transactions of every account with a sequence greater than the given
+     * one, oldest first, merging the shards by sequence. From zero, compacted history comes back as
+     * its balance-forward entries; resuming from a sequence inside it fails with
+     * {@link HistoryCompactedException}.
+     */
+    public List<Transaction> getTransactionsSince(long sequence) {
+        compaction.readLock().lock();
+        try {
+            requireHistoryAfter(sequence);
+            long committed = publisher.getCommitted();
+            if (shards.length == 1) {
+                return upTo(shards[0].getRepository().findAllAfterSequence(sequence), committed);
+            }
+            List<List<Transaction>> runs = new ArrayList<>(shards.length);
+            for (LedgerShard shard : shards) {
+                runs.add(shard.getRepository().findAllAfterSequence(sequence));
+            }
+            return merge(runs, committed);
+        } finally {
+            compaction.readLock().unlock();
+        }
+    }
+
+    /**
+     * Fails with {@link HistoryCompactedException} if the transactions right after the given
+     * sequence were folded away by {@link #compact}, so a reader can't resume from it.
+     */
+    public void requireHistoryAfter(long sequence) {
+        long through = compactedThrough;
+        if (sequence > 0 && sequence < through) {
+            throw new HistoryCompactedException(sequence, through);
+        }
+    }
+
+    /**
+     * Highest sequence folded into balance-forward entries, or zero if nothing was compacted.
+     */
+    public long getCompactedThrough() {
+        return compactedThrough;
+    }
+
+    /**
+     * Whether the storage of every shard supports {@link #compact}.
+     */
+    public boolean isCompactable() {
+        for (LedgerShard shard : shards) {
+            if (!(shard.getRepository() instanceof CompactableTransactionRepository)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Folds the transactions created before the given instant into one balance-forward entry per
+     * account and returns how many were folded; balances stay exactly the same. They are appended
+     * to the archive first, if one is given, and left in place if that fails.
+     * <p>
+     * Only a prefix of the ledger in sequence order is folded: it ends before the first committed
+     * transaction, in any shard, created at or after the instant. Everything after the last folded
+     * sequence therefore stays gap-free for replication.
+     */
+    public int compact(Instant before, TransactionArchive archive) throws IOException {
+        Objects.requireNonNull(before, "Instant can't be null");
+        if (!isCompactable()) {
+            throw new IllegalStateException("Storage doesn't support compaction");
+        }
+        synchronized (compacting) {
+            long through = publisher.getCommitted();
+            for (LedgerShard shard : shards) {
+                through = Math.min(through, compactable(shard).findFirstSequenceCreatedFrom(before) - 1);
+            }
+            List<List<Transaction>> runs = new ArrayList<>(shards.length);
+            for (LedgerShard shard : shards) {
+                runs.add(compactable(shard).findAllThroughSequence(through));
+            }
+            List<Transaction> folded = new ArrayList<>();
+            for (Transaction transaction : merge(runs, through)) {
+                if (transaction.getType() != TransactionType.BALANCE_FORWARD) {
+                    folded.add(transaction);
+                }
+            }
+            if (folded.isEmpty()) {
+                return 0;
+            }
+            if (archive != null) {
+                archive.append(folded);
+            }
+
+            compaction.writeLock().lock();
+            try {
+                compactedThrough = Math.max(compactedThrough, folded.getLast().getSequence());
+                HashChain chain = hashChain;
+                if (chain != null) {
+                    chain.compacted(compactedThrough);
+                }
+                for (LedgerShard shard : shards) {
+                    compactable(shard).compactThrough(through);
+                }
+            } finally {
+                compaction.writeLock().unlock();
+            }
+            return folded.size();
+        }
+    }
+
+    /**
+     * Chains every recorded transaction into a tamper-evident hash chain with a Merkle checkpoint
+     * every {@code checkpointInterval} transactions, starting with the history already stored. Must
+     * be called before the ledger takes any write.
+     */
+    public void enableHashChain(int checkpointInterval) {
+        HashChain chain = new HashChain(checkpointInterval);
+        for (Transaction transaction : getTransactionsSince(0)) {
+            chain.onTransaction(transaction);
+        }
+        hashChain = chain;
+        listeners.add(chain);
+    }
+
+    public boolean isHashChained() {
+        return hashChain != null;
+    }
+
+    public ChainHead getChainHead() {
+        return requireHashChain().head();
+    }
+
+    /**
+     * Returns up to {@code limit} closed checkpoints of the hash chain ending after the given
+     * sequence, oldest first.
+     */
+    public List<ChainCheckpoint> getChainCheckpoints(long afterSequence, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        return requireHashChain().checkpoints(afterSequence, limit);
+    }
+
+    /**
+     * Recomputes the hash chain up to its current head from stored history, one segment per
+     * fork-join task reading only that segment's sequence range, and reports any segment that no
+     * longer matches its checkpoint.
+     */
+    public ChainVerification verifyHashChain() {
+        HashChain chain = requireHashChain();
+        compaction.readLock().lock();
+        try {
+            long committed = publisher.getCommitted();
+            return HashChain.verify(chain.snapshot(),
+                    (afterSequence, lastSequence) -> transactionsInRange(afterSequence, lastSequence, committed));
+        } finally {
+            compaction.readLock().unlock();
+        }
+    }
+
+    /**
+     * Sets the kind of every account journal entries are posted to. Must be called before the ledger
+     * takes any write, since the chart decides which side each stored leg is on.
+     */
+    public void setChartOfAccounts(ChartOfAccounts chart) {
+        this.chart = Objects.requireNonNull(chart, "Chart of accounts can´t be null");
+    }
+
+    public ChartOfAccounts getChartOfAccounts() {
+        return chart;
+    }
+
+    /**
+     * Keeps a trial balance over the current chart of accounts up to date as transactions are
+     * recorded, starting with the history already stored. That history is read into memory at once,
+     * so this suits ledgers whose history fits the heap. Must be called before the ledger takes any
+     * write, and after the chart is set.
+     */
+    public void enableTrialBalance() {
+        RunningTrialBalance balance = new RunningTrialBalance(chart);
+        for (Transaction transaction : getTransactionsSince(0)) {
+            balance.onTransaction(transaction);
+        }
+        trialBalance = balance;
+        listeners.add(balance);
+    }
+
+    public boolean isTrialBalanceEnabled() {
+        return trialBalance != null;
+    }
+
+    /**
+     * Takes the trial balance in one pass over the accounts, never halfway through an entry.
+     */
+    public TrialBalance getTrialBalance() {
+        RunningTrialBalance balance = trialBalance;
+        if (balance == null) {
+            throw new IllegalStateException("Trial balance is not enabled");
+        }
+        return balance.snapshot();
+    }
+
+    /**
+     * Arranges accounts into a hierarchy, e.g. merchants under regions under tenants, from each
+     * child's parent. Every change to an account's balance is then added to its rollup and to those
+     * of all its ancestors as it is made, so the balance of an account and everything under it is
+     * read in constant time. Must be called once, before the ledger takes any write and after the
+     * hot accounts are set.
+     */
+    public void setAccountHierarchy(Map<String, String> parents) {
+        Objects.requireNonNull(parents, "Parents can´t be null");
+        Map<String, List<String>> childIds = new HashMap<>();
+        parents.forEach((child, parent) -> childIds
+                .computeIfAbsent(Account.requireValidId(parent), unused -> new ArrayList<>())
+                .add(Account.requireValidId(child)));
+        Map<String, Rollup> built = new HashMap<>();
+        for (String accountId : parents.keySet()) {
+            rollupOf(accountId, parents, built, new HashSet<>());
+        }
+        // Loading adds the stored balance, and every change after it adds its delta
+        for (Rollup rollup : built.values()) {
+            LedgerShard shard = shardFor(rollup.getAccountId());
+            Account account = shard.account(rollup.getAccountId());
+            synchronized (account) {
+                account.setRollup(rollup);
+                if (account.isLoaded()) {
+                    for (Money balance : account.getBalances()) {
+                        rollup.add(balance.getCurrency(), balance.getMinorUnits());
+                    }
+                } else {
+                    shard.load(account);
+                }
+            }
+        }
+        Map<String, List<String>> sorted = new HashMap<>();
+        childIds.forEach((parent, ids) -> sorted.put(parent, ids.stream().sorted().toList()));
+        children = Map.copyOf(sorted);
+        rollups = Map.copyOf(built);
+    }
+
+    /**
+     * The parent of the account in the hierarchy, or null for a root or an account outside it.
+     */
+    public String getParent(String accountId) {
+        Rollup rollup = rollups.get(Account.requireValidId(accountId));
+        return rollup == null || rollup.getParent() == null ? null : rollup.getParent().getAccountId();
+    }
+
+    public List<String> getChildren(String accountId) {
+        return children.getOrDefault(Account.requireValidId(accountId), List.of());
+    }
+
+    /**
+     * Balance of the account together with every account under it, read in constant time; for an
+     * account outside the hierarchy, just its own balance. A transfer between two accounts under it
+     * never shows half applied, but other writes under it that overlap the read may: it can then
+     * come out short, at least zero, and is exact once they finish.
+     */
+    public Money getRollupBalance(String accountId, Currency currency) {
+        Rollup rollup = rollups.get(Account.requireValidId(accountId));
+        return rollup == null
+                ? getBalance(accountId, currency)
+                : Money.ofMinorUnits(rollup.getBalance(currency), currency);
+    }
+
+    /**
+     * Rolled-up balance in the default currency followed by one per other currency used under the
+     * account.
+     */
+    public List<Money> getRollupBalances(String accountId) {
+        Rollup rollup = rollups.get(Account.requireValidId(accountId));
+        return rollup == null ? getBalances(accountId) : rollup.getBalances();
+    }
+
+    private static Rollup rollupOf(String accountId, Map<String, String> parents, Map<String, Rollup> built,
+                                   Set<String> path) {
+        Rollup rollup = built.get(accountId);
+        if (rollup != null) {
+            return rollup;
+        }
+        if (!path.add(accountId)) {
+            throw new IllegalArgumentException("Account hierarchy has a cycle through " + accountId);
+        }
+        String parentId = parents.get(accountId);
+        rollup = new Rollup(accountId, parentId == null ? null : rollupOf(parentId, parents, built, path));
+        built.put(accountId, rollup);
+        return rollup;
+    }
+
+    private HashChain requireHashChain() {
+        HashChain chain = hashChain;
+        if (chain == null) {
+            throw new IllegalStateException("Hash chain is not enabled");
+        }
+        return chain;
+    }
+
+    public void addListener(TransactionListener listener) {
+        listeners.add(Objects.requireNonNull(listener, "Listener can´t be null"));
+    }
+
+    public void removeListener(TransactionListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Sequence up to which every transaction has been recorded, bumped after every write. Readers
+     * that cache derived views should read it before computing the view, so a concurrent write can
+     * only make the cached view newer than its version, never older.
+     */
+    public long getVersion() {
+        return publisher.getCommitted();
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    // A null id or timestamp is generated, or read from the clock, once the write is validated.
+    // A deposit can't overdraw, so it never takes the account monitor and waits for no withdrawal.
+    private Transaction recordDeposit(String accountId, Money amount, UUID id, Instant createdAt) {
+        LedgerShard shard = shardFor(accountId);
+        Account account = loaded(shard, accountId);
+        requireCreditable(account, amount);
+        return append(shard, account, TransactionType.DEPOSIT, amount, id, createdAt);
+    }
+
+    // A split account takes the debit from the thread's sub-balance, and stores it without the monitor
+    private Transaction recordWithdrawal(String accountId, Money amount, UUID id, Instant createdAt) {
+        LedgerShard shard = shardFor(accountId);
+        Account account = loaded(shard, accountId);
+        if (account.isSplit()) {
+            if (!account.tryDebit(amount.getCurrency(), amount.getMinorUnits())) {
+                long waitStart = System.nanoTime();
+                synchronized (account) {
+                    account.lockAcquired(waitStart);
+                    reserve(account, amount);
+                }
+            }
+            return appendDebit(shard, account, amount, id, createdAt);
+        }
+        long waitStart = System.nanoTime();
+        synchronized (account) {
+            account.lockAcquired(waitStart);
+            reserve(account, amount);
+            return appendDebit(shard, account, amount, id, createdAt);
+        }
+    }
+
+    private Transaction appendDebit(LedgerShard shard, Account account, Money amount, UUID id, Instant createdAt) {
+        boolean recorded = false;
+        try {
+            Transaction transaction = append(shard, account, TransactionType.WITHDRAW, amount, id, createdAt);
+            recorded = true;
+            return transaction;
+        } finally {
+            if (!recorded) {
+                account.credit(amount.getCurrency(), amount.getMinorUnits());
+            }
+        }
+    }
+
+    private Transfer recordTransfer(String fromAccountId, String toAccountId, Money amount,
+                                    UUID debitId, UUID creditId, Instant createdAt) {
+        LedgerShard fromShard = shardFor(fromAccountId);
+        LedgerShard toShard = shardFor(toAccountId);
+        Account from = fromShard.account(fromAccountId);
+        Account to = toShard.account(toAccountId);
+        boolean fromFirst = fromAccountId.compareTo(toAccountId) < 0;
+        Account first = fromFirst ? from : to;
+        Account second = fromFirst ? to : from;
+        long waitStart = System.nanoTime();
+        synchronized (first) {
+            first.lockAcquired(waitStart);
+            waitStart = System.nanoTime();
+            synchronized (second) {
+                second.lockAcquired(waitStart);
+                fromShard.load(from);
+                toShard.load(to);
+                requireCreditable(to, amount);
+                // Groups holding both accounts keep their balance, so neither leg is added to them
+                Rollup shared = Rollup.commonAncestor(from.getRollup(), to.getRollup());
+                reserve(from, amount, shared);
+                boolean recorded = false;
+                try {
+                    Transfer transfer = appendTransfer(fromShard, toShard, from, to, amount, debitId, creditId,
+                            createdAt, shared);
+                    recorded = true;
+                    return transfer;
+                } finally {
+                    if (!recorded) {
+                        from.credit(amount.getCurrency(), amount.getMinorUnits(), shared);
+                    }
+                }
+            }
+        }
+    }
+
+    // Under the monitors of every account posted to
+    private PostedEntry recordEntry(LedgerShard[] legShards, Account[] accounts, List<Posting> postings,
+                                    boolean[] raises) {
+        for (int i = 0; i < accounts.length; i++) {
+            legShards[i].load(accounts[i]);
+        }
+        for (int i = 0; i < accounts.length; i++) {
+            if (raises[i]) {
+                requireCreditable(accounts[i], postings.get(i).amount());
+            }
+        }
+        int reserved = 0;
+        boolean recorded = false;
+        try {
+            for (; reserved < accounts.length; reserved++) {
+                if (!raises[reserved]) {
+                    reserve(accounts[reserved], postings.get(reserved).amount());
+                }
+            }
+            PostedEntry entry = appendEntry(legShards, accounts, postings, raises);
+            recorded = true;
+            return entry;
+        } finally {
+            if (!recorded) {
+                for (int i = 0; i < reserved; i++) {
+                    if (!raises[i]) {
+                        Money amount = postings.get(i).amount();
+                        accounts[i].credit(amount.getCurrency(), amount.getMinorUnits());
+                    }
+                }
+            }
+        }
+    }
+
+    // Creation time of the newest transaction stored in any shard, or Instant.MIN when there is none
+    private Instant latestCreatedAt() {
+        Instant latest = Instant.MIN;
+        for (LedgerShard shard : shards) {
+            TransactionRepository repository = shard.getRepository();
+            long last = repository.findLastSequence();
+            for (Transaction transaction : repository.findAllInSequenceRange(last - 1, last)) {
+                if (transaction.getCreatedAt().isAfter(latest)) {
+                    latest = transaction.getCreatedAt();
+                }
+            }
+        }
+        return latest;
+    }
+
+    private static void reserveImported(Account account, Money amount) {
+        long waitStart = System.nanoTime();
+        synchronized (account) {
+            account.lockAcquired(waitStart);
+            reserve(account, amount);
         }
     }
 
-    private Money calculateBalanceInternal() {
-        List<Transaction> allTransactions = transactionRepository.findAllOrderByTimestampDesc();
-        BigDecimal balance = BigDecimal.ZERO;
+    // Withdrawals are already reserved. Sequences are taken and every entry saved under the monitors
+    // of all shards involved, so each shard still stores in sequence order; anything that wasn't
+    // stored gives its debit back, and the first storage failure is rethrown once the rest is published.
+    private int storeImported(List<Transaction> batch, List<Account> accounts) {
+        int size = batch.size();
+        if (size == 0) {
+            return 0;
+        }
+        LedgerShard[] locked = lockOrder(batch.stream()
+                .map(transaction -> shardFor(transaction.getAccountId()))
+                .toArray(LedgerShard[]::new));
+        Transaction[] saved = new Transaction[size];
+        List<CompletableFuture<Transaction>> pending = new ArrayList<>(Collections.nCopies(size, null));
+        long[] first = new long[1];
+        RuntimeException failure = null;
+        try {
+            underMonitors(locked, 0, () -> {
+                first[0] = sequence.addAndGet(size) - size + 1;
+                for (int i = 0; i < size; i++) {
+                    Transaction transaction = batch.get(i);
+                    LedgerShard shard = shardFor(transaction.getAccountId());
+                    Transaction stored = new Transaction(transaction.getId(), first[0] + i, transaction.getAccountId(),
+                            transaction.getType(), transaction.getAmount(), transaction.getCreatedAt());
+                    if (shard.isBatching()) {
+                        pending.set(i, shard.enqueue(stored));
+                    } else {
+                        saved[i] = shard.getRepository().save(stored);
+                    }
+                }
+            });
+        } catch (RuntimeException ex) {
+            failure = ex;
+        }
+        for (int i = 0; i < size; i++) {
+            if (pending.get(i) != null) {
+                try {
+                    saved[i] = await(pending.get(i));
+                } catch (RuntimeException ex) {
+                    failure = failure != null ? failure : ex;
+                }
+            }
+        }
 
-        for (Transaction transaction : allTransactions) {
-            switch (transaction.getType()) {
-                case DEPOSIT -> balance = balance.add(transaction.getAmount().getAmount());
-                case WITHDRAW -> balance = balance.subtract(transaction.getAmount().getAmount());
+        int recorded = 0;
+        for (int i = 0; i < size; i++) {
+            Money amount = batch.get(i).getAmount();
+            // A stored deposit is credited now, and a withdrawal that wasn't stored gets its debit back
+            if ((saved[i] != null) == batch.get(i).getType().isCredit()) {
+                accounts.get(i).credit(amount.getCurrency(), amount.getMinorUnits());
+            }
+            if (first[0] > 0) {
+                publisher.publish(first[0] + i, saved[i]);
             }
+            recorded += saved[i] != null ? 1 : 0;
+        }
+        batch.clear();
+        accounts.clear();
+        if (failure != null) {
+            throw failure;
         }
+        return recorded;
+    }
 
-        return Money.of(balance);
+    // The distinct shards in index order, the order transfers take their monitors in
+    private LedgerShard[] lockOrder(LedgerShard[] legShards) {
+        LedgerShard[] involved = new LedgerShard[shards.length];
+        for (LedgerShard shard : legShards) {
+            involved[shard.getIndex()] = shard;
+        }
+        return Arrays.stream(involved).filter(Objects::nonNull).toArray(LedgerShard[]::new);
+    }
+
+    private static void underMonitors(LedgerShard[] shards, int from, Runnable action) {
+        if (from == shards.length) {
+            action.run();
+            return;
+        }
+        synchronized (shards[from]) {
+            underMonitors(shards, from + 1, action);
+        }
+    }
+
+    private static <T> T underMonitors(Account[] accounts, int from, Supplier<T> action) {
+        if (from == accounts.length) {
+            return action.get();
+        }
+        long waitStart = System.nanoTime();
+        synchronized (accounts[from]) {
+            accounts[from].lockAcquired(waitStart);
+            return underMonitors(accounts, from + 1, action);
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> result) {
+        try {
+            return result.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    private void claim(Hold hold) {
+        if (!holds.remove(hold.getId(), hold)) {
+            throw new HoldNotFoundException(hold.getId());
+        }
+        holdExpiries.cancel(hold.expiry);
+    }
+
+    // Credited before it stops counting as held, so the balance never dips
+    private void restore(Hold hold) {
+        Account account = shardFor(hold.getAccountId()).account(hold.getAccountId());
+        Money held = hold.getAmount();
+        account.credit(held.getCurrency(), held.getMinorUnits());
+        account.unhold(held.getCurrency(), held.getMinorUnits());
+    }
+
+    // Between a debit-normal and a credit-normal account the two legs would land on the same side
+    private void requireTransferable(String fromAccountId, String toAccountId) {
+        if (Account.requireValidId(fromAccountId).equals(Account.requireValidId(toAccountId))) {
+            throw new IllegalArgumentException("Can't transfer to the same account");
+        }
+        ChartOfAccounts chart = this.chart;
+        if (chart.kindOf(fromAccountId).isDebitNormal() != chart.kindOf(toAccountId).isDebitNormal()) {
+            throw new IllegalArgumentException("Can't transfer between " + chart.kindOf(fromAccountId)
+                    + " and " + chart.kindOf(toAccountId) + " accounts; post a journal entry instead");
+        }
+    }
+
+    // At least two postings on distinct accounts, with debits equal to credits in every currency
+    private static void requireBalanced(List<Posting> postings) {
+        if (postings.size() < 2) {
+            throw new IllegalArgumentException("A journal entry needs at least two postings");
+        }
+        Set<String> accountIds = new HashSet<>();
+        Map<Currency, Long> net = new HashMap<>();
+        for (Posting posting : postings) {
+            Objects.requireNonNull(posting, "Posting can´t be null");
+            if (!accountIds.add(posting.accountId())) {
+                throw new IllegalArgumentException("Account posted twice: " + posting.accountId());
+            }
+            long minorUnits = posting.amount().getMinorUnits();
+            try {
+                net.merge(posting.amount().getCurrency(),
+                        posting.side() == Posting.Side.DEBIT ? minorUnits : -minorUnits, Math::addExact);
+            } catch (ArithmeticException ex) {
+                throw new IllegalArgumentException("Amount is too large", ex);
+            }
+        }
+        net.forEach((currency, difference) -> {
+            if (difference != 0) {
+                throw new IllegalArgumentException("Debits and credits differ in " + currency.getCurrencyCode());
+            }
+        });
+    }
+
+    private void requireUncoordinated() {
+        if (coordinator != null) {
+            throw new IllegalStateException("Holds aren't available behind a write coordinator");
+        }
+    }
+
+    private void requireWritable() {
+        if (replica) {
+            throw new ReadOnlyReplicaException();
+        }
+    }
+
+    private LedgerShard shardFor(String accountId) {
+        int hash = Account.requireValidId(accountId).hashCode();
+        return shards[Math.floorMod(hash ^ (hash >>> 16), shards.length)];
+    }
+
+    // Loads the account under its monitor the first time only, so that later credits and reads skip it
+    private static Account loaded(LedgerShard shard, String accountId) {
+        Account account = shard.account(accountId);
+        if (!account.isLoaded()) {
+            synchronized (account) {
+                shard.load(account);
+            }
+        }
+        return account;
+    }
+
+    // Under the account's monitor; the debit is taken before it is stored and given back if storing fails
+    private static void reserve(Account account, Money amount) {
+        reserve(account, amount, null);
+    }
+
+    private static void reserve(Account account, Money amount, Rollup shared) {
+        Currency currency = amount.getCurrency();
+        long minorUnits = amount.getMinorUnits();
+        if (!account.tryDebit(currency, minorUnits, shared) && !account.debitIfCovered(currency, minorUnits, shared)) {
+            throw new InsufficientFundsException(Money.ofMinorUnits(account.getAvailable(currency), currency), amount);
+        }
+    }
+
+    private static void requireCreditable(Account account, Money amount) {
+        try {
+            Math.addExact(account.getBalance(amount.getCurrency()), amount.getMinorUnits());
+        } catch (ArithmeticException ex) {
+            throw new IllegalArgumentException("Amount is too large", ex);
+        }
+    }
+
+    private static void applyTo(Account account, TransactionType type, Money amount) {
+        if (type.isCredit()) {
+            account.credit(amount.getCurrency(), amount.getMinorUnits());
+        } else {
+            account.debit(amount.getCurrency(), amount.getMinorUnits());
+        }
+    }
+
+    // Debits are already reserved; a credit is applied before the transaction is published, so no
+    // reader sees a version its balance doesn't reflect
+    private Transaction append(LedgerShard shard, Account account, TransactionType type, Money amount,
+                               UUID id, Instant createdAt) {
+        String accountId = account.getId();
+        Instant now = createdAt != null ? createdAt : clock.instant();
+        long next;
+        Transaction saved = null;
+        CompletableFuture<Transaction> pending = null;
+        synchronized (shard) {
+            next = sequence.incrementAndGet();
+            boolean stored = false;
+            try {
+                Transaction transaction = new Transaction(id != null ? id : UUID.randomUUID(), next, accountId, type, amount, now);
+                if (shard.isBatching()) {
+                    pending = shard.enqueue(transaction);
+                } else {
+                    saved = shard.getRepository().save(transaction);
+                }
+                stored = true;
+            } finally {
+                if (!stored) {
+                    publisher.publish(next, null);
+                }
+            }
+        }
+        if (pending != null) {
+            // Waiting outside the shard monitor lets other accounts of the shard join the batch
+            saved = awaitStored(pending, next, next);
+        }
+        if (type.isCredit()) {
+            account.credit(amount.getCurrency(), amount.getMinorUnits());
+        }
+        publisher.publish(next, saved);
+        return saved;
+    }
+
+    private Transfer appendTransfer(LedgerShard fromShard, LedgerShard toShard, Account from, Account to,
+                                    Money amount, UUID debitId, UUID creditId, Instant createdAt, Rollup shared) {
+        String fromAccountId = from.getId();
+        String toAccountId = to.getId();
+        Instant now = createdAt != null ? createdAt : clock.instant();
+        LedgerShard first = fromShard.getIndex() <= toShard.getIndex() ? fromShard : toShard;
+        LedgerShard second = first == fromShard ? toShard : fromShard;
+        long credit;
+        Transaction debitLeg = null;
+        Transaction creditLeg = null;
+        CompletableFuture<Void> pending = null;
+        synchronized (first) {
+            synchronized (second) {
+                credit = sequence.addAndGet(2);
+                boolean stored = false;
+                try {
+                    Transaction debit = new Transaction(debitId != null ? debitId : UUID.randomUUID(),
+                            credit - 1, fromAccountId, TransactionType.TRANSFER_OUT, amount, now);
+                    Transaction credited = new Transaction(creditId != null ? creditId : UUID.randomUUID(),
+                            credit, toAccountId, TransactionType.TRANSFER_IN, amount, now);
+                    if (fromShard.isBatching()) {
+                        pending = fromShard.enqueueTransfer(debit, toShard, credited);
+                        debitLeg = debit;
+                        creditLeg = credited;
+                    } else {
+                        debitLeg = fromShard.getRepository().save(debit);
+                        creditLeg = toShard.getRepository().save(credited);
+                    }
+                    stored = true;
+                } finally {
+                    if (!stored) {
+                        publisher.publish(credit - 1, pending == null ? debitLeg : null);
+                        publisher.publish(credit, null);
+                    }
+                }
+            }
+        }
+        if (pending != null) {
+            awaitStored(pending, credit - 1, credit);
+        }
+        to.credit(amount.getCurrency(), amount.getMinorUnits(), shared);
+        publisher.publish(credit - 1, debitLeg);
+        publisher.publish(credit, creditLeg);
+        return new Transfer(debitLeg, creditLeg);
+    }
+
+    // Every shard involved is locked while the sequences are taken, so each still stores in sequence order
+    private PostedEntry appendEntry(LedgerShard[] legShards, Account[] accounts, List<Posting> postings,
+                                    boolean[] raises) {
+        int size = accounts.length;
+        Instant now = clock.instant();
+        Transaction[] legs = new Transaction[size];
+        Transaction[] saved = new Transaction[size];
+        long[] first = new long[1];
+        List<CompletableFuture<Void>> pending = new ArrayList<>(1);
+        underMonitors(lockOrder(legShards), 0, () -> {
+            first[0] = sequence.addAndGet(size) - size + 1;
+            boolean stored = false;
+            try {
+                for (int i = 0; i < size; i++) {
+                    legs[i] = new Transaction(UUID.randomUUID(), first[0] + i, accounts[i].getId(),
+                            raises[i] ? TransactionType.TRANSFER_IN : TransactionType.TRANSFER_OUT,
+                            postings.get(i).amount(), now);
+                }
+                if (legShards[0].isBatching()) {
+                    pending.add(legShards[0].enqueueEntry(legs, legShards));
+                } else {
+                    for (int i = 0; i < size; i++) {
+                        saved[i] = legShards[i].getRepository().save(legs[i]);
+                    }
+                }
+                stored = true;
+            } finally {
+                if (!stored) {
+                    for (int i = 0; i < size; i++) {
+                        publisher.publish(first[0] + i, saved[i]);
+                    }
+                }
+            }
+        });
+        if (!pending.isEmpty()) {
+            awaitStored(pending.get(0), first[0], first[0] + size - 1);
+            System.arraycopy(legs, 0, saved, 0, size);
+        }
+        for (int i = 0; i < size; i++) {
+            if (raises[i]) {
+                Money amount = postings.get(i).amount();
+                accounts[i].credit(amount.getCurrency(), amount.getMinorUnits());
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            publisher.publish(first[0] + i, saved[i]);
+        }
+        return new PostedEntry(Arrays.asList(saved));
+    }
+
+    // Counts the write in the account's window in O(1), returning what gives it back if it fails
+    private Runnable countVelocity(String accountId, Money amount) {
+        VelocityLimit limit = velocityLimit;
+        if (limit == null) {
+            return NO_RELEASE;
+        }
+        VelocityWindow velocity = shardFor(accountId).account(accountId).getVelocity();
+        // The amount limit is in one currency; writes in any other count towards the transaction limit only
+        long minorUnits = amount.getCurrency() == limit.maxAmount().getCurrency() ? amount.getMinorUnits() : 0;
+        long window = velocity.tryAcquire(minorUnits, limit, System.nanoTime());
+        if (window == VelocityWindow.REJECTED) {
+            throw new VelocityLimitExceededException(accountId);
+        }
+        return () -> velocity.release(minorUnits, window);
+    }
+
+    private Runnable countVelocity(String fromAccountId, String toAccountId, Money amount) {
+        Runnable releaseFrom = countVelocity(fromAccountId, amount);
+        Runnable releaseTo;
+        try {
+            releaseTo = countVelocity(toAccountId, amount);
+        } catch (RuntimeException ex) {
+            releaseFrom.run();
+            throw ex;
+        }
+        return releaseFrom == NO_RELEASE ? NO_RELEASE : () -> {
+            releaseFrom.run();
+            releaseTo.run();
+        };
+    }
+
+    private static <T> CompletableFuture<T> releaseOnFailure(CompletableFuture<T> write, Runnable release) {
+        return release == NO_RELEASE ? write : write.whenComplete((result, failure) -> {
+            if (failure != null) {
+                release.run();
+            }
+        });
+    }
+
+    private <T> CompletableFuture<T> admit(Executor executor, Supplier<CompletableFuture<T>> write) {
+        AdmissionControl admission = this.admission;
+        if (admission == null) {
+            return CompletableFuture.supplyAsync(write, executor).thenCompose(pending -> pending);
+        }
+        return admission.submit(executor, write);
+    }
+
+    // Skips the reserved sequences if the batch they were queued in could not be stored
+    private <T> T awaitStored(CompletableFuture<T> pending, long firstSequence, long lastSequence) {
+        boolean stored = false;
+        try {
+            T result = await(pending);
+            stored = true;
+            return result;
+        } finally {
+            if (!stored) {
+                for (long skipped = firstSequence; skipped <= lastSequence; skipped++) {
+                    publisher.publish(skipped, null);
+                }
+            }
+        }
+    }
+
+    // Doesn't take the compaction lock: verification runs it on pool threads while its caller holds it
+    private List<Transaction> transactionsInRange(long afterSequence, long lastSequence, long committed) {
+        if (shards.length == 1) {
+            return upTo(shards[0].getRepository().findAllInSequenceRange(afterSequence, lastSequence), committed);
+        }
+        List<List<Transaction>> runs = new ArrayList<>(shards.length);
+        for (LedgerShard shard : shards) {
+            runs.add(shard.getRepository().findAllInSequenceRange(afterSequence, lastSequence));
+        }
+        return merge(runs, committed);
+    }
+
+    private static List<Transaction> upTo(List<Transaction> transactions, long committed) {
+        int end = transactions.size();
+        while (end > 0 && transactions.get(end - 1).getSequence() > committed) {
+            end--;
+        }
+        return end == transactions.size() ? transactions : new ArrayList<>(transactions.subList(0, end));
+    }
+
+    private static List<Transaction> merge(List<List<Transaction>> runs, long committed) {
+        int total = 0;
+        for (List<Transaction> run : runs) {
+            total += run.size();
+        }
+        List<Transaction> merged = new ArrayList<>(total);
+        int[] positions = new int[runs.size()];
+        while (true) {
+            int next = -1;
+            long lowest = Long.MAX_VALUE;
+            for (int i = 0; i < runs.size(); i++) {
+                List<Transaction> run = runs.get(i);
+                if (positions[i] < run.size() && run.get(positions[i]).getSequence() < lowest) {
+                    lowest = run.get(positions[i]).getSequence();
+                    next = i;
+                }
+            }
+            if (next < 0 || lowest > committed) {
+                return merged;
+            }
+            merged.add(runs.get(next).get(positions[next]++));
+        }
+    }
+
+    private static CompactableTransactionRepository compactable(LedgerShard shard) {
+        return (CompactableTransactionRepository) shard.getRepository();
+    }
+
+    private static LedgerShard[] newShards(List<? extends TransactionRepository> repositories) {
+        if (repositories.isEmpty()) {
+            throw new IllegalArgumentException("Shard count must be positive");
+        }
+        LedgerShard[] shards = new LedgerShard[repositories.size()];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new LedgerShard(i, repositories.get(i));
+        }
+        return shards;
+    }
+
+    private static LedgerShard[] newShards(int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Shard count must be positive");
+        }
+        LedgerShard[] shards = new LedgerShard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new LedgerShard(i, new InMemoryTransactionRepository());
+        }
+        return shards;
     }
 }
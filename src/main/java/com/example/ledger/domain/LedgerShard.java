@@ -0,0 +1,158 @@
+package com.example.ledger.domain;
+
+import com.example.ledger.repo.AccountIndexedTransactionRepository;
+import com.example.ledger.repo.BatchingTransactionRepository;
+import com.example.ledger.repo.TimeIndexedTransactionRepository;
+import com.example.ledger.repo.TransactionRepository;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * One partition of the ledger: the accounts hashed to it and the storage holding their
+ * transactions. Appends to a shard are serialized on the shard's monitor, so its storage stays in
+ * sequence order, while other shards append in parallel.
+ */
+final class LedgerShard {
+
+    private final int index;
+    private final TransactionRepository repository;
+    private final BatchingTransactionRepository batching;
+    private final AccountIndexedTransactionRepository indexed;
+    private final TimeIndexedTransactionRepository timeIndexed;
+    private final ConcurrentMap<String, Account> accounts = new ConcurrentHashMap<>();
+
+    LedgerShard(int index, TransactionRepository repository) {
+        this.index = index;
+        this.repository = Objects.requireNonNull(repository, "TransactionRepository can´t be null");
+        this.batching = repository instanceof BatchingTransactionRepository queue ? queue : null;
+        this.indexed = repository instanceof AccountIndexedTransactionRepository accountIndex ? accountIndex : null;
+        this.timeIndexed = repository instanceof TimeIndexedTransactionRepository timeIndex ? timeIndex : null;
+    }
+
+    int getIndex() {
+        return index;
+    }
+
+    TransactionRepository getRepository() {
+        return repository;
+    }
+
+    /**
+     * Whether writes are queued with {@link #enqueue} and awaited outside the shard monitor rather
+     * than saved under it.
+     */
+    boolean isBatching() {
+        return batching != null;
+    }
+
+    CompletableFuture<Transaction> enqueue(Transaction transaction) {
+        return batching.enqueue(transaction);
+    }
+
+    CompletableFuture<Void> enqueueTransfer(Transaction debit, LedgerShard creditShard, Transaction credit) {
+        return batching.enqueueTransfer(debit, creditShard.batching, credit);
+    }
+
+    /**
+     * Queues the legs of a journal entry through this shard's storage, leg {@code i} to {@code legShards[i]}.
+     */
+    CompletableFuture<Void> enqueueEntry(Transaction[] legs, LedgerShard[] legShards) {
+        List<BatchingTransactionRepository> repositories = new ArrayList<>(legShards.length);
+        for (LedgerShard shard : legShards) {
+            repositories.add(shard.batching);
+        }
+        return batching.enqueueEntry(List.of(legs), repositories);
+    }
+
+    Account account(String accountId) {
+        return accounts.computeIfAbsent(accountId, Account::new);
+    }
+
+    /**
+     * Creates the account with its balance split into the given number of sub-balances. Accounts
+     * already in use keep a single balance.
+     */
+    void split(String accountId, int subBalances) {
+        Account account = accounts.computeIfAbsent(accountId, id -> new Account(id, subBalances));
+        if (!account.isSplit()) {
+            throw new IllegalStateException("Account " + accountId + " is already in use and can't be split");
+        }
+    }
+
+    Collection<Account> accounts() {
+        return accounts.values();
+    }
+
+    /**
+     * Replays the account's recorded transactions the first time it is touched, or reads the stored
+     * balances when the storage indexes accounts, one per currency; from then on the balance is maintained
+     * incrementally. Must be called under the account's monitor.
+     */
+    void load(Account account) {
+        if (account.isLoaded()) {
+            return;
+        }
+        if (indexed != null) {
+            for (Money balance : indexed.findBalances(account.getId())) {
+                account.setBalance(balance.getCurrency(), balance.getMinorUnits());
+            }
+            account.markLoaded();
+            return;
+        }
+        Map<Currency, Long> balances = new HashMap<>();
+        for (Transaction transaction : repository.findAllOrderByTimestampDesc()) {
+            if (transaction.getAccountId().equals(account.getId())) {
+                long amount = transaction.getAmount().getMinorUnits();
+                balances.merge(transaction.getAmount().getCurrency(),
+                        transaction.getType().isCredit() ? amount : -amount, Math::addExact);
+            }
+        }
+        balances.forEach(account::setBalance);
+        account.markLoaded();
+    }
+
+    List<Transaction> transactions(String accountId) {
+        if (indexed != null) {
+            return indexed.findByAccountIdOrderBySequenceDesc(accountId);
+        }
+        return repository.findAllOrderByTimestampDesc().stream()
+                .filter(transaction -> transaction.getAccountId().equals(accountId))
+                .toList();
+    }
+
+    /**
+     * Returns the account's transactions up to the first one created after the given instant, newest
+     * first. Cutting its history in write order rather than filtering by timestamp means the result
+     * is always a state the account really had, even if the clock stepped back at some point.
+     */
+    List<Transaction> transactions(String accountId, Instant asOf) {
+        List<Transaction> candidates = timeIndexed != null
+                ? timeIndexed.findByAccountIdUntil(accountId, asOf)
+                : indexed != null
+                ? indexed.findByAccountIdOrderBySequenceDesc(accountId)
+                : repository.findAllOrderByTimestampDesc();
+        List<Transaction> history = new ArrayList<>();
+        for (Transaction transaction : candidates) {
+            if (transaction.getAccountId().equals(accountId)) {
+                history.add(transaction);
+            }
+        }
+        history.sort(Comparator.comparingLong(Transaction::getSequence));
+        int end = 0;
+        while (end < history.size() && !history.get(end).getCreatedAt().isAfter(asOf)) {
+            end++;
+        }
+        return history.subList(0, end).reversed();
+    }
+}
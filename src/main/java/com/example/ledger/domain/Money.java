@@ -2,65 +2,125 @@ package com.example.ledger.domain;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.Currency;
 import java.util.Objects;
 
+/**
+ * A non-negative amount as a whole number of the currency's minor units, with as many decimals as
+ * the currency has: two for EUR, none for JPY, three for BHD. The factories without a currency use
+ * {@link Currencies#DEFAULT}.
+ */
 public final class Money {
-    private static final int SCALE = 2;
-    private static final RoundingMode ROUNDING_MODE = RoundingMode.HALF_UP;
-    
-    private final BigDecimal amount;
-    
-    private Money(BigDecimal amount) {
-        this.amount = amount.setScale(SCALE, ROUNDING_MODE);
+
+    private final long minorUnits;
+    private final Currency currency;
+
+    private Money(long minorUnits, Currency currency) {
+        this.minorUnits = minorUnits;
+        this.currency = currency;
     }
-    
+
     public static Money of(BigDecimal amount) {
+        return of(amount, Currencies.DEFAULT);
+    }
+
+    public static Money of(BigDecimal amount, Currency currency) {
         Objects.requireNonNull(amount, "Amount can't be null");
-        
+        int scale = Currencies.requireSupported(currency).getDefaultFractionDigits();
+
         if (amount.compareTo(BigDecimal.ZERO) < 0) {
             throw new IllegalArgumentException("Amount can't be negative");
         }
-        
-        if (amount.scale() > SCALE) {
-            throw new IllegalArgumentException("Amount can't have more than " + SCALE + " decimals");
+
+        if (amount.scale() > scale) {
+            throw new IllegalArgumentException("Amount can't have more than " + scale + " decimals");
+        }
+
+        try {
+            return new Money(amount.setScale(scale, RoundingMode.UNNECESSARY).unscaledValue().longValueExact(), currency);
+        } catch (ArithmeticException ex) {
+            throw new IllegalArgumentException("Amount is too large", ex);
         }
-        
-        return new Money(amount);
     }
-    
+
     public static Money of(String amount) {
+        return of(amount, Currencies.DEFAULT);
+    }
+
+    public static Money of(String amount, Currency currency) {
         Objects.requireNonNull(amount, "Amount string cannot be null");
         String trimmed = amount.trim();
         if (trimmed.isEmpty()) {
             throw new IllegalArgumentException("Amount string cannot be empty");
         }
-        return of(new BigDecimal(trimmed));
+        return of(new BigDecimal(trimmed), currency);
+    }
+
+    /**
+     * Creates money from an amount already expressed in cents, skipping any decimal parsing.
+     */
+    public static Money ofMinorUnits(long minorUnits) {
+        return ofMinorUnits(minorUnits, Currencies.DEFAULT);
+    }
+
+    /**
+     * Creates money from an amount already expressed in the currency's minor units.
+     */
+    public static Money ofMinorUnits(long minorUnits, Currency currency) {
+        if (minorUnits < 0) {
+            throw new IllegalArgumentException("Amount can't be negative");
+        }
+        return new Money(minorUnits, currency == Currencies.DEFAULT ? currency : Currencies.requireSupported(currency));
     }
 
     public Money add(Money other) {
         Objects.requireNonNull(other, "Money to add can't be null");
-        return new Money(this.amount.add(other.amount));
+        requireSameCurrency(other);
+        try {
+            return new Money(Math.addExact(this.minorUnits, other.minorUnits), currency);
+        } catch (ArithmeticException ex) {
+            throw new IllegalArgumentException("Amount is too large", ex);
+        }
+    }
+
+    public void requireSameCurrency(Money other) {
+        if (currency != other.currency) {
+            throw new IllegalArgumentException("Currency mismatch: " + currency.getCurrencyCode()
+                    + " and " + other.currency.getCurrencyCode());
+        }
     }
 
     public BigDecimal getAmount() {
-        return amount;
+        return BigDecimal.valueOf(minorUnits, currency.getDefaultFractionDigits());
     }
-    
+
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+
+    public Currency getCurrency() {
+        return currency;
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (this == obj) return true;
         if (obj == null || getClass() != obj.getClass()) return false;
         Money money = (Money) obj;
-        return Objects.equals(amount, money.amount);
+        return minorUnits == money.minorUnits && currency == money.currency;
     }
-    
+
     @Override
     public int hashCode() {
-        return Objects.hash(amount);
+        return 31 * Long.hashCode(minorUnits) + currency.hashCode();
     }
-    
+
+    /**
+     * The amount alone, as it always was for the default currency; other currencies add their code.
+     */
     @Override
     public String toString() {
-        return amount.toString();
+        String amount = getAmount().toString();
+        return currency == Currencies.DEFAULT ? amount : amount + " " + currency.getCurrencyCode();
     }
 }
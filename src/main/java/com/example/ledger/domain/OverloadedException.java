@@ -0,0 +1,13 @@
+package com.example.ledger.domain;
+
+/**
+ * Raised when a write is shed because too many are already waiting to be admitted. Nothing was
+ * recorded, so clients can safely retry after backing off. It carries no stack trace, since it is
+ * raised most often exactly when the ledger can least afford building them.
+ */
+public class OverloadedException extends RuntimeException {
+
+    public OverloadedException() {
+        super("Ledger is overloaded, retry later", null, false, false);
+    }
+}
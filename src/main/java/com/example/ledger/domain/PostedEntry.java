@@ -0,0 +1,16 @@
+package com.example.ledger.domain;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The legs a journal entry was recorded as, one per posting and in the same order, with consecutive
+ * sequences. A leg that raises its account's balance on the account's normal side is a
+ * {@link TransactionType#TRANSFER_IN}, one that lowers it a {@link TransactionType#TRANSFER_OUT}.
+ */
+public record PostedEntry(List<Transaction> legs) {
+
+    public PostedEntry {
+        legs = List.copyOf(Objects.requireNonNull(legs, "Legs can't be null"));
+    }
+}
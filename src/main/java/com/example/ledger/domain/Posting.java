@@ -0,0 +1,31 @@
+package com.example.ledger.domain;
+
+import java.util.Objects;
+
+/**
+ * One line of a journal entry: an amount debited or credited to an account.
+ */
+public record Posting(String accountId, Side side, Money amount) {
+
+    public enum Side {
+        DEBIT,
+        CREDIT
+    }
+
+    public Posting {
+        Account.requireValidId(accountId);
+        Objects.requireNonNull(side, "Side can't be null");
+        Objects.requireNonNull(amount, "Amount can't be null");
+        if (amount.getMinorUnits() == 0) {
+            throw new IllegalArgumentException("Amount must be positive");
+        }
+    }
+
+    public static Posting debit(String accountId, Money amount) {
+        return new Posting(accountId, Side.DEBIT, amount);
+    }
+
+    public static Posting credit(String accountId, Money amount) {
+        return new Posting(accountId, Side.CREDIT, amount);
+    }
+}
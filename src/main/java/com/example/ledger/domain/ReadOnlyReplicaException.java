@@ -0,0 +1,12 @@
+package com.example.ledger.domain;
+
+/**
+ * Raised when a write reaches a ledger that is following a leader. Clients should send writes to
+ * the leader, or retry once this replica has been promoted.
+ */
+public class ReadOnlyReplicaException extends IllegalStateException {
+
+    public ReadOnlyReplicaException() {
+        super("Ledger is a read-only replica");
+    }
+}
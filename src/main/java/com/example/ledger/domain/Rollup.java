@@ -0,0 +1,97 @@
+package com.example.ledger.domain;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Currency;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running balance of an account and every account under it in the hierarchy. Every change to an
+ * account's balance is added here and to each ancestor as it is made, so reading a group's balance
+ * costs the same however many accounts it has. The totals are {@link LongAdder}s: a parent that
+ * few writers touch keeps a single base value, and one that many update at once, like a tenant
+ * over thousands of merchants, spreads them over per-thread cells instead of contending on one,
+ * so the read stays bounded by the number of cores.
+ * <p>
+ * A transfer between two accounts of a group leaves the group's balance unchanged, so its debit and
+ * credit stop below their {@link #commonAncestor common ancestor}, which never sees a transfer half
+ * applied. Other reads are approximate while the group is written: the legs of a journal entry and
+ * the legs a replica applies one by one land separately, and summing the cells isn't atomic with
+ * the adds, so a read can miss a credit an account had before a debit it sees and come out short.
+ * Money can't be negative, so such a read is clamped at zero. It is exact once the writes it overlaps
+ * have finished.
+ */
+final class Rollup {
+
+    private final String accountId;
+    private final Rollup parent;
+    private final LongAdder balance = new LongAdder();
+    private final ConcurrentMap<Currency, LongAdder> currencies = new ConcurrentHashMap<>();
+
+    Rollup(String accountId, Rollup parent) {
+        this.accountId = accountId;
+        this.parent = parent;
+    }
+
+    String getAccountId() {
+        return accountId;
+    }
+
+    Rollup getParent() {
+        return parent;
+    }
+
+    // Lock-free, from whichever thread changed the balance
+    void add(Currency currency, long delta) {
+        add(currency, delta, null);
+    }
+
+    // Up to but not including until, which a transfer's other leg offsets, or to the root when null
+    void add(Currency currency, long delta, Rollup until) {
+        for (Rollup rollup = this; rollup != null && rollup != until; rollup = rollup.parent) {
+            rollup.total(currency).add(delta);
+        }
+    }
+
+    /**
+     * The nearest rollup that is or contains both, or {@code null} when either is {@code null} or
+     * they are in different trees.
+     */
+    static Rollup commonAncestor(Rollup first, Rollup second) {
+        for (Rollup ancestor = first; ancestor != null; ancestor = ancestor.parent) {
+            for (Rollup other = second; other != null; other = other.parent) {
+                if (ancestor == other) {
+                    return ancestor;
+                }
+            }
+        }
+        return null;
+    }
+
+    long getBalance(Currency currency) {
+        LongAdder total = currency == Currencies.DEFAULT ? balance : currencies.get(currency);
+        return total == null ? 0 : Math.max(0, total.sum());
+    }
+
+    /**
+     * The balance in the default currency followed by every other currency used under this account,
+     * by code.
+     */
+    List<Money> getBalances() {
+        List<Money> balances = new ArrayList<>(1 + currencies.size());
+        balances.add(Money.ofMinorUnits(getBalance(Currencies.DEFAULT)));
+        currencies.keySet().stream()
+                .sorted(Comparator.comparing(Currency::getCurrencyCode))
+                .forEach(currency -> balances.add(Money.ofMinorUnits(getBalance(currency), currency)));
+        return balances;
+    }
+
+    private LongAdder total(Currency currency) {
+        return currency == Currencies.DEFAULT
+                ? balance
+                : currencies.computeIfAbsent(currency, unused -> new LongAdder());
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.ledger.domain;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the trial balance up to date one transaction at a time, so taking it costs one pass over the
+ * accounts rather than one over the history. Each account holds its balance per currency on its
+ * normal side, the way {@link Account} does; a single-sided transaction also moves the external line
+ * the other way.
+ * <p>
+ * The legs of a transfer or journal entry arrive one at a time. Their debits less their credits are
+ * summed per currency, and since every entry nets to zero, a trial balance is only taken while those
+ * sums are all zero, so it never shows half an entry. A leg that could not be stored leaves its
+ * entry open for good: after waiting {@link #OPEN_ENTRY_TIMEOUT_MILLIS} the books are reported as
+ * they are, unbalanced, and what is open from then on is counted afresh.
+ */
+final class RunningTrialBalance implements TransactionListener {
+
+    static final long OPEN_ENTRY_TIMEOUT_MILLIS = 1000;
+
+    private final ChartOfAccounts chart;
+    private final Map<Currency, Map<String, long[]>> balances = new HashMap<>();
+    private final Map<Currency, long[]> openEntries = new HashMap<>();
+    private int unbalancedCurrencies;
+
+    RunningTrialBalance(ChartOfAccounts chart) {
+        this.chart = chart;
+    }
+
+    @Override
+    public synchronized void onTransaction(Transaction transaction) {
+        Currency currency = transaction.getAmount().getCurrency();
+        long minorUnits = transaction.getAmount().getMinorUnits();
+        long change = transaction.getType().isCredit() ? minorUnits : -minorUnits;
+        Map<String, long[]> accounts = balances.computeIfAbsent(currency, unused -> new HashMap<>());
+        accounts.computeIfAbsent(transaction.getAccountId(), unused -> new long[1])[0] += change;
+
+        long debited = chart.kindOf(transaction.getAccountId()).isDebitNormal() ? change : -change;
+        switch (transaction.getType()) {
+            case TRANSFER_IN, TRANSFER_OUT -> open(currency, debited);
+            // The external line is debit-normal and takes the opposite side
+            default -> accounts.computeIfAbsent(TrialBalance.EXTERNAL_ACCOUNT, unused -> new long[1])[0] -= debited;
+        }
+    }
+
+    synchronized TrialBalance snapshot() {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(OPEN_ENTRY_TIMEOUT_MILLIS);
+        long remaining;
+        while (unbalancedCurrencies > 0 && (remaining = deadline - System.nanoTime()) > 0) {
+            try {
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        if (unbalancedCurrencies > 0) {
+            openEntries.clear();
+            unbalancedCurrencies = 0;
+        }
+
+        List<TrialBalance.Line> lines = new ArrayList<>();
+        List<TrialBalance.Line> external = new ArrayList<>();
+        List<TrialBalance.Total> totals = new ArrayList<>(balances.size());
+        for (Map.Entry<Currency, Map<String, long[]>> byCurrency : balances.entrySet()) {
+            Currency currency = byCurrency.getKey();
+            long debits = 0;
+            long credits = 0;
+            for (Map.Entry<String, long[]> account : byCurrency.getValue().entrySet()) {
+                boolean isExternal = account.getKey().equals(TrialBalance.EXTERNAL_ACCOUNT);
+                AccountKind kind = isExternal ? AccountKind.ASSET : chart.kindOf(account.getKey());
+                long balance = account.getValue()[0];
+                long debit = kind.isDebitNormal() == balance >= 0 ? Math.abs(balance) : 0;
+                long credit = Math.abs(balance) - debit;
+                debits += debit;
+                credits += credit;
+                (isExternal ? external : lines).add(new TrialBalance.Line(account.getKey(), kind,
+                        Money.ofMinorUnits(debit, currency), Money.ofMinorUnits(credit, currency)));
+            }
+            totals.add(new TrialBalance.Total(currency, Money.ofMinorUnits(debits, currency),
+                    Money.ofMinorUnits(credits, currency)));
+        }
+        Comparator<TrialBalance.Line> byAccount = Comparator.comparing(TrialBalance.Line::accountId);
+        lines.sort(byAccount.thenComparing(line -> line.debit().getCurrency().getCurrencyCode()));
+        external.sort(Comparator.comparing(line -> line.debit().getCurrency().getCurrencyCode()));
+        lines.addAll(external);
+        totals.sort(Comparator.comparing(total -> total.currency().getCurrencyCode()));
+        return new TrialBalance(lines, totals);
+    }
+
+    private void open(Currency currency, long debited) {
+        long[] open = openEntries.computeIfAbsent(currency, unused -> new long[1]);
+        long before = open[0];
+        open[0] += debited;
+        if (before == 0 && open[0] != 0) {
+            unbalancedCurrencies++;
+        } else if (before != 0 && open[0] == 0 && --unbalancedCurrencies == 0) {
+            notifyAll();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.ledger.domain;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hands recorded transactions to the listeners strictly in sequence order, even though shards
+ * append them concurrently. A transaction that arrives ahead of its predecessors is parked until
+ * the gap closes; {@link #getCommitted()} only moves over a gap-free prefix, so everything at or
+ * below it is visible in storage.
+ */
+final class SequencedPublisher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SequencedPublisher.class);
+
+    private final List<TransactionListener> listeners;
+    private final Map<Long, Transaction> parked = new HashMap<>();
+    private final Object lock = new Object();
+    private long published;
+    private volatile long committed;
+
+    SequencedPublisher(List<TransactionListener> listeners) {
+        this.listeners = listeners;
+    }
+
+    /**
+     * Publishes the transaction recorded with the given sequence, or skips that sequence when
+     * {@code transaction} is null because it could not be stored.
+     */
+    void publish(long sequence, Transaction transaction) {
+        synchronized (lock) {
+            if (sequence != published + 1) {
+                parked.put(sequence, transaction);
+                return;
+            }
+            advance(transaction);
+            while (!parked.isEmpty() && parked.containsKey(published + 1)) {
+                advance(parked.remove(published + 1));
+            }
+        }
+    }
+
+    /**
+     * Continues numbering after a sequence recorded before this publisher existed, e.g. in
+     * persistent storage. Must be called before anything is published.
+     */
+    void startAfter(long sequence) {
+        synchronized (lock) {
+            published = sequence;
+            committed = sequence;
+        }
+    }
+
+    /**
+     * Moves past sequences that will never be published, e.g. transactions a leader compacted away
+     * before a replica caught up. Only for a publisher fed one sequence at a time.
+     */
+    void skipTo(long sequence) {
+        synchronized (lock) {
+            if (sequence > published) {
+                published = sequence;
+                committed = sequence;
+            }
+        }
+    }
+
+    long getCommitted() {
+        return committed;
+    }
+
+    private void advance(Transaction transaction) {
+        committed = ++published;
+        if (transaction == null) {
+            return;
+        }
+        for (TransactionListener listener : listeners) {
+            try {
+                listener.onTransaction(transaction);
+            } catch (RuntimeException ex) {
+                LOGGER.error("Transaction listener failed for {}", transaction.getId(), ex);
+            }
+        }
+    }
+}
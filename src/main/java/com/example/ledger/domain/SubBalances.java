@@ -0,0 +1,82 @@
+package com.example.ledger.domain;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Balance of a hot account split across slots a cache line apart. Each thread credits and debits
+ * its own slot, so concurrent writers rarely touch the same memory; a debit the thread's slot can't
+ * cover falls back to {@link #drain()} and {@link #spread(long)}, which the account does under its
+ * monitor.
+ */
+final class SubBalances {
+
+    // Longs per 64-byte cache line, so neighbouring slots don't share one
+    private static final int STRIDE = 8;
+
+    private final AtomicLongArray slots;
+    private final int count;
+
+    SubBalances(int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Sub-balance count must be positive");
+        }
+        this.count = count;
+        this.slots = new AtomicLongArray(count * STRIDE);
+    }
+
+    int getCount() {
+        return count;
+    }
+
+    long sum() {
+        long sum = 0;
+        for (int i = 0; i < count; i++) {
+            sum += slots.get(i * STRIDE);
+        }
+        return sum;
+    }
+
+    void credit(long amount) {
+        slots.getAndAdd(slot(), amount);
+    }
+
+    /**
+     * Takes the amount from the calling thread's slot if that slot alone covers it.
+     */
+    boolean tryDebit(long amount) {
+        int index = slot();
+        long current = slots.get(index);
+        while (current >= amount) {
+            long witness = slots.compareAndExchange(index, current, current - amount);
+            if (witness == current) {
+                return true;
+            }
+            current = witness;
+        }
+        return false;
+    }
+
+    /**
+     * Empties every slot and returns what they held. Credits arriving meanwhile stay in their slot.
+     */
+    long drain() {
+        long total = 0;
+        for (int i = 0; i < count; i++) {
+            total += slots.getAndSet(i * STRIDE, 0);
+        }
+        return total;
+    }
+
+    void spread(long total) {
+        long share = total / count;
+        long rest = total % count;
+        for (int i = 0; i < count; i++) {
+            slots.getAndAdd(i * STRIDE, share + (i < Math.abs(rest) ? Long.signum(rest) : 0));
+        }
+    }
+
+    private int slot() {
+        long hash = Thread.currentThread().threadId() * 0x9E3779B97F4A7C15L;
+        return (int) Math.floorMod(hash >>> 32, (long) count) * STRIDE;
+    }
+}
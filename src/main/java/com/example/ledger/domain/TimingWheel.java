@@ -0,0 +1,193 @@
+package com.example.ledger.domain;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel: schedules and cancels timeouts in O(1) and expires them without
+ * looking at any timeout that isn't due. Each level has 64 slots; level {@code n} slots span
+ * {@code 64^n} ticks, and a timeout sits on the lowest level whose span around the current tick
+ * covers its deadline. Whenever the current tick enters a higher-level slot, that slot's timeouts
+ * cascade down to the level below, so each timeout moves at most once per level. Timeouts beyond the
+ * top level wait in an overflow list that is re-placed once per top-level revolution.
+ * <p>
+ * Deadlines are rounded up to whole ticks. Timeouts are doubly linked into their slot, so cancelling
+ * one unlinks it without a search. Not thread-safe on its own; every method runs under the wheel's
+ * monitor, and expired items are handed to the consumer after it is released.
+ */
+final class TimingWheel<T> {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+
+    private final long tickMillis;
+    private final Timeout<T>[][] levels;
+    private final Timeout<T> overflow = new Timeout<>(null, 0);
+    private long currentTick = Long.MIN_VALUE;
+    private int size;
+
+    TimingWheel(Duration tick, int levelCount) {
+        if (tick.toMillis() < 1 || levelCount < 1 || levelCount > 10) {
+            throw new IllegalArgumentException("Timing wheel needs a tick of at least 1ms and 1 to 10 levels");
+        }
+        this.tickMillis = tick.toMillis();
+        this.levels = newLevels(levelCount);
+        for (Timeout<T>[] level : levels) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                level[slot] = new Timeout<>(null, 0);
+            }
+        }
+    }
+
+    // Arrays of a generic type can't be created directly; the slots only ever hold Timeout<T>
+    @SuppressWarnings("unchecked")
+    private static <T> Timeout<T>[][] newLevels(int levelCount) {
+        return (Timeout<T>[][]) new Timeout<?>[levelCount][SLOTS];
+    }
+
+    /**
+     * Schedules the item to expire at the first tick at or after the deadline, and at the next
+     * tick if the deadline has already passed.
+     */
+    synchronized Timeout<T> schedule(T item, Instant deadline, Instant now) {
+        start(now);
+        long tick = Math.max(currentTick + 1, Math.floorDiv(deadline.toEpochMilli() + tickMillis - 1, tickMillis));
+        Timeout<T> timeout = new Timeout<>(item, tick);
+        place(timeout);
+        size++;
+        return timeout;
+    }
+
+    /**
+     * Removes the timeout if it hasn't expired yet. Returns whether it was still pending.
+     */
+    synchronized boolean cancel(Timeout<T> timeout) {
+        if (timeout.prev == null) {
+            return false;
+        }
+        timeout.unlink();
+        size--;
+        return true;
+    }
+
+    /**
+     * Moves the wheel to the given instant, handing every timeout due by then to the consumer, tick
+     * by tick. Returns how many expired.
+     */
+    int advance(Instant now, Consumer<T> expired) {
+        List<T> due = new ArrayList<>();
+        synchronized (this) {
+            start(now);
+            long target = Math.floorDiv(now.toEpochMilli(), tickMillis);
+            while (currentTick < target) {
+                if (size == 0) {
+                    currentTick = target;
+                    break;
+                }
+                currentTick++;
+                cascade();
+                Timeout<T> head = levels[0][(int) (currentTick & SLOT_MASK)];
+                for (Timeout<T> timeout = head.next; timeout != head; timeout = head.next) {
+                    timeout.unlink();
+                    size--;
+                    due.add(timeout.item);
+                }
+            }
+        }
+        due.forEach(expired);
+        return due.size();
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    private void start(Instant now) {
+        if (currentTick == Long.MIN_VALUE) {
+            currentTick = Math.floorDiv(now.toEpochMilli(), tickMillis);
+        }
+    }
+
+    // Re-places the slots the current tick just entered, top level first so their timeouts can
+    // fall through every level below in the same tick
+    private void cascade() {
+        int topBits = levels.length * SLOT_BITS;
+        if ((currentTick & ((1L << topBits) - 1)) == 0) {
+            replaceAll(overflow);
+        }
+        for (int level = levels.length - 1; level > 0; level--) {
+            int shift = level * SLOT_BITS;
+            if ((currentTick & ((1L << shift) - 1)) == 0) {
+                replaceAll(levels[level][(int) ((currentTick >>> shift) & SLOT_MASK)]);
+            }
+        }
+    }
+
+    // Detaches the whole list first, since an overflow timeout still out of range goes straight back
+    private void replaceAll(Timeout<T> head) {
+        Timeout<T> timeout = head.next;
+        if (timeout == head) {
+            return;
+        }
+        head.prev.next = null;
+        head.prev = head;
+        head.next = head;
+        while (timeout != null) {
+            Timeout<T> next = timeout.next;
+            place(timeout);
+            timeout = next;
+        }
+    }
+
+    // The lowest level where the deadline and the current tick share every higher slot bit; a
+    // deadline due now lands in the current level-0 slot, which is expired right after cascading
+    private void place(Timeout<T> timeout) {
+        for (int level = 0; level < levels.length; level++) {
+            int above = (level + 1) * SLOT_BITS;
+            if ((timeout.tick >>> above) == (currentTick >>> above)) {
+                int slot = (int) ((timeout.tick >>> (level * SLOT_BITS)) & SLOT_MASK);
+                levels[level][slot].append(timeout);
+                return;
+            }
+        }
+        overflow.append(timeout);
+    }
+
+    /**
+     * A scheduled item. Slot heads are sentinels of a circular list that never hold an item.
+     */
+    static final class Timeout<T> {
+
+        private final T item;
+        private final long tick;
+        private Timeout<T> prev;
+        private Timeout<T> next;
+
+        private Timeout(T item, long tick) {
+            this.item = item;
+            this.tick = tick;
+            if (item == null) {
+                prev = this;
+                next = this;
+            }
+        }
+
+        private void append(Timeout<T> timeout) {
+            timeout.prev = prev;
+            timeout.next = this;
+            prev.next = timeout;
+            prev = timeout;
+        }
+
+        private void unlink() {
+            prev.next = next;
+            next.prev = prev;
+            prev = null;
+            next = null;
+        }
+    }
+}
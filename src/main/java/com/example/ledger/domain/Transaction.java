@@ -6,12 +6,34 @@ import java.util.UUID;
 
 public final class Transaction {
     private final UUID id;
+    private final long sequence;
+    private final String accountId;
     private final TransactionType type;
     private final Money amount;
     private final Instant createdAt;
 
     public Transaction(TransactionType type, Money amount, Instant createdAt) {
-        this.id = UUID.randomUUID();
+        this(0, type, amount, createdAt);
+    }
+
+    public Transaction(long sequence, TransactionType type, Money amount, Instant createdAt) {
+        this(sequence, Account.DEFAULT_ID, type, amount, createdAt);
+    }
+
+    public Transaction(long sequence, String accountId, TransactionType type, Money amount, Instant createdAt) {
+        this(UUID.randomUUID(), sequence, accountId, type, amount, createdAt);
+    }
+
+    /**
+     * Recreates a transaction recorded elsewhere, keeping its id, e.g. on a replica.
+     */
+    public Transaction(UUID id, long sequence, String accountId, TransactionType type, Money amount, Instant createdAt) {
+        if (sequence < 0) {
+            throw new IllegalArgumentException("Sequence can't be negative");
+        }
+        this.id = Objects.requireNonNull(id, "Id can't be null");
+        this.sequence = sequence;
+        this.accountId = Objects.requireNonNull(accountId, "Account id can't be null");
         this.type = Objects.requireNonNull(type, "Transaction type can't be null");
         this.amount = Objects.requireNonNull(amount, "Amount can't be null");
         this.createdAt = Objects.requireNonNull(createdAt, "Created at timestamp can't be null");
@@ -21,6 +43,18 @@ public final class Transaction {
         return id;
     }
 
+    /**
+     * Position of this transaction in the ledger's write order, starting at 1. Zero means the
+     * transaction was never recorded by a {@link LedgerService}.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    public String getAccountId() {
+        return accountId;
+    }
+
     public TransactionType getType() {
         return type;
     }
@@ -50,6 +84,8 @@ public final class Transaction {
     public String toString() {
         return "Transaction{" +
                 "id=" + id +
+                ", sequence=" + sequence +
+                ", accountId='" + accountId + '\'' +
                 ", type=" + type +
                 ", amount=" + amount +
                 ", createdAt=" + createdAt +
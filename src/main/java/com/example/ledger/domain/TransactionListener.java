@@ -0,0 +1,11 @@
+package com.example.ledger.domain;
+
+/**
+ * Callback invoked by {@link LedgerService} after each transaction is recorded, in sequence order.
+ * It runs while the journal lock is held, so implementations must hand work off instead of blocking.
+ */
+@FunctionalInterface
+public interface TransactionListener {
+
+    void onTransaction(Transaction transaction);
+}
@@ -3,5 +3,19 @@ package com.example.ledger.domain;
 
 public enum TransactionType {
     DEPOSIT,
-    WITHDRAW
+    WITHDRAW,
+    TRANSFER_IN,
+    TRANSFER_OUT,
+    /**
+     * Opening balance that replaces an account's transactions folded away by retention; its amount
+     * is the balance they added up to.
+     */
+    BALANCE_FORWARD;
+
+    /**
+     * Whether a transaction of this type adds to the balance of its account.
+     */
+    public boolean isCredit() {
+        return this == DEPOSIT || this == TRANSFER_IN || this == BALANCE_FORWARD;
+    }
 }
@@ -0,0 +1,15 @@
+package com.example.ledger.domain;
+
+import java.util.Objects;
+
+/**
+ * The two legs of a transfer: a {@link TransactionType#TRANSFER_OUT} on the source account and a
+ * {@link TransactionType#TRANSFER_IN} on the destination, recorded with consecutive sequences.
+ */
+public record Transfer(Transaction debit, Transaction credit) {
+
+    public Transfer {
+        Objects.requireNonNull(debit, "Debit can't be null");
+        Objects.requireNonNull(credit, "Credit can't be null");
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.ledger.domain;
+
+import java.util.Currency;
+import java.util.List;
+
+/**
+ * Every account's balance in the debit or credit column, by currency, and the column totals, which
+ * are equal while the books balance. Deposits, withdrawals and imports bring money in from outside
+ * the chart of accounts and have only one side in it; their other side is booked on the
+ * {@link #EXTERNAL_ACCOUNT} line.
+ */
+public record TrialBalance(List<Line> lines, List<Total> totals) {
+
+    /**
+     * Not a valid account id, so it can't clash with one.
+     */
+    public static final String EXTERNAL_ACCOUNT = "@external";
+
+    public TrialBalance {
+        lines = List.copyOf(lines);
+        totals = List.copyOf(totals);
+    }
+
+    public boolean isBalanced() {
+        return totals.stream().allMatch(Total::isBalanced);
+    }
+
+    /**
+     * One of the two amounts is always zero.
+     */
+    public record Line(String accountId, AccountKind kind, Money debit, Money credit) {
+    }
+
+    public record Total(Currency currency, Money debits, Money credits) {
+
+        public boolean isBalanced() {
+            return debits.equals(credits);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.ledger.domain;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * How many transactions, and how much money, one account may move within any sliding window of
+ * the given length. A zero maximum leaves that dimension unlimited.
+ */
+public record VelocityLimit(long maxTransactions, Money maxAmount, Duration window) {
+
+    public VelocityLimit {
+        Objects.requireNonNull(maxAmount, "Maximum amount can't be null");
+        Objects.requireNonNull(window, "Window can't be null");
+        if (maxTransactions < 0) {
+            throw new IllegalArgumentException("Velocity transaction limit can't be negative");
+        }
+        if (window.isNegative() || window.isZero()) {
+            throw new IllegalArgumentException("Velocity window must be positive");
+        }
+    }
+
+    public boolean isUnlimited() {
+        return maxTransactions == 0 && maxAmount.getMinorUnits() == 0;
+    }
+}
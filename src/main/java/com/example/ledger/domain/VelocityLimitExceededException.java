@@ -0,0 +1,31 @@
+package com.example.ledger.domain;
+
+import java.util.Objects;
+
+/**
+ * Rejects a transaction that would take an account past its {@link VelocityLimit}. Nothing was
+ * recorded, and the account may move money again once older transactions leave the window. Like
+ * {@link InsufficientFundsException} it is an expected outcome, so no stack trace is captured.
+ */
+public class VelocityLimitExceededException extends RuntimeException {
+
+    private final String accountId;
+
+    public VelocityLimitExceededException(String accountId) {
+        this.accountId = Objects.requireNonNull(accountId, "Account id can't be null");
+    }
+
+    public String getAccountId() {
+        return accountId;
+    }
+
+    @Override
+    public String getMessage() {
+        return "Velocity limit exceeded for account " + accountId;
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.ledger.domain;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Sliding-window count and sum of one account's transactions in constant memory. Time is cut into
+ * fixed windows and only the current and previous one are kept; the previous window is weighted by
+ * how much of it still overlaps the sliding window ending now, which assumes its transactions were
+ * spread evenly over it. Admitting a transaction is a single compare-and-set of an immutable
+ * snapshot, so concurrent writers never block each other.
+ */
+final class VelocityWindow {
+
+    static final long REJECTED = Long.MIN_VALUE;
+
+    private static final State EMPTY = new State(REJECTED, 0, 0, 0, 0);
+
+    private final AtomicReference<State> state = new AtomicReference<>(EMPTY);
+
+    /**
+     * Counts the transaction if it keeps the account within the limit. Returns the window it was
+     * counted in, to give it back with {@link #release}, or {@link #REJECTED}.
+     */
+    long tryAcquire(long amount, VelocityLimit limit, long nowNanos) {
+        long windowNanos = limit.window().toNanos();
+        long window = Math.floorDiv(nowNanos, windowNanos);
+        double previousWeight = 1.0 - (double) Math.floorMod(nowNanos, windowNanos) / windowNanos;
+        long maxTransactions = limit.maxTransactions();
+        long maxAmount = limit.maxAmount().getMinorUnits();
+        while (true) {
+            State current = state.get();
+            State rolled = current.rollTo(window);
+            if (maxTransactions > 0
+                    && rolled.previousCount * previousWeight + rolled.count + 1 > maxTransactions) {
+                return REJECTED;
+            }
+            if (maxAmount > 0
+                    && rolled.previousAmount * previousWeight + rolled.amount + amount > maxAmount) {
+                return REJECTED;
+            }
+            State next = new State(rolled.window, rolled.previousCount, rolled.previousAmount,
+                    rolled.count + 1, rolled.amount + amount);
+            if (state.compareAndSet(current, next)) {
+                return rolled.window;
+            }
+        }
+    }
+
+    /**
+     * Gives back a transaction counted in the given window that was not recorded after all. Once
+     * that window has slid out entirely there is nothing left to give back.
+     */
+    void release(long amount, long window) {
+        while (true) {
+            State current = state.get();
+            State next;
+            if (current.window == window) {
+                next = new State(window, current.previousCount, current.previousAmount,
+                        current.count - 1, current.amount - amount);
+            } else if (current.window == window + 1) {
+                next = new State(current.window, current.previousCount - 1, current.previousAmount - amount,
+                        current.count, current.amount);
+            } else {
+                return;
+            }
+            if (state.compareAndSet(current, next)) {
+                return;
+            }
+        }
+    }
+
+    private record State(long window, long previousCount, long previousAmount, long count, long amount) {
+
+        State rollTo(long now) {
+            // A writer that read the clock a little earlier may find the window already rolled
+            if (window >= now) {
+                return this;
+            }
+            if (window == now - 1) {
+                return new State(now, count, amount, 0, 0);
+            }
+            return new State(now, 0, 0, 0, 0);
+        }
+    }
+}
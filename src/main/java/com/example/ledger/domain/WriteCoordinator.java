@@ -0,0 +1,19 @@
+package com.example.ledger.domain;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Orders writes before they reach the ledger, e.g. through a consensus protocol. Once a
+ * coordinator is installed, {@link LedgerService} submits every deposit, withdrawal and transfer as
+ * a {@link LedgerCommand} and waits for the coordinator to apply it through
+ * {@link LedgerService#apply(LedgerCommand)}.
+ */
+@FunctionalInterface
+public interface WriteCoordinator {
+
+    /**
+     * Completes with the {@link Transaction} or {@link Transfer} the command produced, or
+     * exceptionally with the exception applying it raised.
+     */
+    CompletableFuture<Object> submit(LedgerCommand command);
+}
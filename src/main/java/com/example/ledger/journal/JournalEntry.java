@@ -0,0 +1,74 @@
+package com.example.ledger.journal;
+
+import com.example.ledger.domain.Currencies;
+import com.example.ledger.domain.Money;
+import com.example.ledger.domain.Transaction;
+import com.example.ledger.domain.TransactionType;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Currency;
+import java.util.UUID;
+
+/**
+ * View of one journal slot, read straight from the mapped segment. A tailer reuses the same
+ * instance for every entry, so it is only valid inside the callback; use {@link #toTransaction()}
+ * to keep a copy. The primitive getters don't allocate.
+ */
+public final class JournalEntry {
+
+    private ByteBuffer buffer;
+    private int offset;
+
+    JournalEntry() {
+    }
+
+    void wrap(ByteBuffer buffer, int offset) {
+        this.buffer = buffer;
+        this.offset = offset;
+    }
+
+    public long getSequence() {
+        return buffer.getLong(offset + JournalFormat.SEQUENCE);
+    }
+
+    public TransactionType getType() {
+        return JournalFormat.typeOf(buffer.get(offset + JournalFormat.TYPE));
+    }
+
+    public long getAmountMinorUnits() {
+        return buffer.getLong(offset + JournalFormat.AMOUNT);
+    }
+
+    public Currency getCurrency() {
+        return Currencies.fromCode(Short.toUnsignedInt(buffer.getShort(offset + JournalFormat.CURRENCY)));
+    }
+
+    public long getIdHigh() {
+        return buffer.getLong(offset + JournalFormat.ID_HIGH);
+    }
+
+    public long getIdLow() {
+        return buffer.getLong(offset + JournalFormat.ID_LOW);
+    }
+
+    public long getEpochSecond() {
+        return buffer.getLong(offset + JournalFormat.SECONDS);
+    }
+
+    public int getNano() {
+        return buffer.getInt(offset + JournalFormat.NANOS);
+    }
+
+    public String getAccountId() {
+        byte[] account = new byte[Byte.toUnsignedInt(buffer.get(offset + JournalFormat.ACCOUNT_LENGTH))];
+        buffer.get(offset + JournalFormat.ACCOUNT, account);
+        return new String(account, StandardCharsets.US_ASCII);
+    }
+
+    public Transaction toTransaction() {
+        return new Transaction(new UUID(getIdHigh(), getIdLow()), getSequence(), getAccountId(), getType(),
+                Money.ofMinorUnits(getAmountMinorUnits(), getCurrency()), Instant.ofEpochSecond(getEpochSecond(), getNano()));
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.ledger.journal;
+
+import com.example.ledger.domain.TransactionType;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Layout of the memory-mapped journal. The journal is a directory of segment files named after the
+ * sequence of their first record; each segment is an array of fixed 128-byte big-endian slots.
+ * <pre>
+ * slot  committed:i32 type:u8 accountLength:u8 currency:u16 sequence:i64 idHigh:i64 idLow:i64
+ *       amount:i64 seconds:i64 nanos:i32 account:ascii[64] pad                    (128 bytes)
+ * </pre>
+ * The writer fills a slot and then sets {@code committed} with release semantics; readers check it
+ * with acquire semantics, so a slot is either invisible or complete. The currency is a
+ * {@link com.example.ledger.domain.Currencies} code, taking what used to be padding; zero, which
+ * older segments hold there, is the default currency.
+ */
+final class JournalFormat {
+
+    static final int RECORD_SIZE = 128;
+    static final int COMMITTED = 1;
+
+    static final int MARKER = 0;
+    static final int TYPE = 4;
+    static final int ACCOUNT_LENGTH = 5;
+    static final int CURRENCY = 6;
+    static final int SEQUENCE = 8;
+    static final int ID_HIGH = 16;
+    static final int ID_LOW = 24;
+    static final int AMOUNT = 32;
+    static final int SECONDS = 40;
+    static final int NANOS = 48;
+    static final int ACCOUNT = 52;
+
+    static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
+    private static final String SUFFIX = ".journal";
+
+    private JournalFormat() {
+    }
+
+    static Path segmentPath(Path directory, long firstSequence) {
+        return directory.resolve(String.format("%020d%s", firstSequence, SUFFIX));
+    }
+
+    /**
+     * First sequences of the segments in the directory, in ascending order.
+     */
+    static List<Long> segments(Path directory) throws IOException {
+        List<Long> segments = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return segments;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    segments.add(Long.parseLong(name.substring(0, name.length() - SUFFIX.length())));
+                } catch (NumberFormatException ex) {
+                    // Not a segment
+                }
+            }
+        }
+        segments.sort(null);
+        return segments;
+    }
+
+    static byte codeOf(TransactionType type) {
+        return switch (type) {
+            case DEPOSIT -> 0;
+            case WITHDRAW -> 1;
+            case TRANSFER_IN -> 2;
+            case TRANSFER_OUT -> 3;
+            case BALANCE_FORWARD -> 4;
+        };
+    }
+
+    static TransactionType typeOf(byte code) {
+        return switch (code) {
+            case 0 -> TransactionType.DEPOSIT;
+            case 1 -> TransactionType.WITHDRAW;
+            case 2 -> TransactionType.TRANSFER_IN;
+            case 3 -> TransactionType.TRANSFER_OUT;
+            case 4 -> TransactionType.BALANCE_FORWARD;
+            default -> throw new IllegalStateException("Invalid transaction type code in journal: " + code);
+        };
+    }
+}
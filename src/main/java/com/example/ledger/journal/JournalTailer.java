@@ -0,0 +1,141 @@
+package com.example.ledger.journal;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Cursor over the journal written by {@link JournalWriter}, usable from the ledger process or any
+ * other process that can read the journal directory. Entries are read in place from the shared
+ * mapped segments: nothing is copied or decoded unless the consumer asks for a field, so following
+ * the ledger costs the API process nothing beyond the write itself.
+ * <p>
+ * A tailer is not thread-safe; give each consumer thread its own.
+ */
+public final class JournalTailer implements AutoCloseable {
+
+    private final Path directory;
+    private final JournalEntry entry = new JournalEntry();
+
+    private MappedByteBuffer segment;
+    private long segmentFirstSequence;
+    private int capacity;
+    private int position;
+    private long lastSequence;
+
+    private JournalTailer(Path directory, long afterSequence) {
+        this.directory = directory;
+        this.lastSequence = afterSequence;
+    }
+
+    /**
+     * Opens a cursor positioned after {@code afterSequence}; zero tails the journal from its start.
+     */
+    public static JournalTailer open(Path directory, long afterSequence) throws IOException {
+        Objects.requireNonNull(directory, "Directory can't be null");
+        if (afterSequence < 0) {
+            throw new IllegalArgumentException("Sequence can't be negative");
+        }
+        JournalTailer tailer = new JournalTailer(directory, afterSequence);
+        tailer.seek();
+        return tailer;
+    }
+
+    /**
+     * Hands up to {@code limit} new entries to the consumer and returns how many there were; zero
+     * means the cursor has caught up with the writer. The entry passed in is only valid during the
+     * call.
+     */
+    public int poll(Consumer<JournalEntry> consumer, int limit) throws IOException {
+        int count = 0;
+        while (count < limit) {
+            if (segment == null || position == capacity) {
+                if (!nextSegment()) {
+                    break;
+                }
+                continue;
+            }
+            int offset = position * JournalFormat.RECORD_SIZE;
+            if ((int) JournalFormat.INT.getAcquire(segment, offset + JournalFormat.MARKER) != JournalFormat.COMMITTED) {
+                break;
+            }
+            entry.wrap(segment, offset);
+            consumer.accept(entry);
+            lastSequence = entry.getSequence();
+            position++;
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Sequence of the last entry handed out, or the starting point if there was none yet.
+     */
+    public long getSequence() {
+        return lastSequence;
+    }
+
+    @Override
+    public void close() {
+        // Mapped segments are released once they are no longer referenced
+        segment = null;
+    }
+
+    private void seek() throws IOException {
+        List<Long> segments = JournalFormat.segments(directory);
+        Long first = null;
+        for (long candidate : segments) {
+            if (first == null || candidate <= lastSequence + 1) {
+                first = candidate;
+            }
+        }
+        if (first == null || !map(first)) {
+            return;
+        }
+        // Committed slots form a prefix with ascending sequences; find the first one after the cursor
+        int low = 0;
+        int high = capacity;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int offset = middle * JournalFormat.RECORD_SIZE;
+            boolean committed = (int) JournalFormat.INT.getAcquire(segment, offset + JournalFormat.MARKER) == JournalFormat.COMMITTED;
+            if (committed && segment.getLong(offset + JournalFormat.SEQUENCE) <= lastSequence) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        position = low;
+    }
+
+    private boolean nextSegment() throws IOException {
+        if (segment == null) {
+            seek();
+            return segment != null;
+        }
+        for (long candidate : JournalFormat.segments(directory)) {
+            if (candidate > segmentFirstSequence) {
+                return map(candidate);
+            }
+        }
+        return false;
+    }
+
+    private boolean map(long firstSequence) throws IOException {
+        try (FileChannel channel = FileChannel.open(JournalFormat.segmentPath(directory, firstSequence), StandardOpenOption.READ)) {
+            segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (NoSuchFileException ex) {
+            return false;
+        }
+        segmentFirstSequence = firstSequence;
+        capacity = segment.capacity() / JournalFormat.RECORD_SIZE;
+        position = 0;
+        return true;
+    }
+}
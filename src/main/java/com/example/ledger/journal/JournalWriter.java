@@ -0,0 +1,137 @@
+package com.example.ledger.journal;
+
+import com.example.ledger.domain.Currencies;
+import com.example.ledger.domain.LedgerService;
+import com.example.ledger.domain.Transaction;
+import com.example.ledger.domain.TransactionListener;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+/**
+ * Copies every recorded transaction into the memory-mapped journal read by {@link JournalTailer}s,
+ * in sequence order. Segments are created full-size under a temporary name and renamed into place,
+ * so a tailer never maps a partial file.
+ * <p>
+ * The journal mirrors the in-memory ledger: it is cleared when the writer starts, and its pages are
+ * left to the operating system to flush rather than forced to disk on every write. If a segment
+ * can't be created the writer stops, so the journal ends at the last transaction it holds instead
+ * of going on past the ones it missed.
+ */
+@Component
+@ConditionalOnProperty(name = "ledger.journal.enabled", havingValue = "true")
+public class JournalWriter implements TransactionListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JournalWriter.class);
+
+    private final LedgerService ledgerService;
+    private final Path directory;
+    private final int segmentRecords;
+
+    // Guarded by this
+    private MappedByteBuffer segment;
+    private int position;
+    private long lastSequence;
+    private boolean failed;
+
+    public JournalWriter(LedgerService ledgerService,
+                         @Value("${ledger.journal.directory:journal}") Path directory,
+                         @Value("${ledger.journal.segment-records:262144}") int segmentRecords) {
+        this.ledgerService = Objects.requireNonNull(ledgerService, "LedgerService can't be null");
+        this.directory = Objects.requireNonNull(directory, "Directory can't be null");
+        if (segmentRecords < 1 || (long) segmentRecords * JournalFormat.RECORD_SIZE > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Segment records must be between 1 and "
+                    + Integer.MAX_VALUE / JournalFormat.RECORD_SIZE);
+        }
+        this.segmentRecords = segmentRecords;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        Files.createDirectories(directory);
+        for (long firstSequence : JournalFormat.segments(directory)) {
+            Files.delete(JournalFormat.segmentPath(directory, firstSequence));
+        }
+        synchronized (this) {
+            // Registered before copying the backlog; anything already copied is skipped
+            ledgerService.addListener(this);
+            ledgerService.getTransactionsSince(0).forEach(this::onTransaction);
+        }
+        LOGGER.info("Writing transaction journal to {}", directory.toAbsolutePath());
+    }
+
+    @PreDestroy
+    public void stop() {
+        ledgerService.removeListener(this);
+        synchronized (this) {
+            if (segment != null) {
+                segment.force();
+            }
+        }
+    }
+
+    @Override
+    public synchronized void onTransaction(Transaction transaction) {
+        if (failed || transaction.getSequence() <= lastSequence) {
+            return;
+        }
+        if (segment == null || position == segmentRecords) {
+            try {
+                roll(transaction.getSequence());
+            } catch (IOException ex) {
+                failed = true;
+                ledgerService.removeListener(this);
+                LOGGER.error("Failed to create journal segment for sequence {}, stopping the journal after sequence {}",
+                        transaction.getSequence(), lastSequence, ex);
+                return;
+            }
+        }
+
+        int offset = position * JournalFormat.RECORD_SIZE;
+        byte[] account = transaction.getAccountId().getBytes(StandardCharsets.US_ASCII);
+        segment.put(offset + JournalFormat.TYPE, JournalFormat.codeOf(transaction.getType()))
+                .put(offset + JournalFormat.ACCOUNT_LENGTH, (byte) account.length)
+                .putShort(offset + JournalFormat.CURRENCY, (short) Currencies.codeOf(transaction.getAmount().getCurrency()))
+                .putLong(offset + JournalFormat.SEQUENCE, transaction.getSequence())
+                .putLong(offset + JournalFormat.ID_HIGH, transaction.getId().getMostSignificantBits())
+                .putLong(offset + JournalFormat.ID_LOW, transaction.getId().getLeastSignificantBits())
+                .putLong(offset + JournalFormat.AMOUNT, transaction.getAmount().getMinorUnits())
+                .putLong(offset + JournalFormat.SECONDS, transaction.getCreatedAt().getEpochSecond())
+                .putInt(offset + JournalFormat.NANOS, transaction.getCreatedAt().getNano())
+                .put(offset + JournalFormat.ACCOUNT, account);
+        JournalFormat.INT.setRelease(segment, offset + JournalFormat.MARKER, JournalFormat.COMMITTED);
+
+        position++;
+        lastSequence = transaction.getSequence();
+    }
+
+    private void roll(long firstSequence) throws IOException {
+        Path target = JournalFormat.segmentPath(directory, firstSequence);
+        Path temporary = directory.resolve(target.getFileName() + ".tmp");
+        long size = (long) segmentRecords * JournalFormat.RECORD_SIZE;
+        MappedByteBuffer next;
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(1), size - 1);
+            next = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+        segment = next;
+        position = 0;
+    }
+}
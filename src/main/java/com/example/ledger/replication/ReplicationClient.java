@@ -0,0 +1,121 @@
+package com.example.ledger.replication;
+
+import com.example.ledger.domain.LedgerService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Follower side of replication: keeps a read-only copy of the leader's ledger by applying its
+ * transaction log in order. Each (re)connection resumes from the last applied sequence, so a
+ * follower that was disconnected or restarted catches up before following live writes again.
+ */
+@Component
+@ConditionalOnProperty(name = "ledger.replication.role", havingValue = "follower")
+public class ReplicationClient {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReplicationClient.class);
+
+    private final LedgerService ledgerService;
+    private final String host;
+    private final int port;
+    private final Duration retryInterval;
+
+    private volatile boolean running;
+    private volatile Socket socket;
+    private Thread thread;
+
+    public ReplicationClient(LedgerService ledgerService,
+                             @Value("${ledger.replication.host:localhost}") String host,
+                             @Value("${ledger.replication.port:7070}") int port,
+                             @Value("${ledger.replication.retry-interval:PT1S}") Duration retryInterval) {
+        this.ledgerService = Objects.requireNonNull(ledgerService, "LedgerService can't be null");
+        this.host = Objects.requireNonNull(host, "Host can't be null");
+        this.port = port;
+        this.retryInterval = Objects.requireNonNull(retryInterval, "Retry interval can't be null");
+    }
+
+    @PostConstruct
+    void start() {
+        ledgerService.setReplica(true);
+        running = true;
+        thread = new Thread(this::follow, "replication-client");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        closeSocket();
+        thread.join(retryInterval.toMillis() + 1000);
+    }
+
+    /**
+     * Stops following the leader and lets this ledger accept writes, continuing from the last
+     * replicated sequence.
+     */
+    public void promote() throws InterruptedException {
+        stop();
+        ledgerService.setReplica(false);
+        LOGGER.info("Promoted to leader at sequence {}", ledgerService.getVersion());
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void follow() {
+        while (running) {
+            try (Socket connection = new Socket(host, port)) {
+                socket = connection;
+                DataOutputStream out = new DataOutputStream(connection.getOutputStream());
+                out.writeLong(ledgerService.getVersion());
+                out.flush();
+                LOGGER.info("Following leader {}:{} from sequence {}", host, port, ledgerService.getVersion());
+
+                DataInputStream in = new DataInputStream(new BufferedInputStream(connection.getInputStream()));
+                while (running) {
+                    ledgerService.replicate(TransactionLogCodec.read(in));
+                }
+            } catch (IOException | IllegalStateException ex) {
+                if (running) {
+                    LOGGER.warn("Replication from {}:{} interrupted: {}", host, port, ex.getMessage());
+                    pause();
+                }
+            }
+        }
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(retryInterval.toMillis());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    private void closeSocket() {
+        Socket current = socket;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (IOException ex) {
+                LOGGER.debug("Failed to close leader connection", ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.ledger.replication;
+
+import com.example.ledger.domain.HistoryCompactedException;
+import com.example.ledger.domain.LedgerService;
+import com.example.ledger.domain.Transaction;
+import com.example.ledger.domain.TransactionListener;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Leader side of replication: streams the ordered transaction log to every connected follower.
+ * <p>
+ * A follower opens a connection and sends the last sequence it has applied. The leader replays the
+ * committed transactions after it and then forwards new ones as they are recorded. Each follower has
+ * a bounded queue; one that falls too far behind is disconnected and catches up from its last
+ * applied sequence when it reconnects.
+ */
+@Component
+@ConditionalOnProperty(name = "ledger.replication.role", havingValue = "leader")
+public class ReplicationServer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReplicationServer.class);
+    private static final int QUEUE_CAPACITY = 10_000;
+
+    private final LedgerService ledgerService;
+    private final String host;
+    private final int port;
+    private final Set<Session> sessions = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger sessionIds = new AtomicInteger();
+
+    private volatile boolean running;
+    private ServerSocket serverSocket;
+    private Thread acceptor;
+
+    public ReplicationServer(LedgerService ledgerService,
+                             @Value("${ledger.replication.host:localhost}") String host,
+                             @Value("${ledger.replication.port:7070}") int port) {
+        this.ledgerService = Objects.requireNonNull(ledgerService, "LedgerService can't be null");
+        this.host = Objects.requireNonNull(host, "Host can't be null");
+        this.port = port;
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        serverSocket = new ServerSocket();
+        serverSocket.setReuseAddress(true);
+        serverSocket.bind(new InetSocketAddress(host, port));
+        running = true;
+        acceptor = new Thread(this::accept, "replication-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        LOGGER.info("Replicating transaction log on {}:{}", host, getPort());
+    }
+
+    @PreDestroy
+    void stop() throws IOException, InterruptedException {
+        running = false;
+        serverSocket.close();
+        // The listening socket is only released once the blocked accept returns
+        acceptor.join(1000);
+        sessions.forEach(Session::close);
+    }
+
+    int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    private void accept() {
+        while (running) {
+            try {
+                Session session = new Session(serverSocket.accept());
+                sessions.add(session);
+                Thread thread = new Thread(session::serve, "replication-follower-" + sessionIds.incrementAndGet());
+                thread.setDaemon(true);
+                thread.start();
+            } catch (IOException ex) {
+                if (running) {
+                    LOGGER.warn("Failed to accept follower connection", ex);
+                }
+            }
+        }
+    }
+
+    private final class Session implements TransactionListener {
+
+        private final Socket socket;
+        private final BlockingQueue<Transaction> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+        private Session(Socket socket) {
+            this.socket = socket;
+        }
+
+        @Override
+        public void onTransaction(Transaction transaction) {
+            if (!queue.offer(transaction)) {
+                LOGGER.warn("Follower {} fell {} transactions behind, disconnecting", socket.getRemoteSocketAddress(), QUEUE_CAPACITY);
+                close();
+            }
+        }
+
+        private void serve() {
+            ledgerService.addListener(this);
+            try {
+                DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+                long last = in.readLong();
+                LOGGER.info("Follower {} connected from sequence {}", socket.getRemoteSocketAddress(), last);
+
+                // Registered before reading the backlog, so anything committed later is queued
+                for (Transaction transaction : ledgerService.getTransactionsSince(last)) {
+                    TransactionLogCodec.write(out, transaction);
+                    last = transaction.getSequence();
+                }
+                out.flush();
+
+                while (running && !socket.isClosed()) {
+                    Transaction transaction = queue.poll(1, TimeUnit.SECONDS);
+                    if (transaction == null || transaction.getSequence() <= last) {
+                        continue;
+                    }
+                    TransactionLogCodec.write(out, transaction);
+                    last = transaction.getSequence();
+                    if (queue.isEmpty()) {
+                        out.flush();
+                    }
+                }
+            } catch (HistoryCompactedException ex) {
+                LOGGER.warn("Follower {} is behind the compacted history and must restart empty: {}",
+                        socket.getRemoteSocketAddress(), ex.getMessage());
+            } catch (IOException ex) {
+                LOGGER.info("Follower {} disconnected: {}", socket.getRemoteSocketAddress(), ex.getMessage());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } finally {
+                ledgerService.removeListener(this);
+                close();
+            }
+        }
+
+        private void close() {
+            sessions.remove(this);
+            try {
+                socket.close();
+            } catch (IOException ex) {
+                LOGGER.debug("Failed to close follower connection", ex);
+            }
+        }
+    }
+}
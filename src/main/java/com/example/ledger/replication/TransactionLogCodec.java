@@ -0,0 +1,69 @@
+package com.example.ledger.replication;
+
+import com.example.ledger.domain.Currencies;
+import com.example.ledger.domain.Money;
+import com.example.ledger.domain.Transaction;
+import com.example.ledger.domain.TransactionType;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Self-delimiting binary form of a recorded {@link Transaction} on the replication stream.
+ * <pre>
+ * handshake    fromSequence:i64                                               (follower to leader)
+ * transaction  idHigh:i64 idLow:i64 sequence:i64 account:utf type:u8 amount:i64 currency:u16
+ *              seconds:i64 nanos:i32
+ * </pre>
+ */
+final class TransactionLogCodec {
+
+    private TransactionLogCodec() {
+    }
+
+    static void write(DataOutput out, Transaction transaction) throws IOException {
+        out.writeLong(transaction.getId().getMostSignificantBits());
+        out.writeLong(transaction.getId().getLeastSignificantBits());
+        out.writeLong(transaction.getSequence());
+        out.writeUTF(transaction.getAccountId());
+        out.writeByte(codeOf(transaction.getType()));
+        out.writeLong(transaction.getAmount().getMinorUnits());
+        out.writeShort(Currencies.codeOf(transaction.getAmount().getCurrency()));
+        out.writeLong(transaction.getCreatedAt().getEpochSecond());
+        out.writeInt(transaction.getCreatedAt().getNano());
+    }
+
+    static Transaction read(DataInput in) throws IOException {
+        UUID id = new UUID(in.readLong(), in.readLong());
+        long sequence = in.readLong();
+        String accountId = in.readUTF();
+        TransactionType type = typeOf(in.readByte());
+        Money amount = Money.ofMinorUnits(in.readLong(), Currencies.fromCode(in.readUnsignedShort()));
+        Instant createdAt = Instant.ofEpochSecond(in.readLong(), in.readInt());
+        return new Transaction(id, sequence, accountId, type, amount, createdAt);
+    }
+
+    private static byte codeOf(TransactionType type) {
+        return switch (type) {
+            case DEPOSIT -> 0;
+            case WITHDRAW -> 1;
+            case TRANSFER_IN -> 2;
+            case TRANSFER_OUT -> 3;
+            case BALANCE_FORWARD -> 4;
+        };
+    }
+
+    private static TransactionType typeOf(byte code) throws IOException {
+        return switch (code) {
+            case 0 -> TransactionType.DEPOSIT;
+            case 1 -> TransactionType.WITHDRAW;
+            case 2 -> TransactionType.TRANSFER_IN;
+            case 3 -> TransactionType.TRANSFER_OUT;
+            case 4 -> TransactionType.BALANCE_FORWARD;
+            default -> throw new IOException("Invalid transaction type code: " + code);
+        };
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.ledger.repo;
+
+import java.util.Collection;
+
+/**
+ * Bloom filter over the account ids of a {@link HistoryBlock}, kept in memory with the block's other
+ * summary fields so an account's history skips the blocks that hold none of its transactions without
+ * opening them. Ten bits per distinct account keep false positives around one percent, which costs a
+ * block of a few thousand transactions about a kilobyte per thousand accounts in it.
+ */
+final class AccountFilter {
+
+    private static final int BITS_PER_ACCOUNT = 10;
+    private static final int HASHES = 7;
+
+    private final long[] bits;
+
+    private AccountFilter(long[] bits) {
+        this.bits = bits;
+    }
+
+    static AccountFilter of(Collection<String> accountIds) {
+        AccountFilter filter = new AccountFilter(new long[Math.max(1, (accountIds.size() * BITS_PER_ACCOUNT + 63) / 64)]);
+        for (String accountId : accountIds) {
+            long hash = hash(accountId);
+            for (int i = 0; i < HASHES; i++) {
+                long bit = filter.bit(hash, i);
+                filter.bits[(int) (bit >>> 6)] |= 1L << bit;
+            }
+        }
+        return filter;
+    }
+
+    /**
+     * Whether the block may hold transactions of the account; {@code false} means it certainly doesn't.
+     */
+    boolean mightContain(String accountId) {
+        long hash = hash(accountId);
+        for (int i = 0; i < HASHES; i++) {
+            long bit = bit(hash, i);
+            if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // The i-th probe, derived from both halves of one 64-bit hash
+    private long bit(long hash, int i) {
+        int combined = (int) hash + i * (int) (hash >>> 32);
+        return (combined & Integer.MAX_VALUE) % (bits.length * 64L);
+    }
+
+    // FNV-1a over the characters, then a 64-bit finalizer so both halves are well mixed
+    private static long hash(String accountId) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < accountId.length(); i++) {
+            hash ^= accountId.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        return hash ^ (hash >>> 33);
+    }
+}
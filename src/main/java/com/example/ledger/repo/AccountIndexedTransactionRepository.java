@@ -0,0 +1,35 @@
+package com.example.ledger.repo;
+
+import com.example.ledger.domain.Currencies;
+import com.example.ledger.domain.Money;
+import com.example.ledger.domain.Transaction;
+
+import java.util.Currency;
+import java.util.List;
+
+/**
+ * Storage that indexes transactions by account, so one account's history and balance are read
+ * without scanning the rest of the shard.
+ */
+public interface AccountIndexedTransactionRepository extends TransactionRepository {
+
+    /**
+     * Returns the account's transactions, newest first.
+     */
+    List<Transaction> findByAccountIdOrderBySequenceDesc(String accountId);
+
+    /**
+     * Balance of the account in minor units of the currency after its last stored transaction in
+     * that currency, or zero when it has none.
+     */
+    long findBalance(String accountId, Currency currency);
+
+    /**
+     * The account's balances, one per currency it has stored transactions in.
+     */
+    List<Money> findBalances(String accountId);
+
+    default long findBalance(String accountId) {
+        return findBalance(accountId, Currencies.DEFAULT);
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.ledger.repo;
+
+import com.example.ledger.domain.Transaction;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Storage that groups concurrent writes. {@link #enqueue} only fixes the transaction's place in the
+ * write order and returns at once, so the caller can release its locks before waiting for the
+ * write to become durable; the returned future completes when it is.
+ */
+public interface BatchingTransactionRepository extends TransactionRepository {
+
+    CompletableFuture<Transaction> enqueue(Transaction transaction);
+
+    /**
+     * Queues both legs of a transfer to be written atomically; the credit may belong to another
+     * shard of the same storage.
+     */
+    default CompletableFuture<Void> enqueueTransfer(Transaction debit, BatchingTransactionRepository creditRepository,
+                                                    Transaction credit) {
+        return enqueueEntry(List.of(debit, credit), List.of(this, creditRepository));
+    }
+
+    /**
+     * Queues the legs of a journal entry to be written atomically, each to the repository at the same
+     * index; they may belong to other shards of the same storage.
+     */
+    CompletableFuture<Void> enqueueEntry(List<Transaction> legs, List<BatchingTransactionRepository> repositories);
+}
@@ -0,0 +1,32 @@
+package com.example.ledger.repo;
+
+import com.example.ledger.domain.Transaction;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Storage that can fold its oldest transactions into one
+ * {@link com.example.ledger.domain.TransactionType#BALANCE_FORWARD} entry per account.
+ */
+public interface CompactableTransactionRepository extends TransactionRepository {
+
+    /**
+     * Lowest sequence of a stored transaction created at or after the given instant, or
+     * {@link Long#MAX_VALUE} when there is none.
+     */
+    long findFirstSequenceCreatedFrom(Instant instant);
+
+    /**
+     * Returns the stored transactions with a sequence up to the given one, oldest first.
+     */
+    List<Transaction> findAllThroughSequence(long sequence);
+
+    /**
+     * Replaces the transactions with a sequence up to the given one by a balance-forward entry per
+     * account, carrying the sequence and timestamp of the account's last folded transaction, and
+     * returns how many transactions were folded. Earlier balance-forward entries are folded into the
+     * new ones but not counted, so compacting the same range again changes nothing.
+     */
+    int compactThrough(long sequence);
+}
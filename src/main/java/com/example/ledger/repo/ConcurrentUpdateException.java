@@ -0,0 +1,12 @@
+package com.example.ledger.repo;
+
+/**
+ * Raised when a withdrawal finds the stored balance row changed since this ledger last wrote it,
+ * i.e. something else wrote to the same database.
+ */
+public class ConcurrentUpdateException extends IllegalStateException {
+
+    public ConcurrentUpdateException(String accountId) {
+        super("Balance of account " + accountId + " was changed concurrently");
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.ledger.repo;
+
+import com.example.ledger.domain.Currencies;
+import com.example.ledger.domain.Money;
+import com.example.ledger.domain.Transaction;
+import com.example.ledger.domain.TransactionType;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * An immutable, gzip-compressed file holding a run of consecutive transactions of one shard,
+ * together with the in-memory summary used to decide whether a query needs to open it: its sequence
+ * and time range, and a filter of the accounts it holds.
+ * <pre>
+ * file    count:i32 record*                                              (gzip)
+ * record  sequence:i64 idHigh:i64 idLow:i64 type:u8 amount:i64 currency:u16 seconds:i64 nanos:i32
+ *         account:utf
+ * </pre>
+ */
+record HistoryBlock(Path file, long firstSequence, long lastSequence, Instant earliest, Instant latest,
+                    AccountFilter accounts) {
+
+    static Path pathOf(Path directory, long firstSequence) {
+        return directory.resolve(String.format("%020d.block", firstSequence));
+    }
+
+    /**
+     * Writes the transactions, oldest first, under a temporary name and renames the file into place,
+     * so a block on disk is always complete.
+     */
+    static HistoryBlock write(Path directory, List<Transaction> transactions) throws IOException {
+        Instant earliest = Instant.MAX;
+        Instant latest = Instant.MIN;
+        Set<String> accountIds = new HashSet<>();
+        Path file = pathOf(directory, transactions.getFirst().getSequence());
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(
+                new GZIPOutputStream(Files.newOutputStream(temporary), 8192)))) {
+            output.writeInt(transactions.size());
+            for (Transaction transaction : transactions) {
+                output.writeLong(transaction.getSequence());
+                output.writeLong(transaction.getId().getMostSignificantBits());
+                output.writeLong(transaction.getId().getLeastSignificantBits());
+                output.writeByte(transaction.getType().ordinal());
+                output.writeLong(transaction.getAmount().getMinorUnits());
+                output.writeShort(Currencies.codeOf(transaction.getAmount().getCurrency()));
+                output.writeLong(transaction.getCreatedAt().getEpochSecond());
+                output.writeInt(transaction.getCreatedAt().getNano());
+                output.writeUTF(transaction.getAccountId());
+                accountIds.add(transaction.getAccountId());
+                if (transaction.getCreatedAt().isBefore(earliest)) {
+                    earliest = transaction.getCreatedAt();
+                }
+                if (transaction.getCreatedAt().isAfter(latest)) {
+                    latest = transaction.getCreatedAt();
+                }
+            }
+        }
+        Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE);
+        return new HistoryBlock(file, transactions.getFirst().getSequence(), transactions.getLast().getSequence(),
+                earliest, latest, AccountFilter.of(accountIds));
+    }
+
+    /**
+     * Returns the block's transactions, oldest first.
+     */
+    List<Transaction> read() {
+        TransactionType[] types = TransactionType.values();
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(file), 8192)))) {
+            int count = input.readInt();
+            List<Transaction> transactions = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                long sequence = input.readLong();
+                UUID id = new UUID(input.readLong(), input.readLong());
+                TransactionType type = types[input.readUnsignedByte()];
+                Money amount = Money.ofMinorUnits(input.readLong(), Currencies.fromCode(input.readUnsignedShort()));
+                Instant createdAt = Instant.ofEpochSecond(input.readLong(), input.readInt());
+                transactions.add(new Transaction(id, sequence, input.readUTF(), type, amount, createdAt));
+            }
+            return transactions;
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to read history block " + file, ex);
+        }
+    }
+}
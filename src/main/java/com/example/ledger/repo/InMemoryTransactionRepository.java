@@ -1,27 +1,124 @@
 package com.example.ledger.repo;
 
+import com.example.ledger.domain.Money;
 import com.example.ledger.domain.Transaction;
-import org.springframework.stereotype.Repository;
+import com.example.ledger.domain.TransactionType;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.Currency;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.UUID;
 
-@Repository
-public class InMemoryTransactionRepository {
+public class InMemoryTransactionRepository implements CompactableTransactionRepository {
 
     private final List<Transaction> transactions = new ArrayList<>();
 
+    @Override
     public synchronized Transaction save(Transaction transaction) {
         Objects.requireNonNull(transaction, "Transaction can't be null");
         transactions.add(transaction);
         return transaction;
     }
 
+    @Override
+    public synchronized List<Transaction> findAllAfterSequence(long sequence) {
+        int from = transactions.size();
+        while (from > 0 && transactions.get(from - 1).getSequence() > sequence) {
+            from--;
+        }
+        return new ArrayList<>(transactions.subList(from, transactions.size()));
+    }
+
+    @Override
+    public synchronized List<Transaction> findAllInSequenceRange(long afterSequence, long lastSequence) {
+        List<Transaction> range = new ArrayList<>();
+        for (Transaction transaction : transactions) {
+            if (transaction.getSequence() > lastSequence) {
+                break;
+            }
+            if (transaction.getSequence() > afterSequence) {
+                range.add(transaction);
+            }
+        }
+        return range;
+    }
+
+    @Override
     public synchronized List<Transaction> findAllOrderByTimestampDesc() {
         List<Transaction> result = new ArrayList<>(transactions);
         result.sort(Comparator.comparing(Transaction::getCreatedAt).reversed());
         return result;
     }
+
+    @Override
+    public synchronized long findLastSequence() {
+        return transactions.isEmpty() ? 0 : transactions.getLast().getSequence();
+    }
+
+    @Override
+    public synchronized long findFirstSequenceCreatedFrom(Instant instant) {
+        for (Transaction transaction : transactions) {
+            if (!transaction.getCreatedAt().isBefore(instant)) {
+                return transaction.getSequence();
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    @Override
+    public synchronized List<Transaction> findAllThroughSequence(long sequence) {
+        return new ArrayList<>(transactions.subList(0, countThrough(sequence)));
+    }
+
+    @Override
+    public synchronized int compactThrough(long sequence) {
+        int end = countThrough(sequence);
+        // One balance forward per account and currency, each taking the sequence of the last
+        // transaction it folds
+        Map<Balance, Transaction> last = new LinkedHashMap<>();
+        Map<Balance, Long> balances = new LinkedHashMap<>();
+        int folded = 0;
+        for (Transaction transaction : transactions.subList(0, end)) {
+            Balance balance = new Balance(transaction.getAccountId(), transaction.getAmount().getCurrency());
+            long amount = transaction.getAmount().getMinorUnits();
+            last.put(balance, transaction);
+            balances.merge(balance, transaction.getType().isCredit() ? amount : -amount, Math::addExact);
+            if (transaction.getType() != TransactionType.BALANCE_FORWARD) {
+                folded++;
+            }
+        }
+        if (folded == 0) {
+            return 0;
+        }
+
+        List<Transaction> compacted = new ArrayList<>(last.size() + transactions.size() - end);
+        for (Map.Entry<Balance, Transaction> entry : last.entrySet()) {
+            Transaction transaction = entry.getValue();
+            compacted.add(new Transaction(UUID.randomUUID(), transaction.getSequence(), transaction.getAccountId(),
+                    TransactionType.BALANCE_FORWARD,
+                    Money.ofMinorUnits(balances.get(entry.getKey()), entry.getKey().currency()),
+                    transaction.getCreatedAt()));
+        }
+        compacted.sort(Comparator.comparingLong(Transaction::getSequence));
+        compacted.addAll(transactions.subList(end, transactions.size()));
+        transactions.clear();
+        transactions.addAll(compacted);
+        return folded;
+    }
+
+    private int countThrough(long sequence) {
+        int end = 0;
+        while (end < transactions.size() && transactions.get(end).getSequence() <= sequence) {
+            end++;
+        }
+        return end;
+    }
+
+    private record Balance(String accountId, Currency currency) {
+    }
 }
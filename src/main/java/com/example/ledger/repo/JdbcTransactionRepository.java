@@ -0,0 +1,163 @@
+package com.example.ledger.repo;
+
+import com.example.ledger.domain.Currencies;
+import com.example.ledger.domain.Money;
+import com.example.ledger.domain.Transaction;
+import com.example.ledger.domain.TransactionType;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * One shard's view of a {@link JdbcTransactionStore}. Reads go straight to the database through
+ * the shard's indexes, an account's through the account index and its balance rows; writes are
+ * handed to the store, which batches them with other shards'.
+ */
+public class JdbcTransactionRepository implements BatchingTransactionRepository, AccountIndexedTransactionRepository {
+
+    private static final String COLUMNS = "sequence, id, account_id, type, amount, created_at, currency";
+
+    private final JdbcTransactionStore store;
+    private final int shard;
+
+    JdbcTransactionRepository(JdbcTransactionStore store, int shard) {
+        this.store = store;
+        this.shard = shard;
+    }
+
+    @Override
+    public Transaction save(Transaction transaction) {
+        try {
+            return enqueue(transaction).join();
+        } catch (CompletionException ex) {
+            throw ex.getCause() instanceof RuntimeException cause ? cause : ex;
+        }
+    }
+
+    @Override
+    public CompletableFuture<Transaction> enqueue(Transaction transaction) {
+        return store.enqueue(new Transaction[] {transaction}, new int[] {shard}).thenApply(stored -> transaction);
+    }
+
+    @Override
+    public CompletableFuture<Void> enqueueEntry(List<Transaction> legs, List<BatchingTransactionRepository> repositories) {
+        int[] legShards = new int[legs.size()];
+        for (int i = 0; i < legShards.length; i++) {
+            if (!(repositories.get(i) instanceof JdbcTransactionRepository other) || other.store != store) {
+                throw new IllegalArgumentException("All legs of an entry must go to the same store");
+            }
+            legShards[i] = other.shard;
+        }
+        return store.enqueue(legs.toArray(Transaction[]::new), legShards);
+    }
+
+    @Override
+    public List<Transaction> findAllAfterSequence(long sequence) {
+        return query("SELECT " + COLUMNS + " FROM ledger_transaction WHERE shard = ? AND sequence > ? ORDER BY sequence",
+                statement -> statement.setLong(2, sequence));
+    }
+
+    @Override
+    public List<Transaction> findAllInSequenceRange(long afterSequence, long lastSequence) {
+        return query("SELECT " + COLUMNS + " FROM ledger_transaction WHERE shard = ? AND sequence > ? AND sequence <= ? ORDER BY sequence",
+                statement -> {
+                    statement.setLong(2, afterSequence);
+                    statement.setLong(3, lastSequence);
+                });
+    }
+
+    @Override
+    public List<Transaction> findAllOrderByTimestampDesc() {
+        return query("SELECT " + COLUMNS + " FROM ledger_transaction WHERE shard = ? ORDER BY created_at DESC, sequence",
+                statement -> { });
+    }
+
+    @Override
+    public List<Transaction> findByAccountIdOrderBySequenceDesc(String accountId) {
+        return query("SELECT " + COLUMNS + " FROM ledger_transaction WHERE shard = ? AND account_id = ? ORDER BY sequence DESC",
+                statement -> statement.setString(2, accountId));
+    }
+
+    @Override
+    public long findBalance(String accountId, Currency currency) {
+        try (Connection connection = store.getDataSource().getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "SELECT balance FROM ledger_balance WHERE account_id = ? AND currency = ?")) {
+            statement.setString(1, accountId);
+            statement.setInt(2, Currencies.codeOf(currency));
+            try (ResultSet rows = statement.executeQuery()) {
+                return rows.next() ? rows.getLong(1) : 0;
+            }
+        } catch (SQLException ex) {
+            throw new IllegalStateException("Failed to read the balance", ex);
+        }
+    }
+
+    @Override
+    public List<Money> findBalances(String accountId) {
+        try (Connection connection = store.getDataSource().getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "SELECT balance, currency FROM ledger_balance WHERE account_id = ? ORDER BY currency")) {
+            statement.setString(1, accountId);
+            List<Money> balances = new ArrayList<>();
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    balances.add(Money.ofMinorUnits(rows.getLong(1), Currencies.fromCode(rows.getInt(2))));
+                }
+            }
+            return balances;
+        } catch (SQLException ex) {
+            throw new IllegalStateException("Failed to read the balances", ex);
+        }
+    }
+
+    @Override
+    public long findLastSequence() {
+        try (Connection connection = store.getDataSource().getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "SELECT MAX(sequence) FROM ledger_transaction WHERE shard = ?")) {
+            statement.setInt(1, shard);
+            try (ResultSet rows = statement.executeQuery()) {
+                return rows.next() ? rows.getLong(1) : 0;
+            }
+        } catch (SQLException ex) {
+            throw new IllegalStateException("Failed to read the last sequence", ex);
+        }
+    }
+
+    private List<Transaction> query(String sql, Parameters parameters) {
+        try (Connection connection = store.getDataSource().getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setInt(1, shard);
+            parameters.set(statement);
+            List<Transaction> transactions = new ArrayList<>();
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    transactions.add(new Transaction(UUID.fromString(rows.getString(2)), rows.getLong(1),
+                            rows.getString(3), TransactionType.valueOf(rows.getString(4).trim()),
+                            Money.ofMinorUnits(rows.getLong(5), Currencies.fromCode(rows.getInt(7))),
+                            rows.getObject(6, OffsetDateTime.class).toInstant()));
+                }
+            }
+            return transactions;
+        } catch (SQLException ex) {
+            throw new IllegalStateException("Failed to read transactions", ex);
+        }
+    }
+
+    // Binds whatever a query needs after the shard, which is always its first parameter
+    @FunctionalInterface
+    private interface Parameters {
+
+        void set(PreparedStatement statement) throws SQLException;
+    }
+}
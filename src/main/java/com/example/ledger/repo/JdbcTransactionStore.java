@@ -0,0 +1,392 @@
+package com.example.ledger.repo;
+
+import com.example.ledger.domain.Currencies;
+import com.example.ledger.domain.Transaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.DatabasePopulatorUtils;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Relational storage for the ledger. Writes from every shard are queued and a single writer thread
+ * drains the queue: whatever accumulated while the previous batch was being committed goes out as
+ * multi-row inserts in one database transaction, so throughput grows with concurrency instead of
+ * paying a round trip and a commit per transaction.
+ * <p>
+ * The same transaction keeps a balance row per account and currency. Deposits add to it unconditionally;
+ * withdrawals also bump its version and only apply when the version is the one this store last
+ * wrote, so a second writer on the same database is detected rather than silently overdrawing.
+ * If a batch fails, its writes are retried one by one so only the offending one is rejected; a
+ * withdrawal from a balance row whose version moved underneath it is rejected outright instead, since
+ * it was decided against a balance that no longer holds. Later batches read the new version.
+ */
+public class JdbcTransactionStore implements TransactionStore, AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JdbcTransactionStore.class);
+    private static final int ROWS_PER_INSERT = 64;
+    private static final String SHARD_COUNT = "shard_count";
+    private static final String INSERT = "INSERT INTO ledger_transaction "
+            + "(sequence, id, shard, account_id, type, amount, currency, created_at) VALUES ";
+
+    private final DataSource dataSource;
+    private final int maxBatchSize;
+    private final BlockingQueue<Write> queue = new LinkedBlockingQueue<>();
+    private final String[] inserts = new String[ROWS_PER_INSERT + 1];
+    private final AtomicLong batches = new AtomicLong();
+
+    // Accessed by the writer thread only
+    private final Map<BalanceRow, Long> versions = new HashMap<>();
+    private final Set<BalanceRow> stale = new HashSet<>();
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public JdbcTransactionStore(DataSource dataSource, int maxBatchSize) {
+        this.dataSource = Objects.requireNonNull(dataSource, "DataSource can't be null");
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Creates the tables and indexes if needed and starts the writer.
+     */
+    public void start() {
+        DatabasePopulatorUtils.execute(new ResourceDatabasePopulator(new ClassPathResource("db/ledger-schema.sql")), dataSource);
+        running = true;
+        writer = new Thread(this::drain, "jdbc-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        if (writer != null) {
+            try {
+                writer.join(5000);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        for (Write write = queue.poll(); write != null; write = queue.poll()) {
+            write.stored().completeExceptionally(new IllegalStateException("Transaction store is closed"));
+        }
+    }
+
+    @Override
+    public OptionalInt storedShardCount() {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "SELECT meta_value FROM ledger_meta WHERE meta_key = '" + SHARD_COUNT + "'");
+             ResultSet rows = statement.executeQuery()) {
+            return rows.next() ? OptionalInt.of(Integer.parseInt(rows.getString(1))) : OptionalInt.empty();
+        } catch (SQLException ex) {
+            throw new IllegalStateException("Failed to read the stored shard count", ex);
+        }
+    }
+
+    /**
+     * Records the shard count with the first call and rejects any other count after that. Tables
+     * written before the count was recorded are only checked for a shard beyond it.
+     */
+    @Override
+    public List<JdbcTransactionRepository> repositories(int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Shard count must be positive");
+        }
+        OptionalInt stored = storedShardCount();
+        if (stored.isPresent() && stored.getAsInt() != shardCount) {
+            throw new IllegalStateException("Stored transactions use " + stored.getAsInt()
+                    + " shards but " + shardCount + " are configured");
+        }
+        if (stored.isEmpty()) {
+            recordShardCount(shardCount);
+        }
+        List<JdbcTransactionRepository> repositories = new ArrayList<>(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            repositories.add(new JdbcTransactionRepository(this, i));
+        }
+        return repositories;
+    }
+
+    private void recordShardCount(int shardCount) {
+        try (Connection connection = dataSource.getConnection()) {
+            try (PreparedStatement statement = connection.prepareStatement("SELECT MAX(shard) FROM ledger_transaction");
+                 ResultSet rows = statement.executeQuery()) {
+                if (rows.next() && rows.getObject(1) != null && rows.getInt(1) >= shardCount) {
+                    throw new IllegalStateException("Stored transactions use " + (rows.getInt(1) + 1)
+                            + " shards but " + shardCount + " are configured");
+                }
+            }
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "INSERT INTO ledger_meta (meta_key, meta_value) VALUES ('" + SHARD_COUNT + "', ?)")) {
+                statement.setString(1, Integer.toString(shardCount));
+                statement.executeUpdate();
+            }
+        } catch (SQLException ex) {
+            throw new IllegalStateException("Failed to record the shard count", ex);
+        }
+    }
+
+    /**
+     * Number of batches committed so far.
+     */
+    public long getBatchCount() {
+        return batches.get();
+    }
+
+    DataSource getDataSource() {
+        return dataSource;
+    }
+
+    CompletableFuture<Void> enqueue(Transaction[] transactions, int[] shards) {
+        CompletableFuture<Void> stored = new CompletableFuture<>();
+        if (!running) {
+            stored.completeExceptionally(new IllegalStateException("Transaction store is closed"));
+            return stored;
+        }
+        queue.add(new Write(transactions, shards, stored));
+        return stored;
+    }
+
+    private void drain() {
+        List<Write> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Write first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - 1);
+                commit(batch);
+                stale.clear();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void commit(List<Write> batch) {
+        try {
+            write(batch);
+            batches.incrementAndGet();
+            batch.forEach(write -> write.stored().complete(null));
+        } catch (SQLException | RuntimeException ex) {
+            if (batch.size() == 1) {
+                batch.getFirst().stored().completeExceptionally(failure(ex));
+                return;
+            }
+            LOGGER.warn("Batch of {} writes failed, retrying them one by one: {}", batch.size(), ex.getMessage());
+            for (Write write : batch) {
+                String conflicted = staleDebit(write);
+                if (conflicted != null) {
+                    write.stored().completeExceptionally(new ConcurrentUpdateException(conflicted));
+                } else {
+                    commit(List.of(write));
+                }
+            }
+        }
+    }
+
+    private void write(List<Write> batch) throws SQLException {
+        List<Transaction> rows = new ArrayList<>();
+        List<Integer> shards = new ArrayList<>();
+        for (Write write : batch) {
+            for (int i = 0; i < write.transactions().length; i++) {
+                rows.add(write.transactions()[i]);
+                shards.add(write.shards()[i]);
+            }
+        }
+
+        Map<BalanceRow, Long> written = new HashMap<>();
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                insert(connection, rows, shards);
+                updateBalances(connection, rows, written);
+                connection.commit();
+            } catch (SQLException | RuntimeException ex) {
+                connection.rollback();
+                throw ex;
+            }
+        }
+        versions.putAll(written);
+    }
+
+    private void insert(Connection connection, List<Transaction> rows, List<Integer> shards) throws SQLException {
+        for (int from = 0; from < rows.size(); from += ROWS_PER_INSERT) {
+            int count = Math.min(ROWS_PER_INSERT, rows.size() - from);
+            try (PreparedStatement statement = connection.prepareStatement(insertSql(count))) {
+                int parameter = 1;
+                for (int i = from; i < from + count; i++) {
+                    Transaction transaction = rows.get(i);
+                    statement.setLong(parameter++, transaction.getSequence());
+                    statement.setString(parameter++, transaction.getId().toString());
+                    statement.setInt(parameter++, shards.get(i));
+                    statement.setString(parameter++, transaction.getAccountId());
+                    statement.setString(parameter++, transaction.getType().name());
+                    statement.setLong(parameter++, transaction.getAmount().getMinorUnits());
+                    statement.setInt(parameter++, Currencies.codeOf(transaction.getAmount().getCurrency()));
+                    statement.setObject(parameter++, OffsetDateTime.ofInstant(transaction.getCreatedAt(), ZoneOffset.UTC));
+                }
+                statement.executeUpdate();
+            }
+        }
+    }
+
+    // Balance rows are updated in account id and currency order so concurrent writers lock them in the same order
+    private void updateBalances(Connection connection, List<Transaction> rows, Map<BalanceRow, Long> written) throws SQLException {
+        Map<BalanceRow, long[]> changes = new TreeMap<>();
+        for (Transaction transaction : rows) {
+            BalanceRow row = new BalanceRow(transaction.getAccountId(), Currencies.codeOf(transaction.getAmount().getCurrency()));
+            long[] change = changes.computeIfAbsent(row, key -> new long[2]);
+            long amount = transaction.getAmount().getMinorUnits();
+            change[0] += transaction.getType().isCredit() ? amount : -amount;
+            change[1] |= transaction.getType().isCredit() ? 0 : 1;
+        }
+        for (Map.Entry<BalanceRow, long[]> entry : changes.entrySet()) {
+            BalanceRow row = entry.getKey();
+            long delta = entry.getValue()[0];
+            if (entry.getValue()[1] == 0) {
+                credit(connection, row, delta);
+            } else {
+                written.put(row, debit(connection, row, delta));
+            }
+        }
+    }
+
+    private void credit(Connection connection, BalanceRow row, long delta) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "UPDATE ledger_balance SET balance = balance + ? WHERE account_id = ? AND currency = ?")) {
+            statement.setLong(1, delta);
+            statement.setString(2, row.accountId());
+            statement.setInt(3, row.currency());
+            if (statement.executeUpdate() == 0) {
+                insertBalance(connection, row, delta, 0);
+            }
+        }
+    }
+
+    private long debit(Connection connection, BalanceRow row, long delta) throws SQLException {
+        Long expected = versions.get(row);
+        if (expected == null) {
+            expected = readVersion(connection, row);
+        }
+        if (expected < 0) {
+            if (delta < 0) {
+                throw new ConcurrentUpdateException(row.accountId());
+            }
+            insertBalance(connection, row, delta, 1);
+            return 1;
+        }
+        try (PreparedStatement statement = connection.prepareStatement("UPDATE ledger_balance "
+                + "SET balance = balance + ?, version = version + 1 "
+                + "WHERE account_id = ? AND currency = ? AND version = ? AND balance + ? >= 0")) {
+            statement.setLong(1, delta);
+            statement.setString(2, row.accountId());
+            statement.setInt(3, row.currency());
+            statement.setLong(4, expected);
+            statement.setLong(5, delta);
+            if (statement.executeUpdate() == 0) {
+                if (readVersion(connection, row) != expected) {
+                    stale.add(row);
+                    versions.remove(row);
+                }
+                throw new ConcurrentUpdateException(row.accountId());
+            }
+        }
+        return expected + 1;
+    }
+
+    // The account of a withdrawal in the write from a row found stale in the current batch, if any
+    private String staleDebit(Write write) {
+        for (Transaction transaction : write.transactions()) {
+            if (!transaction.getType().isCredit() && stale.contains(new BalanceRow(transaction.getAccountId(),
+                    Currencies.codeOf(transaction.getAmount().getCurrency())))) {
+                return transaction.getAccountId();
+            }
+        }
+        return null;
+    }
+
+    // -1 when the account has no balance row in the currency yet
+    private static long readVersion(Connection connection, BalanceRow row) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT version FROM ledger_balance WHERE account_id = ? AND currency = ?")) {
+            statement.setString(1, row.accountId());
+            statement.setInt(2, row.currency());
+            try (ResultSet rows = statement.executeQuery()) {
+                return rows.next() ? rows.getLong(1) : -1;
+            }
+        }
+    }
+
+    private static void insertBalance(Connection connection, BalanceRow row, long balance, long version) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO ledger_balance (account_id, currency, balance, version) VALUES (?, ?, ?, ?)")) {
+            statement.setString(1, row.accountId());
+            statement.setInt(2, row.currency());
+            statement.setLong(3, balance);
+            statement.setLong(4, version);
+            statement.executeUpdate();
+        }
+    }
+
+    private String insertSql(int rows) {
+        String sql = inserts[rows];
+        if (sql == null) {
+            StringBuilder builder = new StringBuilder(INSERT);
+            for (int i = 0; i < rows; i++) {
+                builder.append(i == 0 ? "" : ", ").append("(?, ?, ?, ?, ?, ?, ?, ?)");
+            }
+            sql = builder.toString();
+            inserts[rows] = sql;
+        }
+        return sql;
+    }
+
+    private static RuntimeException failure(Exception ex) {
+        return ex instanceof RuntimeException runtime ? runtime : new IllegalStateException("Failed to store transactions", ex);
+    }
+
+    private record Write(Transaction[] transactions, int[] shards, CompletableFuture<Void> stored) {
+    }
+
+    private record BalanceRow(String accountId, int currency) implements Comparable<BalanceRow> {
+
+        @Override
+        public int compareTo(BalanceRow other) {
+            int byAccount = accountId.compareTo(other.accountId);
+            return byAccount != 0 ? byAccount : Integer.compare(currency, other.currency);
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package com.example.ledger.repo;
+
+import com.example.ledger.domain.Currencies;
+import com.example.ledger.domain.Money;
+import com.example.ledger.domain.Transaction;
+import com.example.ledger.domain.TransactionType;
+import org.h2.mvstore.Cursor;
+import org.h2.mvstore.MVMap;
+import org.h2.mvstore.MVStore;
+import org.h2.mvstore.type.ByteArrayDataType;
+import org.h2.mvstore.type.LongDataType;
+import org.h2.mvstore.type.StringDataType;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * One shard's maps in a {@link MvStoreTransactionStore}. Transactions are keyed by account id, a
+ * NUL separator and the sequence as 16 hex digits, so the keys of one account are contiguous and in
+ * sequence order. Each value carries the account's balance in the transaction's currency after it,
+ * and a balance map keyed by account id, the separator and the currency's ISO code holds the latest
+ * one of every currency, so loading an account reads one short range.
+ * <pre>
+ * value  idHigh:i64 idLow:i64 type:u8 amount:i64 seconds:i64 nanos:i32 balance:i64 currency:u16
+ *                                                                                    (47 bytes)
+ * </pre>
+ * Values written before currencies existed are 45 bytes long and in {@link Currencies#DEFAULT};
+ * their balance map is built from the history the first time the shard is opened.
+ * <p>
+ * The history is the record; the sequence index and the balance map are derived from it and are
+ * rebuilt from it when the store wasn't closed cleanly.
+ */
+public class MvStoreTransactionRepository implements AccountIndexedTransactionRepository {
+
+    private static final char SEPARATOR = '\u0000';
+    private static final int SEQUENCE_DIGITS = 16;
+    private static final int RECORD_SIZE = 47;
+    private static final int BALANCE = 37;
+    private static final int CURRENCY = 45;
+    private static final int CURRENCY_LETTERS = 3;
+
+    private final MVMap<String, byte[]> history;
+    private final MVMap<Long, String> sequences;
+    private final MVMap<String, Long> balances;
+
+    MvStoreTransactionRepository(MVStore store, int shard, boolean reconcile) {
+        this.history = store.openMap("history." + shard, new MVMap.Builder<String, byte[]>()
+                .keyType(StringDataType.INSTANCE)
+                .valueType(ByteArrayDataType.INSTANCE));
+        this.sequences = store.openMap("sequence." + shard, new MVMap.Builder<Long, String>()
+                .keyType(LongDataType.INSTANCE)
+                .valueType(StringDataType.INSTANCE));
+        this.balances = store.openMap("balance." + shard, new MVMap.Builder<String, Long>()
+                .keyType(StringDataType.INSTANCE)
+                .valueType(LongDataType.INSTANCE));
+        if (reconcile || balances.isEmpty()) {
+            reconcile();
+        }
+    }
+
+    @Override
+    public Transaction save(Transaction transaction) {
+        Objects.requireNonNull(transaction, "Transaction can't be null");
+        String accountId = transaction.getAccountId();
+        Currency currency = transaction.getAmount().getCurrency();
+        long amount = transaction.getAmount().getMinorUnits();
+        long balance = transaction.getType().isCredit()
+                ? Math.addExact(findBalance(accountId, currency), amount)
+                : Math.subtractExact(findBalance(accountId, currency), amount);
+        history.put(key(accountId, transaction.getSequence()), encode(transaction, balance));
+        sequences.put(transaction.getSequence(), accountId);
+        balances.put(balanceKey(accountId, currency), balance);
+        return transaction;
+    }
+
+    @Override
+    public List<Transaction> findAllAfterSequence(long sequence) {
+        List<Transaction> transactions = new ArrayList<>();
+        for (Iterator<Long> keys = sequences.keyIterator(sequence + 1); keys.hasNext(); ) {
+            transactions.add(get(keys.next()));
+        }
+        return transactions;
+    }
+
+    @Override
+    public List<Transaction> findAllInSequenceRange(long afterSequence, long lastSequence) {
+        List<Transaction> transactions = new ArrayList<>();
+        for (Iterator<Long> keys = sequences.keyIterator(afterSequence + 1); keys.hasNext(); ) {
+            long key = keys.next();
+            if (key > lastSequence) {
+                break;
+            }
+            transactions.add(get(key));
+        }
+        return transactions;
+    }
+
+    /**
+     * Returns the shard's transactions newest first, walking the sequence index backwards.
+     */
+    @Override
+    public List<Transaction> findAllOrderByTimestampDesc() {
+        List<Transaction> transactions = new ArrayList<>();
+        for (Iterator<Long> keys = sequences.keyIteratorReverse(null); keys.hasNext(); ) {
+            transactions.add(get(keys.next()));
+        }
+        return transactions;
+    }
+
+    @Override
+    public long findLastSequence() {
+        Long last = sequences.lastKey();
+        return last == null ? 0 : last;
+    }
+
+    @Override
+    public List<Transaction> findByAccountIdOrderBySequenceDesc(String accountId) {
+        String first = key(accountId, 0);
+        List<Transaction> transactions = new ArrayList<>();
+        Cursor<String, byte[]> cursor = history.cursor(key(accountId, -1), first, true);
+        while (cursor.hasNext()) {
+            String key = cursor.next();
+            // Skips the keys of any account id that itself contains the separator
+            if (key.length() == first.length()) {
+                transactions.add(decode(accountId, sequenceOf(key), cursor.getValue()));
+            }
+        }
+        return transactions;
+    }
+
+    @Override
+    public long findBalance(String accountId, Currency currency) {
+        Long balance = balances.get(balanceKey(accountId, currency));
+        return balance == null ? 0 : balance;
+    }
+
+    @Override
+    public List<Money> findBalances(String accountId) {
+        String first = balanceKey(accountId, null);
+        List<Money> found = new ArrayList<>();
+        Cursor<String, Long> cursor = balances.cursor(first, first + '\uffff', false);
+        while (cursor.hasNext()) {
+            String key = cursor.next();
+            // Skips the keys of any account id that itself contains the separator
+            if (key.length() == first.length() + CURRENCY_LETTERS) {
+                found.add(Money.ofMinorUnits(cursor.getValue(), Currencies.of(key.substring(first.length()))));
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Brings the sequence index and the balance map in line with the history. Each map on file holds
+     * a prefix of the shard's writes, so index entries without a transaction can only be the newest
+     * ones, while the balances are simply taken again from the last transaction of every account.
+     */
+    private void reconcile() {
+        for (Long last = sequences.lastKey(); last != null && !history.containsKey(key(sequences.get(last), last));
+             last = sequences.lastKey()) {
+            sequences.remove(last);
+        }
+        String account = null;
+        Map<String, Long> latest = new HashMap<>();
+        // Ascending keys leave the latest balance of each account and currency in place
+        for (Cursor<String, byte[]> cursor = history.cursor(null); cursor.hasNext(); ) {
+            String key = cursor.next();
+            String accountId = key.substring(0, key.length() - 1 - SEQUENCE_DIGITS);
+            if (!accountId.equals(account)) {
+                if (account != null) {
+                    reconcileBalances(account, latest);
+                }
+                account = accountId;
+                latest.clear();
+            }
+            ByteBuffer value = ByteBuffer.wrap(cursor.getValue());
+            latest.put(balanceKey(accountId, currencyOf(value)), value.getLong(BALANCE));
+            sequences.putIfAbsent(sequenceOf(key), accountId);
+        }
+        if (account != null) {
+            reconcileBalances(account, latest);
+        }
+        // Balances of accounts none of whose transactions reached the file
+        for (Iterator<String> keys = balances.keyIterator(null); keys.hasNext(); ) {
+            String key = keys.next();
+            String first = key(key.substring(0, key.length() - CURRENCY_LETTERS - 1), 0);
+            String found = history.ceilingKey(first);
+            if (found == null || found.length() != first.length()
+                    || !found.startsWith(first.substring(0, first.length() - SEQUENCE_DIGITS))) {
+                balances.remove(key);
+            }
+        }
+    }
+
+    private void reconcileBalances(String accountId, Map<String, Long> latest) {
+        String first = balanceKey(accountId, null);
+        for (Cursor<String, Long> cursor = balances.cursor(first, first + '\uffff', false); cursor.hasNext(); ) {
+            String key = cursor.next();
+            if (key.length() == first.length() + CURRENCY_LETTERS && !latest.containsKey(key)) {
+                balances.remove(key);
+            }
+        }
+        latest.forEach((key, balance) -> {
+            if (!balance.equals(balances.get(key))) {
+                balances.put(key, balance);
+            }
+        });
+    }
+
+    private Transaction get(long sequence) {
+        String accountId = sequences.get(sequence);
+        return decode(accountId, sequence, history.get(key(accountId, sequence)));
+    }
+
+    // A sequence of -1 gives the highest possible key of the account
+    private static String key(String accountId, long sequence) {
+        String digits = Long.toHexString(sequence);
+        StringBuilder key = new StringBuilder(accountId.length() + 1 + SEQUENCE_DIGITS)
+                .append(accountId)
+                .append(SEPARATOR);
+        for (int i = digits.length(); i < SEQUENCE_DIGITS; i++) {
+            key.append('0');
+        }
+        return key.append(digits).toString();
+    }
+
+    // A null currency gives the prefix shared by all of the account's balances
+    private static String balanceKey(String accountId, Currency currency) {
+        String prefix = accountId + SEPARATOR;
+        return currency == null ? prefix : prefix + currency.getCurrencyCode();
+    }
+
+    private static Currency currencyOf(ByteBuffer value) {
+        return value.limit() < RECORD_SIZE
+                ? Currencies.DEFAULT
+                : Currencies.fromCode(Short.toUnsignedInt(value.getShort(CURRENCY)));
+    }
+
+    private static long sequenceOf(String key) {
+        return Long.parseUnsignedLong(key, key.length() - SEQUENCE_DIGITS, key.length(), 16);
+    }
+
+    private static byte[] encode(Transaction transaction, long balance) {
+        return ByteBuffer.allocate(RECORD_SIZE)
+                .putLong(transaction.getId().getMostSignificantBits())
+                .putLong(transaction.getId().getLeastSignificantBits())
+                .put(codeOf(transaction.getType()))
+                .putLong(transaction.getAmount().getMinorUnits())
+                .putLong(transaction.getCreatedAt().getEpochSecond())
+                .putInt(transaction.getCreatedAt().getNano())
+                .putLong(balance)
+                .putShort((short) Currencies.codeOf(transaction.getAmount().getCurrency()))
+                .array();
+    }
+
+    private static Transaction decode(String accountId, long sequence, byte[] value) {
+        ByteBuffer buffer = ByteBuffer.wrap(value);
+        UUID id = new UUID(buffer.getLong(), buffer.getLong());
+        TransactionType type = typeOf(buffer.get());
+        long minorUnits = buffer.getLong();
+        Instant createdAt = Instant.ofEpochSecond(buffer.getLong(), buffer.getInt());
+        Money amount = Money.ofMinorUnits(minorUnits, currencyOf(buffer));
+        return new Transaction(id, sequence, accountId, type, amount, createdAt);
+    }
+
+    private static byte codeOf(TransactionType type) {
+        return switch (type) {
+            case DEPOSIT -> 0;
+            case WITHDRAW -> 1;
+            case TRANSFER_IN -> 2;
+            case TRANSFER_OUT -> 3;
+            case BALANCE_FORWARD -> 4;
+        };
+    }
+
+    private static TransactionType typeOf(byte code) {
+        return switch (code) {
+            case 0 -> TransactionType.DEPOSIT;
+            case 1 -> TransactionType.WITHDRAW;
+            case 2 -> TransactionType.TRANSFER_IN;
+            case 3 -> TransactionType.TRANSFER_OUT;
+            case 4 -> TransactionType.BALANCE_FORWARD;
+            default -> throw new IllegalArgumentException("Invalid transaction type code: " + code);
+        };
+    }
+}
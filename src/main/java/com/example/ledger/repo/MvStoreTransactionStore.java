@@ -0,0 +1,105 @@
+package com.example.ledger.repo;
+
+import org.h2.mvstore.MVMap;
+import org.h2.mvstore.MVStore;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.OptionalInt;
+
+/**
+ * Embedded, in-process storage for histories too large to keep on the heap, built on H2's MVStore:
+ * a log-structured B-tree whose changes are appended to the file in chunks and whose pages are read
+ * back through a cache of bounded size, so memory use does not grow with the number of stored
+ * transactions.
+ * <p>
+ * Each shard keeps its transactions keyed by account and sequence, which makes an account's history
+ * a reverse range scan and its balance a single lookup, plus a sequence index for reading the
+ * shard in write order. Changes are written to the file by a background commit every
+ * {@code autoCommitDelay}; whatever was saved within that interval is lost if the process dies.
+ * <p>
+ * A save puts into three maps, and a background commit can land between those puts, so after a
+ * crash the maps may disagree about the newest writes. {@link #close()} marks the file as closed
+ * cleanly; when the mark is missing on open, every shard is reconciled with its history before use.
+ */
+public class MvStoreTransactionStore implements TransactionStore, AutoCloseable {
+
+    private static final String SHARD_COUNT = "shardCount";
+    private static final String CLOSED_CLEANLY = "closedCleanly";
+
+    private final Path file;
+    private final int cacheSizeMb;
+    private final Duration autoCommitDelay;
+
+    private MVStore store;
+    private boolean closedCleanly;
+
+    public MvStoreTransactionStore(Path file, int cacheSizeMb, Duration autoCommitDelay) {
+        this.file = Objects.requireNonNull(file, "File can't be null");
+        if (cacheSizeMb < 1) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+        this.cacheSizeMb = cacheSizeMb;
+        this.autoCommitDelay = Objects.requireNonNull(autoCommitDelay, "Auto-commit delay can't be null");
+    }
+
+    /**
+     * Opens the file, creating it if needed.
+     */
+    public void start() {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            parent.toFile().mkdirs();
+        }
+        store = new MVStore.Builder()
+                .fileName(file.toString())
+                .cacheSize(cacheSizeMb)
+                .open();
+        store.setAutoCommitDelay(Math.toIntExact(autoCommitDelay.toMillis()));
+        // Removed for as long as the file is open, so a crash leaves it unmarked
+        closedCleanly = store.<String, String>openMap("ledger").remove(CLOSED_CLEANLY) != null;
+        store.commit();
+    }
+
+    @Override
+    public void close() {
+        if (store != null && !store.isClosed()) {
+            store.<String, String>openMap("ledger").put(CLOSED_CLEANLY, "true");
+            store.close();
+        }
+    }
+
+    @Override
+    public synchronized OptionalInt storedShardCount() {
+        String stored = store.<String, String>openMap("ledger").get(SHARD_COUNT);
+        return stored != null ? OptionalInt.of(Integer.parseInt(stored)) : OptionalInt.empty();
+    }
+
+    @Override
+    public synchronized List<MvStoreTransactionRepository> repositories(int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Shard count must be positive");
+        }
+        MVMap<String, String> meta = store.openMap("ledger");
+        String stored = meta.putIfAbsent(SHARD_COUNT, Integer.toString(shardCount));
+        if (stored != null && Integer.parseInt(stored) != shardCount) {
+            throw new IllegalStateException("Stored transactions use " + stored + " shards but "
+                    + shardCount + " are configured");
+        }
+        List<MvStoreTransactionRepository> repositories = new ArrayList<>(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            repositories.add(new MvStoreTransactionRepository(store, i, !closedCleanly));
+        }
+        return repositories;
+    }
+
+    /**
+     * Writes all pending changes to the file.
+     */
+    public void commit() {
+        store.commit();
+    }
+}
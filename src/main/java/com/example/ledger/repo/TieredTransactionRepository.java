@@ -0,0 +1,289 @@
+package com.example.ledger.repo;
+
+import com.example.ledger.domain.Money;
+import com.example.ledger.domain.Transaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Currency;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * One shard's history split in two tiers: the most recent transactions stay on the heap, and once
+ * there are more than {@code hotCapacity} of them the oldest {@code blockSize} are compressed into
+ * an immutable {@link HistoryBlock} on disk. The sequence and time range of every block, and a
+ * filter of its accounts, are kept in memory as a sparse index, so reads open only the blocks that
+ * can hold what they ask for. An account's history comes from the hot window first and then from
+ * the blocks, newest first, that its filter doesn't rule out.
+ * <p>
+ * Reads copy the index and the hot window under the lock and decompress blocks outside it, so they
+ * never hold up writers while reading from disk.
+ */
+public class TieredTransactionRepository implements TimeIndexedTransactionRepository, AccountIndexedTransactionRepository {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TieredTransactionRepository.class);
+    private static final Comparator<Transaction> NEWEST_FIRST =
+            Comparator.comparing(Transaction::getCreatedAt).reversed();
+
+    private final Path directory;
+    private final int hotCapacity;
+    private final int blockSize;
+
+    // Guarded by this
+    private final ArrayDeque<Transaction> hot = new ArrayDeque<>();
+    private final List<HistoryBlock> blocks = new ArrayList<>();
+    private int migrateAbove;
+
+    TieredTransactionRepository(Path directory, int hotCapacity, int blockSize) {
+        this.directory = directory;
+        this.hotCapacity = hotCapacity;
+        this.blockSize = blockSize;
+        this.migrateAbove = hotCapacity;
+    }
+
+    @Override
+    public synchronized Transaction save(Transaction transaction) {
+        Objects.requireNonNull(transaction, "Transaction can't be null");
+        hot.addLast(transaction);
+        if (hot.size() > migrateAbove) {
+            migrate();
+        }
+        return transaction;
+    }
+
+    @Override
+    public List<Transaction> findAllAfterSequence(long sequence) {
+        Snapshot snapshot = snapshot();
+        List<Transaction> transactions = new ArrayList<>();
+        for (HistoryBlock block : snapshot.blocks()) {
+            if (block.lastSequence() > sequence) {
+                addAfter(transactions, block.read(), sequence);
+            }
+        }
+        addAfter(transactions, snapshot.hot(), sequence);
+        return transactions;
+    }
+
+    /**
+     * Opens only the blocks whose sequence range overlaps the requested one.
+     */
+    @Override
+    public List<Transaction> findAllInSequenceRange(long afterSequence, long lastSequence) {
+        Snapshot snapshot = snapshot();
+        List<Transaction> transactions = new ArrayList<>();
+        for (HistoryBlock block : snapshot.blocks()) {
+            if (block.lastSequence() > afterSequence && block.firstSequence() <= lastSequence) {
+                addBetween(transactions, block.read(), afterSequence, lastSequence);
+            }
+        }
+        addBetween(transactions, snapshot.hot(), afterSequence, lastSequence);
+        return transactions;
+    }
+
+    @Override
+    public List<Transaction> findAllOrderByTimestampDesc() {
+        List<Transaction> transactions = findAllUntil(Instant.MAX);
+        transactions.sort(NEWEST_FIRST);
+        return transactions;
+    }
+
+    /**
+     * Trims the hot window from its newest end, then drops whole blocks from the newest end by
+     * their earliest timestamp without opening them.
+     */
+    @Override
+    public List<Transaction> findAllUntil(Instant until) {
+        Snapshot snapshot = snapshot();
+        int hotEnd = hotEnd(snapshot.hot(), until);
+        int blockEnd = blockEnd(snapshot.blocks(), hotEnd, until);
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < blockEnd; i++) {
+            transactions.addAll(snapshot.blocks().get(i).read());
+        }
+        transactions.addAll(snapshot.hot().subList(0, hotEnd));
+        return transactions;
+    }
+
+    /**
+     * Cuts the tiers like {@link #findAllUntil}, then reads them newest first like
+     * {@link #findByAccountIdOrderBySequenceDesc}, opening only the remaining blocks that may hold
+     * the account.
+     */
+    @Override
+    public List<Transaction> findByAccountIdUntil(String accountId, Instant until) {
+        Snapshot snapshot = snapshot();
+        int hotEnd = hotEnd(snapshot.hot(), until);
+        int blockEnd = blockEnd(snapshot.blocks(), hotEnd, until);
+        List<Transaction> transactions = new ArrayList<>();
+        addNewestFirst(transactions, snapshot.hot().subList(0, hotEnd), accountId);
+        for (int i = blockEnd - 1; i >= 0; i--) {
+            HistoryBlock block = snapshot.blocks().get(i);
+            if (block.accounts().mightContain(accountId)) {
+                addNewestFirst(transactions, block.read(), accountId);
+            }
+        }
+        return transactions;
+    }
+
+    @Override
+    public List<Transaction> findByAccountIdOrderBySequenceDesc(String accountId) {
+        List<Transaction> transactions = new ArrayList<>();
+        List<HistoryBlock> older;
+        synchronized (this) {
+            addNewestFirst(transactions, hot.descendingIterator(), accountId);
+            older = List.copyOf(blocks);
+        }
+        for (int i = older.size() - 1; i >= 0; i--) {
+            HistoryBlock block = older.get(i);
+            if (block.accounts().mightContain(accountId)) {
+                addNewestFirst(transactions, block.read(), accountId);
+            }
+        }
+        return transactions;
+    }
+
+    /**
+     * Adds up the account's history. The ledger only asks when it first loads an account, so no
+     * running balance is kept here.
+     */
+    @Override
+    public long findBalance(String accountId, Currency currency) {
+        long balance = 0;
+        for (Transaction transaction : findByAccountIdOrderBySequenceDesc(accountId)) {
+            if (transaction.getAmount().getCurrency() == currency) {
+                balance = Math.addExact(balance, signed(transaction));
+            }
+        }
+        return balance;
+    }
+
+    @Override
+    public List<Money> findBalances(String accountId) {
+        Map<Currency, Long> balances = new TreeMap<>(Comparator.comparing(Currency::getCurrencyCode));
+        for (Transaction transaction : findByAccountIdOrderBySequenceDesc(accountId)) {
+            balances.merge(transaction.getAmount().getCurrency(), signed(transaction), Math::addExact);
+        }
+        List<Money> found = new ArrayList<>(balances.size());
+        balances.forEach((currency, balance) -> found.add(Money.ofMinorUnits(balance, currency)));
+        return found;
+    }
+
+    @Override
+    public synchronized long findLastSequence() {
+        if (!hot.isEmpty()) {
+            return hot.getLast().getSequence();
+        }
+        return blocks.isEmpty() ? 0 : blocks.getLast().lastSequence();
+    }
+
+    /**
+     * Number of transactions currently held on the heap.
+     */
+    public synchronized int getHotCount() {
+        return hot.size();
+    }
+
+    /**
+     * Number of blocks written to disk.
+     */
+    public synchronized int getBlockCount() {
+        return blocks.size();
+    }
+
+    // Keeps the transactions on the heap if the block can't be written and tries again a block later
+    private void migrate() {
+        List<Transaction> oldest = new ArrayList<>(blockSize);
+        Iterator<Transaction> iterator = hot.iterator();
+        while (oldest.size() < blockSize) {
+            oldest.add(iterator.next());
+        }
+        try {
+            blocks.add(HistoryBlock.write(directory, oldest));
+        } catch (IOException ex) {
+            migrateAbove = hot.size() + blockSize;
+            LOGGER.warn("Failed to move {} transactions to {}, keeping them in memory: {}",
+                    blockSize, directory, ex.toString());
+            return;
+        }
+        for (int i = 0; i < blockSize; i++) {
+            hot.removeFirst();
+        }
+        migrateAbove = hotCapacity;
+    }
+
+    private synchronized Snapshot snapshot() {
+        return new Snapshot(List.copyOf(blocks), new ArrayList<>(hot));
+    }
+
+    // The hot window trimmed from its newest end down to the last transaction created by the instant
+    private static int hotEnd(List<Transaction> hot, Instant until) {
+        int hotEnd = hot.size();
+        while (hotEnd > 0 && hot.get(hotEnd - 1).getCreatedAt().isAfter(until)) {
+            hotEnd--;
+        }
+        return hotEnd;
+    }
+
+    // Blocks only go once the hot window is gone, newest first while all they hold is after the instant
+    private static int blockEnd(List<HistoryBlock> blocks, int hotEnd, Instant until) {
+        int blockEnd = blocks.size();
+        while (hotEnd == 0 && blockEnd > 0 && blocks.get(blockEnd - 1).earliest().isAfter(until)) {
+            blockEnd--;
+        }
+        return blockEnd;
+    }
+
+    private static void addNewestFirst(List<Transaction> transactions, Iterator<Transaction> newestFirst, String accountId) {
+        while (newestFirst.hasNext()) {
+            Transaction transaction = newestFirst.next();
+            if (transaction.getAccountId().equals(accountId)) {
+                transactions.add(transaction);
+            }
+        }
+    }
+
+    private static void addNewestFirst(List<Transaction> transactions, List<Transaction> oldestFirst, String accountId) {
+        for (int i = oldestFirst.size() - 1; i >= 0; i--) {
+            Transaction transaction = oldestFirst.get(i);
+            if (transaction.getAccountId().equals(accountId)) {
+                transactions.add(transaction);
+            }
+        }
+    }
+
+    private static long signed(Transaction transaction) {
+        long amount = transaction.getAmount().getMinorUnits();
+        return transaction.getType().isCredit() ? amount : -amount;
+    }
+
+    private static void addBetween(List<Transaction> transactions, List<Transaction> candidates,
+                                   long afterSequence, long lastSequence) {
+        for (Transaction transaction : candidates) {
+            if (transaction.getSequence() > afterSequence && transaction.getSequence() <= lastSequence) {
+                transactions.add(transaction);
+            }
+        }
+    }
+
+    private static void addAfter(List<Transaction> transactions, List<Transaction> candidates, long sequence) {
+        for (Transaction transaction : candidates) {
+            if (transaction.getSequence() > sequence) {
+                transactions.add(transaction);
+            }
+        }
+    }
+
+    // The blocks in sequence order and a copy of the hot window that follows them
+    private record Snapshot(List<HistoryBlock> blocks, List<Transaction> hot) {
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.ledger.repo;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Keeps each shard's recent transactions in memory and moves older ones into compressed blocks
+ * under {@code directory/<shard>}, bounding the heap used by history; see
+ * {@link TieredTransactionRepository}.
+ * <p>
+ * The blocks extend the in-memory ledger rather than persist it: they are deleted when the store
+ * starts, since the hot window they continue is gone.
+ */
+public class TieredTransactionStore implements TransactionStore {
+
+    private final Path directory;
+    private final int hotCapacity;
+    private final int blockSize;
+
+    public TieredTransactionStore(Path directory, int hotCapacity, int blockSize) {
+        this.directory = Objects.requireNonNull(directory, "Directory can't be null");
+        if (blockSize < 1 || hotCapacity < blockSize) {
+            throw new IllegalArgumentException("Block size must be positive and no larger than the hot capacity");
+        }
+        this.hotCapacity = hotCapacity;
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Deletes the blocks left by a previous run.
+     */
+    public void start() throws IOException {
+        if (Files.exists(directory)) {
+            try (Stream<Path> files = Files.walk(directory, 2)) {
+                for (Path file : files.filter(TieredTransactionStore::isBlock).toList()) {
+                    Files.delete(file);
+                }
+            }
+        }
+        Files.createDirectories(directory);
+    }
+
+    @Override
+    public boolean isDurable() {
+        return false;
+    }
+
+    @Override
+    public List<TieredTransactionRepository> repositories(int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Shard count must be positive");
+        }
+        List<TieredTransactionRepository> repositories = new ArrayList<>(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            Path shardDirectory = directory.resolve(Integer.toString(i));
+            try {
+                Files.createDirectories(shardDirectory);
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Failed to create " + shardDirectory, ex);
+            }
+            repositories.add(new TieredTransactionRepository(shardDirectory, hotCapacity, blockSize));
+        }
+        return repositories;
+    }
+
+    private static boolean isBlock(Path file) {
+        String name = file.getFileName().toString();
+        return Files.isRegularFile(file) && (name.endsWith(".block") || name.endsWith(".block.tmp"));
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.ledger.repo;
+
+import com.example.ledger.domain.Transaction;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Storage that can skip transactions by creation time, so as-of queries do not read what was
+ * recorded after the requested instant.
+ */
+public interface TimeIndexedTransactionRepository extends TransactionRepository {
+
+    /**
+     * Returns the shard's transactions oldest first, leaving out the newest ones for as long as they
+     * were all created after the given instant. The result is a prefix of the shard in sequence
+     * order that holds every transaction created at or before the instant.
+     */
+    List<Transaction> findAllUntil(Instant until);
+
+    /**
+     * Returns the account's transactions within the prefix {@link #findAllUntil} would return,
+     * newest first.
+     */
+    List<Transaction> findByAccountIdUntil(String accountId, Instant until);
+}
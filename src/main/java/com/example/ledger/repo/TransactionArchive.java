@@ -0,0 +1,55 @@
+package com.example.ledger.repo;
+
+import com.example.ledger.domain.Transaction;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Append-only CSV file keeping the transactions that retention folded away, one per line in
+ * sequence order.
+ */
+public class TransactionArchive {
+
+    static final String HEADER = "sequence,id,accountId,type,amount,currency,createdAt";
+
+    private final Path file;
+
+    public TransactionArchive(Path file) {
+        this.file = Objects.requireNonNull(file, "File can't be null");
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Appends the transactions and forces them to disk before returning.
+     */
+    public synchronized void append(List<Transaction> transactions) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        boolean created = Files.notExists(file);
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND, StandardOpenOption.WRITE, StandardOpenOption.SYNC)) {
+            if (created) {
+                writer.write(HEADER);
+                writer.newLine();
+            }
+            for (Transaction transaction : transactions) {
+                writer.write(transaction.getSequence() + "," + transaction.getId() + "," + transaction.getAccountId()
+                        + "," + transaction.getType() + "," + transaction.getAmount().getAmount()
+                        + "," + transaction.getAmount().getCurrency().getCurrencyCode() + "," + transaction.getCreatedAt());
+                writer.newLine();
+            }
+        }
+    }
+}
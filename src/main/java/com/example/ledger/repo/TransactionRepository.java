@@ -0,0 +1,38 @@
+package com.example.ledger.repo;
+
+import com.example.ledger.domain.Transaction;
+
+import java.util.List;
+
+/**
+ * Storage of one ledger shard. Transactions are saved in ascending sequence order.
+ */
+public interface TransactionRepository {
+
+    Transaction save(Transaction transaction);
+
+    /**
+     * Returns the stored transactions with a sequence greater than the given one, oldest first.
+     */
+    List<Transaction> findAllAfterSequence(long sequence);
+
+    /**
+     * Returns the stored transactions with a sequence in {@code (afterSequence, lastSequence]}, oldest
+     * first. Storage that can seek by sequence overrides this to read only that range.
+     */
+    default List<Transaction> findAllInSequenceRange(long afterSequence, long lastSequence) {
+        List<Transaction> transactions = findAllAfterSequence(afterSequence);
+        int end = 0;
+        while (end < transactions.size() && transactions.get(end).getSequence() <= lastSequence) {
+            end++;
+        }
+        return transactions.subList(0, end);
+    }
+
+    List<Transaction> findAllOrderByTimestampDesc();
+
+    /**
+     * Highest stored sequence, or zero when empty; a ledger continues numbering from it.
+     */
+    long findLastSequence();
+}
@@ -0,0 +1,30 @@
+package com.example.ledger.repo;
+
+import java.util.List;
+import java.util.OptionalInt;
+
+/**
+ * Persistent storage shared by the shards of one ledger.
+ */
+public interface TransactionStore {
+
+    /**
+     * Returns one repository per shard. Accounts are hashed to shards by their count, so it must
+     * stay the same once transactions are stored.
+     */
+    List<? extends TransactionRepository> repositories(int shardCount);
+
+    /**
+     * The shard count the stored transactions were written with, if the store has recorded one.
+     */
+    default OptionalInt storedShardCount() {
+        return OptionalInt.empty();
+    }
+
+    /**
+     * Whether the stored transactions outlive the process, so the next start must use the same shard count.
+     */
+    default boolean isDurable() {
+        return true;
+    }
+}
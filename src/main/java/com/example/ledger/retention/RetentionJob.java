@@ -0,0 +1,93 @@
+package com.example.ledger.retention;
+
+import com.example.ledger.domain.LedgerService;
+import com.example.ledger.repo.TransactionArchive;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically folds transactions older than {@code maxAge} into balance-forward entries, so
+ * memory, balance loads and history scans stay bounded by the retention window while balances
+ * stay exact. Folded transactions are appended to the archive file first when one is configured.
+ */
+@Component
+@ConditionalOnProperty(name = "ledger.retention.enabled", havingValue = "true")
+public class RetentionJob {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RetentionJob.class);
+
+    private final LedgerService ledgerService;
+    private final Clock clock;
+    private final Duration maxAge;
+    private final Duration interval;
+    private final TransactionArchive archive;
+
+    private ScheduledExecutorService scheduler;
+
+    public RetentionJob(LedgerService ledgerService, Clock clock,
+                        @Value("${ledger.retention.max-age:P30D}") Duration maxAge,
+                        @Value("${ledger.retention.interval:PT1H}") Duration interval,
+                        @Value("${ledger.retention.archive-file:}") String archiveFile) {
+        this.ledgerService = Objects.requireNonNull(ledgerService, "LedgerService can't be null");
+        this.clock = Objects.requireNonNull(clock, "Clock can't be null");
+        if (maxAge.isNegative() || interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("Retention age can't be negative and the interval must be positive");
+        }
+        this.maxAge = maxAge;
+        this.interval = interval;
+        this.archive = archiveFile.isBlank() ? null : new TransactionArchive(Path.of(archiveFile));
+    }
+
+    @PostConstruct
+    void start() {
+        if (!ledgerService.isCompactable()) {
+            throw new IllegalStateException("Retention needs storage that supports compaction (ledger.storage=memory)");
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ledger-retention");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::run, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+        LOGGER.info("Folding transactions older than {} every {}", maxAge, interval);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Compacts everything created before now minus the retention age and returns how many
+     * transactions were folded; failures are logged and retried on the next run.
+     */
+    public int run() {
+        Instant before = clock.instant().minus(maxAge);
+        try {
+            int folded = ledgerService.compact(before, archive);
+            if (folded > 0) {
+                LOGGER.info("Folded {} transactions created before {} into balance-forward entries", folded, before);
+            }
+            return folded;
+        } catch (Exception ex) {
+            LOGGER.warn("Retention run failed, keeping the transactions: {}", ex.toString());
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+CREATE TABLE IF NOT EXISTS ledger_transaction (
+    sequence    BIGINT                      NOT NULL PRIMARY KEY,
+    id          CHAR(36)                    NOT NULL,
+    shard       INT                         NOT NULL,
+    account_id  VARCHAR(64)                 NOT NULL,
+    type        VARCHAR(16)                 NOT NULL,
+    amount      BIGINT                      NOT NULL,
+    currency    SMALLINT                    DEFAULT 0 NOT NULL,
+    created_at  TIMESTAMP(9) WITH TIME ZONE NOT NULL
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS ledger_transaction_id ON ledger_transaction (id);
+CREATE INDEX IF NOT EXISTS ledger_transaction_shard_sequence ON ledger_transaction (shard, sequence);
+CREATE INDEX IF NOT EXISTS ledger_transaction_shard_created_at ON ledger_transaction (shard, created_at);
+CREATE INDEX IF NOT EXISTS ledger_transaction_account_sequence ON ledger_transaction (account_id, sequence);
+
+CREATE TABLE IF NOT EXISTS ledger_balance (
+    account_id  VARCHAR(64) NOT NULL,
+    currency    SMALLINT    DEFAULT 0 NOT NULL,
+    balance     BIGINT      NOT NULL,
+    version     BIGINT      NOT NULL,
+    PRIMARY KEY (account_id, currency)
+);
+
+CREATE TABLE IF NOT EXISTS ledger_meta (
+    meta_key    VARCHAR(64)  NOT NULL PRIMARY KEY,
+    meta_value  VARCHAR(255) NOT NULL
+);
+
+-- Tables created before currencies existed hold the default currency, code 0, only
+ALTER TABLE ledger_transaction ADD COLUMN IF NOT EXISTS currency SMALLINT DEFAULT 0 NOT NULL;
+ALTER TABLE ledger_balance ADD COLUMN IF NOT EXISTS currency SMALLINT DEFAULT 0 NOT NULL;
@@ -0,0 +1,346 @@
+package com.example.ledger.api;
+
+import com.example.ledger.consensus.CommitTimeoutException;
+import com.example.ledger.consensus.NotLeaderException;
+import com.example.ledger.domain.AccountContention;
+import com.example.ledger.domain.Hold;
+import com.example.ledger.domain.HoldNotFoundException;
+import com.example.ledger.domain.InsufficientFundsException;
+import com.example.ledger.domain.InvalidAccountException;
+import com.example.ledger.domain.LedgerService;
+import com.example.ledger.domain.Money;
+import com.example.ledger.domain.Transaction;
+import com.example.ledger.domain.TransactionType;
+import com.example.ledger.domain.Transfer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Currency;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(AccountController.class)
+class AccountControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private LedgerService ledgerService;
+
+    private final Instant fixedInstant = Instant.parse("2023-10-01T10:15:30.123Z");
+
+    @Test
+    void shouldDepositIntoAccount() throws Exception {
+        // given
+        Transaction transaction = new Transaction(1, "alice", TransactionType.DEPOSIT, Money.of("100.50"), fixedInstant);
+        when(ledgerService.depositAsync("alice", Money.of("100.50"))).thenReturn(CompletableFuture.completedFuture(transaction));
+
+        // when & then
+        performAsync(post("/api/v1/ledger/accounts/alice/transactions")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"type\": \"DEPOSIT\", \"amount\": 100.50}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.accountId").value("alice"))
+                .andExpect(jsonPath("$.type").value("DEPOSIT"))
+                .andExpect(jsonPath("$.amount").value(100.50));
+    }
+
+    @Test
+    void shouldRejectTransferTypeOnTransactionsEndpoint() throws Exception {
+        // when & then
+        mockMvc.perform(post("/api/v1/ledger/accounts/alice/transactions")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"type\": \"TRANSFER_IN\", \"amount\": 10.00}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value("INVALID_TRANSACTION_TYPE"));
+    }
+
+    @Test
+    void shouldGetAccountBalance() throws Exception {
+        // given
+        when(ledgerService.getBalance("alice")).thenReturn(Money.of("42.00"));
+
+        // when & then
+        mockMvc.perform(get("/api/v1/ledger/accounts/alice/balance"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(42.00));
+    }
+
+    @Test
+    void shouldGetAccountTransactions() throws Exception {
+        // given
+        Transaction transaction = new Transaction(2, "alice", TransactionType.TRANSFER_IN, Money.of("5.00"), fixedInstant);
+        when(ledgerService.getTransactions("alice")).thenReturn(List.of(transaction));
+
+        // when & then
+        mockMvc.perform(get("/api/v1/ledger/accounts/alice/transactions"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].accountId").value("alice"))
+                .andExpect(jsonPath("$[0].type").value("TRANSFER_IN"));
+    }
+
+    @Test
+    void shouldReportInvalidAccountId() throws Exception {
+        // given
+        when(ledgerService.getBalance(anyString())).thenThrow(new InvalidAccountException("a!"));
+
+        // when & then
+        mockMvc.perform(get("/api/v1/ledger/accounts/a!/balance"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value("INVALID_ACCOUNT"));
+    }
+
+    @Test
+    void shouldTransferBetweenAccounts() throws Exception {
+        // given
+        Transfer transfer = new Transfer(
+                new Transaction(3, "alice", TransactionType.TRANSFER_OUT, Money.of("25.00"), fixedInstant),
+                new Transaction(4, "bob", TransactionType.TRANSFER_IN, Money.of("25.00"), fixedInstant));
+        when(ledgerService.transferAsync("alice", "bob", Money.of("25.00"))).thenReturn(CompletableFuture.completedFuture(transfer));
+
+        // when & then
+        performAsync(post("/api/v1/ledger/transfers")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"fromAccountId\": \"alice\", \"toAccountId\": \"bob\", \"amount\": 25.00}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.debit.accountId").value("alice"))
+                .andExpect(jsonPath("$.debit.type").value("TRANSFER_OUT"))
+                .andExpect(jsonPath("$.debit.sequence").value(3))
+                .andExpect(jsonPath("$.credit.accountId").value("bob"))
+                .andExpect(jsonPath("$.credit.type").value("TRANSFER_IN"))
+                .andExpect(jsonPath("$.credit.sequence").value(4));
+    }
+
+    @Test
+    void shouldRejectTransferWithoutAccounts() throws Exception {
+        // when & then
+        mockMvc.perform(post("/api/v1/ledger/transfers")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"amount\": 25.00}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value("VALIDATION_ERROR"));
+
+        verify(ledgerService, never()).transferAsync(anyString(), anyString(), any(Money.class));
+    }
+
+    @Test
+    void shouldNotReportTransferBetweenAccountKindsAsInvalidAccount() throws Exception {
+        // given
+        when(ledgerService.transferAsync(eq("alice"), eq("bob"), any(Money.class)))
+                .thenThrow(new IllegalArgumentException("Can't transfer between ASSET and LIABILITY accounts"));
+
+        // when & then
+        mockMvc.perform(post("/api/v1/ledger/transfers")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"fromAccountId\": \"alice\", \"toAccountId\": \"bob\", \"amount\": 25.00}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value("BAD_REQUEST"));
+    }
+
+    @Test
+    void shouldReportInsufficientFundsOnTransfer() throws Exception {
+        // given
+        when(ledgerService.transferAsync(eq("alice"), eq("bob"), any(Money.class)))
+                .thenReturn(CompletableFuture.failedFuture(new InsufficientFundsException(Money.of("10.00"), Money.of("25.00"))));
+
+        // when & then
+        performAsync(post("/api/v1/ledger/transfers")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"fromAccountId\": \"alice\", \"toAccountId\": \"bob\", \"amount\": 25.00}"))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.code").value("INSUFFICIENT_FUNDS"));
+    }
+
+    @Test
+    void shouldReturnServiceUnavailableWhenNotLeader() throws Exception {
+        // given
+        when(ledgerService.depositAsync("alice", Money.of("1.00"))).thenReturn(CompletableFuture.failedFuture(new NotLeaderException("node2")));
+
+        // when & then
+        performAsync(post("/api/v1/ledger/accounts/alice/transactions")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"type\": \"DEPOSIT\", \"amount\": 1.00}"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.code").value("NOT_LEADER"))
+                .andExpect(jsonPath("$.message").value("Not the cluster leader; send writes to node2"));
+    }
+
+    @Test
+    void shouldReturnServiceUnavailableWhenCommitTimesOut() throws Exception {
+        // given
+        when(ledgerService.withdrawAsync("alice", Money.of("1.00"))).thenReturn(CompletableFuture.failedFuture(new CommitTimeoutException()));
+
+        // when & then
+        performAsync(post("/api/v1/ledger/accounts/alice/transactions")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"type\": \"WITHDRAW\", \"amount\": 1.00}"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.code").value("COMMIT_TIMEOUT"));
+    }
+
+    @Test
+    void shouldFlagContendedAccounts() throws Exception {
+        // given
+        when(ledgerService.getLockContention(20)).thenReturn(List.of(
+                new AccountContention("merchant", 1000, 500_000_000L, 1),
+                new AccountContention("alice", 10, 5_000, 1)));
+
+        // when & then
+        mockMvc.perform(get("/api/v1/ledger/accounts/contention"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].accountId").value("merchant"))
+                .andExpect(jsonPath("$[0].meanLockWaitMicros").value(500))
+                .andExpect(jsonPath("$[0].hot").value(true))
+                .andExpect(jsonPath("$[1].accountId").value("alice"))
+                .andExpect(jsonPath("$[1].hot").value(false));
+    }
+
+    @Test
+    void shouldReturnBalanceAsOfInstant() throws Exception {
+        // given
+        when(ledgerService.getBalance("alice", fixedInstant)).thenReturn(Money.of("12.00"));
+
+        // when & then
+        mockMvc.perform(get("/api/v1/ledger/accounts/alice/balance").param("asOf", "2023-10-01T10:15:30.123Z"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(12.00));
+        verify(ledgerService, never()).getBalance("alice");
+    }
+
+    @Test
+    void shouldReturnHistoryAsOfInstant() throws Exception {
+        // given
+        Transaction transaction = new Transaction(1, "alice", TransactionType.DEPOSIT, Money.of("12.00"), fixedInstant);
+        when(ledgerService.getTransactions("alice", fixedInstant)).thenReturn(List.of(transaction));
+
+        // when & then
+        mockMvc.perform(get("/api/v1/ledger/accounts/alice/transactions").param("asOf", "2023-10-01T10:15:30.123Z"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].sequence").value(1));
+    }
+
+    @Test
+    void shouldRejectInvalidAsOfInstant() throws Exception {
+        // when & then
+        mockMvc.perform(get("/api/v1/ledger/accounts/alice/balance").param("asOf", "yesterday"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value("BAD_REQUEST"));
+    }
+
+    // Writes complete on the ledger's writer stage, so the response comes from the async dispatch
+    @Test
+    void shouldPlaceHold() throws Exception {
+        // given
+        Hold hold = new Hold(UUID.randomUUID(), "alice", Money.of("25.00"), fixedInstant, fixedInstant.plusSeconds(900));
+        when(ledgerService.placeHold("alice", Money.of("25.00"), Duration.ofMinutes(15))).thenReturn(hold);
+
+        // when & then
+        mockMvc.perform(post("/api/v1/ledger/accounts/alice/holds")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"amount\": 25.00, \"expiresIn\": \"PT15M\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(hold.getId().toString()))
+                .andExpect(jsonPath("$.amount").value(25.00))
+                .andExpect(jsonPath("$.expiresAt").value("2023-10-01T10:30:30.123Z"));
+    }
+
+    @Test
+    void shouldCapturePartOfHold() throws Exception {
+        // given
+        UUID holdId = UUID.randomUUID();
+        Transaction transaction = new Transaction(7, "alice", TransactionType.WITHDRAW, Money.of("20.00"), fixedInstant);
+        when(ledgerService.captureHold(holdId, Money.of("20.00"))).thenReturn(transaction);
+
+        // when & then
+        mockMvc.perform(post("/api/v1/ledger/holds/" + holdId + "/capture")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"amount\": 20.00}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.type").value("WITHDRAW"))
+                .andExpect(jsonPath("$.amount").value(20.00));
+    }
+
+    @Test
+    void shouldCaptureWholeHoldWithoutBody() throws Exception {
+        // given
+        UUID holdId = UUID.randomUUID();
+        Transaction transaction = new Transaction(7, "alice", TransactionType.WITHDRAW, Money.of("25.00"), fixedInstant);
+        when(ledgerService.captureHold(holdId, null)).thenReturn(transaction);
+
+        // when & then
+        mockMvc.perform(post("/api/v1/ledger/holds/" + holdId + "/capture"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.amount").value(25.00));
+    }
+
+    @Test
+    void shouldReturnNotFoundForUnknownHold() throws Exception {
+        // given
+        UUID holdId = UUID.randomUUID();
+        when(ledgerService.releaseHold(holdId)).thenThrow(new HoldNotFoundException(holdId));
+
+        // when & then
+        mockMvc.perform(delete("/api/v1/ledger/holds/" + holdId))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.code").value("HOLD_NOT_FOUND"));
+    }
+
+    @Test
+    void shouldGetAvailableBalance() throws Exception {
+        // given
+        when(ledgerService.getAvailableBalance("alice")).thenReturn(Money.of("75.00"));
+
+        // when & then
+        mockMvc.perform(get("/api/v1/ledger/accounts/alice/available-balance"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(75.00));
+    }
+
+    @Test
+    void shouldGetBalancePerCurrency() throws Exception {
+        // given
+        Currency yen = Currency.getInstance("JPY");
+        when(ledgerService.getBalance("alice", yen)).thenReturn(Money.of("1500", yen));
+        when(ledgerService.getBalances("alice")).thenReturn(List.of(Money.of("10.00"), Money.of("1500", yen)));
+
+        // when & then
+        mockMvc.perform(get("/api/v1/ledger/accounts/alice/balance").param("currency", "JPY"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(1500))
+                .andExpect(jsonPath("$.currency").value("JPY"));
+        mockMvc.perform(get("/api/v1/ledger/accounts/alice/balances"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].currency").value("EUR"))
+                .andExpect(jsonPath("$[1].balance").value(1500))
+                .andExpect(jsonPath("$[1].currency").value("JPY"));
+    }
+
+    private ResultActions performAsync(MockHttpServletRequestBuilder builder) throws Exception {
+        MvcResult started = mockMvc.perform(builder).andExpect(request().asyncStarted()).andReturn();
+        return mockMvc.perform(asyncDispatch(started));
+    }
+}
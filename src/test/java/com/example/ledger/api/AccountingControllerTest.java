@@ -0,0 +1,139 @@
+package com.example.ledger.api;
+
+import com.example.ledger.domain.AccountKind;
+import com.example.ledger.domain.Currencies;
+import com.example.ledger.domain.LedgerService;
+import com.example.ledger.domain.Money;
+import com.example.ledger.domain.PostedEntry;
+import com.example.ledger.domain.Posting;
+import com.example.ledger.domain.Transaction;
+import com.example.ledger.domain.TransactionType;
+import com.example.ledger.domain.TrialBalance;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Instant;
+import java.util.Currency;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(AccountingController.class)
+class AccountingControllerTest {
+
+    private final Instant fixedInstant = Instant.parse("2023-10-01T10:15:30.123Z");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private LedgerService ledgerService;
+
+    @Test
+    void shouldPostJournalEntry() throws Exception {
+        // given
+        List<Posting> postings = List.of(
+                Posting.debit("cash", Money.of("100.00")), Posting.credit("capital", Money.of("100.00")));
+        when(ledgerService.post(postings)).thenReturn(new PostedEntry(List.of(
+                new Transaction(7, "cash", TransactionType.TRANSFER_IN, Money.of("100.00"), fixedInstant),
+                new Transaction(8, "capital", TransactionType.TRANSFER_IN, Money.of("100.00"), fixedInstant))));
+
+        // when & then
+        mockMvc.perform(post("/api/v1/ledger/journal-entries")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"postings": [
+                                  {"accountId": "cash", "side": "DEBIT", "amount": 100.00},
+                                  {"accountId": "capital", "side": "CREDIT", "amount": 100.00}
+                                ]}"""))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.legs[0].accountId").value("cash"))
+                .andExpect(jsonPath("$.legs[0].sequence").value(7))
+                .andExpect(jsonPath("$.legs[1].accountId").value("capital"))
+                .andExpect(jsonPath("$.legs[1].type").value("TRANSFER_IN"));
+    }
+
+    @Test
+    void shouldRejectEntryWithSinglePosting() throws Exception {
+        // when & then
+        mockMvc.perform(post("/api/v1/ledger/journal-entries")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"postings\": [{\"accountId\": \"cash\", \"side\": \"DEBIT\", \"amount\": 1.00}]}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value("VALIDATION_ERROR"));
+
+        verify(ledgerService, never()).post(anyList());
+    }
+
+    @Test
+    void shouldRejectUnbalancedEntry() throws Exception {
+        // given
+        when(ledgerService.post(anyList())).thenThrow(new IllegalArgumentException("Debits and credits differ in EUR"));
+
+        // when & then
+        mockMvc.perform(post("/api/v1/ledger/journal-entries")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"postings": [
+                                  {"accountId": "cash", "side": "DEBIT", "amount": 100.00},
+                                  {"accountId": "capital", "side": "CREDIT", "amount": 99.00}
+                                ]}"""))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldReturnTrialBalance() throws Exception {
+        // given
+        when(ledgerService.isTrialBalanceEnabled()).thenReturn(true);
+        when(ledgerService.getTrialBalance()).thenReturn(new TrialBalance(
+                List.of(new TrialBalance.Line("alice", AccountKind.LIABILITY, Money.of("0.00"), Money.of("25.00")),
+                        new TrialBalance.Line(TrialBalance.EXTERNAL_ACCOUNT, AccountKind.ASSET, Money.of("25.00"), Money.of("0.00"))),
+                List.of(new TrialBalance.Total(Currencies.DEFAULT, Money.of("25.00"), Money.of("25.00")))));
+
+        // when & then
+        mockMvc.perform(get("/api/v1/ledger/trial-balance"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balanced").value(true))
+                .andExpect(jsonPath("$.lines[0].accountId").value("alice"))
+                .andExpect(jsonPath("$.lines[0].kind").value("LIABILITY"))
+                .andExpect(jsonPath("$.lines[0].credit").value(25.00))
+                .andExpect(jsonPath("$.lines[1].accountId").value("@external"))
+                .andExpect(jsonPath("$.totals[0].currency").value("EUR"))
+                .andExpect(jsonPath("$.totals[0].debits").value(25.00));
+    }
+
+    @Test
+    void shouldReturnNotFoundWhenTrialBalanceIsDisabled() throws Exception {
+        // when & then
+        mockMvc.perform(get("/api/v1/ledger/trial-balance"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void shouldReturnRolledUpBalance() throws Exception {
+        // given
+        when(ledgerService.getRollupBalances("region-eu"))
+                .thenReturn(List.of(Money.of("120.00"), Money.of("3.00", Currency.getInstance("USD"))));
+        when(ledgerService.getParent("region-eu")).thenReturn("tenant-a");
+        when(ledgerService.getChildren("region-eu")).thenReturn(List.of("shop-1", "shop-2"));
+
+        // when & then
+        mockMvc.perform(get("/api/v1/ledger/accounts/region-eu/rollup"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accountId").value("region-eu"))
+                .andExpect(jsonPath("$.parentId").value("tenant-a"))
+                .andExpect(jsonPath("$.children[1]").value("shop-2"))
+                .andExpect(jsonPath("$.balances[0].balance").value(120.00))
+                .andExpect(jsonPath("$.balances[1].currency").value("USD"));
+    }
+}
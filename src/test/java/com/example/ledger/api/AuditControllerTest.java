@@ -0,0 +1,82 @@
+package com.example.ledger.api;
+
+import com.example.ledger.domain.ChainCheckpoint;
+import com.example.ledger.domain.ChainHead;
+import com.example.ledger.domain.ChainVerification;
+import com.example.ledger.domain.LedgerService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(AuditController.class)
+class AuditControllerTest {
+
+    private static final String HASH = "ab".repeat(32);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private LedgerService ledgerService;
+
+    @Test
+    void shouldReturnChainHead() throws Exception {
+        // given
+        when(ledgerService.isHashChained()).thenReturn(true);
+        when(ledgerService.getChainHead()).thenReturn(new ChainHead(42, 40, HASH));
+
+        // when & then
+        mockMvc.perform(get("/api/v1/ledger/audit/head"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sequence").value(42))
+                .andExpect(jsonPath("$.length").value(40))
+                .andExpect(jsonPath("$.hash").value(HASH));
+    }
+
+    @Test
+    void shouldListCheckpoints() throws Exception {
+        // given
+        when(ledgerService.isHashChained()).thenReturn(true);
+        when(ledgerService.getChainCheckpoints(1024, 1)).thenReturn(List.of(new ChainCheckpoint(1025, 2048, HASH, HASH)));
+
+        // when & then
+        mockMvc.perform(get("/api/v1/ledger/audit/checkpoints").param("after", "1024").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].fromSequence").value(1025))
+                .andExpect(jsonPath("$[0].toSequence").value(2048))
+                .andExpect(jsonPath("$[0].merkleRoot").value(HASH));
+    }
+
+    @Test
+    void shouldReportBrokenChain() throws Exception {
+        // given
+        when(ledgerService.isHashChained()).thenReturn(true);
+        when(ledgerService.verifyHashChain()).thenReturn(new ChainVerification(new ChainHead(42, 42, HASH), 3, 0, 1, 17, 26));
+
+        // when & then
+        mockMvc.perform(post("/api/v1/ledger/audit/verify"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.intact").value(false))
+                .andExpect(jsonPath("$.brokenSegments").value(1))
+                .andExpect(jsonPath("$.firstBrokenSequence").value(17))
+                .andExpect(jsonPath("$.head.sequence").value(42));
+    }
+
+    @Test
+    void shouldReturnNotFoundWhenChainIsDisabled() throws Exception {
+        // when & then
+        mockMvc.perform(post("/api/v1/ledger/audit/verify"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/v1/ledger/audit/head"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.ledger.api;
+
+import com.example.ledger.bulk.BulkImporter;
+import com.example.ledger.bulk.ImportFormat;
+import com.example.ledger.bulk.ImportReport;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ImportController.class)
+class ImportControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private BulkImporter bulkImporter;
+
+    @Test
+    void shouldImportCsvBody() throws Exception {
+        // given
+        ImportReport report = new ImportReport(4, 3, 1, List.of(new ImportReport.RejectedRow(3, "Invalid account id: a b")),
+                Duration.ofSeconds(2));
+        when(bulkImporter.importFrom(any(), eq(ImportFormat.CSV))).thenReturn(report);
+
+        // when & then
+        mockMvc.perform(post("/api/v1/ledger/imports")
+                        .contentType("text/csv")
+                        .content("accountId,type,amount\nalice,DEPOSIT,1.00\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rows").value(4))
+                .andExpect(jsonPath("$.imported").value(3))
+                .andExpect(jsonPath("$.rejections[0].line").value(3))
+                .andExpect(jsonPath("$.elapsedMillis").value(2000))
+                .andExpect(jsonPath("$.rowsPerSecond").value(2));
+    }
+
+    @Test
+    void shouldRejectUnsupportedContentType() throws Exception {
+        // when & then
+        mockMvc.perform(post("/api/v1/ledger/imports")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isUnsupportedMediaType())
+                .andExpect(jsonPath("$.code").value("UNSUPPORTED_MEDIA_TYPE"));
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.ledger.api;
+
+import com.example.ledger.api.dto.BalanceResponse;
+import com.example.ledger.api.dto.ErrorResponse;
+import com.example.ledger.api.dto.InvalidRequestException;
+import com.example.ledger.api.dto.TransactionCommand;
+import com.example.ledger.api.dto.TransactionRequest;
+import com.example.ledger.api.dto.TransactionResponse;
+import com.example.ledger.domain.TransactionType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LedgerBinaryCodecTest {
+
+    private final Instant timestamp = Instant.parse("2023-10-01T10:15:30.123456789Z");
+
+    @Test
+    void shouldRoundTripRequest() {
+        // given
+        TransactionRequest request = new TransactionRequest("WITHDRAW", new BigDecimal("100.50"));
+
+        // when
+        byte[] bytes = LedgerBinaryCodec.encodeRequest(request);
+        TransactionCommand decoded = LedgerBinaryCodec.decodeRequest(bytes);
+
+        // then
+        assertEquals(LedgerBinaryCodec.REQUEST_SIZE, bytes.length);
+        assertEquals(new TransactionCommand(TransactionType.WITHDRAW, 10050), decoded);
+    }
+
+    @Test
+    void shouldRejectNonPositiveAmountInRequest() {
+        // given
+        byte[] bytes = LedgerBinaryCodec.encodeRequest(new TransactionRequest("DEPOSIT", BigDecimal.ZERO));
+
+        // when & then
+        InvalidRequestException exception = assertThrows(InvalidRequestException.class,
+                () -> LedgerBinaryCodec.decodeRequest(bytes));
+        assertEquals(InvalidRequestException.VALIDATION_ERROR, exception.getCode());
+    }
+
+    @Test
+    void shouldRejectRequestWithWrongLength() {
+        // when & then
+        assertThrows(IllegalArgumentException.class, () -> LedgerBinaryCodec.decodeRequest(new byte[3]));
+    }
+
+    @Test
+    void shouldRejectUnknownTypeCode() {
+        // given
+        byte[] bytes = new byte[LedgerBinaryCodec.REQUEST_SIZE];
+        bytes[0] = 9;
+
+        // when & then
+        assertThrows(IllegalArgumentException.class, () -> LedgerBinaryCodec.decodeRequest(bytes));
+    }
+
+    @Test
+    void shouldRejectTransferTypeInRequest() {
+        // given
+        byte[] bytes = new byte[LedgerBinaryCodec.REQUEST_SIZE];
+        bytes[0] = 2;
+        bytes[LedgerBinaryCodec.REQUEST_SIZE - 1] = 1;
+
+        // when & then
+        assertThrows(IllegalArgumentException.class, () -> LedgerBinaryCodec.decodeRequest(bytes));
+    }
+
+    @Test
+    void shouldRoundTripTransaction() {
+        // given
+        TransactionResponse transaction = new TransactionResponse(UUID.randomUUID(), 42, "default", "DEPOSIT", new BigDecimal("12.34"), timestamp);
+
+        // when
+        byte[] bytes = LedgerBinaryCodec.encode(transaction);
+
+        // then
+        assertEquals(LedgerBinaryCodec.TRANSACTION_SIZE + 1 + "default".length(), bytes.length);
+        assertEquals(transaction, LedgerBinaryCodec.decodeTransaction(bytes));
+    }
+
+    @Test
+    void shouldRoundTripTransactionInOtherCurrency() {
+        // given
+        TransactionResponse transaction = new TransactionResponse(UUID.randomUUID(), 43, "default", "DEPOSIT", new BigDecimal("1500"), timestamp, "JPY");
+
+        // when
+        byte[] bytes = LedgerBinaryCodec.encode(transaction);
+
+        // then
+        assertEquals(transaction, LedgerBinaryCodec.decodeTransaction(bytes));
+    }
+
+    @Test
+    void shouldRoundTripHistory() {
+        // given
+        List<TransactionResponse> history = List.of(
+                new TransactionResponse(UUID.randomUUID(), 2, "savings", "TRANSFER_OUT", new BigDecimal("1.00"), timestamp),
+                new TransactionResponse(UUID.randomUUID(), 1, "default", "DEPOSIT", new BigDecimal("5.00"), timestamp));
+
+        // when
+        byte[] bytes = LedgerBinaryCodec.encode(history);
+
+        // then
+        assertEquals(Integer.BYTES + 2 * (LedgerBinaryCodec.TRANSACTION_SIZE + 1) + "savings".length() + "default".length(), bytes.length);
+        assertEquals(history, LedgerBinaryCodec.decodeTransactions(bytes));
+    }
+
+    @Test
+    void shouldRoundTripEmptyHistory() {
+        // when
+        byte[] bytes = LedgerBinaryCodec.encode(List.of());
+
+        // then
+        assertTrue(LedgerBinaryCodec.decodeTransactions(bytes).isEmpty());
+    }
+
+    @Test
+    void shouldRoundTripBalance() {
+        // given
+        BalanceResponse balance = new BalanceResponse(new BigDecimal("99999999.99"));
+
+        // when
+        byte[] bytes = LedgerBinaryCodec.encode(balance);
+
+        // then
+        assertEquals(LedgerBinaryCodec.BALANCE_SIZE, bytes.length);
+        assertEquals(balance, LedgerBinaryCodec.decodeBalance(bytes));
+    }
+
+    @Test
+    void shouldRoundTripError() {
+        // given
+        ErrorResponse error = new ErrorResponse("Insufficient funds: café", "INSUFFICIENT_FUNDS", timestamp);
+
+        // when & then
+        assertEquals(error, LedgerBinaryCodec.decodeError(LedgerBinaryCodec.encode(error)));
+    }
+
+    @Test
+    void shouldRejectAmountsWithMoreThanTwoDecimals() {
+        // given
+        BalanceResponse balance = new BalanceResponse(new BigDecimal("1.001"));
+
+        // when & then
+        assertThrows(ArithmeticException.class, () -> LedgerBinaryCodec.encode(balance));
+    }
+
+    @Test
+    void shouldRejectUnsupportedBody() {
+        // when & then
+        assertThrows(IllegalArgumentException.class, () -> LedgerBinaryCodec.encode("text"));
+    }
+}
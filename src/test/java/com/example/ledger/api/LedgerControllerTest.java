@@ -1,23 +1,41 @@
 package com.example.ledger.api;
 
+import com.example.ledger.api.dto.TransactionRequest;
+import com.example.ledger.api.dto.TransactionResponse;
+import com.example.ledger.domain.InsufficientFundsException;
 import com.example.ledger.domain.LedgerService;
 import com.example.ledger.domain.Money;
+import com.example.ledger.domain.OverloadedException;
 import com.example.ledger.domain.Transaction;
 import com.example.ledger.domain.TransactionType;
+import com.example.ledger.domain.VelocityLimitExceededException;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 
+import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -31,13 +49,24 @@ class LedgerControllerTest {
     @MockitoBean
     private LedgerService ledgerService;
 
+    // The controller (and its response cache) outlives each test, so every test sees a fresh ledger version
+    private static final AtomicLong VERSIONS = new AtomicLong();
+
     private final Instant fixedInstant = Instant.parse("2023-10-01T10:15:30.123Z");
 
+    private long version;
+
+    @BeforeEach
+    void setUp() {
+        version = VERSIONS.incrementAndGet();
+        when(ledgerService.getVersion()).thenReturn(version);
+    }
+
     @Test
     void shouldCreateDepositTransaction() throws Exception {
         // given
         Transaction transaction = new Transaction(TransactionType.DEPOSIT, Money.of("100.50"), fixedInstant);
-        when(ledgerService.deposit(any(Money.class))).thenReturn(transaction);
+        when(ledgerService.depositAsync(any(Money.class))).thenReturn(CompletableFuture.completedFuture(transaction));
 
         String requestBody = """
             {
@@ -47,7 +76,7 @@ class LedgerControllerTest {
             """;
 
         // when & then
-        mockMvc.perform(post("/api/v1/ledger/transactions")
+        performAsync(post("/api/v1/ledger/transactions")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(requestBody))
                 .andExpect(status().isCreated())
@@ -61,7 +90,7 @@ class LedgerControllerTest {
     void shouldCreateWithdrawTransaction() throws Exception {
         // given
         Transaction transaction = new Transaction(TransactionType.WITHDRAW, Money.of("50.25"), fixedInstant);
-        when(ledgerService.withdraw(any(Money.class))).thenReturn(transaction);
+        when(ledgerService.withdrawAsync(any(Money.class))).thenReturn(CompletableFuture.completedFuture(transaction));
 
         String requestBody = """
             {
@@ -71,7 +100,7 @@ class LedgerControllerTest {
             """;
 
         // when & then
-        mockMvc.perform(post("/api/v1/ledger/transactions")
+        performAsync(post("/api/v1/ledger/transactions")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(requestBody))
                 .andExpect(status().isCreated())
@@ -186,8 +215,8 @@ class LedgerControllerTest {
     @Test
     void shouldHandleInsufficientFundsError() throws Exception {
         // given
-        when(ledgerService.withdraw(any(Money.class)))
-            .thenThrow(new IllegalArgumentException("Insufficient funds: current balance is 50.00, requested 100.00"));
+        when(ledgerService.withdrawAsync(any(Money.class)))
+            .thenReturn(CompletableFuture.failedFuture(new IllegalArgumentException("Insufficient funds: available balance is 50.00, requested 100.00")));
 
         String requestBody = """
             {
@@ -197,11 +226,11 @@ class LedgerControllerTest {
             """;
 
         // when & then
-        mockMvc.perform(post("/api/v1/ledger/transactions")
+        performAsync(post("/api/v1/ledger/transactions")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(requestBody))
                 .andExpect(status().isUnprocessableEntity())
-                .andExpect(jsonPath("$.message").value("Insufficient funds: current balance is 50.00, requested 100.00"));
+                .andExpect(jsonPath("$.message").value("Insufficient funds: available balance is 50.00, requested 100.00"));
     }
 
     @Test
@@ -266,7 +295,7 @@ class LedgerControllerTest {
     void shouldHandleLowercaseTransactionType() throws Exception {
         // given
         Transaction transaction = new Transaction(TransactionType.DEPOSIT, Money.of("100.50"), fixedInstant);
-        when(ledgerService.deposit(any(Money.class))).thenReturn(transaction);
+        when(ledgerService.depositAsync(any(Money.class))).thenReturn(CompletableFuture.completedFuture(transaction));
 
         String requestBody = """
             {
@@ -276,7 +305,7 @@ class LedgerControllerTest {
             """;
 
         // when & then
-        mockMvc.perform(post("/api/v1/ledger/transactions")
+        performAsync(post("/api/v1/ledger/transactions")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(requestBody))
                 .andExpect(status().isCreated())
@@ -323,7 +352,302 @@ class LedgerControllerTest {
         // when & then
         mockMvc.perform(post("/api/v1/ledger/transactions")
                 .content(requestBody)) // No content type
+                .andExpect(status().isUnsupportedMediaType())
+                .andExpect(jsonPath("$.code").value("UNSUPPORTED_MEDIA_TYPE"));
+    }
+
+    @Test
+    void shouldReturnETagForBalance() throws Exception {
+        // given
+        when(ledgerService.getBalance()).thenReturn(Money.of("10.00"));
+
+        // when & then
+        mockMvc.perform(get("/api/v1/ledger/balance"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + version + "\""));
+    }
+
+    @Test
+    void shouldReturnNotModifiedBalanceWithoutComputingIt() throws Exception {
+        // when & then
+        mockMvc.perform(get("/api/v1/ledger/balance")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"" + version + "\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(ledgerService, never()).getBalance();
+    }
+
+    @Test
+    void shouldServeCachedBalanceWhileVersionIsUnchanged() throws Exception {
+        // given
+        when(ledgerService.getBalance()).thenReturn(Money.of("42.00"));
+
+        // when
+        mockMvc.perform(get("/api/v1/ledger/balance")).andExpect(jsonPath("$.balance").value(42.00));
+        mockMvc.perform(get("/api/v1/ledger/balance")).andExpect(jsonPath("$.balance").value(42.00));
+
+        // then
+        verify(ledgerService, times(1)).getBalance();
+    }
+
+    @Test
+    void shouldRebuildBalanceWhenVersionChanges() throws Exception {
+        // given
+        when(ledgerService.getBalance()).thenReturn(Money.of("42.00"), Money.of("50.00"));
+        mockMvc.perform(get("/api/v1/ledger/balance")).andExpect(jsonPath("$.balance").value(42.00));
+
+        long newVersion = VERSIONS.incrementAndGet();
+        when(ledgerService.getVersion()).thenReturn(newVersion);
+
+        // when & then
+        mockMvc.perform(get("/api/v1/ledger/balance")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"" + version + "\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + newVersion + "\""))
+                .andExpect(jsonPath("$.balance").value(50.00));
+    }
+
+    @Test
+    void shouldReturnNotModifiedHistory() throws Exception {
+        // when & then
+        mockMvc.perform(get("/api/v1/ledger/transactions")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"" + version + "\""))
+                .andExpect(status().isNotModified());
+
+        verify(ledgerService, never()).getAllTransactions();
+    }
+
+    @Test
+    void shouldServeCachedHistoryWhileVersionIsUnchanged() throws Exception {
+        // given
+        Transaction transaction = new Transaction(TransactionType.DEPOSIT, Money.of("100.00"), fixedInstant);
+        when(ledgerService.getAllTransactions()).thenReturn(List.of(transaction));
+
+        // when
+        mockMvc.perform(get("/api/v1/ledger/transactions")).andExpect(jsonPath("$.length()").value(1));
+        mockMvc.perform(get("/api/v1/ledger/transactions"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + version + "\""))
+                .andExpect(jsonPath("$[0].id").value(transaction.getId().toString()));
+
+        // then
+        verify(ledgerService, times(1)).getAllTransactions();
+    }
+
+    @Test
+    void shouldRecordTransactionInBinaryFormat() throws Exception {
+        // given
+        Transaction transaction = new Transaction(5, TransactionType.DEPOSIT, Money.of("100.50"), fixedInstant);
+        when(ledgerService.depositAsync(Money.of("100.50"))).thenReturn(CompletableFuture.completedFuture(transaction));
+        byte[] request = LedgerBinaryCodec.encodeRequest(new TransactionRequest("DEPOSIT", new BigDecimal("100.50")));
+
+        // when
+        byte[] body = performAsync(post("/api/v1/ledger/transactions")
+                .contentType(LedgerBinaryCodec.MEDIA_TYPE)
+                .accept(LedgerBinaryCodec.MEDIA_TYPE)
+                .content(request))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentType(LedgerBinaryCodec.MEDIA_TYPE))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // then
+        assertEquals(TransactionResponse.from(transaction), LedgerBinaryCodec.decodeTransaction(body));
+    }
+
+    @Test
+    void shouldRejectTruncatedBinaryRequest() throws Exception {
+        // when & then
+        mockMvc.perform(post("/api/v1/ledger/transactions")
+                .contentType(LedgerBinaryCodec.MEDIA_TYPE)
+                .content(new byte[]{0, 1, 2}))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid request body"));
+    }
+
+    @Test
+    void shouldValidateBinaryRequest() throws Exception {
+        // given
+        byte[] request = LedgerBinaryCodec.encodeRequest(new TransactionRequest("DEPOSIT", new BigDecimal("-1.00")));
+
+        // when & then
+        mockMvc.perform(post("/api/v1/ledger/transactions")
+                .contentType(LedgerBinaryCodec.MEDIA_TYPE)
+                .content(request))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value("VALIDATION_ERROR"));
+    }
+
+    @Test
+    void shouldReturnBinaryErrorWhenNegotiated() throws Exception {
+        // given
+        when(ledgerService.withdrawAsync(any(Money.class)))
+            .thenReturn(CompletableFuture.failedFuture(new IllegalArgumentException("Insufficient funds: available balance is 0.00, requested 1.00")));
+        byte[] request = LedgerBinaryCodec.encodeRequest(new TransactionRequest("WITHDRAW", new BigDecimal("1.00")));
+
+        // when
+        byte[] body = performAsync(post("/api/v1/ledger/transactions")
+                .contentType(LedgerBinaryCodec.MEDIA_TYPE)
+                .accept(LedgerBinaryCodec.MEDIA_TYPE)
+                .content(request))
+                .andExpect(status().isUnprocessableEntity())
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // then
+        assertEquals("INSUFFICIENT_FUNDS", LedgerBinaryCodec.decodeError(body).code());
+    }
+
+    @Test
+    void shouldGetBalanceInBinaryFormat() throws Exception {
+        // given
+        when(ledgerService.getBalance()).thenReturn(Money.of("150.75"));
+
+        // when
+        byte[] body = mockMvc.perform(get("/api/v1/ledger/balance").accept(LedgerBinaryCodec.MEDIA_TYPE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(LedgerBinaryCodec.MEDIA_TYPE))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + version + "-bin\""))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // then
+        assertEquals(new BigDecimal("150.75"), LedgerBinaryCodec.decodeBalance(body).balance());
+    }
+
+    @Test
+    void shouldGetHistoryInBinaryFormat() throws Exception {
+        // given
+        Transaction transaction = new Transaction(1, TransactionType.DEPOSIT, Money.of("100.00"), fixedInstant);
+        when(ledgerService.getAllTransactions()).thenReturn(List.of(transaction));
+
+        // when
+        byte[] body = mockMvc.perform(get("/api/v1/ledger/transactions").accept(LedgerBinaryCodec.MEDIA_TYPE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(LedgerBinaryCodec.MEDIA_TYPE))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // then
+        assertEquals(List.of(TransactionResponse.from(transaction)), LedgerBinaryCodec.decodeTransactions(body));
+    }
+
+    @Test
+    void shouldPreferJsonForWildcardAccept() throws Exception {
+        // given
+        when(ledgerService.getBalance()).thenReturn(Money.of("1.00"));
+
+        // when & then
+        mockMvc.perform(get("/api/v1/ledger/balance").accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void shouldReportInvalidTransactionTypeCode() throws Exception {
+        // given
+        String requestBody = """
+            {
+                "type": "INVALID",
+                "amount": 100.50
+            }
+            """;
+
+        // when & then
+        mockMvc.perform(post("/api/v1/ledger/transactions")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(requestBody))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value("INVALID_TRANSACTION_TYPE"));
+    }
+
+    @Test
+    void shouldReportValidationErrorMessage() throws Exception {
+        // given
+        String requestBody = """
+            {
+                "type": "DEPOSIT",
+                "amount": 100.123
+            }
+            """;
+
+        // when & then
+        mockMvc.perform(post("/api/v1/ledger/transactions")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(requestBody))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value("VALIDATION_ERROR"))
+                .andExpect(jsonPath("$.message").value("amount: Amount can't have more than 2 decimals"));
+    }
+
+    @Test
+    void shouldAcceptAmountAsString() throws Exception {
+        // given
+        Transaction transaction = new Transaction(TransactionType.DEPOSIT, Money.of("100.50"), fixedInstant);
+        when(ledgerService.depositAsync(Money.of("100.50"))).thenReturn(CompletableFuture.completedFuture(transaction));
+
+        // when & then
+        performAsync(post("/api/v1/ledger/transactions")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"type\": \"DEPOSIT\", \"amount\": \"100.50\"}"))
+                .andExpect(status().isCreated());
+    }
+
+    @Test
+    void shouldRejectNonNumericAmountAsInvalidBody() throws Exception {
+        // when & then
+        mockMvc.perform(post("/api/v1/ledger/transactions")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"type\": \"DEPOSIT\", \"amount\": \"ten\"}"))
                 .andExpect(status().isBadRequest())
                 .andExpect(jsonPath("$.message").value("Invalid request body"));
     }
+
+    @Test
+    void shouldAnswerVelocityLimitWithTooManyRequests() throws Exception {
+        // given
+        when(ledgerService.withdrawAsync(any(Money.class)))
+            .thenReturn(CompletableFuture.failedFuture(new VelocityLimitExceededException("default")));
+
+        // when & then
+        performAsync(post("/api/v1/ledger/transactions")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"type\": \"WITHDRAW\", \"amount\": 10.00}"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(jsonPath("$.code").value("VELOCITY_LIMIT_EXCEEDED"))
+                .andExpect(jsonPath("$.message").value("Velocity limit exceeded for account default"));
+    }
+
+    @Test
+    void shouldAnswerShedWriteWithServiceUnavailable() throws Exception {
+        // given
+        when(ledgerService.depositAsync(any(Money.class)))
+            .thenReturn(CompletableFuture.failedFuture(new OverloadedException()));
+
+        // when & then
+        performAsync(post("/api/v1/ledger/transactions")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"type\": \"DEPOSIT\", \"amount\": 10.00}"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"))
+                .andExpect(jsonPath("$.code").value("OVERLOADED"));
+    }
+
+    @Test
+    void shouldMapTypedInsufficientFundsRejection() throws Exception {
+        // given
+        when(ledgerService.withdrawAsync(any(Money.class)))
+            .thenReturn(CompletableFuture.failedFuture(new InsufficientFundsException(Money.of("50.00"), Money.of("100.00"))));
+
+        // when & then
+        performAsync(post("/api/v1/ledger/transactions")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"type\": \"WITHDRAW\", \"amount\": 100.00}"))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.code").value("INSUFFICIENT_FUNDS"))
+                .andExpect(jsonPath("$.message").value("Insufficient funds: available balance is 50.00, requested 100.00"));
+    }
+
+    // Writes complete on the ledger's writer stage, so the response comes from the async dispatch
+    private ResultActions performAsync(MockHttpServletRequestBuilder builder) throws Exception {
+        MvcResult started = mockMvc.perform(builder).andExpect(request().asyncStarted()).andReturn();
+        return mockMvc.perform(asyncDispatch(started));
+    }
 }
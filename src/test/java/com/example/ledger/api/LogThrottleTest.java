@@ -0,0 +1,44 @@
+package com.example.ledger.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogThrottleTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final LogThrottle throttle = new LogThrottle(2, Duration.ofSeconds(1), now::get);
+
+    @Test
+    void shouldLetThroughPermitsPerInterval() {
+        // when & then
+        assertEquals(0, throttle.tryAcquire());
+        assertEquals(0, throttle.tryAcquire());
+        assertEquals(LogThrottle.SUPPRESSED, throttle.tryAcquire());
+        assertEquals(LogThrottle.SUPPRESSED, throttle.tryAcquire());
+    }
+
+    @Test
+    void shouldReportSuppressedCountInNextInterval() {
+        // given
+        for (int i = 0; i < 5; i++) {
+            throttle.tryAcquire();
+        }
+
+        // when
+        now.addAndGet(Duration.ofSeconds(1).toNanos());
+
+        // then
+        assertEquals(3, throttle.tryAcquire());
+        assertEquals(0, throttle.tryAcquire());
+    }
+
+    @Test
+    void shouldRejectNonPositivePermits() {
+        // when & then
+        assertThrows(IllegalArgumentException.class, () -> new LogThrottle(0, Duration.ofSeconds(1)));
+    }
+}
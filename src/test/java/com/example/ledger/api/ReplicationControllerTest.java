@@ -0,0 +1,64 @@
+package com.example.ledger.api;
+
+import com.example.ledger.domain.LedgerService;
+import com.example.ledger.domain.Money;
+import com.example.ledger.domain.ReadOnlyReplicaException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest({ReplicationController.class, LedgerController.class})
+class ReplicationControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private LedgerService ledgerService;
+
+    @Test
+    void shouldReportReplicaStatus() throws Exception {
+        // given
+        when(ledgerService.isReplica()).thenReturn(true);
+        when(ledgerService.getVersion()).thenReturn(42L);
+
+        // when & then
+        mockMvc.perform(get("/api/v1/ledger/replication"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.role").value("REPLICA"))
+                .andExpect(jsonPath("$.sequence").value(42));
+    }
+
+    @Test
+    void shouldPromoteWithoutReplicationClient() throws Exception {
+        // when & then
+        mockMvc.perform(post("/api/v1/ledger/replication/promote"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.role").value("PRIMARY"));
+
+        verify(ledgerService).setReplica(false);
+    }
+
+    @Test
+    void shouldRejectWritesOnReplicaWithServiceUnavailable() throws Exception {
+        // given
+        when(ledgerService.depositAsync(any(Money.class))).thenThrow(new ReadOnlyReplicaException());
+
+        // when & then
+        mockMvc.perform(post("/api/v1/ledger/transactions")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"type\": \"DEPOSIT\", \"amount\": 10.00}"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.code").value("READ_ONLY_REPLICA"));
+    }
+}
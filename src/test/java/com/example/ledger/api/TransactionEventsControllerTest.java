@@ -0,0 +1,178 @@
+package com.example.ledger.api;
+
+import com.example.ledger.domain.HistoryCompactedException;
+import com.example.ledger.domain.LedgerService;
+import com.example.ledger.domain.Money;
+import com.example.ledger.domain.Transaction;
+import com.example.ledger.domain.TransactionType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(TransactionEventsController.class)
+@Import(TransactionEventBroadcaster.class)
+class TransactionEventsControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TransactionEventBroadcaster broadcaster;
+
+    @MockitoBean
+    private LedgerService ledgerService;
+
+    private final Instant fixedInstant = Instant.parse("2023-10-01T10:15:30.123Z");
+
+    @Test
+    void shouldReturnBacklogImmediatelyOnLongPoll() throws Exception {
+        // given
+        Transaction transaction = new Transaction(3, TransactionType.DEPOSIT, Money.of("10.00"), fixedInstant);
+        when(ledgerService.getTransactionsSince(2)).thenReturn(List.of(transaction));
+
+        // when
+        MvcResult result = mockMvc.perform(get("/api/v1/ledger/transactions/events").param("since", "2"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].sequence").value(3))
+                .andExpect(jsonPath("$[0].id").value(transaction.getId().toString()));
+    }
+
+    @Test
+    void shouldWaitForNextTransactionOnLongPoll() throws Exception {
+        // given
+        when(ledgerService.getTransactionsSince(5)).thenReturn(Collections.emptyList());
+        MvcResult result = mockMvc.perform(get("/api/v1/ledger/transactions/events").param("since", "5"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // when
+        Transaction transaction = new Transaction(6, TransactionType.WITHDRAW, Money.of("2.50"), fixedInstant);
+        broadcaster.onTransaction(transaction);
+
+        // then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].sequence").value(6))
+                .andExpect(jsonPath("$[0].type").value("WITHDRAW"));
+    }
+
+    @Test
+    void shouldRejectNegativeSequenceOnLongPoll() throws Exception {
+        // when & then
+        mockMvc.perform(get("/api/v1/ledger/transactions/events").param("since", "-1"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldRejectNonNumericSequence() throws Exception {
+        // when & then
+        mockMvc.perform(get("/api/v1/ledger/transactions/events").param("since", "abc"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value("BAD_REQUEST"));
+    }
+
+    @Test
+    void shouldStreamBacklogAndNewTransactions() throws Exception {
+        // given
+        Transaction missed = new Transaction(2, TransactionType.DEPOSIT, Money.of("10.00"), fixedInstant);
+        when(ledgerService.getTransactionsSince(1)).thenReturn(List.of(missed));
+
+        // when
+        MvcResult result = mockMvc.perform(get("/api/v1/ledger/transactions/events")
+                        .param("since", "1")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        broadcaster.onTransaction(missed);
+        broadcaster.onTransaction(new Transaction(3, TransactionType.WITHDRAW, Money.of("4.00"), fixedInstant));
+
+        // then
+        String body = awaitContent(result, "id:3");
+        assertTrue(body.contains("event:transaction"));
+        assertTrue(body.contains("id:2"));
+        assertTrue(body.indexOf("id:2") < body.indexOf("id:3"));
+        assertTrue(body.indexOf("id:2") == body.lastIndexOf("id:2"), "replayed transaction must not be sent twice");
+    }
+
+    @Test
+    void shouldStartStreamAtCurrentVersionByDefault() throws Exception {
+        // given
+        when(ledgerService.getVersion()).thenReturn(9L);
+        when(ledgerService.getTransactionsSince(9)).thenReturn(Collections.emptyList());
+
+        // when
+        MvcResult result = mockMvc.perform(get("/api/v1/ledger/transactions/events")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        broadcaster.onTransaction(new Transaction(10, TransactionType.DEPOSIT, Money.of("1.00"), fixedInstant));
+
+        // then
+        awaitContent(result, "id:10");
+        verify(ledgerService).getTransactionsSince(9);
+    }
+
+    @Test
+    void shouldResumeStreamFromLastEventId() throws Exception {
+        // given
+        when(ledgerService.getTransactionsSince(4)).thenReturn(Collections.emptyList());
+
+        // when
+        MvcResult result = mockMvc.perform(get("/api/v1/ledger/transactions/events")
+                        .header("Last-Event-ID", "4")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        broadcaster.onTransaction(new Transaction(5, TransactionType.DEPOSIT, Money.of("1.00"), fixedInstant));
+
+        // then
+        awaitContent(result, "id:5");
+        verify(ledgerService).getTransactionsSince(4);
+    }
+
+    private static String awaitContent(MvcResult result, String expected) throws Exception {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        String body = result.getResponse().getContentAsString();
+        while (!body.contains(expected) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            body = result.getResponse().getContentAsString();
+        }
+        assertTrue(body.contains(expected), "expected '" + expected + "' in stream: " + body);
+        return body;
+    }
+
+    @Test
+    void shouldAnswerGoneWhenResumingInsideCompactedHistory() throws Exception {
+        // given
+        doThrow(new HistoryCompactedException(2, 10)).when(ledgerService).requireHistoryAfter(2);
+
+        // when & then
+        mockMvc.perform(get("/api/v1/ledger/transactions/events").param("since", "2"))
+                .andExpect(status().isGone())
+                .andExpect(jsonPath("$.code").value("HISTORY_COMPACTED"));
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.ledger.api;
+
+import com.example.ledger.api.dto.BalanceResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VersionedResponseCacheTest {
+
+    private final VersionedResponseCache cache = VersionedResponseCache.json(new ObjectMapper());
+
+    @Test
+    void shouldSerializeBody() {
+        // when
+        byte[] body = cache.get(1, () -> new BalanceResponse(new BigDecimal("10.50")));
+
+        // then
+        assertEquals("{\"balance\":10.50,\"currency\":\"EUR\"}", new String(body, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void shouldReuseBodyForSameVersion() {
+        // given
+        AtomicInteger builds = new AtomicInteger();
+
+        // when
+        byte[] first = cache.get(1, () -> new BalanceResponse(BigDecimal.valueOf(builds.incrementAndGet())));
+        byte[] second = cache.get(1, () -> new BalanceResponse(BigDecimal.valueOf(builds.incrementAndGet())));
+
+        // then
+        assertSame(first, second);
+        assertEquals(1, builds.get());
+    }
+
+    @Test
+    void shouldRebuildBodyForNewVersion() {
+        // given
+        cache.get(1, () -> new BalanceResponse(BigDecimal.ONE));
+
+        // when
+        byte[] body = cache.get(2, () -> new BalanceResponse(BigDecimal.TEN));
+
+        // then
+        assertEquals("{\"balance\":10,\"currency\":\"EUR\"}", new String(body, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void shouldNotReplaceNewerEntryWithOlderVersion() {
+        // given
+        byte[] newer = cache.get(2, () -> new BalanceResponse(BigDecimal.TEN));
+        cache.get(1, () -> new BalanceResponse(BigDecimal.ONE));
+
+        // when
+        byte[] body = cache.get(2, () -> new BalanceResponse(BigDecimal.ZERO));
+
+        // then
+        assertSame(newer, body);
+    }
+
+    @Test
+    void shouldRejectNullObjectMapper() {
+        // when & then
+        assertThrows(NullPointerException.class, () -> VersionedResponseCache.json(null));
+    }
+
+    @Test
+    void shouldTagRepresentationsDifferently() {
+        // given
+        VersionedResponseCache binary = VersionedResponseCache.binary();
+
+        // when & then
+        assertEquals("\"3\"", cache.etag(3));
+        assertEquals("\"3-bin\"", binary.etag(3));
+        assertEquals(MediaType.APPLICATION_JSON, cache.mediaType());
+        assertEquals(LedgerBinaryCodec.MEDIA_TYPE, binary.mediaType());
+    }
+
+    @Test
+    void shouldSerializeBinaryBody() {
+        // given
+        VersionedResponseCache binary = VersionedResponseCache.binary();
+
+        // when
+        byte[] body = binary.get(1, () -> new BalanceResponse(new BigDecimal("10.50")));
+
+        // then
+        assertEquals(new BigDecimal("10.50"), LedgerBinaryCodec.decodeBalance(body).balance());
+    }
+}
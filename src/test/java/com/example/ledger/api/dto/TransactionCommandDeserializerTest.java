@@ -0,0 +1,183 @@
+package com.example.ledger.api.dto;
+
+import com.example.ledger.domain.TransactionType;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.swagger.v3.oas.annotations.media.Schema;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.lang.reflect.RecordComponent;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Currency;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionCommandDeserializerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @ParameterizedTest
+    @CsvSource({
+            "100.50, 10050",
+            "100.5, 10050",
+            "100, 10000",
+            "0.01, 1",
+            "\"100.50\", 10050",
+            "1E+2, 10000",
+            "1.5e1, 1500",
+            "92233720368547758.07, 9223372036854775807"
+    })
+    void shouldParseAmountIntoCents(String amount, long expected) throws Exception {
+        // when
+        TransactionCommand command = parse("{\"type\": \"DEPOSIT\", \"amount\": " + amount + "}");
+
+        // then
+        assertEquals(expected, command.amountMinorUnits());
+    }
+
+    @ParameterizedTest
+    @CsvSource({"DEPOSIT, DEPOSIT", "deposit, DEPOSIT", "Withdraw, WITHDRAW", "WITHDRAW, WITHDRAW"})
+    void shouldParseTypeIgnoringCase(String type, TransactionType expected) throws Exception {
+        // when
+        TransactionCommand command = parse("{\"type\": \"" + type + "\", \"amount\": 1}");
+
+        // then
+        assertEquals(expected, command.type());
+    }
+
+    @Test
+    void shouldIgnoreUnknownProperties() throws Exception {
+        // when
+        TransactionCommand command = parse("{\"note\": {\"a\": 1}, \"type\": \"DEPOSIT\", \"amount\": 1, \"extra\": [1]}");
+
+        // then
+        assertEquals(new TransactionCommand(TransactionType.DEPOSIT, 100), command);
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "-10.50 | amount: Amount must be positive",
+            "0.00 | amount: Amount must be positive",
+            "-0 | amount: Amount must be positive",
+            "100.123 | amount: Amount can't have more than 2 decimals",
+            "1.500 | amount: Amount can't have more than 2 decimals",
+            "-1.234 | amount: Amount must be positive, amount: Amount can't have more than 2 decimals",
+            "92233720368547758.08 | amount: Amount is too large",
+            "1E+30 | amount: Amount is too large",
+            "null | amount: Amount is required"
+    })
+    void shouldReportInvalidAmountAsValidationError(String amount, String message) {
+        // when
+        InvalidRequestException exception = assertThrows(InvalidRequestException.class,
+                () -> parse("{\"type\": \"DEPOSIT\", \"amount\": " + amount + "}"));
+
+        // then
+        assertEquals(InvalidRequestException.VALIDATION_ERROR, exception.getCode());
+        assertEquals(message, exception.getMessage());
+    }
+
+    @Test
+    void shouldParseAmountInMinorUnitsOfCurrency() throws Exception {
+        // when
+        TransactionCommand yen = parse("{\"type\": \"DEPOSIT\", \"amount\": 1500, \"currency\": \"JPY\"}");
+        TransactionCommand dinar = parse("{\"currency\": \"bhd\", \"type\": \"DEPOSIT\", \"amount\": 1.125}");
+
+        // then
+        assertEquals(new TransactionCommand(TransactionType.DEPOSIT, 1500, Currency.getInstance("JPY")), yen);
+        assertEquals(new TransactionCommand(TransactionType.DEPOSIT, 1125, Currency.getInstance("BHD")), dinar);
+    }
+
+    @Test
+    void shouldReportDecimalsOfCurrency() {
+        // when
+        InvalidRequestException exception = assertThrows(InvalidRequestException.class,
+                () -> parse("{\"type\": \"DEPOSIT\", \"amount\": 1.5, \"currency\": \"JPY\"}"));
+
+        // then
+        assertEquals("amount: Amount can't have more than 0 decimals", exception.getMessage());
+    }
+
+    @Test
+    void shouldReportUnknownCurrency() {
+        // when
+        InvalidRequestException exception = assertThrows(InvalidRequestException.class,
+                () -> parse("{\"type\": \"DEPOSIT\", \"amount\": 1, \"currency\": \"ABC\"}"));
+
+        // then
+        assertEquals(InvalidRequestException.VALIDATION_ERROR, exception.getCode());
+        assertEquals("currency: Unknown currency: ABC", exception.getMessage());
+    }
+
+    @Test
+    void shouldReportAllMissingFields() {
+        // when
+        InvalidRequestException exception = assertThrows(InvalidRequestException.class, () -> parse("{}"));
+
+        // then
+        assertEquals("type: Transaction type is required, amount: Amount is required", exception.getMessage());
+    }
+
+    @Test
+    void shouldReportInvalidType() {
+        // when
+        InvalidRequestException exception = assertThrows(InvalidRequestException.class,
+                () -> parse("{\"type\": \"TRANSFERX\", \"amount\": 1}"));
+
+        // then
+        assertEquals(InvalidRequestException.INVALID_TRANSACTION_TYPE, exception.getCode());
+        assertEquals("Invalid transaction type: TRANSFERX", exception.getMessage());
+    }
+
+    @Test
+    void shouldPreferValidationErrorsOverInvalidType() {
+        // when
+        InvalidRequestException exception = assertThrows(InvalidRequestException.class,
+                () -> parse("{\"type\": \"INVALID\"}"));
+
+        // then
+        assertEquals(InvalidRequestException.VALIDATION_ERROR, exception.getCode());
+    }
+
+    @Test
+    void shouldRejectNonNumericAmountAsMalformed() {
+        // when & then
+        assertThrows(JsonMappingException.class, () -> parse("{\"type\": \"DEPOSIT\", \"amount\": \"ten\"}"));
+        assertThrows(JsonMappingException.class, () -> parse("{\"type\": \"DEPOSIT\", \"amount\": true}"));
+    }
+
+    @Test
+    void shouldRejectStructuredValuesAsMalformed() {
+        // when & then
+        assertThrows(JsonMappingException.class, () -> parse("{\"type\": [\"DEPOSIT\"], \"amount\": 1}"));
+        assertThrows(JsonMappingException.class, () -> parse("[]"));
+    }
+
+    @Test
+    void shouldAcceptTheBodyDocumentedByTransactionRequest() throws Exception {
+        // given - the API docs describe the body with TransactionRequest's schema
+        List<String> documented = Arrays.stream(TransactionRequest.class.getRecordComponents())
+                .map(RecordComponent::getName)
+                .toList();
+        String[] documentedTypes = TransactionRequest.class.getDeclaredField("type")
+                .getAnnotation(Schema.class).allowableValues();
+        TransactionRequest request = new TransactionRequest("WITHDRAW", new BigDecimal("12.34"), "USD");
+
+        // when
+        TransactionCommand command = parse(objectMapper.writeValueAsString(request));
+
+        // then
+        assertEquals(TransactionCommandDeserializer.FIELDS, documented);
+        assertEquals(new TransactionCommand(TransactionType.WITHDRAW, 1234, Currency.getInstance("USD")), command);
+        for (String type : documentedTypes) {
+            assertEquals(TransactionType.valueOf(type), parse("{\"type\": \"" + type + "\", \"amount\": 1}").type());
+        }
+    }
+
+    private TransactionCommand parse(String json) throws Exception {
+        return objectMapper.readValue(json, TransactionCommand.class);
+    }
+}
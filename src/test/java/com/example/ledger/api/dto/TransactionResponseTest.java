@@ -23,6 +23,7 @@ class TransactionResponseTest {
         
         // then
         assertEquals(transaction.getId(), response.id());
+        assertEquals("default", response.accountId());
         assertEquals("DEPOSIT", response.type());
         assertEquals(amount.getAmount(), response.amount());
         assertEquals(timestamp, response.createdAt());
@@ -140,4 +141,21 @@ class TransactionResponseTest {
         // then
         assertEquals(specificTime, response.createdAt());
     }
+
+    @Test
+    void shouldPreserveSequence() {
+        // given
+        Transaction transaction = new Transaction(
+            42,
+            TransactionType.DEPOSIT,
+            Money.of("10.00"),
+            Instant.parse("2023-10-01T10:15:30.123Z")
+        );
+
+        // when
+        TransactionResponse response = TransactionResponse.from(transaction);
+
+        // then
+        assertEquals(42, response.sequence());
+    }
 }
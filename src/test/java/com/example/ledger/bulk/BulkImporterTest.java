@@ -0,0 +1,116 @@
+package com.example.ledger.bulk;
+
+import com.example.ledger.domain.LedgerService;
+import com.example.ledger.domain.Money;
+import com.example.ledger.domain.Transaction;
+import com.example.ledger.repo.InMemoryTransactionRepository;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Currency;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkImporterTest {
+
+    private final Instant now = Instant.parse("2023-10-01T10:15:30Z");
+    private final Clock clock = Clock.fixed(now, ZoneOffset.UTC);
+    private final LedgerService ledgerService = new LedgerService(new InMemoryTransactionRepository(), clock);
+
+    @Test
+    void shouldImportCsvInOrderAndReportRejectedRows() throws IOException {
+        // given
+        UUID id = UUID.randomUUID();
+        String csv = """
+                sequence,id,accountId,type,amount,currency,createdAt
+                7,%s,alice,DEPOSIT,100.00,EUR,2023-01-01T00:00:00Z
+                8,,alice,withdraw,30.00,,2023-01-02T00:00:00Z
+                9,,bob,DEPOSIT,1.234,,2023-01-03T00:00:00Z
+                10,,bob,WITHDRAW,5.00,,2023-01-03T00:00:00Z
+
+                11,,alice,DEPOSIT,1500,JPY,2023-01-04T00:00:00Z
+                12,,alice,TRANSFER_IN,1.00,,2023-01-05T00:00:00Z
+                13,,alice,DEPOSIT,1.00,,2022-12-31T00:00:00Z
+                """.formatted(id);
+        BulkImporter importer = new BulkImporter(ledgerService, clock, 2, 2, 10);
+
+        // when
+        ImportReport report = importer.importFrom(stream(csv), ImportFormat.CSV);
+
+        // then
+        assertEquals(7, report.rows());
+        assertEquals(3, report.imported());
+        assertEquals(4, report.rejected());
+        assertEquals(List.of(
+                new ImportReport.RejectedRow(4, "amount: Amount can't have more than 2 decimals"),
+                new ImportReport.RejectedRow(5, "Insufficient funds: available balance is 0.00, requested 5.00"),
+                new ImportReport.RejectedRow(8, "Invalid transaction type: TRANSFER_IN"),
+                new ImportReport.RejectedRow(9, "createdAt: Before the previous row")), report.rejections());
+        assertEquals(Money.of("70.00"), ledgerService.getBalance("alice"));
+        assertEquals(Money.of("1500", Currency.getInstance("JPY")), ledgerService.getBalance("alice", Currency.getInstance("JPY")));
+        List<Transaction> history = ledgerService.getTransactionsSince(0);
+        assertEquals(List.of(1L, 2L, 3L), history.stream().map(Transaction::getSequence).toList());
+        assertEquals(id, history.getFirst().getId());
+        assertEquals(Instant.parse("2023-01-02T00:00:00Z"), history.get(1).getCreatedAt());
+    }
+
+    @Test
+    void shouldImportNdjsonAcrossManyBatches() throws IOException {
+        // given
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            ndjson.append("{\"accountId\": \"acc-").append(i % 7).append("\", \"type\": \"DEPOSIT\", \"amount\": 1.50}\n");
+        }
+        ndjson.append("{\"accountId\": \"acc-0\", \"type\": \"WITHDRAW\", \"amount\": \"0.5\"}\n");
+        ndjson.append("{\"accountId\": \"acc 1\", \"type\": \"DEPOSIT\", \"amount\": 1}\n");
+        ndjson.append("not json\n");
+        BulkImporter importer = new BulkImporter(ledgerService, clock, 4, 64, 1);
+
+        // when
+        ImportReport report = importer.importFrom(stream(ndjson.toString()), ImportFormat.NDJSON);
+
+        // then
+        assertEquals(1003, report.rows());
+        assertEquals(1001, report.imported());
+        assertEquals(2, report.rejected());
+        assertEquals(List.of(new ImportReport.RejectedRow(1002, "Invalid account id: acc 1")), report.rejections());
+        assertEquals(Money.of("214.00"), ledgerService.getBalance("acc-0"));
+        assertEquals(Money.of("214.50"), ledgerService.getBalance("acc-1"));
+        assertEquals(now, ledgerService.getTransactionsSince(0).getFirst().getCreatedAt());
+        assertEquals(1001, ledgerService.getVersion());
+    }
+
+    @Test
+    void shouldFailOnCsvWithoutRequiredColumn() {
+        // given
+        BulkImporter importer = new BulkImporter(ledgerService, clock, 1, 10, 10);
+
+        // when
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> importer.importFrom(stream("accountId,type\nalice,DEPOSIT\n"), ImportFormat.CSV));
+
+        // then
+        assertEquals("Missing column: amount", ex.getMessage());
+        assertEquals(0, ledgerService.getVersion());
+    }
+
+    @Test
+    void shouldResolveFormatFromContentType() {
+        // when & then
+        assertEquals(ImportFormat.CSV, ImportFormat.fromMediaType("text/csv; charset=UTF-8"));
+        assertEquals(ImportFormat.NDJSON, ImportFormat.fromMediaType("application/x-ndjson"));
+        assertThrows(IllegalArgumentException.class, () -> ImportFormat.fromMediaType("application/json"));
+    }
+
+    private static InputStream stream(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
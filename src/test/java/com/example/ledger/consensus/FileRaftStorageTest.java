@@ -0,0 +1,109 @@
+package com.example.ledger.consensus;
+
+import com.example.ledger.consensus.RaftMessages.LogEntry;
+import com.example.ledger.domain.LedgerCommand;
+import com.example.ledger.domain.Money;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileRaftStorageTest {
+
+    private final Instant createdAt = Instant.parse("2023-10-01T10:15:30Z");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldStartEmpty() throws IOException {
+        // given
+        try (FileRaftStorage storage = new FileRaftStorage(directory)) {
+
+            // when & then
+            assertEquals(RaftStorage.Term.INITIAL, storage.loadTerm());
+            assertEquals(RaftStorage.Applied.INITIAL, storage.loadApplied());
+            assertEquals(List.of(), storage.loadLog());
+        }
+    }
+
+    @Test
+    void shouldKeepTermVoteAppliedAndLogAcrossReopen() throws IOException {
+        // given
+        List<LogEntry> entries = entries(3);
+        try (FileRaftStorage storage = new FileRaftStorage(directory)) {
+            storage.saveTerm(new RaftStorage.Term(4, "node2"));
+            storage.append(entries);
+            storage.sync();
+            storage.saveApplied(new RaftStorage.Applied(2, 7));
+        }
+
+        // when
+        try (FileRaftStorage reopened = new FileRaftStorage(directory)) {
+
+            // then
+            assertEquals(new RaftStorage.Term(4, "node2"), reopened.loadTerm());
+            assertEquals(new RaftStorage.Applied(2, 7), reopened.loadApplied());
+            assertEquals(entries, reopened.loadLog());
+        }
+    }
+
+    @Test
+    void shouldTruncateConflictingSuffix() throws IOException {
+        // given
+        List<LogEntry> entries = entries(4);
+        LogEntry replacement = new LogEntry(2, 3, LedgerCommand.deposit("bob", Money.of("5.00"), createdAt));
+        try (FileRaftStorage storage = new FileRaftStorage(directory)) {
+            storage.append(entries);
+
+            // when
+            storage.truncateFrom(3);
+            storage.append(List.of(replacement));
+            storage.sync();
+        }
+
+        // then
+        try (FileRaftStorage reopened = new FileRaftStorage(directory)) {
+            assertEquals(List.of(entries.get(0), entries.get(1), replacement), reopened.loadLog());
+        }
+    }
+
+    @Test
+    void shouldDropTornRecordAtTheEnd() throws IOException {
+        // given
+        List<LogEntry> entries = entries(3);
+        try (FileRaftStorage storage = new FileRaftStorage(directory)) {
+            storage.append(entries);
+            storage.sync();
+        }
+        Path log = directory.resolve("log");
+        long size = Files.size(log);
+        Files.write(log, new byte[]{0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        // when
+        try (FileRaftStorage reopened = new FileRaftStorage(directory)) {
+            reopened.append(List.of(new LogEntry(1, 4, null)));
+            reopened.sync();
+
+            // then
+            assertEquals(4, reopened.loadLog().size());
+            assertEquals(entries, reopened.loadLog().subList(0, 3));
+        }
+        assertTrue(Files.size(log) > size);
+    }
+
+    private List<LogEntry> entries(int count) {
+        return LongStream.rangeClosed(1, count)
+                .mapToObj(index -> new LogEntry(1, index, index == 1 ? null
+                        : LedgerCommand.deposit("alice", Money.of(index + ".00"), createdAt)))
+                .toList();
+    }
+}
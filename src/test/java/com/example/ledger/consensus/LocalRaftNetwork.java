@@ -0,0 +1,79 @@
+package com.example.ledger.consensus;
+
+import com.example.ledger.consensus.RaftMessages.AppendEntries;
+import com.example.ledger.consensus.RaftMessages.AppendEntriesResult;
+import com.example.ledger.consensus.RaftMessages.RequestVote;
+import com.example.ledger.consensus.RaftMessages.RequestVoteResult;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * In-JVM network between {@link RaftNode}s for tests. Each node receives its messages on a single
+ * thread, so requests from one sender are handled in order, and nodes can be cut off and reconnected.
+ */
+final class LocalRaftNetwork {
+
+    private final Map<String, RaftNode> nodes = new ConcurrentHashMap<>();
+    private final Map<String, ExecutorService> inboxes = new ConcurrentHashMap<>();
+    private final Set<String> isolated = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger appendRequests = new AtomicInteger();
+    private final AtomicInteger appendedEntries = new AtomicInteger();
+
+    void register(RaftNode node) {
+        nodes.put(node.getId(), node);
+        inboxes.computeIfAbsent(node.getId(), nodeId -> Executors.newSingleThreadExecutor());
+    }
+
+    RaftTransport transportFor(String from) {
+        return new RaftTransport() {
+            @Override
+            public CompletableFuture<AppendEntriesResult> appendEntries(String peerId, AppendEntries request) {
+                if (!request.entries().isEmpty()) {
+                    appendRequests.incrementAndGet();
+                    appendedEntries.addAndGet(request.entries().size());
+                }
+                return deliver(from, peerId, node -> node.handleAppendEntries(request));
+            }
+
+            @Override
+            public CompletableFuture<RequestVoteResult> requestVote(String peerId, RequestVote request) {
+                return deliver(from, peerId, node -> node.handleRequestVote(request));
+            }
+        };
+    }
+
+    void isolate(String nodeId) {
+        isolated.add(nodeId);
+    }
+
+    void heal(String nodeId) {
+        isolated.remove(nodeId);
+    }
+
+    int getAppendRequests() {
+        return appendRequests.get();
+    }
+
+    int getAppendedEntries() {
+        return appendedEntries.get();
+    }
+
+    void shutdown() {
+        inboxes.values().forEach(ExecutorService::shutdownNow);
+    }
+
+    private <T> CompletableFuture<T> deliver(String from, String to, Function<RaftNode, T> handler) {
+        if (isolated.contains(from) || isolated.contains(to)) {
+            return CompletableFuture.failedFuture(new IOException(to + " is unreachable from " + from));
+        }
+        return CompletableFuture.supplyAsync(() -> handler.apply(nodes.get(to)), inboxes.get(to));
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.ledger.consensus;
+
+import com.example.ledger.consensus.RaftMessages.AppendEntries;
+import com.example.ledger.consensus.RaftMessages.AppendEntriesResult;
+import com.example.ledger.consensus.RaftMessages.LogEntry;
+import com.example.ledger.consensus.RaftMessages.RequestVote;
+import com.example.ledger.consensus.RaftMessages.RequestVoteResult;
+import com.example.ledger.domain.LedgerCommand;
+import com.example.ledger.domain.Money;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RaftCodecTest {
+
+    private final Instant createdAt = Instant.parse("2023-10-01T10:15:30.123456789Z");
+
+    @Test
+    void shouldRoundTripAppendEntries() throws IOException {
+        // given
+        AppendEntries request = new AppendEntries(3, "node1", 7, 2, List.of(
+                new LogEntry(3, 8, null),
+                new LogEntry(3, 9, LedgerCommand.deposit("alice", Money.of("10.50"), createdAt)),
+                new LogEntry(3, 10, LedgerCommand.transfer("alice", "bob", Money.of("1.00"), createdAt))), 6);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        // when
+        RaftCodec.write(new DataOutputStream(bytes), request);
+        AppendEntries decoded = RaftCodec.readAppendEntries(input(bytes));
+
+        // then
+        assertEquals(request, decoded);
+    }
+
+    @Test
+    void shouldRoundTripResultsAndVotes() throws IOException {
+        // given
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+
+        // when
+        RaftCodec.write(out, new AppendEntriesResult(4, false, 12));
+        RaftCodec.write(out, new RequestVote(5, "node2", 12, 4));
+        RaftCodec.write(out, new RequestVoteResult(5, true));
+        DataInputStream in = input(bytes);
+
+        // then
+        assertEquals(new AppendEntriesResult(4, false, 12), RaftCodec.readAppendEntriesResult(in));
+        assertEquals(new RequestVote(5, "node2", 12, 4), RaftCodec.readRequestVote(in));
+        assertEquals(new RequestVoteResult(5, true), RaftCodec.readRequestVoteResult(in));
+    }
+
+    private static DataInputStream input(ByteArrayOutputStream bytes) {
+        return new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+    }
+}
@@ -0,0 +1,347 @@
+package com.example.ledger.consensus;
+
+import com.example.ledger.domain.LedgerService;
+import com.example.ledger.domain.Money;
+import com.example.ledger.domain.Transaction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RaftNodeTest {
+
+    private final LocalRaftNetwork network = new LocalRaftNetwork();
+    private final List<RaftNode> nodes = new ArrayList<>();
+    private final List<LedgerService> ledgers = new ArrayList<>();
+
+    @TempDir
+    Path directory;
+
+    @AfterEach
+    void tearDown() {
+        nodes.forEach(RaftNode::stop);
+        network.shutdown();
+    }
+
+    @Test
+    void shouldElectSingleLeader() throws Exception {
+        // given
+        startCluster(3, options(Duration.ofSeconds(2), 4));
+
+        // when
+        RaftNode leader = awaitLeader();
+
+        // then
+        for (RaftNode node : nodes) {
+            await(() -> leader.getId().equals(node.getLeaderId()));
+            assertEquals(node == leader, node.getRole() == RaftNode.Role.LEADER);
+        }
+    }
+
+    @Test
+    void shouldApplyAcknowledgedWritesOnEveryNode() throws Exception {
+        // given
+        startCluster(3, options(Duration.ofSeconds(2), 4));
+        LedgerService leader = ledgerOf(awaitLeader());
+
+        // when
+        leader.deposit("alice", Money.of("100.00"));
+        leader.transfer("alice", "bob", Money.of("40.00"));
+        Transaction last = leader.withdraw("bob", Money.of("15.00"));
+
+        // then
+        assertEquals(4, last.getSequence());
+        for (LedgerService ledger : ledgers) {
+            await(() -> ledger.getVersion() == 4);
+            assertEquals(Money.of("60.00"), ledger.getBalance("alice"));
+            assertEquals(Money.of("25.00"), ledger.getBalance("bob"));
+            assertEquals(ids(leader.getTransactionsSince(0)), ids(ledger.getTransactionsSince(0)));
+        }
+    }
+
+    @Test
+    void shouldRejectWritesOnFollower() throws Exception {
+        // given
+        startCluster(3, options(Duration.ofSeconds(2), 4));
+        RaftNode leader = awaitLeader();
+        RaftNode follower = nodes.stream().filter(node -> node != leader).findFirst().orElseThrow();
+        await(() -> leader.getId().equals(follower.getLeaderId()));
+
+        // when
+        NotLeaderException ex = assertThrows(NotLeaderException.class,
+                () -> ledgerOf(follower).deposit(Money.of("1.00")));
+
+        // then
+        assertEquals(leader.getId(), ex.getLeaderId());
+        assertEquals(0, ledgerOf(follower).getVersion());
+    }
+
+    @Test
+    void shouldNotCommitWithoutMajority() throws Exception {
+        // given
+        startCluster(3, options(Duration.ofMillis(300), 4));
+        RaftNode leader = awaitLeader();
+        nodes.stream().filter(node -> node != leader).forEach(node -> network.isolate(node.getId()));
+
+        // when & then
+        assertThrows(CommitTimeoutException.class, () -> ledgerOf(leader).deposit(Money.of("1.00")));
+        assertEquals(Money.of("0.00"), ledgerOf(leader).getBalance());
+    }
+
+    @Test
+    void shouldKeepAcknowledgedWritesAfterFailover() throws Exception {
+        // given
+        startCluster(3, options(Duration.ofSeconds(2), 4));
+        RaftNode oldLeader = awaitLeader();
+        ledgerOf(oldLeader).deposit(Money.of("10.00"));
+
+        // when
+        network.isolate(oldLeader.getId());
+        oldLeader.stop();
+        RaftNode newLeader = awaitLeaderOtherThan(oldLeader);
+        ledgerOf(newLeader).deposit(Money.of("5.00"));
+
+        // then
+        assertNotEquals(oldLeader, newLeader);
+        for (RaftNode node : nodes) {
+            if (node != oldLeader) {
+                await(() -> ledgerOf(node).getVersion() == 2);
+                assertEquals(Money.of("15.00"), ledgerOf(node).getBalance());
+            }
+        }
+    }
+
+    @Test
+    void shouldDiscardUncommittedWritesOfDeposedLeader() throws Exception {
+        // given - a leader cut off from the rest of the cluster accepts a write it can't commit
+        startCluster(3, options(Duration.ofSeconds(5), 4));
+        RaftNode oldLeader = awaitLeader();
+        network.isolate(oldLeader.getId());
+        CompletableFuture<Transaction> lost =
+                CompletableFuture.supplyAsync(() -> ledgerOf(oldLeader).deposit(Money.of("99.00")));
+
+        // when - the majority elects a new leader and moves on
+        RaftNode newLeader = awaitLeaderOtherThan(oldLeader);
+        ledgerOf(newLeader).deposit(Money.of("1.00"));
+        ledgerOf(newLeader).deposit(Money.of("2.00"));
+        network.heal(oldLeader.getId());
+
+        // then
+        ExecutionException ex = assertThrows(ExecutionException.class, lost::get);
+        assertInstanceOf(NotLeaderException.class, ex.getCause());
+        await(() -> ledgerOf(oldLeader).getVersion() == 2);
+        assertEquals(Money.of("3.00"), ledgerOf(oldLeader).getBalance());
+    }
+
+    @Test
+    void shouldBatchConcurrentWrites() throws Exception {
+        // given - one request in flight per follower, so writes queue up behind it
+        startCluster(3, options(Duration.ofSeconds(5), 1));
+        LedgerService leader = ledgerOf(awaitLeader());
+        ExecutorService clients = Executors.newFixedThreadPool(8);
+
+        // when
+        List<Future<Transaction>> writes = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            writes.add(clients.submit(() -> leader.deposit(Money.of("1.00"))));
+        }
+        for (Future<Transaction> write : writes) {
+            write.get();
+        }
+        clients.shutdown();
+
+        // then
+        assertEquals(Money.of("400.00"), leader.getBalance());
+        assertTrue(network.getAppendRequests() < network.getAppendedEntries(),
+                network.getAppendedEntries() + " entries in " + network.getAppendRequests() + " requests");
+        for (LedgerService ledger : ledgers) {
+            await(() -> ledger.getVersion() == 400);
+            assertEquals(Money.of("400.00"), ledger.getBalance());
+        }
+    }
+
+    @Test
+    void shouldCommitImmediatelyOnSingleNode() throws Exception {
+        // given
+        startCluster(1, options(Duration.ofSeconds(2), 4));
+        awaitLeader();
+
+        // when
+        Transaction transaction = ledgers.getFirst().deposit(Money.of("7.00"));
+
+        // then
+        assertEquals(1, transaction.getSequence());
+        assertEquals(Money.of("7.00"), ledgers.getFirst().getBalance());
+    }
+
+    @Test
+    void shouldNotVoteTwiceInTermAfterRestart() throws Exception {
+        // given - an election timeout long enough that the node never stands itself
+        RaftOptions options = new RaftOptions(Duration.ofMillis(20), Duration.ofSeconds(30), Duration.ofSeconds(2), 64, 4);
+        LedgerService ledger = new LedgerService(2, Clock.systemUTC());
+        RaftNode node = new RaftNode("node1", List.of("node2", "node3"), ledger, network.transportFor("node1"),
+                options, new FileRaftStorage(directory));
+        node.start();
+        assertTrue(node.handleRequestVote(new RaftMessages.RequestVote(5, "node2", 0, 0)).voteGranted());
+        node.stop();
+
+        // when
+        RaftNode restarted = new RaftNode("node1", List.of("node2", "node3"), ledger, network.transportFor("node1"),
+                options, new FileRaftStorage(directory));
+        nodes.add(restarted);
+        restarted.start();
+
+        // then
+        assertEquals(5, restarted.getCurrentTerm());
+        assertFalse(restarted.handleRequestVote(new RaftMessages.RequestVote(5, "node3", 0, 0)).voteGranted());
+        assertTrue(restarted.handleRequestVote(new RaftMessages.RequestVote(5, "node2", 0, 0)).voteGranted());
+    }
+
+    @Test
+    void shouldNotApplyEntriesAgainWhenLedgerSurvivesRestart() throws Exception {
+        // given - the follower's ledger outlives its node, as jdbc or mvstore storage would
+        RaftOptions options = options(Duration.ofSeconds(5), 4);
+        startDurableCluster(3, options);
+        RaftNode leader = awaitLeader();
+        ledgerOf(leader).deposit("alice", Money.of("10.00"));
+        ledgerOf(leader).transfer("alice", "bob", Money.of("4.00"));
+        RaftNode follower = nodes.stream().filter(node -> node != leader).findFirst().orElseThrow();
+        LedgerService ledger = ledgerOf(follower);
+        await(() -> ledger.getVersion() == 3);
+
+        // when
+        RaftNode restarted = restart(follower, ledger, options);
+        ledgerOf(leader).deposit("bob", Money.of("1.00"));
+
+        // then
+        await(() -> restarted.getLastApplied() == leader.getLastApplied());
+        assertEquals(4, ledger.getVersion());
+        assertEquals(Money.of("6.00"), ledger.getBalance("alice"));
+        assertEquals(Money.of("5.00"), ledger.getBalance("bob"));
+    }
+
+    @Test
+    void shouldRebuildInMemoryLedgerFromLogAfterRestart() throws Exception {
+        // given
+        RaftOptions options = options(Duration.ofSeconds(5), 4);
+        startDurableCluster(3, options);
+        RaftNode leader = awaitLeader();
+        ledgerOf(leader).deposit("alice", Money.of("10.00"));
+        ledgerOf(leader).withdraw("alice", Money.of("3.00"));
+        RaftNode follower = nodes.stream().filter(node -> node != leader).findFirst().orElseThrow();
+        await(() -> ledgerOf(follower).getVersion() == 2);
+
+        // when - the whole cluster is cut off, so only the follower's own log can bring the ledger back
+        nodes.forEach(node -> network.isolate(node.getId()));
+        LedgerService empty = new LedgerService(2, Clock.systemUTC());
+        restart(follower, empty, options);
+        network.heal(follower.getId());
+
+        // then
+        await(() -> empty.getVersion() == 2);
+        assertEquals(Money.of("7.00"), empty.getBalance("alice"));
+    }
+
+    private void startCluster(int size, RaftOptions options) {
+        List<String> ids = new ArrayList<>();
+        for (int i = 1; i <= size; i++) {
+            ids.add("node" + i);
+        }
+        for (String id : ids) {
+            LedgerService ledger = new LedgerService(2, Clock.systemUTC());
+            List<String> peers = ids.stream().filter(peer -> !peer.equals(id)).toList();
+            RaftNode node = new RaftNode(id, peers, ledger, network.transportFor(id), options);
+            network.register(node);
+            nodes.add(node);
+            ledgers.add(ledger);
+        }
+        nodes.forEach(RaftNode::start);
+    }
+
+    private void startDurableCluster(int size, RaftOptions options) throws IOException {
+        for (int i = 1; i <= size; i++) {
+            String id = "node" + i;
+            LedgerService ledger = new LedgerService(2, Clock.systemUTC());
+            RaftNode node = new RaftNode(id, peersOf(id, size), ledger, network.transportFor(id), options,
+                    new FileRaftStorage(directory.resolve(id)));
+            network.register(node);
+            nodes.add(node);
+            ledgers.add(ledger);
+        }
+        nodes.forEach(RaftNode::start);
+    }
+
+    private RaftNode restart(RaftNode node, LedgerService ledger, RaftOptions options) throws IOException {
+        node.stop();
+        int slot = nodes.indexOf(node);
+        RaftNode restarted = new RaftNode(node.getId(), peersOf(node.getId(), nodes.size()), ledger,
+                network.transportFor(node.getId()), options, new FileRaftStorage(directory.resolve(node.getId())));
+        network.register(restarted);
+        nodes.set(slot, restarted);
+        ledgers.set(slot, ledger);
+        restarted.start();
+        return restarted;
+    }
+
+    private static List<String> peersOf(String id, int size) {
+        List<String> peers = new ArrayList<>();
+        for (int i = 1; i <= size; i++) {
+            if (!id.equals("node" + i)) {
+                peers.add("node" + i);
+            }
+        }
+        return peers;
+    }
+
+    private RaftNode awaitLeader() throws InterruptedException {
+        return awaitLeaderOtherThan(null);
+    }
+
+    // A leader is usable once the entry it appended on election is committed
+    private RaftNode awaitLeaderOtherThan(RaftNode previous) throws InterruptedException {
+        RaftNode[] leader = new RaftNode[1];
+        await(() -> {
+            leader[0] = nodes.stream()
+                    .filter(node -> node != previous && node.getRole() == RaftNode.Role.LEADER)
+                    .filter(node -> node.getCommitIndex() == node.getLastLogIndex() && node.getLastApplied() == node.getCommitIndex())
+                    .findFirst()
+                    .orElse(null);
+            return leader[0] != null;
+        });
+        return leader[0];
+    }
+
+    private LedgerService ledgerOf(RaftNode node) {
+        return ledgers.get(nodes.indexOf(node));
+    }
+
+    private static RaftOptions options(Duration commitTimeout, int maxInFlight) {
+        return new RaftOptions(Duration.ofMillis(20), Duration.ofMillis(100), commitTimeout, 64, maxInFlight);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(condition.getAsBoolean(), "Condition not met in time");
+    }
+
+    private static List<Object> ids(List<Transaction> transactions) {
+        return transactions.stream().map(transaction -> (Object) transaction.getId()).toList();
+    }
+}
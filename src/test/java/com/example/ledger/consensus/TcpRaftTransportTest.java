@@ -0,0 +1,94 @@
+package com.example.ledger.consensus;
+
+import com.example.ledger.domain.LedgerService;
+import com.example.ledger.domain.Money;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TcpRaftTransportTest {
+
+    private final List<RaftNode> nodes = new ArrayList<>();
+    private final List<TcpRaftTransport> transports = new ArrayList<>();
+    private final List<LedgerService> ledgers = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws Exception {
+        nodes.forEach(RaftNode::stop);
+        for (TcpRaftTransport transport : transports) {
+            transport.stop();
+        }
+    }
+
+    @Test
+    void shouldReplicateWritesOverLocalhost() throws Exception {
+        // given
+        Map<String, InetSocketAddress> members = new HashMap<>();
+        for (int i = 1; i <= 3; i++) {
+            members.put("node" + i, new InetSocketAddress("localhost", freePort()));
+        }
+        RaftOptions options = new RaftOptions(Duration.ofMillis(20), Duration.ofMillis(150), Duration.ofSeconds(5), 64, 4);
+        for (String id : members.keySet()) {
+            Map<String, InetSocketAddress> peers = new HashMap<>(members);
+            peers.remove(id);
+            LedgerService ledger = new LedgerService(2, Clock.systemUTC());
+            TcpRaftTransport transport = new TcpRaftTransport(peers);
+            RaftNode node = new RaftNode(id, List.copyOf(peers.keySet()), ledger, transport, options);
+            transport.start(node, "localhost", members.get(id).getPort());
+            nodes.add(node);
+            transports.add(transport);
+            ledgers.add(ledger);
+        }
+        nodes.forEach(RaftNode::start);
+        LedgerService leader = ledgers.get(nodes.indexOf(awaitLeader()));
+
+        // when
+        leader.deposit("alice", Money.of("100.00"));
+        leader.transfer("alice", "bob", Money.of("30.00"));
+
+        // then
+        for (LedgerService ledger : ledgers) {
+            awaitVersion(ledger, 3);
+            assertEquals(Money.of("70.00"), ledger.getBalance("alice"));
+            assertEquals(Money.of("30.00"), ledger.getBalance("bob"));
+        }
+    }
+
+    private RaftNode awaitLeader() throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (System.nanoTime() < deadline) {
+            for (RaftNode node : nodes) {
+                if (node.isLeader() && node.getCommitIndex() == node.getLastLogIndex()) {
+                    return node;
+                }
+            }
+            Thread.sleep(10);
+        }
+        return fail("No leader elected");
+    }
+
+    private static void awaitVersion(LedgerService ledger, long version) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (ledger.getVersion() < version && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(version, ledger.getVersion());
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
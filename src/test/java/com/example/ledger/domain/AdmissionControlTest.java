@@ -0,0 +1,127 @@
+package com.example.ledger.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionControlTest {
+
+    private final Executor direct = Runnable::run;
+
+    @Test
+    void shouldQueueWritesOverTheLimitAndStartThemInOrder() {
+        // given
+        AdmissionControl admission = new AdmissionControl(1, 1, 2, Duration.ofMinutes(1));
+        CompletableFuture<String> first = new CompletableFuture<>();
+        List<String> started = new ArrayList<>();
+
+        // when
+        CompletableFuture<String> running = admission.submit(direct, () -> first);
+        CompletableFuture<String> second = admission.submit(direct, () -> {
+            started.add("second");
+            return CompletableFuture.completedFuture("second");
+        });
+        CompletableFuture<String> third = admission.submit(direct, () -> {
+            started.add("third");
+            return CompletableFuture.completedFuture("third");
+        });
+
+        // then
+        assertEquals(1, admission.getInFlight());
+        assertEquals(2, admission.getQueued());
+        assertTrue(started.isEmpty());
+        first.complete("first");
+        assertEquals("first", running.join());
+        assertEquals("second", second.join());
+        assertEquals("third", third.join());
+        assertEquals(List.of("second", "third"), started);
+        assertEquals(0, admission.getInFlight());
+    }
+
+    @Test
+    void shouldShedWritesOnceTheQueueIsFull() {
+        // given
+        AdmissionControl admission = new AdmissionControl(1, 1, 1, Duration.ofMinutes(1));
+        admission.submit(direct, CompletableFuture::new);
+        admission.submit(direct, CompletableFuture::new);
+
+        // when
+        CompletableFuture<Object> shed = admission.submit(direct, CompletableFuture::new);
+
+        // then
+        CompletionException thrown = assertThrows(CompletionException.class, shed::join);
+        assertInstanceOf(OverloadedException.class, thrown.getCause());
+        assertEquals(1, admission.getRejected());
+    }
+
+    @Test
+    void shouldShedWritesThatWaitedTooLong() throws InterruptedException {
+        // given
+        AdmissionControl admission = new AdmissionControl(1, 1, 1, Duration.ofMillis(5));
+        CompletableFuture<String> first = new CompletableFuture<>();
+        admission.submit(direct, () -> first);
+        CompletableFuture<String> late = admission.submit(direct, () -> CompletableFuture.completedFuture("late"));
+
+        // when
+        Thread.sleep(50);
+        first.complete("first");
+
+        // then
+        CompletionException thrown = assertThrows(CompletionException.class, late::join);
+        assertInstanceOf(OverloadedException.class, thrown.getCause());
+        assertEquals(0, admission.getInFlight());
+    }
+
+    @Test
+    void shouldReleaseTheSlotWhenTheWriteFails() {
+        // given
+        AdmissionControl admission = new AdmissionControl(1, 1, 0, Duration.ofMinutes(1));
+
+        // when
+        CompletableFuture<Object> failed = admission.submit(direct, () -> {
+            throw new InsufficientFundsException(Money.of("0.00"), Money.of("1.00"));
+        });
+
+        // then
+        CompletionException thrown = assertThrows(CompletionException.class, failed::join);
+        assertInstanceOf(InsufficientFundsException.class, thrown.getCause());
+        assertEquals(0, admission.getInFlight());
+        assertEquals("ok", admission.submit(direct, () -> CompletableFuture.completedFuture("ok")).join());
+    }
+
+    @Test
+    void shouldShrinkTheLimitAsLatencyGrowsAndRecoverWhenItDrops() {
+        // given
+        AdmissionControl admission = new AdmissionControl(16, 64, 0, Duration.ofMinutes(1));
+        admission.adapt(1_000_000, 16);
+
+        // when
+        for (int window = 0; window < 20; window++) {
+            admission.adapt(10_000_000, 16);
+        }
+        int congested = admission.getLimit();
+        for (int window = 0; window < 40; window++) {
+            admission.adapt(1_000_000, admission.getLimit());
+        }
+
+        // then
+        assertTrue(congested < 16, "limit should shrink, was " + congested);
+        assertTrue(admission.getLimit() > congested);
+        assertTrue(admission.getLimit() <= 64);
+    }
+
+    @Test
+    void shouldRejectInvalidLimits() {
+        // when & then
+        assertThrows(IllegalArgumentException.class, () -> new AdmissionControl(0, 1, 1, Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> new AdmissionControl(2, 1, 1, Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> new AdmissionControl(1, 1, -1, Duration.ZERO));
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.ledger.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashChainTest {
+
+    private final Instant now = Instant.parse("2023-10-01T10:15:30Z");
+
+    @Test
+    void shouldCloseCheckpointEveryInterval() {
+        // given
+        HashChain chain = new HashChain(4);
+
+        // when
+        history(10).forEach(chain::onTransaction);
+
+        // then
+        ChainHead head = chain.head();
+        assertEquals(10, head.sequence());
+        assertEquals(10, head.length());
+        assertEquals(64, head.hash().length());
+        List<ChainCheckpoint> checkpoints = chain.checkpoints(0, 10);
+        assertEquals(2, checkpoints.size());
+        assertEquals(1, checkpoints.get(0).fromSequence());
+        assertEquals(4, checkpoints.get(0).toSequence());
+        assertEquals(5, checkpoints.get(1).fromSequence());
+        assertEquals(8, checkpoints.get(1).toSequence());
+        assertEquals(List.of(checkpoints.get(1)), chain.checkpoints(4, 10));
+        assertEquals(List.of(checkpoints.get(0)), chain.checkpoints(0, 1));
+    }
+
+    @Test
+    void shouldChainTheSameHistoryToTheSameHead() {
+        // given
+        List<Transaction> history = history(5);
+        HashChain chain = new HashChain(2);
+        HashChain again = new HashChain(3);
+        HashChain reordered = new HashChain(2);
+
+        // when
+        history.forEach(chain::onTransaction);
+        history.forEach(again::onTransaction);
+        List.of(history.get(1), history.get(0), history.get(2), history.get(3), history.get(4))
+                .forEach(reordered::onTransaction);
+
+        // then
+        assertEquals(chain.head(), again.head());
+        assertNotEquals(chain.head().hash(), reordered.head().hash());
+    }
+
+    @Test
+    void shouldVerifyIntactHistory() {
+        // given
+        List<Transaction> history = history(10);
+        HashChain chain = new HashChain(4);
+        history.forEach(chain::onTransaction);
+
+        // when
+        ChainVerification verification = HashChain.verify(chain.snapshot(), history);
+
+        // then
+        assertTrue(verification.intact());
+        assertEquals(3, verification.segments());
+        assertEquals(10, verification.verifiedTransactions());
+        assertEquals(0, verification.firstBrokenSequence());
+        assertEquals(chain.head(), verification.head());
+    }
+
+    @Test
+    void shouldIgnoreTransactionsRecordedAfterSnapshot() {
+        // given
+        List<Transaction> history = history(6);
+        HashChain chain = new HashChain(4);
+        history.subList(0, 5).forEach(chain::onTransaction);
+
+        // when
+        ChainVerification verification = HashChain.verify(chain.snapshot(), history);
+
+        // then
+        assertTrue(verification.intact());
+        assertEquals(5, verification.verifiedTransactions());
+    }
+
+    @Test
+    void shouldFindAlteredTransactionSegment() {
+        // given
+        List<Transaction> history = history(12);
+        HashChain chain = new HashChain(4);
+        history.forEach(chain::onTransaction);
+        List<Transaction> tampered = new ArrayList<>(history);
+        Transaction original = history.get(5);
+        tampered.set(5, new Transaction(original.getId(), original.getSequence(), original.getAccountId(),
+                original.getType(), Money.of("999.00"), original.getCreatedAt()));
+
+        // when
+        ChainVerification verification = HashChain.verify(chain.snapshot(), tampered);
+
+        // then
+        assertFalse(verification.intact());
+        assertEquals(1, verification.brokenSegments());
+        assertEquals(5, verification.firstBrokenSequence());
+        assertEquals(8, verification.verifiedTransactions());
+    }
+
+    @Test
+    void shouldFindRemovedAndInsertedTransactions() {
+        // given
+        List<Transaction> history = history(12);
+        HashChain chain = new HashChain(4);
+        history.forEach(chain::onTransaction);
+        List<Transaction> tampered = new ArrayList<>(history);
+        tampered.remove(10);
+        tampered.add(1, new Transaction(1, "alice", TransactionType.DEPOSIT, Money.of("1.00"), now));
+
+        // when
+        ChainVerification verification = HashChain.verify(chain.snapshot(), tampered);
+
+        // then
+        assertEquals(2, verification.brokenSegments());
+        assertEquals(1, verification.firstBrokenSequence());
+        assertEquals(4, verification.verifiedTransactions());
+    }
+
+    @Test
+    void shouldSkipCompactedSegments() {
+        // given
+        List<Transaction> history = history(10);
+        HashChain chain = new HashChain(4);
+        history.forEach(chain::onTransaction);
+
+        // when
+        chain.compacted(5);
+        HashChain.Snapshot snapshot = chain.snapshot();
+        ChainVerification verification = HashChain.verify(snapshot, history.subList(8, 10));
+
+        // then
+        assertEquals(8, snapshot.verifiableFrom());
+        assertTrue(verification.intact());
+        assertEquals(2, verification.skippedSegments());
+        assertEquals(2, verification.verifiedTransactions());
+    }
+
+    @Test
+    void shouldReadEachSegmentsRangeOnly() {
+        // given
+        List<Transaction> history = history(10);
+        HashChain chain = new HashChain(4);
+        history.forEach(chain::onTransaction);
+        chain.compacted(3);
+        List<List<Long>> reads = Collections.synchronizedList(new ArrayList<>());
+
+        // when
+        ChainVerification verification = HashChain.verify(chain.snapshot(), (afterSequence, lastSequence) -> {
+            reads.add(List.of(afterSequence, lastSequence));
+            return history.subList((int) afterSequence, (int) lastSequence);
+        });
+
+        // then
+        assertTrue(verification.intact());
+        assertEquals(6, verification.verifiedTransactions());
+        assertEquals(Set.of(List.of(4L, 8L), List.of(8L, 10L)), Set.copyOf(reads));
+        assertEquals(2, reads.size());
+    }
+
+    @Test
+    void shouldVerifyManySegmentsInParallel() {
+        // given
+        List<Transaction> history = history(20_000);
+        HashChain chain = new HashChain(64);
+        history.forEach(chain::onTransaction);
+        List<Transaction> tampered = new ArrayList<>(history);
+        tampered.remove(15_000);
+
+        // when
+        ChainVerification intact = HashChain.verify(chain.snapshot(), history);
+        ChainVerification broken = HashChain.verify(chain.snapshot(), tampered);
+
+        // then
+        assertTrue(intact.intact());
+        assertEquals(20_000, intact.verifiedTransactions());
+        assertEquals(1, broken.brokenSegments());
+        assertEquals(14_977, broken.firstBrokenSequence());
+    }
+
+    private List<Transaction> history(int count) {
+        List<Transaction> history = new ArrayList<>(count);
+        for (int sequence = 1; sequence <= count; sequence++) {
+            history.add(new Transaction(sequence, sequence % 2 == 0 ? "alice" : "bob", TransactionType.DEPOSIT,
+                    Money.ofMinorUnits(sequence), now.plusSeconds(sequence)));
+        }
+        return history;
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.ledger.domain;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InsufficientFundsExceptionTest {
+
+    @Test
+    void shouldDescribeAvailableBalanceAndRequestedAmount() {
+        // when
+        InsufficientFundsException exception = new InsufficientFundsException(Money.of("50.00"), Money.of("100.00"));
+
+        // then
+        assertEquals("Insufficient funds: available balance is 50.00, requested 100.00", exception.getMessage());
+        assertEquals(Money.of("50.00"), exception.getAvailable());
+        assertEquals(Money.of("100.00"), exception.getRequested());
+    }
+
+    @Test
+    void shouldNotCaptureStackTrace() {
+        // when
+        InsufficientFundsException exception = new InsufficientFundsException(Money.of("0.00"), Money.of("1.00"));
+
+        // then
+        assertEquals(0, exception.getStackTrace().length);
+    }
+
+    @Test
+    void shouldRemainAnIllegalArgumentException() {
+        // when & then
+        assertInstanceOf(IllegalArgumentException.class, new InsufficientFundsException(Money.of("0.00"), Money.of("1.00")));
+    }
+
+    @Test
+    void shouldRejectNullAmounts() {
+        // when & then
+        assertThrows(NullPointerException.class, () -> new InsufficientFundsException(null, Money.of("1.00")));
+        assertThrows(NullPointerException.class, () -> new InsufficientFundsException(Money.of("1.00"), null));
+    }
+}
@@ -1,6 +1,8 @@
 package com.example.ledger.domain;
 
+import com.example.ledger.repo.BatchingTransactionRepository;
 import com.example.ledger.repo.InMemoryTransactionRepository;
+import com.example.ledger.repo.TransactionRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -8,14 +10,29 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.Clock;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -278,6 +295,187 @@ class LedgerServiceTest {
         verify(transactionRepository, atLeast(5)).save(any(Transaction.class));
     }
 
+    @Test
+    void shouldNeverOverdrawUnderConcurrentDepositsAndWithdrawals() throws InterruptedException {
+        // given
+        when(clock.instant()).thenReturn(fixedInstant);
+        LedgerService service = new LedgerService(1, clock);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        AtomicInteger withdrawn = new AtomicInteger();
+        List<Future<?>> operations = new ArrayList<>();
+
+        // when
+        for (int i = 0; i < 4000; i++) {
+            boolean deposit = i % 2 == 0;
+            operations.add(executor.submit(() -> {
+                if (deposit) {
+                    service.deposit(Money.of("1.00"));
+                } else {
+                    try {
+                        service.withdraw(Money.of("1.00"));
+                        withdrawn.incrementAndGet();
+                    } catch (InsufficientFundsException ignored) {
+                        // a racing deposit hadn't completed yet
+                    }
+                }
+                // A negative balance can't even be read back as Money
+                service.getBalance();
+            }));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        // then
+        for (Future<?> operation : operations) {
+            assertDoesNotThrow(() -> operation.get());
+        }
+        assertEquals(Money.ofMinorUnits((2000L - withdrawn.get()) * 100), service.getBalance());
+        assertEquals(2000 + withdrawn.get(), service.getAllTransactions().size());
+    }
+
+    @Test
+    void shouldNotHoldDepositsBehindWithdrawalAwaitingStorage() throws Exception {
+        // given
+        when(clock.instant()).thenReturn(fixedInstant);
+        HeldWithdrawalRepository repository = new HeldWithdrawalRepository();
+        LedgerService service = LedgerService.resume(List.of(repository), clock);
+        service.deposit(Money.of("10.00"));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            // when
+            Future<Transaction> withdrawal = executor.submit(() -> service.withdraw(Money.of("4.00")));
+            assertTrue(repository.withdrawalQueued.await(5, TimeUnit.SECONDS));
+            Transaction deposit = service.depositAsync(Money.of("5.00")).get(5, TimeUnit.SECONDS);
+
+            // then
+            assertEquals(TransactionType.DEPOSIT, deposit.getType());
+            // The withdrawal is already reserved
+            assertEquals(Money.of("11.00"), service.getBalance());
+            repository.release();
+            assertEquals(TransactionType.WITHDRAW, withdrawal.get(5, TimeUnit.SECONDS).getType());
+            assertEquals(Money.of("11.00"), service.getBalance());
+        } finally {
+            repository.release();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void shouldKeepSplitAccountExactUnderConcurrentWrites() throws Exception {
+        // given
+        when(clock.instant()).thenReturn(fixedInstant);
+        LedgerService service = new LedgerService(2, clock);
+        service.setHotAccounts(List.of("merchant"), 4);
+        service.deposit("merchant", Money.of("100.00"));
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        AtomicInteger withdrawn = new AtomicInteger();
+        List<Future<?>> operations = new ArrayList<>();
+
+        // when
+        for (int i = 0; i < 4000; i++) {
+            int operation = i % 4;
+            operations.add(executor.submit(() -> {
+                switch (operation) {
+                    case 0 -> service.deposit("merchant", Money.of("1.00"));
+                    case 1 -> service.transfer("merchant", "supplier", Money.of("1.00"));
+                    default -> {
+                        service.withdraw("merchant", Money.of("1.00"));
+                        withdrawn.incrementAndGet();
+                    }
+                }
+                return service.getBalance("merchant");
+            }));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        // then
+        int rejected = 0;
+        for (Future<?> operation : operations) {
+            try {
+                operation.get();
+            } catch (ExecutionException ex) {
+                assertInstanceOf(InsufficientFundsException.class, ex.getCause());
+                rejected++;
+            }
+        }
+        long supplier = service.getBalance("supplier").getMinorUnits();
+        long expected = (100 + 1000) * 100L - supplier - withdrawn.get() * 100L;
+        assertEquals(Money.ofMinorUnits(expected), service.getBalance("merchant"));
+        assertEquals(3000 - rejected, withdrawn.get() + supplier / 100);
+    }
+
+    @Test
+    void shouldTakeWithdrawalFromSubBalanceWithoutTheLock() {
+        // given
+        when(clock.instant()).thenReturn(fixedInstant);
+        LedgerService service = new LedgerService(1, clock);
+        service.setHotAccounts(List.of("merchant"), 2);
+        service.deposit("merchant", Money.of("100.00"));
+
+        // when & then
+        service.withdraw("merchant", Money.of("10.00"));
+        assertTrue(service.getLockContention(10).isEmpty());
+
+        // consolidating leaves 45.00 in each sub-balance
+        assertThrows(InsufficientFundsException.class, () -> service.withdraw("merchant", Money.of("90.01")));
+        assertEquals(Money.of("90.00"), service.getBalance("merchant"));
+
+        service.withdraw("merchant", Money.of("50.00"));
+        service.withdraw("merchant", Money.of("20.00"));
+        assertEquals(Money.of("20.00"), service.getBalance("merchant"));
+        assertEquals(2, service.getLockContention(10).getFirst().lockAcquisitions());
+    }
+
+    @Test
+    void shouldGiveReservedDebitBackWhenStoringFails() {
+        // given
+        when(clock.instant()).thenReturn(fixedInstant);
+        when(transactionRepository.findAllOrderByTimestampDesc()).thenReturn(Collections.emptyList());
+        when(transactionRepository.save(any(Transaction.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0))
+                .thenThrow(new IllegalStateException("disk full"));
+        ledgerService.deposit(Money.of("10.00"));
+
+        // when & then
+        assertThrows(IllegalStateException.class, () -> ledgerService.withdraw(Money.of("4.00")));
+        assertEquals(Money.of("10.00"), ledgerService.getBalance());
+    }
+
+    @Test
+    void shouldRejectSplittingAccountInUse() {
+        // given
+        when(clock.instant()).thenReturn(fixedInstant);
+        LedgerService service = new LedgerService(1, clock);
+        service.deposit("merchant", Money.of("1.00"));
+
+        // when & then
+        assertThrows(IllegalStateException.class, () -> service.setHotAccounts(List.of("merchant"), 4));
+    }
+
+    @Test
+    void shouldReportMostContendedAccountsFirst() {
+        // given
+        when(clock.instant()).thenReturn(fixedInstant);
+        LedgerService service = new LedgerService(2, clock);
+        service.deposit("alice", Money.of("10.00"));
+        service.deposit("bob", Money.of("10.00"));
+        service.withdraw("alice", Money.of("1.00"));
+        service.transfer("alice", "bob", Money.of("1.00"));
+
+        // when
+        List<AccountContention> contention = service.getLockContention(10);
+
+        // then
+        assertEquals(2, contention.size());
+        assertTrue(contention.get(0).lockWaitNanos() >= contention.get(1).lockWaitNanos());
+        AccountContention alice = contention.stream().filter(account -> account.accountId().equals("alice")).findFirst().orElseThrow();
+        assertEquals(2, alice.lockAcquisitions());
+        assertEquals(1, alice.subBalances());
+        assertEquals(1, service.getLockContention(1).size());
+    }
+
     @Test
     void shouldUseClock() {
         // given
@@ -295,4 +493,1299 @@ class LedgerServiceTest {
             t.getCreatedAt().equals(fixedInstant)
         ));
     }
+
+    @Test
+    void shouldBumpVersionOnEveryRecordedTransaction() {
+        // given
+        Transaction deposit = new Transaction(TransactionType.DEPOSIT, Money.of("100.00"), fixedInstant);
+        when(clock.instant()).thenReturn(fixedInstant);
+        when(transactionRepository.findAllOrderByTimestampDesc()).thenReturn(List.of(deposit));
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        long initialVersion = ledgerService.getVersion();
+
+        // when
+        ledgerService.deposit(Money.of("100.00"));
+        ledgerService.withdraw(Money.of("10.00"));
+
+        // then
+        assertEquals(initialVersion + 2, ledgerService.getVersion());
+    }
+
+    @Test
+    void shouldNotBumpVersionOnRejectedWithdrawal() {
+        // given
+        when(transactionRepository.findAllOrderByTimestampDesc()).thenReturn(Collections.emptyList());
+        long initialVersion = ledgerService.getVersion();
+
+        // when
+        assertThrows(IllegalArgumentException.class, () -> ledgerService.withdraw(Money.of("10.00")));
+
+        // then
+        assertEquals(initialVersion, ledgerService.getVersion());
+    }
+
+    @Test
+    void shouldAssignIncreasingSequences() {
+        // given
+        when(clock.instant()).thenReturn(fixedInstant);
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // when
+        Transaction first = ledgerService.deposit(Money.of("10.00"));
+        Transaction second = ledgerService.deposit(Money.of("20.00"));
+
+        // then
+        assertEquals(1, first.getSequence());
+        assertEquals(2, second.getSequence());
+        assertEquals(2, ledgerService.getVersion());
+    }
+
+    @Test
+    void shouldNotifyListenersAfterSave() {
+        // given
+        List<Transaction> notified = new ArrayList<>();
+        ledgerService.addListener(notified::add);
+        when(clock.instant()).thenReturn(fixedInstant);
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // when
+        Transaction transaction = ledgerService.deposit(Money.of("10.00"));
+
+        // then
+        assertEquals(List.of(transaction), notified);
+    }
+
+    @Test
+    void shouldNotNotifyRemovedListeners() {
+        // given
+        List<Transaction> notified = new ArrayList<>();
+        TransactionListener listener = notified::add;
+        ledgerService.addListener(listener);
+        ledgerService.removeListener(listener);
+        when(clock.instant()).thenReturn(fixedInstant);
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // when
+        ledgerService.deposit(Money.of("10.00"));
+
+        // then
+        assertTrue(notified.isEmpty());
+    }
+
+    @Test
+    void shouldRecordTransactionEvenWhenListenerFails() {
+        // given
+        ledgerService.addListener(transaction -> {
+            throw new IllegalStateException("boom");
+        });
+        when(clock.instant()).thenReturn(fixedInstant);
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // when
+        Transaction transaction = ledgerService.deposit(Money.of("10.00"));
+
+        // then
+        assertEquals(1, transaction.getSequence());
+        assertEquals(1, ledgerService.getVersion());
+    }
+
+    @Test
+    void shouldGetTransactionsSinceSequence() {
+        // given
+        LedgerService service = new LedgerService(new InMemoryTransactionRepository(), Clock.fixed(fixedInstant, ZoneId.systemDefault()));
+        service.deposit(Money.of("10.00"));
+        service.deposit(Money.of("20.00"));
+        Transaction transaction = service.deposit(Money.of("30.00"));
+
+        // when
+        List<Transaction> result = service.getTransactionsSince(2);
+
+        // then
+        assertEquals(List.of(transaction), result);
+    }
+
+    @Test
+    void shouldRejectWithdrawWithTypedException() {
+        // given
+        when(transactionRepository.findAllOrderByTimestampDesc()).thenReturn(Collections.emptyList());
+
+        // when
+        InsufficientFundsException exception = assertThrows(InsufficientFundsException.class,
+            () -> ledgerService.withdraw(Money.of("10.00")));
+
+        // then
+        assertEquals(Money.of("0.00"), exception.getAvailable());
+        assertEquals(Money.of("10.00"), exception.getRequested());
+    }
+
+    @Test
+    void shouldKeepBalancesPerAccount() {
+        // given
+        LedgerService service = new LedgerService(new InMemoryTransactionRepository(), Clock.fixed(fixedInstant, ZoneId.systemDefault()));
+        service.deposit("alice", Money.of("100.00"));
+        service.deposit("bob", Money.of("20.00"));
+
+        // when
+        service.withdraw("alice", Money.of("30.00"));
+
+        // then
+        assertEquals(Money.of("70.00"), service.getBalance("alice"));
+        assertEquals(Money.of("20.00"), service.getBalance("bob"));
+        assertEquals(Money.of("0.00"), service.getBalance());
+        assertEquals(2, service.getTransactions("alice").size());
+        assertTrue(service.getAllTransactions().isEmpty());
+    }
+
+    @Test
+    void shouldTransferBetweenAccounts() {
+        // given
+        LedgerService service = new LedgerService(new InMemoryTransactionRepository(), Clock.fixed(fixedInstant, ZoneId.systemDefault()));
+        service.deposit("alice", Money.of("100.00"));
+
+        // when
+        Transfer transfer = service.transfer("alice", "bob", Money.of("40.00"));
+
+        // then
+        assertEquals(Money.of("60.00"), service.getBalance("alice"));
+        assertEquals(Money.of("40.00"), service.getBalance("bob"));
+        assertEquals("alice", transfer.debit().getAccountId());
+        assertEquals(TransactionType.TRANSFER_OUT, transfer.debit().getType());
+        assertEquals("bob", transfer.credit().getAccountId());
+        assertEquals(TransactionType.TRANSFER_IN, transfer.credit().getType());
+        assertEquals(transfer.debit().getSequence() + 1, transfer.credit().getSequence());
+        assertEquals(3, service.getVersion());
+    }
+
+    @Test
+    void shouldRejectTransferWithInsufficientFunds() {
+        // given
+        LedgerService service = new LedgerService(new InMemoryTransactionRepository(), Clock.fixed(fixedInstant, ZoneId.systemDefault()));
+        service.deposit("alice", Money.of("10.00"));
+
+        // when & then
+        InsufficientFundsException exception = assertThrows(InsufficientFundsException.class,
+            () -> service.transfer("alice", "bob", Money.of("10.01")));
+        assertEquals(Money.of("10.00"), exception.getAvailable());
+        assertEquals(Money.of("10.00"), service.getBalance("alice"));
+        assertEquals(Money.of("0.00"), service.getBalance("bob"));
+        assertEquals(1, service.getVersion());
+    }
+
+    @Test
+    void shouldRejectTransferToSameAccount() {
+        // when & then
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+            () -> ledgerService.transfer("alice", "alice", Money.of("1.00")));
+        assertEquals("Can't transfer to the same account", exception.getMessage());
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    void shouldRejectInvalidAccountId() {
+        // when & then
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+            () -> ledgerService.deposit("no spaces", Money.of("1.00")));
+        assertEquals("Invalid account id: no spaces", exception.getMessage());
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    void shouldLoadAccountBalanceFromRepositoryOnFirstUse() {
+        // given
+        Transaction deposit = new Transaction(1, "alice", TransactionType.DEPOSIT, Money.of("50.00"), fixedInstant);
+        Transaction transferOut = new Transaction(2, "alice", TransactionType.TRANSFER_OUT, Money.of("20.00"), fixedInstant);
+        Transaction other = new Transaction(3, "bob", TransactionType.TRANSFER_IN, Money.of("20.00"), fixedInstant);
+        when(transactionRepository.findAllOrderByTimestampDesc()).thenReturn(List.of(other, transferOut, deposit));
+
+        // when
+        Money first = ledgerService.getBalance("alice");
+        Money second = ledgerService.getBalance("alice");
+
+        // then
+        assertEquals(Money.of("30.00"), first);
+        assertEquals(Money.of("30.00"), second);
+        verify(transactionRepository).findAllOrderByTimestampDesc();
+    }
+
+    @Test
+    void shouldNotDeadlockOnOppositeConcurrentTransfers() throws InterruptedException {
+        // given
+        LedgerService service = new LedgerService(new InMemoryTransactionRepository(), Clock.fixed(fixedInstant, ZoneId.systemDefault()));
+        service.deposit("alice", Money.of("1000.00"));
+        service.deposit("bob", Money.of("1000.00"));
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // when - transfer back and forth between the same pair from many threads
+        for (int i = 0; i < 400; i++) {
+            boolean forward = i % 2 == 0;
+            executor.submit(() -> forward
+                ? service.transfer("alice", "bob", Money.of("1.00"))
+                : service.transfer("bob", "alice", Money.of("1.00")));
+        }
+        executor.shutdown();
+
+        // then
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(Money.of("1000.00"), service.getBalance("alice"));
+        assertEquals(Money.of("1000.00"), service.getBalance("bob"));
+        assertEquals(802, service.getVersion());
+    }
+
+    @Test
+    void shouldRejectNonPositiveShardCount() {
+        // when & then
+        assertThrows(IllegalArgumentException.class, () -> new LedgerService(0, clock));
+    }
+
+    @Test
+    void shouldKeepAccountsConsistentAcrossShards() throws InterruptedException {
+        // given
+        LedgerService service = new LedgerService(4, Clock.fixed(fixedInstant, ZoneId.systemDefault()));
+        List<Transaction> notified = Collections.synchronizedList(new ArrayList<>());
+        service.addListener(notified::add);
+        for (int i = 0; i < 16; i++) {
+            service.deposit("account-" + i, Money.of("100.00"));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // when - move money around a ring of accounts spread over every shard
+        for (int i = 0; i < 800; i++) {
+            int from = i % 16;
+            executor.submit(() -> service.transfer("account-" + from, "account-" + (from + 1) % 16, Money.of("1.00")));
+            executor.submit(() -> service.deposit("account-" + from, Money.of("0.50")));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        // then
+        long total = 0;
+        for (int i = 0; i < 16; i++) {
+            total += service.getBalance("account-" + i).getMinorUnits();
+        }
+        assertEquals(16 * 10000 + 800 * 50, total);
+        assertEquals(16 + 800 * 3, service.getVersion());
+
+        List<Transaction> journal = service.getTransactionsSince(0);
+        assertEquals(service.getVersion(), journal.size());
+        assertEquals(journal, notified);
+        for (int i = 0; i < journal.size(); i++) {
+            assertEquals(i + 1, journal.get(i).getSequence());
+        }
+    }
+
+    @Test
+    void shouldKeepAccountHistoryOnItsShard() {
+        // given
+        LedgerService service = new LedgerService(8, Clock.fixed(fixedInstant, ZoneId.systemDefault()));
+        service.deposit("alice", Money.of("10.00"));
+        service.deposit("bob", Money.of("20.00"));
+        service.transfer("bob", "alice", Money.of("5.00"));
+
+        // when
+        List<Transaction> history = service.getTransactions("alice");
+
+        // then
+        assertEquals(2, history.size());
+        assertTrue(history.stream().allMatch(transaction -> transaction.getAccountId().equals("alice")));
+        assertEquals(Money.of("15.00"), service.getBalance("alice"));
+        assertEquals(8, service.getShardCount());
+    }
+
+    @Test
+    void shouldApplyReplicatedTransactionsInOrder() {
+        // given
+        LedgerService replica = new LedgerService(2, clock);
+        replica.setReplica(true);
+        Transaction deposit = new Transaction(1, "alice", TransactionType.DEPOSIT, Money.of("10.00"), fixedInstant);
+        Transaction withdrawal = new Transaction(2, "alice", TransactionType.WITHDRAW, Money.of("4.00"), fixedInstant);
+
+        // when
+        replica.replicate(deposit);
+        replica.replicate(withdrawal);
+
+        // then
+        assertEquals(Money.of("6.00"), replica.getBalance("alice"));
+        assertEquals(2, replica.getVersion());
+        assertEquals(List.of(deposit, withdrawal), replica.getTransactionsSince(0));
+    }
+
+    @Test
+    void shouldRejectReplicatedTransactionOutOfOrder() {
+        // given
+        ledgerService.setReplica(true);
+        Transaction transaction = new Transaction(2, TransactionType.DEPOSIT, Money.of("10.00"), fixedInstant);
+
+        // when & then
+        assertThrows(IllegalStateException.class, () -> ledgerService.replicate(transaction));
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    void shouldRejectReplicatedTransactionOnPrimary() {
+        // given
+        Transaction transaction = new Transaction(1, TransactionType.DEPOSIT, Money.of("10.00"), fixedInstant);
+
+        // when & then
+        assertThrows(IllegalStateException.class, () -> ledgerService.replicate(transaction));
+    }
+
+    @Test
+    void shouldRejectWritesOnReplica() {
+        // given
+        ledgerService.setReplica(true);
+
+        // when & then
+        assertThrows(ReadOnlyReplicaException.class, () -> ledgerService.deposit(Money.of("1.00")));
+        assertThrows(ReadOnlyReplicaException.class, () -> ledgerService.withdraw(Money.of("1.00")));
+        assertThrows(ReadOnlyReplicaException.class, () -> ledgerService.transfer("a", "b", Money.of("1.00")));
+        assertThrows(ReadOnlyReplicaException.class, () -> ledgerService.releaseHold(UUID.randomUUID()));
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    void shouldApplyCommandWithItsIdsAndTimestamp() {
+        // given
+        LedgerService first = new LedgerService(2, clock);
+        LedgerService second = new LedgerService(4, clock);
+        List<LedgerCommand> commands = List.of(
+                LedgerCommand.deposit("alice", Money.of("10.00"), fixedInstant),
+                LedgerCommand.transfer("alice", "bob", Money.of("4.00"), fixedInstant));
+
+        // when
+        commands.forEach(first::apply);
+        commands.forEach(second::apply);
+
+        // then
+        assertEquals(first.getTransactionsSince(0), second.getTransactionsSince(0));
+        assertEquals(commands.getFirst().id(), first.getTransactionsSince(0).getFirst().getId());
+        assertEquals(Money.of("4.00"), second.getBalance("bob"));
+        verifyNoInteractions(clock);
+    }
+
+    @Test
+    void shouldRouteWritesThroughCoordinator() {
+        // given
+        when(clock.instant()).thenReturn(fixedInstant);
+        Transaction committed = new Transaction(1, TransactionType.DEPOSIT, Money.of("5.00"), fixedInstant);
+        List<LedgerCommand> submitted = new ArrayList<>();
+        ledgerService.setWriteCoordinator(command -> {
+            submitted.add(command);
+            return CompletableFuture.completedFuture(committed);
+        });
+
+        // when
+        Transaction result = ledgerService.deposit(Money.of("5.00"));
+
+        // then
+        assertSame(committed, result);
+        assertEquals(LedgerCommand.Kind.DEPOSIT, submitted.getFirst().kind());
+        assertEquals(fixedInstant, submitted.getFirst().createdAt());
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    void shouldRethrowCoordinatorFailure() {
+        // given
+        when(clock.instant()).thenReturn(fixedInstant);
+        ledgerService.setWriteCoordinator(command ->
+                CompletableFuture.failedFuture(new InsufficientFundsException(Money.of("0.00"), Money.of("1.00"))));
+
+        // when & then
+        assertThrows(InsufficientFundsException.class, () -> ledgerService.withdraw(Money.of("1.00")));
+    }
+
+    @Test
+    void shouldRecordAsyncWritesOnWriter() {
+        // given
+        when(clock.instant()).thenReturn(fixedInstant);
+        LedgerService service = new LedgerService(2, clock);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        List<Runnable> queued = Collections.synchronizedList(new ArrayList<>());
+        service.setWriter(task -> {
+            queued.add(task);
+            pool.execute(task);
+        });
+
+        try {
+            // when
+            Transaction deposit = service.depositAsync("alice", Money.of("10.00")).join();
+            Transfer transfer = service.transferAsync("alice", "bob", Money.of("4.00")).join();
+            Transaction withdrawal = service.withdrawAsync("bob", Money.of("1.00")).join();
+
+            // then
+            assertEquals(3, queued.size());
+            assertEquals(TransactionType.DEPOSIT, deposit.getType());
+            assertEquals("bob", transfer.credit().getAccountId());
+            assertEquals(4, withdrawal.getSequence());
+            assertEquals(Money.of("6.00"), service.getBalance("alice"));
+            assertEquals(Money.of("3.00"), service.getBalance("bob"));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void shouldCompleteAsyncWriteExceptionallyWhenRejected() {
+        // given
+        when(transactionRepository.findAllOrderByTimestampDesc()).thenReturn(Collections.emptyList());
+
+        // when
+        CompletableFuture<Transaction> result = ledgerService.withdrawAsync(Money.of("1.00"));
+
+        // then
+        CompletionException thrown = assertThrows(CompletionException.class, result::join);
+        assertInstanceOf(InsufficientFundsException.class, thrown.getCause());
+        verify(transactionRepository, never()).save(any(Transaction.class));
+    }
+
+    @Test
+    void shouldNotWaitForCoordinatorOnAsyncWrites() {
+        // given
+        when(clock.instant()).thenReturn(fixedInstant);
+        Transaction committed = new Transaction(1, TransactionType.DEPOSIT, Money.of("5.00"), fixedInstant);
+        CompletableFuture<Object> pending = new CompletableFuture<>();
+        ledgerService.setWriteCoordinator(command -> pending);
+
+        // when
+        CompletableFuture<Transaction> result = ledgerService.depositAsync(Money.of("5.00"));
+
+        // then
+        assertFalse(result.isDone());
+        pending.complete(committed);
+        assertSame(committed, result.join());
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    void shouldShedAsyncWritesOverAdmissionLimit() {
+        // given
+        when(clock.instant()).thenReturn(fixedInstant);
+        List<CompletableFuture<Object>> pending = new ArrayList<>();
+        ledgerService.setWriteCoordinator(command -> {
+            CompletableFuture<Object> commit = new CompletableFuture<>();
+            pending.add(commit);
+            return commit;
+        });
+        ledgerService.setAdmissionControl(new AdmissionControl(1, 1, 1, Duration.ofMinutes(1)));
+
+        // when
+        CompletableFuture<Transaction> first = ledgerService.depositAsync(Money.of("1.00"));
+        CompletableFuture<Transaction> queued = ledgerService.depositAsync(Money.of("2.00"));
+        CompletableFuture<Transaction> shed = ledgerService.depositAsync(Money.of("3.00"));
+
+        // then
+        CompletionException thrown = assertThrows(CompletionException.class, shed::join);
+        assertInstanceOf(OverloadedException.class, thrown.getCause());
+        assertEquals(1, pending.size());
+        pending.get(0).complete(new Transaction(1, TransactionType.DEPOSIT, Money.of("1.00"), fixedInstant));
+        assertTrue(first.isDone());
+        assertEquals(2, pending.size());
+        assertFalse(queued.isDone());
+    }
+
+    @Test
+    void shouldEnforceVelocityLimitPerAccount() {
+        // given
+        when(clock.instant()).thenReturn(fixedInstant);
+        LedgerService service = new LedgerService(2, clock);
+        service.setVelocityLimit(new VelocityLimit(2, Money.of("0"), Duration.ofHours(1)));
+
+        // when
+        service.deposit("alice", Money.of("10.00"));
+        service.transfer("alice", "bob", Money.of("1.00"));
+
+        // then
+        assertThrows(VelocityLimitExceededException.class, () -> service.withdraw("alice", Money.of("1.00")));
+        assertThrows(VelocityLimitExceededException.class, () -> service.depositAsync("alice", Money.of("1.00")));
+        service.deposit("bob", Money.of("1.00"));
+        assertEquals(Money.of("9.00"), service.getBalance("alice"));
+    }
+
+    @Test
+    void shouldNotCountRejectedWritesAgainstVelocityLimit() {
+        // given
+        when(clock.instant()).thenReturn(fixedInstant);
+        LedgerService service = new LedgerService(1, clock);
+        service.setVelocityLimit(new VelocityLimit(0, Money.of("12.00"), Duration.ofHours(1)));
+        service.deposit("alice", Money.of("5.00"));
+
+        // when
+        assertThrows(InsufficientFundsException.class, () -> service.withdraw("alice", Money.of("6.00")));
+        assertThrows(InsufficientFundsException.class, () -> service.transfer("alice", "bob", Money.of("6.00")));
+
+        // then
+        service.withdraw("alice", Money.of("5.00"));
+        service.deposit("bob", Money.of("12.00"));
+        assertThrows(VelocityLimitExceededException.class, () -> service.deposit("alice", Money.of("2.01")));
+    }
+
+    @Test
+    void shouldKeepHeldFundsInBalanceButNotAvailable() {
+        // given
+        when(clock.instant()).thenReturn(fixedInstant);
+        LedgerService service = new LedgerService(2, clock);
+        service.deposit("alice", Money.of("100.00"));
+
+        // when
+        Hold hold = service.placeHold("alice", Money.of("60.00"), Duration.ofMinutes(15));
+
+        // then
+        assertEquals(fixedInstant.plus(Duration.ofMinutes(15)), hold.getExpiresAt());
+        assertEquals(Money.of("100.00"), service.getBalance("alice"));
+        assertEquals(Money.of("40.00"), service.getAvailableBalance("alice"));
+        InsufficientFundsException exception = assertThrows(InsufficientFundsException.class,
+                () -> service.withdraw("alice", Money.of("50.00")));
+        assertEquals("Insufficient funds: available balance is 40.00, requested 50.00", exception.getMessage());
+        assertThrows(InsufficientFundsException.class, () -> service.placeHold("alice", Money.of("41.00"), Duration.ofMinutes(1)));
+        assertThrows(InsufficientFundsException.class, () -> service.transfer("alice", "bob", Money.of("41.00")));
+        assertEquals(1, service.getOpenHoldCount());
+    }
+
+    @Test
+    void shouldCapturePartOfHoldAndReleaseTheRest() {
+        // given
+        when(clock.instant()).thenReturn(fixedInstant);
+        LedgerService service = new LedgerService(2, clock);
+        service.deposit("alice", Money.of("100.00"));
+        Hold hold = service.placeHold("alice", Money.of("60.00"), Duration.ofMinutes(15));
+
+        // when
+        Transaction captured = service.captureHold(hold.getId(), Money.of("45.00"));
+
+        // then
+        assertEquals(TransactionType.WITHDRAW, captured.getType());
+        assertEquals(Money.of("45.00"), captured.getAmount());
+        assertEquals(Money.of("55.00"), service.getBalance("alice"));
+        assertEquals(Money.of("55.00"), service.getAvailableBalance("alice"));
+        assertThrows(HoldNotFoundException.class, () -> service.captureHold(hold.getId()));
+        assertThrows(HoldNotFoundException.class, () -> service.releaseHold(hold.getId()));
+    }
+
+    @Test
+    void shouldRejectCapturingMoreThanHeld() {
+        // given
+        when(clock.instant()).thenReturn(fixedInstant);
+        LedgerService service = new LedgerService(1, clock);
+        service.deposit("alice", Money.of("100.00"));
+        Hold hold = service.placeHold("alice", Money.of("10.00"), Duration.ofMinutes(15));
+
+        // when & then
+        assertThrows(IllegalArgumentException.class, () -> service.captureHold(hold.getId(), Money.of("10.01")));
+        assertEquals(Money.of("90.00"), service.getAvailableBalance("alice"));
+        assertEquals(1, service.getOpenHoldCount());
+    }
+
+    @Test
+    void shouldKeepCapturedAmountHeldUntilTheWithdrawalIsStored() {
+        // given
+        when(clock.instant()).thenReturn(fixedInstant);
+        when(transactionRepository.findAllOrderByTimestampDesc()).thenReturn(Collections.emptyList());
+        List<Money> balancesWhileStoring = new ArrayList<>();
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> {
+            balancesWhileStoring.add(ledgerService.getBalance());
+            balancesWhileStoring.add(ledgerService.getAvailableBalance(Account.DEFAULT_ID));
+            return invocation.getArgument(0);
+        });
+        ledgerService.deposit(Money.of("100.00"));
+        Hold hold = ledgerService.placeHold(Account.DEFAULT_ID, Money.of("30.00"), Duration.ofMinutes(15));
+        balancesWhileStoring.clear();
+
+        // when
+        ledgerService.captureHold(hold.getId(), Money.of("20.00"));
+
+        // then
+        assertEquals(List.of(Money.of("100.00"), Money.of("70.00")), balancesWhileStoring);
+        assertEquals(Money.of("80.00"), ledgerService.getBalance());
+        assertEquals(Money.of("80.00"), ledgerService.getAvailableBalance(Account.DEFAULT_ID));
+    }
+
+    @Test
+    void shouldKeepHoldOpenWhenCaptureCantBeStored() {
+        // given
+        when(clock.instant()).thenReturn(fixedInstant);
+        when(transactionRepository.findAllOrderByTimestampDesc()).thenReturn(Collections.emptyList());
+        when(transactionRepository.save(any(Transaction.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0))
+                .thenThrow(new IllegalStateException("disk full"));
+        ledgerService.deposit(Money.of("100.00"));
+        Hold hold = ledgerService.placeHold(Account.DEFAULT_ID, Money.of("30.00"), Duration.ofMinutes(15));
+
+        // when
+        assertThrows(IllegalStateException.class, () -> ledgerService.captureHold(hold.getId()));
+
+        // then
+        assertEquals(Money.of("100.00"), ledgerService.getBalance());
+        assertEquals(Money.of("70.00"), ledgerService.getAvailableBalance(Account.DEFAULT_ID));
+        assertSame(hold, ledgerService.releaseHold(hold.getId()));
+        assertEquals(Money.of("100.00"), ledgerService.getAvailableBalance(Account.DEFAULT_ID));
+    }
+
+    @Test
+    void shouldReleaseHoldsOnceTheyExpire() {
+        // given
+        Instant[] now = {fixedInstant};
+        when(clock.instant()).thenAnswer(invocation -> now[0]);
+        LedgerService service = new LedgerService(2, clock);
+        service.deposit("alice", Money.of("100.00"));
+        service.placeHold("alice", Money.of("10.00"), Duration.ofMinutes(1));
+        Hold later = service.placeHold("alice", Money.of("20.00"), Duration.ofMinutes(10));
+        Hold released = service.placeHold("alice", Money.of("30.00"), Duration.ofMinutes(1));
+        service.releaseHold(released.getId());
+
+        // when
+        now[0] = fixedInstant.plus(Duration.ofSeconds(59));
+        int early = service.expireHolds();
+        // Expiry rounds up to the wheel's 10ms tick
+        now[0] = fixedInstant.plus(Duration.ofMinutes(1)).plusMillis(10);
+        int due = service.expireHolds();
+
+        // then
+        assertEquals(0, early);
+        assertEquals(1, due);
+        assertEquals(1, service.getOpenHoldCount());
+        assertEquals(Money.of("80.00"), service.getAvailableBalance("alice"));
+        assertEquals(Money.of("100.00"), service.getBalance("alice"));
+        service.captureHold(later.getId());
+        assertEquals(Money.of("80.00"), service.getBalance("alice"));
+    }
+
+    @Test
+    void shouldRejectHoldsBehindCoordinator() {
+        // given
+        ledgerService.setWriteCoordinator(command -> new CompletableFuture<>());
+
+        // when & then
+        assertThrows(IllegalStateException.class,
+                () -> ledgerService.placeHold(Account.DEFAULT_ID, Money.of("1.00"), Duration.ofMinutes(1)));
+    }
+
+    @Test
+    void shouldReturnBalanceAndHistoryAsOfInstant() {
+        // given
+        LedgerService service = new LedgerService(2, clock);
+        when(clock.instant()).thenReturn(fixedInstant, fixedInstant.plusSeconds(3600), fixedInstant.plusSeconds(7200));
+        service.deposit("alice", Money.of("100.00"));
+        service.withdraw("alice", Money.of("30.00"));
+        service.deposit("alice", Money.of("5.00"));
+
+        // when
+        Money balance = service.getBalance("alice", fixedInstant.plusSeconds(5400));
+        List<Transaction> history = service.getTransactions("alice", fixedInstant.plusSeconds(5400));
+
+        // then
+        assertEquals(Money.of("70.00"), balance);
+        assertEquals(List.of(2L, 1L), history.stream().map(Transaction::getSequence).toList());
+        assertEquals(Money.of("0.00"), service.getBalance("alice", fixedInstant.minusNanos(1)));
+        assertEquals(Money.of("75.00"), service.getBalance("alice", fixedInstant.plusSeconds(7200)));
+        assertEquals(Money.of("75.00"), service.getBalance("alice"));
+    }
+
+    @Test
+    void shouldCutHistoryAsOfInstantInWriteOrder() {
+        // given
+        LedgerService service = new LedgerService(1, clock);
+        when(clock.instant()).thenReturn(fixedInstant.plusSeconds(10), fixedInstant);
+        service.deposit("alice", Money.of("10.00"));
+        service.withdraw("alice", Money.of("4.00"));
+
+        // when
+        Money balance = service.getBalance("alice", fixedInstant.plusSeconds(5));
+
+        // then
+        assertEquals(Money.of("0.00"), balance);
+        assertEquals(List.of(), service.getTransactions("alice", fixedInstant.plusSeconds(5)));
+    }
+
+    @Test
+    void shouldCompactOldTransactionsKeepingBalancesExact() throws Exception {
+        // given
+        LedgerService service = new LedgerService(4, clock);
+        when(clock.instant()).thenReturn(fixedInstant, fixedInstant.plusSeconds(1), fixedInstant.plusSeconds(2),
+                fixedInstant.plusSeconds(3), fixedInstant.plusSeconds(3600));
+        service.deposit("alice", Money.of("100.00"));
+        service.deposit("bob", Money.of("20.00"));
+        service.transfer("alice", "bob", Money.of("30.00"));
+        service.withdraw("alice", Money.of("5.00"));
+
+        // when
+        int folded = service.compact(fixedInstant.plusSeconds(60), null);
+
+        // then
+        assertEquals(5, folded);
+        assertEquals(5, service.getCompactedThrough());
+        assertEquals(Money.of("65.00"), service.getBalance("alice"));
+        assertEquals(Money.of("50.00"), service.getBalance("bob"));
+        List<Transaction> history = service.getTransactions("alice");
+        assertEquals(1, history.size());
+        assertEquals(TransactionType.BALANCE_FORWARD, history.getFirst().getType());
+        assertEquals(Money.of("65.00"), history.getFirst().getAmount());
+        assertEquals(6, service.deposit("alice", Money.of("1.00")).getSequence());
+        assertEquals(0, service.compact(fixedInstant.plusSeconds(60), null));
+    }
+
+    @Test
+    void shouldOnlyCompactLedgerPrefixAcrossShards() throws Exception {
+        // given
+        LedgerService service = new LedgerService(8, clock);
+        when(clock.instant()).thenReturn(fixedInstant, fixedInstant.plusSeconds(120), fixedInstant.plusSeconds(1));
+        service.deposit("alice", Money.of("1.00"));
+        service.deposit("bob", Money.of("2.00"));
+        service.deposit("carol", Money.of("3.00"));
+
+        // when
+        int folded = service.compact(fixedInstant.plusSeconds(60), null);
+
+        // then
+        assertEquals(1, folded);
+        assertEquals(1, service.getCompactedThrough());
+        assertEquals(TransactionType.DEPOSIT, service.getTransactions("carol").getFirst().getType());
+    }
+
+    @Test
+    void shouldRejectResumingInsideCompactedHistory() throws Exception {
+        // given
+        LedgerService service = new LedgerService(2, clock);
+        when(clock.instant()).thenReturn(fixedInstant, fixedInstant.plusSeconds(1), fixedInstant.plusSeconds(3600));
+        service.deposit("alice", Money.of("1.00"));
+        service.deposit("alice", Money.of("2.00"));
+        service.deposit("bob", Money.of("4.00"));
+        service.compact(fixedInstant.plusSeconds(60), null);
+
+        // when & then
+        assertThrows(HistoryCompactedException.class, () -> service.getTransactionsSince(1));
+        assertEquals(List.of(3L), service.getTransactionsSince(2).stream().map(Transaction::getSequence).toList());
+        List<Transaction> snapshot = service.getTransactionsSince(0);
+        assertEquals(List.of(2L, 3L), snapshot.stream().map(Transaction::getSequence).toList());
+        assertEquals(TransactionType.BALANCE_FORWARD, snapshot.getFirst().getType());
+    }
+
+    @Test
+    void shouldReplicateCompactedLedgerFromItsSnapshot() throws Exception {
+        // given
+        LedgerService leader = new LedgerService(2, Clock.fixed(fixedInstant, ZoneId.systemDefault()));
+        leader.deposit("alice", Money.of("10.00"));
+        leader.deposit("bob", Money.of("5.00"));
+        leader.withdraw("alice", Money.of("4.00"));
+        leader.compact(fixedInstant.plusSeconds(1), null);
+        leader.deposit("bob", Money.of("1.00"));
+        LedgerService follower = new LedgerService(2, clock);
+        follower.setReplica(true);
+
+        // when
+        leader.getTransactionsSince(0).forEach(follower::replicate);
+
+        // then
+        assertEquals(Money.of("6.00"), follower.getBalance("alice"));
+        assertEquals(Money.of("6.00"), follower.getBalance("bob"));
+        assertEquals(4, follower.getVersion());
+        assertEquals(3, follower.getCompactedThrough());
+    }
+
+    @Test
+    void shouldRejectCompactionOfUnsupportedStorage() {
+        // given
+        LedgerService service = LedgerService.resume(List.of(mock(TransactionRepository.class)), clock);
+
+        // when & then
+        assertFalse(service.isCompactable());
+        assertThrows(IllegalStateException.class, () -> service.compact(fixedInstant, null));
+    }
+
+    // Stores deposits at once but keeps withdrawals waiting for durability until released
+    private static class HeldWithdrawalRepository extends InMemoryTransactionRepository
+            implements BatchingTransactionRepository {
+
+        private final CountDownLatch withdrawalQueued = new CountDownLatch(1);
+        private final CompletableFuture<Void> released = new CompletableFuture<>();
+
+        @Override
+        public CompletableFuture<Transaction> enqueue(Transaction transaction) {
+            Transaction saved = save(transaction);
+            if (transaction.getType() != TransactionType.WITHDRAW) {
+                return CompletableFuture.completedFuture(saved);
+            }
+            withdrawalQueued.countDown();
+            return released.thenApply(ignored -> saved);
+        }
+
+        @Override
+        public CompletableFuture<Void> enqueueEntry(List<Transaction> legs, List<BatchingTransactionRepository> repositories) {
+            throw new UnsupportedOperationException();
+        }
+
+        void release() {
+            released.complete(null);
+        }
+    }
+
+    @Test
+    void shouldKeepSeparateBalancePerCurrency() {
+        // given
+        LedgerService service = new LedgerService(new InMemoryTransactionRepository(), Clock.fixed(fixedInstant, ZoneId.systemDefault()));
+        Currency dollar = Currency.getInstance("USD");
+        Currency yen = Currency.getInstance("JPY");
+        service.deposit("alice", Money.of("10.00"));
+        service.deposit("alice", Money.of("25.50", dollar));
+        service.deposit("alice", Money.of("1200", yen));
+
+        // when
+        service.withdraw("alice", Money.of("5.50", dollar));
+        service.transfer("alice", "bob", Money.of("200", yen));
+
+        // then
+        assertEquals(Money.of("10.00"), service.getBalance("alice"));
+        assertEquals(Money.of("20.00", dollar), service.getBalance("alice", dollar));
+        assertEquals(Money.of("1000", yen), service.getBalance("alice", yen));
+        assertEquals(Money.of("200", yen), service.getBalance("bob", yen));
+        assertEquals(List.of(Money.of("10.00"), Money.of("20.00", dollar), Money.of("1000", yen)), service.getBalances("alice"));
+        assertEquals(Money.of("0", yen), service.getBalance("alice", yen, fixedInstant.minusSeconds(1)));
+        assertEquals(Money.of("1000", yen), service.getBalance("alice", yen, fixedInstant));
+    }
+
+    @Test
+    void shouldNotSpendOneCurrencyFromAnother() {
+        // given
+        LedgerService service = new LedgerService(new InMemoryTransactionRepository(), Clock.fixed(fixedInstant, ZoneId.systemDefault()));
+        Currency dollar = Currency.getInstance("USD");
+        service.deposit("alice", Money.of("100.00"));
+        service.deposit("alice", Money.of("5.00", dollar));
+
+        // when
+        InsufficientFundsException ex = assertThrows(InsufficientFundsException.class,
+                () -> service.withdraw("alice", Money.of("6.00", dollar)));
+
+        // then
+        assertEquals(Money.of("5.00", dollar), ex.getAvailable());
+        assertEquals(Money.of("5.00", dollar), service.getBalance("alice", dollar));
+        assertEquals(Money.of("100.00"), service.getBalance("alice"));
+    }
+
+    @Test
+    void shouldHoldAndCaptureInAnotherCurrency() {
+        // given
+        LedgerService service = new LedgerService(new InMemoryTransactionRepository(), Clock.fixed(fixedInstant, ZoneId.systemDefault()));
+        Currency pound = Currency.getInstance("GBP");
+        service.deposit("alice", Money.of("50.00", pound));
+        Hold hold = service.placeHold("alice", Money.of("20.00", pound), Duration.ofMinutes(5));
+
+        // when
+        assertThrows(IllegalArgumentException.class, () -> service.captureHold(hold.getId(), Money.of("5.00")));
+        service.captureHold(hold.getId(), Money.of("15.00", pound));
+
+        // then
+        assertEquals(Money.of("35.00", pound), service.getBalance("alice", pound));
+        assertEquals(Money.of("35.00", pound), service.getAvailableBalance("alice", pound));
+        assertEquals(Money.of("0.00"), service.getBalance("alice"));
+    }
+
+    @Test
+    void shouldReloadBalancesPerCurrencyFromHistory() {
+        // given
+        InMemoryTransactionRepository repository = new InMemoryTransactionRepository();
+        Clock fixedClock = Clock.fixed(fixedInstant, ZoneId.systemDefault());
+        Currency franc = Currency.getInstance("CHF");
+        LedgerService service = new LedgerService(repository, fixedClock);
+        service.deposit("alice", Money.of("7.00"));
+        service.deposit("alice", Money.of("9.00", franc));
+        service.withdraw("alice", Money.of("4.00", franc));
+
+        // when
+        LedgerService resumed = LedgerService.resume(List.of(repository), fixedClock);
+
+        // then
+        assertEquals(Money.of("7.00"), resumed.getBalance("alice"));
+        assertEquals(Money.of("5.00", franc), resumed.getBalance("alice", franc));
+    }
+
+    @Test
+    void shouldChainStoredAndNewTransactionsAndDetectTampering() {
+        // given
+        List<Transaction> replaced = new ArrayList<>();
+        InMemoryTransactionRepository repository = new InMemoryTransactionRepository() {
+            @Override
+            public synchronized List<Transaction> findAllAfterSequence(long sequence) {
+                return replace(super.findAllAfterSequence(sequence));
+            }
+
+            @Override
+            public synchronized List<Transaction> findAllInSequenceRange(long afterSequence, long lastSequence) {
+                return replace(super.findAllInSequenceRange(afterSequence, lastSequence));
+            }
+
+            private List<Transaction> replace(List<Transaction> stored) {
+                List<Transaction> found = new ArrayList<>(stored);
+                found.replaceAll(transaction -> replaced.stream()
+                        .filter(replacement -> replacement.getId().equals(transaction.getId()))
+                        .findFirst()
+                        .orElse(transaction));
+                return found;
+            }
+        };
+        Clock fixedClock = Clock.fixed(fixedInstant, ZoneId.systemDefault());
+        new LedgerService(repository, fixedClock).deposit("alice", Money.of("100.00"));
+        LedgerService service = LedgerService.resume(List.of(repository), fixedClock);
+        service.enableHashChain(2);
+        service.withdraw("alice", Money.of("30.00"));
+        Transaction transferred = service.transfer("alice", "bob", Money.of("20.00")).debit();
+
+        // when
+        ChainVerification intact = service.verifyHashChain();
+        replaced.add(new Transaction(transferred.getId(), transferred.getSequence(), "alice",
+                TransactionType.TRANSFER_OUT, Money.of("2.00"), transferred.getCreatedAt()));
+        ChainVerification tampered = service.verifyHashChain();
+
+        // then
+        assertTrue(service.isHashChained());
+        assertEquals(new ChainHead(4, 4, intact.head().hash()), service.getChainHead());
+        assertEquals(2, service.getChainCheckpoints(0, 10).size());
+        assertTrue(intact.intact());
+        assertEquals(4, intact.verifiedTransactions());
+        assertFalse(tampered.intact());
+        assertEquals(3, tampered.firstBrokenSequence());
+    }
+
+    @Test
+    void shouldRejectChainQueriesWhenNotEnabled() {
+        // given
+        LedgerService service = new LedgerService(new InMemoryTransactionRepository(), Clock.fixed(fixedInstant, ZoneId.systemDefault()));
+
+        // when & then
+        assertFalse(service.isHashChained());
+        assertThrows(IllegalStateException.class, service::verifyHashChain);
+    }
+
+    @Test
+    void shouldImportBatchInOrderAcrossShards() {
+        // given
+        LedgerService service = new LedgerService(4, Clock.fixed(fixedInstant.minusSeconds(7200), ZoneId.systemDefault()));
+        service.deposit("carol", Money.of("1.00"));
+        Instant historic = fixedInstant.minusSeconds(3600);
+        List<Transaction> batch = List.of(
+                new Transaction(0, "alice", TransactionType.DEPOSIT, Money.of("50.00"), historic),
+                new Transaction(0, "bob", TransactionType.WITHDRAW, Money.of("1.00"), historic),
+                new Transaction(0, "alice", TransactionType.WITHDRAW, Money.of("20.00"), historic),
+                new Transaction(0, "bob", TransactionType.TRANSFER_IN, Money.of("1.00"), historic),
+                new Transaction(0, "carol", TransactionType.DEPOSIT, Money.of("2.00"), historic));
+        List<Integer> rejected = new ArrayList<>();
+
+        // when
+        int recorded = service.importBatch(batch, (ex, index) -> rejected.add(index));
+
+        // then
+        assertEquals(3, recorded);
+        assertEquals(List.of(1, 3), rejected);
+        assertEquals(Money.of("30.00"), service.getBalance("alice"));
+        assertEquals(Money.of("3.00"), service.getBalance("carol"));
+        List<Transaction> history = service.getTransactionsSince(1);
+        assertEquals(List.of(2L, 3L, 4L), history.stream().map(Transaction::getSequence).toList());
+        assertEquals(List.of(batch.get(0).getId(), batch.get(2).getId(), batch.get(4).getId()),
+                history.stream().map(Transaction::getId).toList());
+        assertEquals(historic, history.getFirst().getCreatedAt());
+        assertEquals(4, service.getVersion());
+    }
+
+    @Test
+    void shouldRejectImportsCreatedBeforeTheLatestRecordedTransaction() {
+        // given
+        LedgerService service = new LedgerService(4, Clock.fixed(fixedInstant, ZoneId.systemDefault()));
+        service.deposit("carol", Money.of("1.00"));
+        List<Transaction> batch = List.of(
+                new Transaction(0, "alice", TransactionType.DEPOSIT, Money.of("50.00"), fixedInstant.minusSeconds(1)),
+                new Transaction(0, "alice", TransactionType.DEPOSIT, Money.of("5.00"), fixedInstant.plusSeconds(2)),
+                new Transaction(0, "bob", TransactionType.DEPOSIT, Money.of("7.00"), fixedInstant.plusSeconds(1)));
+        List<Integer> rejected = new ArrayList<>();
+
+        // when
+        int recorded = service.importBatch(batch, (ex, index) -> rejected.add(index));
+
+        // then
+        assertEquals(1, recorded);
+        assertEquals(List.of(0, 2), rejected);
+        assertEquals(Money.of("5.00"), service.getBalance("alice"));
+        assertEquals(Money.of("5.00"), service.getBalance("alice", fixedInstant.plusSeconds(2)));
+    }
+
+    @Test
+    void shouldPostBalancedEntriesAcrossChartOfAccounts() {
+        // given
+        LedgerService service = new LedgerService(4, Clock.fixed(fixedInstant, ZoneId.systemDefault()));
+        service.setChartOfAccounts(new ChartOfAccounts(Map.of(
+                "cash", AccountKind.ASSET, "capital", AccountKind.EQUITY, "fees", AccountKind.REVENUE)));
+        service.deposit("alice", Money.of("50.00"));
+
+        // when
+        PostedEntry invested = service.post(List.of(
+                Posting.debit("cash", Money.of("100.00")), Posting.credit("capital", Money.of("100.00"))));
+        PostedEntry charged = service.post(List.of(
+                Posting.credit("fees", Money.of("5.00")), Posting.debit("alice", Money.of("5.00"))));
+
+        // then
+        assertEquals(List.of(TransactionType.TRANSFER_IN, TransactionType.TRANSFER_IN),
+                invested.legs().stream().map(Transaction::getType).toList());
+        assertEquals(List.of(TransactionType.TRANSFER_IN, TransactionType.TRANSFER_OUT),
+                charged.legs().stream().map(Transaction::getType).toList());
+        assertEquals(List.of(4L, 5L), charged.legs().stream().map(Transaction::getSequence).toList());
+        assertEquals(Money.of("100.00"), service.getBalance("cash"));
+        assertEquals(Money.of("100.00"), service.getBalance("capital"));
+        assertEquals(Money.of("5.00"), service.getBalance("fees"));
+        assertEquals(Money.of("45.00"), service.getBalance("alice"));
+        assertEquals(5, service.getVersion());
+    }
+
+    @Test
+    void shouldRejectEntriesThatDontBalance() {
+        // given
+        LedgerService service = new LedgerService(new InMemoryTransactionRepository(), Clock.fixed(fixedInstant, ZoneId.systemDefault()));
+        service.deposit("alice", Money.of("10.00"));
+        Currency dollar = Currency.getInstance("USD");
+
+        // when & then
+        assertThrows(IllegalArgumentException.class, () -> service.post(List.of(
+                Posting.debit("alice", Money.of("5.00")))));
+        assertThrows(IllegalArgumentException.class, () -> service.post(List.of(
+                Posting.debit("alice", Money.of("5.00")), Posting.credit("bob", Money.of("4.99")))));
+        assertThrows(IllegalArgumentException.class, () -> service.post(List.of(
+                Posting.debit("alice", Money.of("5.00")), Posting.credit("bob", Money.of("5.00", dollar)))));
+        assertThrows(IllegalArgumentException.class, () -> service.post(List.of(
+                Posting.debit("alice", Money.of("5.00")), Posting.credit("alice", Money.of("5.00")))));
+        assertThrows(IllegalArgumentException.class, () -> Posting.debit("alice", Money.of("0.00")));
+        assertEquals(1, service.getVersion());
+    }
+
+    @Test
+    void shouldRecordNoLegWhenOneCannotBeCovered() {
+        // given
+        LedgerService service = new LedgerService(2, Clock.fixed(fixedInstant, ZoneId.systemDefault()));
+        service.deposit("alice", Money.of("10.00"));
+
+        // when
+        assertThrows(InsufficientFundsException.class, () -> service.post(List.of(
+                Posting.debit("alice", Money.of("5.00")),
+                Posting.debit("bob", Money.of("5.00")),
+                Posting.credit("carol", Money.of("10.00")))));
+
+        // then
+        assertEquals(Money.of("10.00"), service.getAvailableBalance("alice"));
+        assertEquals(Money.of("0.00"), service.getBalance("carol"));
+        assertEquals(1, service.getVersion());
+        assertEquals(1, service.getTransactionsSince(0).size());
+    }
+
+    @Test
+    void shouldRejectTransferBetweenDebitAndCreditNormalAccounts() {
+        // given
+        LedgerService service = new LedgerService(new InMemoryTransactionRepository(), Clock.fixed(fixedInstant, ZoneId.systemDefault()));
+        service.setChartOfAccounts(new ChartOfAccounts(Map.of("cash", AccountKind.ASSET, "bank", AccountKind.ASSET)));
+        service.deposit("cash", Money.of("10.00"));
+
+        // when
+        Transfer moved = service.transfer("cash", "bank", Money.of("4.00"));
+
+        // then
+        assertEquals(Money.of("4.00"), service.getBalance("bank"));
+        assertNotNull(moved.credit());
+        assertThrows(IllegalArgumentException.class, () -> service.transfer("cash", "alice", Money.of("1.00")));
+    }
+
+    @Test
+    void shouldKeepTrialBalanceUpToDate() {
+        // given
+        LedgerService service = new LedgerService(4, Clock.fixed(fixedInstant, ZoneId.systemDefault()));
+        service.setChartOfAccounts(new ChartOfAccounts(Map.of("cash", AccountKind.ASSET, "capital", AccountKind.EQUITY)));
+        service.enableTrialBalance();
+        Currency dollar = Currency.getInstance("USD");
+
+        // when
+        service.deposit("alice", Money.of("100.00"));
+        service.transfer("alice", "bob", Money.of("30.00"));
+        service.withdraw("bob", Money.of("10.00"));
+        service.post(List.of(Posting.debit("cash", Money.of("50.00")), Posting.credit("capital", Money.of("50.00"))));
+        service.deposit("alice", Money.of("7.00", dollar));
+        TrialBalance trialBalance = service.getTrialBalance();
+
+        // then
+        assertTrue(trialBalance.isBalanced());
+        assertEquals(List.of(
+                new TrialBalance.Line("alice", AccountKind.LIABILITY, Money.of("0.00"), Money.of("70.00")),
+                new TrialBalance.Line("alice", AccountKind.LIABILITY, Money.of("0.00", dollar), Money.of("7.00", dollar)),
+                new TrialBalance.Line("bob", AccountKind.LIABILITY, Money.of("0.00"), Money.of("20.00")),
+                new TrialBalance.Line("capital", AccountKind.EQUITY, Money.of("0.00"), Money.of("50.00")),
+                new TrialBalance.Line("cash", AccountKind.ASSET, Money.of("50.00"), Money.of("0.00")),
+                new TrialBalance.Line(TrialBalance.EXTERNAL_ACCOUNT, AccountKind.ASSET, Money.of("90.00"), Money.of("0.00")),
+                new TrialBalance.Line(TrialBalance.EXTERNAL_ACCOUNT, AccountKind.ASSET, Money.of("7.00", dollar), Money.of("0.00", dollar))),
+                trialBalance.lines());
+        assertEquals(List.of(
+                new TrialBalance.Total(Currencies.DEFAULT, Money.of("140.00"), Money.of("140.00")),
+                new TrialBalance.Total(dollar, Money.of("7.00", dollar), Money.of("7.00", dollar))),
+                trialBalance.totals());
+    }
+
+    @Test
+    void shouldSeedTrialBalanceFromStoredHistory() {
+        // given
+        InMemoryTransactionRepository repository = new InMemoryTransactionRepository();
+        Clock fixedClock = Clock.fixed(fixedInstant, ZoneId.systemDefault());
+        LedgerService previous = new LedgerService(repository, fixedClock);
+        previous.deposit("alice", Money.of("100.00"));
+        previous.transfer("alice", "bob", Money.of("30.00"));
+
+        // when
+        LedgerService service = LedgerService.resume(List.of(repository), fixedClock);
+        service.enableTrialBalance();
+        service.withdraw("bob", Money.of("5.00"));
+
+        // then
+        assertEquals(List.of(new TrialBalance.Total(Currencies.DEFAULT, Money.of("95.00"), Money.of("95.00"))),
+                service.getTrialBalance().totals());
+    }
+
+    @Test
+    void shouldRejectTrialBalanceWhenNotEnabled() {
+        // given
+        LedgerService service = new LedgerService(new InMemoryTransactionRepository(), Clock.fixed(fixedInstant, ZoneId.systemDefault()));
+
+        // when & then
+        assertFalse(service.isTrialBalanceEnabled());
+        assertThrows(IllegalStateException.class, service::getTrialBalance);
+    }
+
+    @Test
+    void shouldRollUpEveryBalanceChangeThroughTheHierarchy() {
+        // given
+        LedgerService service = new LedgerService(4, Clock.fixed(fixedInstant, ZoneId.systemDefault()));
+        service.setAccountHierarchy(Map.of("alice", "shop-1", "bob", "shop-1", "carol", "shop-2",
+                "shop-1", "region-eu", "shop-2", "region-eu"));
+        Currency dollar = Currency.getInstance("USD");
+
+        // when
+        service.deposit("alice", Money.of("100.00"));
+        service.deposit("carol", Money.of("40.00"));
+        service.deposit("shop-1", Money.of("1.00"));
+        service.withdraw("alice", Money.of("10.00"));
+        service.transfer("alice", "dave", Money.of("5.00"));
+        Hold hold = service.placeHold("carol", Money.of("15.00"), Duration.ofMinutes(5));
+        service.captureHold(hold.getId(), Money.of("6.00"));
+        service.deposit("bob", Money.of("3.00", dollar));
+
+        // then
+        assertEquals(Money.of("86.00"), service.getRollupBalance("shop-1", Currencies.DEFAULT));
+        assertEquals(Money.of("34.00"), service.getRollupBalance("shop-2", Currencies.DEFAULT));
+        assertEquals(Money.of("120.00"), service.getRollupBalance("region-eu", Currencies.DEFAULT));
+        assertEquals(List.of(Money.of("120.00"), Money.of("3.00", dollar)), service.getRollupBalances("region-eu"));
+        assertEquals(Money.of("85.00"), service.getRollupBalance("alice", Currencies.DEFAULT));
+        assertEquals(Money.of("5.00"), service.getRollupBalance("dave", Currencies.DEFAULT));
+        assertEquals("region-eu", service.getParent("shop-2"));
+        assertNull(service.getParent("region-eu"));
+        assertEquals(List.of("alice", "bob"), service.getChildren("shop-1"));
+        assertEquals(List.of(), service.getChildren("dave"));
+    }
+
+    @Test
+    void shouldNeverShowATransferInsideAGroupHalfApplied() throws Exception {
+        // given
+        LedgerService service = new LedgerService(8, Clock.fixed(fixedInstant, ZoneId.systemDefault()));
+        Map<String, String> parents = new HashMap<>();
+        for (int i = 0; i < 16; i++) {
+            parents.put("merchant-" + i, "tenant");
+            service.deposit("merchant-" + i, Money.of("10.00"));
+        }
+        service.setAccountHierarchy(parents);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        AtomicBoolean done = new AtomicBoolean();
+
+        // when
+        List<Future<?>> transfers = new ArrayList<>();
+        for (int thread = 0; thread < 3; thread++) {
+            int offset = thread;
+            transfers.add(executor.submit(() -> {
+                for (int i = 0; i < 2000; i++) {
+                    service.transfer("merchant-" + (i + offset) % 16, "merchant-" + (i + offset + 1) % 16,
+                            Money.of("0.50"));
+                }
+            }));
+        }
+        Future<Set<Money>> reads = executor.submit(() -> {
+            Set<Money> seen = new HashSet<>();
+            while (!done.get()) {
+                seen.add(service.getRollupBalance("tenant", Currencies.DEFAULT));
+            }
+            return seen;
+        });
+        for (Future<?> transfer : transfers) {
+            transfer.get(30, TimeUnit.SECONDS);
+        }
+        done.set(true);
+        Set<Money> seen = reads.get(30, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        // then
+        assertEquals(Set.of(Money.of("160.00")), seen);
+    }
+
+    @Test
+    void shouldSeedRollupsFromStoredBalances() {
+        // given
+        InMemoryTransactionRepository repository = new InMemoryTransactionRepository();
+        Clock fixedClock = Clock.fixed(fixedInstant, ZoneId.systemDefault());
+        LedgerService previous = new LedgerService(repository, fixedClock);
+        previous.deposit("alice", Money.of("100.00"));
+        previous.transfer("alice", "bob", Money.of("30.00"));
+
+        // when
+        LedgerService service = LedgerService.resume(List.of(repository), fixedClock);
+        service.setAccountHierarchy(Map.of("alice", "tenant", "bob", "tenant"));
+        service.withdraw("bob", Money.of("5.00"));
+
+        // then
+        assertEquals(Money.of("95.00"), service.getRollupBalance("tenant", Currencies.DEFAULT));
+    }
+
+    @Test
+    void shouldRejectCyclicHierarchy() {
+        // given
+        LedgerService service = new LedgerService(new InMemoryTransactionRepository(), Clock.fixed(fixedInstant, ZoneId.systemDefault()));
+
+        // when & then
+        assertThrows(IllegalArgumentException.class,
+                () -> service.setAccountHierarchy(Map.of("a", "b", "b", "c", "c", "a")));
+        assertThrows(IllegalArgumentException.class, () -> service.setAccountHierarchy(Map.of("a", "a")));
+        assertThrows(IllegalArgumentException.class, () -> service.setAccountHierarchy(Map.of("a", "not valid")));
+    }
+
+    @Test
+    void shouldRollUpConcurrentWritesUnderOneParent() throws Exception {
+        // given
+        LedgerService service = new LedgerService(8, Clock.fixed(fixedInstant, ZoneId.systemDefault()));
+        Map<String, String> parents = new HashMap<>();
+        for (int i = 0; i < 64; i++) {
+            parents.put("merchant-" + i, "tenant");
+        }
+        service.setAccountHierarchy(parents);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // when
+        List<Future<?>> writes = new ArrayList<>();
+        for (int thread = 0; thread < 8; thread++) {
+            int offset = thread;
+            writes.add(executor.submit(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    String merchant = "merchant-" + (i + offset) % 64;
+                    service.deposit(merchant, Money.of("2.00"));
+                    service.withdraw(merchant, Money.of("1.00"));
+                }
+            }));
+        }
+        for (Future<?> write : writes) {
+            write.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // then
+        long expected = 0;
+        for (String merchant : parents.keySet()) {
+            expected += service.getBalance(merchant).getMinorUnits();
+        }
+        assertEquals(Money.of("8000.00"), service.getRollupBalance("tenant", Currencies.DEFAULT));
+        assertEquals(expected, service.getRollupBalance("tenant", Currencies.DEFAULT).getMinorUnits());
+    }
 }
@@ -3,6 +3,7 @@ package com.example.ledger.domain;
 import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
+import java.util.Currency;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -166,4 +167,92 @@ class MoneyTest {
         // then
         assertEquals("10.50", result);
     }
+
+    @Test
+    void shouldCreateMoneyFromMinorUnits() {
+        // when
+        Money money = Money.ofMinorUnits(1050);
+
+        // then
+        assertEquals(new BigDecimal("10.50"), money.getAmount());
+        assertEquals(1050, money.getMinorUnits());
+        assertEquals(Money.of("10.50"), money);
+    }
+
+    @Test
+    void shouldRejectNegativeMinorUnits() {
+        // when & then
+        assertThrows(IllegalArgumentException.class, () -> Money.ofMinorUnits(-1));
+    }
+
+    @Test
+    void shouldRejectAmountTooLargeForMinorUnits() {
+        // given
+        BigDecimal amount = new BigDecimal("92233720368547758.08");
+
+        // when & then
+        assertThrows(IllegalArgumentException.class, () -> Money.of(amount));
+    }
+
+    @Test
+    void shouldRejectOverflowingAddition() {
+        // given
+        Money max = Money.ofMinorUnits(Long.MAX_VALUE);
+
+        // when & then
+        assertThrows(IllegalArgumentException.class, () -> max.add(Money.ofMinorUnits(1)));
+    }
+
+    @Test
+    void shouldUseMinorUnitsOfCurrency() {
+        // given
+        Currency yen = Currency.getInstance("JPY");
+        Currency dinar = Currency.getInstance("BHD");
+
+        // when
+        Money inYen = Money.of("1500", yen);
+        Money inDinar = Money.of("1.125", dinar);
+
+        // then
+        assertEquals(1500, inYen.getMinorUnits());
+        assertEquals(1125, inDinar.getMinorUnits());
+        assertEquals(new BigDecimal("1.125"), inDinar.getAmount());
+        assertEquals("1.125 BHD", inDinar.toString());
+        assertThrows(IllegalArgumentException.class, () -> Money.of("1.5", yen));
+    }
+
+    @Test
+    void shouldTellCurrenciesApart() {
+        // given
+        Money euros = Money.of("10.00");
+        Money dollars = Money.of("10.00", Currency.getInstance("USD"));
+
+        // when & then
+        assertNotEquals(euros, dollars);
+        assertEquals(Currencies.DEFAULT, euros.getCurrency());
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> euros.add(dollars));
+        assertEquals("Currency mismatch: EUR and USD", ex.getMessage());
+    }
+
+    @Test
+    void shouldRejectCurrencyWithoutMinorUnit() {
+        // when & then
+        assertThrows(IllegalArgumentException.class, () -> Money.of("1", Currency.getInstance("XAU")));
+        assertThrows(IllegalArgumentException.class, () -> Currencies.of("ZZZ"));
+    }
+
+    @Test
+    void shouldRoundTripCompactCurrencyCode() {
+        // given
+        Currency dollar = Currencies.of("usd");
+
+        // when
+        int code = Currencies.codeOf(dollar);
+
+        // then
+        assertEquals(0, Currencies.codeOf(Currencies.DEFAULT));
+        assertTrue(code > 0 && code <= 0xFFFF);
+        assertSame(dollar, Currencies.fromCode(code));
+        assertSame(Currencies.DEFAULT, Currencies.fromCode(0));
+    }
 }
@@ -0,0 +1,72 @@
+package com.example.ledger.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Currency;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RollupTest {
+
+    @Test
+    void shouldAddToEveryAncestor() {
+        // given
+        Rollup tenant = new Rollup("tenant", null);
+        Rollup region = new Rollup("region", tenant);
+        Rollup shop = new Rollup("shop", region);
+
+        // when
+        shop.add(Currencies.DEFAULT, 500);
+        region.add(Currencies.DEFAULT, 200);
+
+        // then
+        assertEquals(500, shop.getBalance(Currencies.DEFAULT));
+        assertEquals(700, region.getBalance(Currencies.DEFAULT));
+        assertEquals(700, tenant.getBalance(Currencies.DEFAULT));
+    }
+
+    @Test
+    void shouldStopBelowTheCommonAncestorOfATransfer() {
+        // given
+        Rollup tenant = new Rollup("tenant", null);
+        Rollup region = new Rollup("region", tenant);
+        Rollup shop = new Rollup("shop", region);
+        Rollup other = new Rollup("other", region);
+        shop.add(Currencies.DEFAULT, 500);
+
+        // when - the debit lands and the credit hasn't yet
+        Rollup shared = Rollup.commonAncestor(shop, other);
+        shop.add(Currencies.DEFAULT, -200, shared);
+
+        // then
+        assertSame(region, shared);
+        assertEquals(300, shop.getBalance(Currencies.DEFAULT));
+        assertEquals(500, region.getBalance(Currencies.DEFAULT));
+        assertEquals(500, tenant.getBalance(Currencies.DEFAULT));
+        assertSame(region, Rollup.commonAncestor(region, shop));
+        assertNull(Rollup.commonAncestor(shop, new Rollup("elsewhere", null)));
+        assertNull(Rollup.commonAncestor(shop, null));
+    }
+
+    @Test
+    void shouldReadShortSumAsZeroRatherThanNegative() {
+        // given
+        Currency dollar = Currency.getInstance("USD");
+        Rollup group = new Rollup("group", null);
+        Rollup from = new Rollup("from", group);
+        Rollup to = new Rollup("to", group);
+        from.add(Currencies.DEFAULT, 100);
+        from.add(dollar, 100);
+
+        // when - a read sees a debit without a credit that came before it
+        group.add(Currencies.DEFAULT, -300);
+        group.add(dollar, -300);
+
+        // then
+        assertEquals(0, group.getBalance(Currencies.DEFAULT));
+        assertEquals(0, group.getBalance(dollar));
+        assertEquals(List.of(Money.of("0.00"), Money.ofMinorUnits(0, dollar)), group.getBalances());
+        assertEquals(0, to.getBalance(dollar));
+    }
+}
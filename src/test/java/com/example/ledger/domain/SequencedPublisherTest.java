@@ -0,0 +1,75 @@
+package com.example.ledger.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SequencedPublisherTest {
+
+    private final List<Transaction> published = new ArrayList<>();
+    private final SequencedPublisher publisher = new SequencedPublisher(List.of(published::add));
+
+    @Test
+    void shouldPublishInSequenceOrder() {
+        // given
+        Transaction first = transaction(1);
+        Transaction second = transaction(2);
+        Transaction third = transaction(3);
+
+        // when
+        publisher.publish(3, third);
+        publisher.publish(2, second);
+
+        // then - nothing passes the gap at 1
+        assertTrue(published.isEmpty());
+        assertEquals(0, publisher.getCommitted());
+
+        // when
+        publisher.publish(1, first);
+
+        // then
+        assertEquals(List.of(first, second, third), published);
+        assertEquals(3, publisher.getCommitted());
+    }
+
+    @Test
+    void shouldSkipSequencesThatWereNotStored() {
+        // given
+        Transaction second = transaction(2);
+
+        // when
+        publisher.publish(2, second);
+        publisher.publish(1, null);
+
+        // then
+        assertEquals(List.of(second), published);
+        assertEquals(2, publisher.getCommitted());
+    }
+
+    @Test
+    void shouldKeepPublishingWhenListenerFails() {
+        // given
+        List<Transaction> received = new ArrayList<>();
+        SequencedPublisher failing = new SequencedPublisher(List.of(
+                transaction -> {
+                    throw new IllegalStateException("boom");
+                },
+                received::add));
+        Transaction transaction = transaction(1);
+
+        // when
+        failing.publish(1, transaction);
+
+        // then
+        assertEquals(List.of(transaction), received);
+        assertEquals(1, failing.getCommitted());
+    }
+
+    private static Transaction transaction(long sequence) {
+        return new Transaction(sequence, TransactionType.DEPOSIT, Money.of("1.00"), Instant.parse("2023-10-01T10:15:30Z"));
+    }
+}
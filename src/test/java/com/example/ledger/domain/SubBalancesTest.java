@@ -0,0 +1,54 @@
+package com.example.ledger.domain;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SubBalancesTest {
+
+    @Test
+    void shouldSpreadEvenlyAndKeepTheSum() {
+        // given
+        SubBalances subBalances = new SubBalances(4);
+
+        // when
+        subBalances.spread(10);
+        subBalances.credit(5);
+
+        // then
+        assertEquals(15, subBalances.sum());
+        assertEquals(15, subBalances.drain());
+        assertEquals(0, subBalances.sum());
+    }
+
+    @Test
+    void shouldOnlyDebitFromACoveringSlot() {
+        // given
+        SubBalances subBalances = new SubBalances(4);
+        subBalances.spread(100);
+
+        // when & then
+        assertTrue(subBalances.tryDebit(25));
+        assertFalse(subBalances.tryDebit(1));
+        assertEquals(75, subBalances.sum());
+    }
+
+    @Test
+    void shouldSpreadNegativeRemainders() {
+        // given
+        SubBalances subBalances = new SubBalances(3);
+
+        // when
+        subBalances.spread(-7);
+
+        // then
+        assertEquals(-7, subBalances.sum());
+        assertFalse(subBalances.tryDebit(1));
+    }
+
+    @Test
+    void shouldRejectNonPositiveCount() {
+        // when & then
+        assertThrows(IllegalArgumentException.class, () -> new SubBalances(0));
+    }
+}
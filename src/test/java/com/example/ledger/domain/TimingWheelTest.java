@@ -0,0 +1,124 @@
+package com.example.ledger.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTest {
+
+    private final Instant start = Instant.parse("2023-10-01T10:15:30Z");
+
+    @Test
+    void shouldExpireTimeoutsOnlyOnceDue() {
+        // given
+        TimingWheel<String> wheel = new TimingWheel<>(Duration.ofMillis(10), 3);
+        wheel.schedule("soon", start.plusMillis(50), start);
+        wheel.schedule("later", start.plusSeconds(30), start);
+        List<String> expired = new ArrayList<>();
+
+        // when
+        wheel.advance(start.plusMillis(40), expired::add);
+        List<String> early = List.copyOf(expired);
+        wheel.advance(start.plusMillis(50), expired::add);
+        wheel.advance(start.plusSeconds(29), expired::add);
+        List<String> beforeLater = List.copyOf(expired);
+        wheel.advance(start.plusSeconds(30), expired::add);
+
+        // then
+        assertEquals(List.of(), early);
+        assertEquals(List.of("soon"), beforeLater);
+        assertEquals(List.of("soon", "later"), expired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void shouldNotExpireCancelledTimeouts() {
+        // given
+        TimingWheel<String> wheel = new TimingWheel<>(Duration.ofMillis(10), 2);
+        TimingWheel.Timeout<String> cancelled = wheel.schedule("cancelled", start.plusSeconds(1), start);
+        wheel.schedule("kept", start.plusSeconds(1), start);
+        List<String> expired = new ArrayList<>();
+
+        // when
+        assertTrue(wheel.cancel(cancelled));
+        wheel.advance(start.plusSeconds(2), expired::add);
+
+        // then
+        assertEquals(List.of("kept"), expired);
+        assertFalse(wheel.cancel(cancelled));
+    }
+
+    @Test
+    void shouldExpirePastDeadlinesOnTheNextTick() {
+        // given
+        TimingWheel<String> wheel = new TimingWheel<>(Duration.ofMillis(10), 2);
+        wheel.advance(start, item -> { });
+        List<String> expired = new ArrayList<>();
+
+        // when
+        wheel.schedule("overdue", start.minusSeconds(5), start);
+        wheel.advance(start.plusMillis(10), expired::add);
+
+        // then
+        assertEquals(List.of("overdue"), expired);
+    }
+
+    @Test
+    void shouldKeepTimeoutsBeyondTheTopLevelUntilDue() {
+        // given: two levels of 64 slots cover 4096 ticks
+        TimingWheel<String> wheel = new TimingWheel<>(Duration.ofMillis(1), 2);
+        wheel.schedule("far", start.plusMillis(10_000), start);
+        List<String> expired = new ArrayList<>();
+
+        // when
+        wheel.advance(start.plusMillis(9_999), expired::add);
+        List<String> early = List.copyOf(expired);
+        wheel.advance(start.plusMillis(10_000), expired::add);
+
+        // then
+        assertEquals(List.of(), early);
+        assertEquals(List.of("far"), expired);
+    }
+
+    @Test
+    void shouldExpireEveryTimeoutAtItsOwnTickAcrossCascades() {
+        // given: deadlines spread over three levels and the overflow
+        TimingWheel<Long> wheel = new TimingWheel<>(Duration.ofMillis(1), 3);
+        Random random = new Random(42);
+        for (int i = 0; i < 10_000; i++) {
+            long deadline = 1 + random.nextInt(400_000);
+            wheel.schedule(deadline, start.plusMillis(deadline), start);
+        }
+        long[] now = {0};
+        int[] expired = {0};
+
+        // when
+        for (long millis = 0; millis <= 400_000; millis += 997) {
+            now[0] = millis;
+            wheel.advance(start.plusMillis(millis), deadline -> {
+                // then
+                assertTrue(deadline <= now[0], "expired early: " + deadline + " at " + now[0]);
+                assertTrue(deadline > now[0] - 997, "expired late: " + deadline + " at " + now[0]);
+                expired[0]++;
+            });
+        }
+        wheel.advance(start.plusMillis(400_000), deadline -> expired[0]++);
+
+        // then
+        assertEquals(10_000, expired[0]);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void shouldRejectInvalidConfiguration() {
+        // when & then
+        assertThrows(IllegalArgumentException.class, () -> new TimingWheel<String>(Duration.ZERO, 2));
+        assertThrows(IllegalArgumentException.class, () -> new TimingWheel<String>(Duration.ofMillis(1), 0));
+    }
+}
@@ -160,4 +160,49 @@ class TransactionTest {
         assertTrue(result.contains("amount=10.50"));
         assertTrue(result.contains("createdAt=2023-10-01T10:15:30.123Z"));
     }
+
+    @Test
+    void shouldCreateTransactionWithSequence() {
+        // given
+        Instant timestamp = Instant.parse("2023-10-01T10:15:30.123Z");
+
+        // when
+        Transaction transaction = new Transaction(7, TransactionType.DEPOSIT, Money.of("10.00"), timestamp);
+
+        // then
+        assertEquals(7, transaction.getSequence());
+        assertTrue(transaction.toString().contains("sequence=7"));
+    }
+
+    @Test
+    void shouldDefaultToUnassignedSequence() {
+        // when
+        Transaction transaction = new Transaction(TransactionType.DEPOSIT, Money.of("10.00"), Instant.now());
+
+        // then
+        assertEquals(0, transaction.getSequence());
+    }
+
+    @Test
+    void shouldRejectNegativeSequence() {
+        // when & then
+        assertThrows(IllegalArgumentException.class,
+            () -> new Transaction(-1, TransactionType.DEPOSIT, Money.of("10.00"), Instant.now()));
+    }
+
+    @Test
+    void shouldDefaultToDefaultAccount() {
+        // when
+        Transaction transaction = new Transaction(TransactionType.DEPOSIT, Money.of("1.00"), Instant.now());
+
+        // then
+        assertEquals(Account.DEFAULT_ID, transaction.getAccountId());
+    }
+
+    @Test
+    void shouldRejectNullAccountId() {
+        // when & then
+        assertThrows(NullPointerException.class,
+            () -> new Transaction(1, null, TransactionType.DEPOSIT, Money.of("1.00"), Instant.now()));
+    }
 }
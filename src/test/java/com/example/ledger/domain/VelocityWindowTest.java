@@ -0,0 +1,87 @@
+package com.example.ledger.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VelocityWindowTest {
+
+    private static final long MINUTE = Duration.ofMinutes(1).toNanos();
+
+    @Test
+    void shouldRejectTransactionsOverTheCountWithinTheWindow() {
+        // given
+        VelocityWindow window = new VelocityWindow();
+        VelocityLimit limit = new VelocityLimit(2, Money.of("0"), Duration.ofMinutes(1));
+
+        // when & then
+        assertNotEquals(VelocityWindow.REJECTED, window.tryAcquire(100, limit, 10));
+        assertNotEquals(VelocityWindow.REJECTED, window.tryAcquire(100, limit, 20));
+        assertEquals(VelocityWindow.REJECTED, window.tryAcquire(100, limit, 30));
+    }
+
+    @Test
+    void shouldRejectTransactionsOverTheAmountWithinTheWindow() {
+        // given
+        VelocityWindow window = new VelocityWindow();
+        VelocityLimit limit = new VelocityLimit(0, Money.of("10.00"), Duration.ofMinutes(1));
+
+        // when & then
+        assertNotEquals(VelocityWindow.REJECTED, window.tryAcquire(600, limit, 0));
+        assertEquals(VelocityWindow.REJECTED, window.tryAcquire(500, limit, 1));
+        assertNotEquals(VelocityWindow.REJECTED, window.tryAcquire(400, limit, 2));
+    }
+
+    @Test
+    void shouldWeightThePreviousWindowByItsOverlap() {
+        // given
+        VelocityWindow window = new VelocityWindow();
+        VelocityLimit limit = new VelocityLimit(4, Money.of("0"), Duration.ofMinutes(1));
+        for (int i = 0; i < 4; i++) {
+            window.tryAcquire(1, limit, MINUTE / 2);
+        }
+
+        // when & then: a quarter into the next window, three quarters of the previous four still count
+        assertNotEquals(VelocityWindow.REJECTED, window.tryAcquire(1, limit, MINUTE + MINUTE / 4));
+        assertEquals(VelocityWindow.REJECTED, window.tryAcquire(1, limit, MINUTE + MINUTE / 4));
+        // and once their window has slid out entirely, the first four no longer count
+        assertNotEquals(VelocityWindow.REJECTED, window.tryAcquire(1, limit, 2 * MINUTE + MINUTE - 1));
+    }
+
+    @Test
+    void shouldGiveReleasedTransactionsBack() {
+        // given
+        VelocityWindow window = new VelocityWindow();
+        VelocityLimit limit = new VelocityLimit(1, Money.of("0"), Duration.ofMinutes(1));
+        long counted = window.tryAcquire(100, limit, 0);
+
+        // when
+        window.release(100, counted);
+
+        // then
+        assertNotEquals(VelocityWindow.REJECTED, window.tryAcquire(100, limit, 1));
+    }
+
+    @Test
+    void shouldNotLoseCountsToAWriterWithAnEarlierClockReading() {
+        // given
+        VelocityWindow window = new VelocityWindow();
+        VelocityLimit limit = new VelocityLimit(2, Money.of("0"), Duration.ofMinutes(1));
+        window.tryAcquire(1, limit, MINUTE + 1);
+
+        // when
+        window.tryAcquire(1, limit, MINUTE - 1);
+
+        // then
+        assertEquals(VelocityWindow.REJECTED, window.tryAcquire(1, limit, MINUTE + 2));
+    }
+
+    @Test
+    void shouldRejectInvalidLimits() {
+        // when & then
+        assertThrows(IllegalArgumentException.class, () -> new VelocityLimit(-1, Money.of("0"), Duration.ofMinutes(1)));
+        assertThrows(IllegalArgumentException.class, () -> new VelocityLimit(1, Money.of("0"), Duration.ZERO));
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.ledger.journal;
+
+import com.example.ledger.domain.LedgerService;
+import com.example.ledger.domain.Money;
+import com.example.ledger.domain.Transaction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournalTest {
+
+    @TempDir
+    Path directory;
+
+    private final LedgerService ledgerService = new LedgerService(4, Clock.systemUTC());
+
+    private JournalWriter writer;
+
+    @AfterEach
+    void tearDown() {
+        if (writer != null) {
+            writer.stop();
+        }
+    }
+
+    @Test
+    void shouldTailJournalFromStart() throws Exception {
+        // given
+        startWriter(1024);
+        ledgerService.deposit("alice", Money.of("100.00"));
+        ledgerService.transfer("alice", "bob", Money.of("40.00"));
+
+        // when
+        List<Transaction> tailed = tail(0);
+
+        // then
+        assertEquals(ledgerService.getTransactionsSince(0).toString(), tailed.toString());
+    }
+
+    @Test
+    void shouldOpenCursorAtSequence() throws Exception {
+        // given
+        startWriter(4);
+        for (int i = 1; i <= 10; i++) {
+            ledgerService.deposit(Money.of(i + ".00"));
+        }
+
+        // when
+        List<Transaction> tailed = tail(6);
+
+        // then
+        assertEquals(ledgerService.getTransactionsSince(6), tailed);
+        assertEquals(7, tailed.getFirst().getSequence());
+    }
+
+    @Test
+    void shouldFollowNewEntriesAcrossSegments() throws Exception {
+        // given
+        startWriter(2);
+        ledgerService.deposit(Money.of("1.00"));
+        List<Long> sequences = new ArrayList<>();
+
+        try (JournalTailer tailer = JournalTailer.open(directory, 0)) {
+            // when
+            assertEquals(1, tailer.poll(entry -> sequences.add(entry.getSequence()), 100));
+            assertEquals(0, tailer.poll(entry -> sequences.add(entry.getSequence()), 100));
+            ledgerService.deposit(Money.of("2.00"));
+            ledgerService.deposit(Money.of("3.00"));
+            ledgerService.deposit(Money.of("4.00"));
+
+            // then
+            assertEquals(3, tailer.poll(entry -> sequences.add(entry.getSequence()), 100));
+            assertEquals(List.of(1L, 2L, 3L, 4L), sequences);
+            assertEquals(4, tailer.getSequence());
+        }
+        assertEquals(2, Files.list(directory).count());
+    }
+
+    @Test
+    void shouldReadPrimitiveFieldsInPlace() throws Exception {
+        // given
+        startWriter(16);
+        Transaction transaction = ledgerService.deposit("alice", Money.of("12.34"));
+        long[] fields = new long[2];
+
+        // when
+        try (JournalTailer tailer = JournalTailer.open(directory, 0)) {
+            tailer.poll(entry -> {
+                fields[0] = entry.getAmountMinorUnits();
+                fields[1] = entry.getIdLow();
+            }, 1);
+        }
+
+        // then
+        assertEquals(1234, fields[0]);
+        assertEquals(transaction.getId().getLeastSignificantBits(), fields[1]);
+    }
+
+    @Test
+    void shouldCopyBacklogAndClearOldJournalOnStart() throws Exception {
+        // given - a journal left by an earlier run, and transactions recorded before the writer started
+        Files.writeString(directory.resolve("00000000000000000001.journal"), "stale");
+        ledgerService.deposit(Money.of("5.00"));
+
+        // when
+        startWriter(8);
+        ledgerService.deposit(Money.of("6.00"));
+
+        // then
+        assertEquals(ledgerService.getTransactionsSince(0), tail(0));
+    }
+
+    @Test
+    void shouldStopRatherThanSkipWhenASegmentCantBeCreated() throws Exception {
+        // given - the temporary file of the third segment is taken by a directory
+        startWriter(1);
+        ledgerService.deposit(Money.of("1.00"));
+        ledgerService.deposit(Money.of("2.00"));
+        Files.createDirectory(directory.resolve(JournalFormat.segmentPath(directory, 3).getFileName() + ".tmp"));
+
+        // when
+        ledgerService.deposit(Money.of("3.00"));
+        ledgerService.deposit(Money.of("4.00"));
+
+        // then
+        assertEquals(ledgerService.getTransactionsSince(0).subList(0, 2), tail(0));
+        assertFalse(Files.exists(JournalFormat.segmentPath(directory, 4)));
+    }
+
+    @Test
+    void shouldWaitForJournalToAppear() throws Exception {
+        // given
+        try (JournalTailer tailer = JournalTailer.open(directory, 0)) {
+            assertEquals(0, tailer.poll(entry -> { }, 10));
+
+            // when
+            startWriter(8);
+            ledgerService.deposit(Money.of("1.00"));
+
+            // then
+            assertEquals(1, tailer.poll(entry -> { }, 10));
+        }
+    }
+
+    @Test
+    void shouldRejectNegativeSequence() {
+        // when & then
+        assertThrows(IllegalArgumentException.class, () -> JournalTailer.open(directory, -1));
+    }
+
+    private void startWriter(int segmentRecords) throws Exception {
+        writer = new JournalWriter(ledgerService, directory, segmentRecords);
+        writer.start();
+    }
+
+    private List<Transaction> tail(long afterSequence) throws Exception {
+        List<Transaction> transactions = new ArrayList<>();
+        try (JournalTailer tailer = JournalTailer.open(directory, afterSequence)) {
+            while (tailer.poll(entry -> transactions.add(entry.toTransaction()), 3) > 0) {
+                // keep reading
+            }
+        }
+        return transactions;
+    }
+}
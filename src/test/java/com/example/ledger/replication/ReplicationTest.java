@@ -0,0 +1,121 @@
+package com.example.ledger.replication;
+
+import com.example.ledger.domain.LedgerService;
+import com.example.ledger.domain.Money;
+import com.example.ledger.domain.ReadOnlyReplicaException;
+import com.example.ledger.domain.Transaction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplicationTest {
+
+    private final LedgerService leader = new LedgerService(4, Clock.systemUTC());
+    private final LedgerService follower = new LedgerService(2, Clock.systemUTC());
+
+    private ReplicationServer server;
+    private ReplicationClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new ReplicationServer(leader, "localhost", 0);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (client != null) {
+            client.stop();
+        }
+        server.stop();
+    }
+
+    @Test
+    void shouldCatchUpAndFollowLeader() throws Exception {
+        // given - history written before the follower connects
+        leader.deposit("alice", Money.of("100.00"));
+        leader.transfer("alice", "bob", Money.of("40.00"));
+
+        // when
+        startFollower();
+        leader.withdraw("bob", Money.of("15.00"));
+        leader.deposit(Money.of("5.00"));
+
+        // then
+        awaitVersion(follower, 5);
+        assertEquals(Money.of("60.00"), follower.getBalance("alice"));
+        assertEquals(Money.of("25.00"), follower.getBalance("bob"));
+        assertEquals(Money.of("5.00"), follower.getBalance());
+        assertEquals(ids(leader.getTransactionsSince(0)), ids(follower.getTransactionsSince(0)));
+    }
+
+    @Test
+    void shouldRejectWritesOnFollower() throws Exception {
+        // given
+        startFollower();
+
+        // when & then
+        assertTrue(follower.isReplica());
+        assertThrows(ReadOnlyReplicaException.class, () -> follower.deposit(Money.of("1.00")));
+        assertThrows(ReadOnlyReplicaException.class, () -> follower.transfer("a", "b", Money.of("1.00")));
+    }
+
+    @Test
+    void shouldAcceptWritesAfterPromotion() throws Exception {
+        // given
+        startFollower();
+        leader.deposit(Money.of("10.00"));
+        awaitVersion(follower, 1);
+
+        // when
+        client.promote();
+        Transaction transaction = follower.deposit(Money.of("2.50"));
+
+        // then
+        assertFalse(follower.isReplica());
+        assertEquals(2, transaction.getSequence());
+        assertEquals(Money.of("12.50"), follower.getBalance());
+    }
+
+    @Test
+    void shouldResumeAfterLeaderRestart() throws Exception {
+        // given
+        startFollower();
+        leader.deposit(Money.of("10.00"));
+        awaitVersion(follower, 1);
+
+        // when - the leader goes away and comes back on the same port
+        int port = server.getPort();
+        server.stop();
+        leader.deposit(Money.of("20.00"));
+        server = new ReplicationServer(leader, "localhost", port);
+        server.start();
+
+        // then
+        awaitVersion(follower, 2);
+        assertEquals(Money.of("30.00"), follower.getBalance());
+    }
+
+    private void startFollower() {
+        client = new ReplicationClient(follower, "localhost", server.getPort(), Duration.ofMillis(50));
+        client.start();
+    }
+
+    private static void awaitVersion(LedgerService ledger, long version) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (ledger.getVersion() < version && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(version, ledger.getVersion());
+    }
+
+    private static List<Object> ids(List<Transaction> transactions) {
+        return transactions.stream().map(transaction -> (Object) transaction.getId()).toList();
+    }
+}
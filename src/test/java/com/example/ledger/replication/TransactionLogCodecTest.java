@@ -0,0 +1,62 @@
+package com.example.ledger.replication;
+
+import com.example.ledger.domain.Money;
+import com.example.ledger.domain.Transaction;
+import com.example.ledger.domain.TransactionType;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Currency;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionLogCodecTest {
+
+    @Test
+    void shouldRoundTripTransaction() throws IOException {
+        // given
+        Transaction transaction = new Transaction(7, "savings", TransactionType.TRANSFER_IN, Money.of("12.34"),
+                Instant.parse("2023-10-01T10:15:30.123456789Z"));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        // when
+        TransactionLogCodec.write(new DataOutputStream(bytes), transaction);
+        Transaction decoded = TransactionLogCodec.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        // then
+        assertEquals(transaction.getId(), decoded.getId());
+        assertEquals(7, decoded.getSequence());
+        assertEquals("savings", decoded.getAccountId());
+        assertEquals(TransactionType.TRANSFER_IN, decoded.getType());
+        assertEquals(Money.of("12.34"), decoded.getAmount());
+        assertEquals(transaction.getCreatedAt(), decoded.getCreatedAt());
+    }
+
+    @Test
+    void shouldRoundTripCurrency() throws IOException {
+        // given
+        Transaction transaction = new Transaction(8, "savings", TransactionType.DEPOSIT, Money.of("1.250", Currency.getInstance("KWD")),
+                Instant.parse("2023-10-01T10:15:30Z"));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        // when
+        TransactionLogCodec.write(new DataOutputStream(bytes), transaction);
+        Transaction decoded = TransactionLogCodec.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        // then
+        assertEquals(Money.of("1.250", Currency.getInstance("KWD")), decoded.getAmount());
+    }
+
+    @Test
+    void shouldFailOnTruncatedStream() {
+        // when & then
+        assertThrows(EOFException.class,
+                () -> TransactionLogCodec.read(new DataInputStream(new ByteArrayInputStream(new byte[10]))));
+    }
+}
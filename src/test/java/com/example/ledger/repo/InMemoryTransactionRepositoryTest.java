@@ -188,4 +188,74 @@ class InMemoryTransactionRepositoryTest {
             assertTrue(current.isAfter(next) || current.equals(next));
         }
     }
+
+    @Test
+    void shouldFindTransactionsAfterSequenceInWriteOrder() {
+        // given
+        Instant time = Instant.parse("2023-10-01T10:00:00.000Z");
+        Transaction transaction1 = new Transaction(1, TransactionType.DEPOSIT, Money.of("10.00"), time);
+        Transaction transaction2 = new Transaction(2, TransactionType.WITHDRAW, Money.of("5.00"), time);
+        Transaction transaction3 = new Transaction(3, TransactionType.DEPOSIT, Money.of("20.00"), time);
+        repository.save(transaction1);
+        repository.save(transaction2);
+        repository.save(transaction3);
+
+        // when
+        List<Transaction> transactions = repository.findAllAfterSequence(1);
+
+        // then
+        assertEquals(List.of(transaction2, transaction3), transactions);
+    }
+
+    @Test
+    void shouldFindNothingAfterLatestSequence() {
+        // given
+        repository.save(new Transaction(1, TransactionType.DEPOSIT, Money.of("10.00"), Instant.now()));
+
+        // when & then
+        assertTrue(repository.findAllAfterSequence(1).isEmpty());
+        assertEquals(1, repository.findAllAfterSequence(0).size());
+    }
+
+    @Test
+    void shouldFoldTransactionsIntoBalanceForwardEntries() {
+        // given
+        Instant start = Instant.parse("2023-10-01T10:15:30Z");
+        repository.save(new Transaction(1, "alice", TransactionType.DEPOSIT, Money.of("10.00"), start));
+        repository.save(new Transaction(2, "bob", TransactionType.DEPOSIT, Money.of("3.00"), start.plusSeconds(1)));
+        repository.save(new Transaction(3, "alice", TransactionType.TRANSFER_OUT, Money.of("2.50"), start.plusSeconds(2)));
+        repository.save(new Transaction(4, "alice", TransactionType.WITHDRAW, Money.of("1.00"), start.plusSeconds(3)));
+
+        // when
+        int folded = repository.compactThrough(3);
+
+        // then
+        assertEquals(3, folded);
+        List<Transaction> remaining = repository.findAllAfterSequence(0);
+        assertEquals(List.of(2L, 3L, 4L), remaining.stream().map(Transaction::getSequence).toList());
+        assertEquals(TransactionType.BALANCE_FORWARD, remaining.get(0).getType());
+        assertEquals("bob", remaining.get(0).getAccountId());
+        assertEquals(Money.of("3.00"), remaining.get(0).getAmount());
+        assertEquals(TransactionType.BALANCE_FORWARD, remaining.get(1).getType());
+        assertEquals(Money.of("7.50"), remaining.get(1).getAmount());
+        assertEquals(start.plusSeconds(2), remaining.get(1).getCreatedAt());
+        assertEquals(TransactionType.WITHDRAW, remaining.get(2).getType());
+        assertEquals(4, repository.findLastSequence());
+        assertEquals(0, repository.compactThrough(3));
+        assertEquals(remaining, repository.findAllAfterSequence(0));
+    }
+
+    @Test
+    void shouldFindFirstSequenceCreatedFromInstant() {
+        // given
+        Instant start = Instant.parse("2023-10-01T10:15:30Z");
+        repository.save(new Transaction(1, "alice", TransactionType.DEPOSIT, Money.of("10.00"), start));
+        repository.save(new Transaction(2, "alice", TransactionType.DEPOSIT, Money.of("1.00"), start.plusSeconds(60)));
+
+        // when & then
+        assertEquals(2, repository.findFirstSequenceCreatedFrom(start.plusSeconds(1)));
+        assertEquals(1, repository.findFirstSequenceCreatedFrom(start));
+        assertEquals(Long.MAX_VALUE, repository.findFirstSequenceCreatedFrom(start.plusSeconds(61)));
+        assertEquals(1, repository.findAllThroughSequence(1).size());
+    }
 }
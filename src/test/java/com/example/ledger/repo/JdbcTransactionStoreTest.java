@@ -0,0 +1,274 @@
+package com.example.ledger.repo;
+
+import com.example.ledger.domain.InsufficientFundsException;
+import com.example.ledger.domain.LedgerService;
+import com.example.ledger.domain.Money;
+import com.example.ledger.domain.Posting;
+import com.example.ledger.domain.Transaction;
+import com.example.ledger.domain.TransactionType;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JdbcTransactionStoreTest {
+
+    private final Instant now = Instant.parse("2023-10-01T10:15:30.123456789Z");
+
+    private JdbcDataSource dataSource;
+    private JdbcTransactionStore store;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:ledger-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        store = new JdbcTransactionStore(dataSource, 256);
+        store.start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        store.close();
+        execute("SHUTDOWN");
+    }
+
+    @Test
+    void shouldSaveAndReadShardHistory() {
+        // given
+        List<JdbcTransactionRepository> shards = store.repositories(2);
+        Transaction first = new Transaction(UUID.randomUUID(), 1, "alice", TransactionType.DEPOSIT, Money.of("10.00"), now);
+        Transaction second = new Transaction(UUID.randomUUID(), 2, "alice", TransactionType.WITHDRAW, Money.of("2.50"), now.plusSeconds(1));
+        Transaction other = new Transaction(UUID.randomUUID(), 3, "bob", TransactionType.DEPOSIT, Money.of("1.00"), now);
+
+        // when
+        shards.get(0).save(first);
+        shards.get(0).save(second);
+        shards.get(1).save(other);
+
+        // then
+        List<Transaction> history = shards.get(0).findAllOrderByTimestampDesc();
+        assertEquals(List.of(second, first), history);
+        assertEquals(now, history.get(1).getCreatedAt());
+        assertEquals(Money.of("2.50"), history.get(0).getAmount());
+        assertEquals(List.of(second), shards.get(0).findAllAfterSequence(1));
+        assertEquals(2, shards.get(0).findLastSequence());
+        assertEquals(3, shards.get(1).findLastSequence());
+    }
+
+    @Test
+    void shouldCoalesceConcurrentWritesIntoBatches() throws Exception {
+        // given
+        LedgerService ledger = LedgerService.resume(store.repositories(4), Clock.systemUTC());
+        ExecutorService clients = Executors.newFixedThreadPool(16);
+
+        // when
+        List<Future<Transaction>> writes = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            String account = "account-" + (i % 50);
+            writes.add(clients.submit(() -> ledger.deposit(account, Money.of("1.00"))));
+        }
+        for (Future<Transaction> write : writes) {
+            write.get();
+        }
+        clients.shutdown();
+
+        // then
+        assertTrue(store.getBatchCount() < 500, "500 writes in " + store.getBatchCount() + " batches");
+        assertEquals(500, count("SELECT COUNT(*) FROM ledger_transaction"));
+        assertEquals(1000, count("SELECT balance FROM ledger_balance WHERE account_id = 'account-7'"));
+        assertEquals(500, ledger.getVersion());
+    }
+
+    @Test
+    void shouldMaintainBalanceRowsAndResumeAfterRestart() throws Exception {
+        // given
+        LedgerService ledger = LedgerService.resume(store.repositories(2), Clock.systemUTC());
+        ledger.deposit("alice", Money.of("100.00"));
+        ledger.transfer("alice", "bob", Money.of("30.00"));
+        ledger.withdraw("bob", Money.of("5.00"));
+
+        // when - a new ledger over the same database
+        LedgerService restarted = LedgerService.resume(store.repositories(2), Clock.systemUTC());
+        Transaction next = restarted.deposit("bob", Money.of("1.00"));
+
+        // then
+        assertEquals(7000, count("SELECT balance FROM ledger_balance WHERE account_id = 'alice'"));
+        assertEquals(2500 + 100, count("SELECT balance FROM ledger_balance WHERE account_id = 'bob'"));
+        assertEquals(5, next.getSequence());
+        assertEquals(Money.of("70.00"), restarted.getBalance("alice"));
+        assertEquals(Money.of("26.00"), restarted.getBalance("bob"));
+        assertEquals(ledger.getTransactionsSince(0), restarted.getTransactionsSince(0).subList(0, 4));
+        assertThrows(InsufficientFundsException.class, () -> restarted.withdraw("bob", Money.of("30.00")));
+    }
+
+    @Test
+    void shouldRejectWithdrawalWhenBalanceRowChangedElsewhere() throws Exception {
+        // given
+        LedgerService ledger = LedgerService.resume(store.repositories(1), Clock.systemUTC());
+        ledger.deposit("alice", Money.of("10.00"));
+        ledger.withdraw("alice", Money.of("1.00"));
+
+        // when - another writer withdraws from the same database
+        execute("UPDATE ledger_balance SET balance = balance - 500, version = version + 1 WHERE account_id = 'alice'");
+
+        // then - withdrawals are rejected, deposits still commute
+        assertThrows(ConcurrentUpdateException.class, () -> ledger.withdraw("alice", Money.of("1.00")));
+        Transaction deposit = ledger.deposit("alice", Money.of("1.00"));
+        assertEquals(4, deposit.getSequence());
+        assertEquals(4, ledger.getVersion());
+        assertEquals(500, count("SELECT balance FROM ledger_balance WHERE account_id = 'alice'"));
+        assertEquals(3, count("SELECT COUNT(*) FROM ledger_transaction WHERE account_id = 'alice'"));
+    }
+
+    @Test
+    void shouldRejectStaleWithdrawalEvenWhenItsBatchIsRetried() throws Exception {
+        // given
+        JdbcTransactionRepository repository = store.repositories(1).getFirst();
+        repository.save(new Transaction(UUID.randomUUID(), 1, "alice", TransactionType.DEPOSIT, Money.of("10.00"), now));
+        repository.save(new Transaction(UUID.randomUUID(), 2, "alice", TransactionType.WITHDRAW, Money.of("1.00"), now));
+        execute("UPDATE ledger_balance SET balance = balance - 100, version = version + 1 WHERE account_id = 'alice'");
+
+        // when - the stale withdrawal rides in with deposits to other accounts
+        CompletableFuture<Transaction> withdrawal = repository.enqueue(
+                new Transaction(UUID.randomUUID(), 3, "alice", TransactionType.WITHDRAW, Money.of("1.00"), now));
+        List<CompletableFuture<Transaction>> deposits = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            deposits.add(repository.enqueue(new Transaction(UUID.randomUUID(), 4 + i, "bob-" + i,
+                    TransactionType.DEPOSIT, Money.of("1.00"), now)));
+        }
+
+        // then
+        CompletionException ex = assertThrows(CompletionException.class, withdrawal::join);
+        assertInstanceOf(ConcurrentUpdateException.class, ex.getCause());
+        deposits.forEach(CompletableFuture::join);
+        assertEquals(800, count("SELECT balance FROM ledger_balance WHERE account_id = 'alice'"));
+        assertEquals(22, count("SELECT COUNT(*) FROM ledger_transaction"));
+    }
+
+    @Test
+    void shouldReadAccountHistoryAndBalancesThroughTheAccountIndex() {
+        // given
+        LedgerService ledger = LedgerService.resume(store.repositories(2), Clock.systemUTC());
+        ledger.deposit("alice", Money.of("10.00"));
+        ledger.deposit("bob", Money.of("3.00"));
+        ledger.withdraw("alice", Money.of("4.00"));
+
+        // when
+        JdbcTransactionRepository repository = store.repositories(2).stream()
+                .filter(shard -> !shard.findByAccountIdOrderBySequenceDesc("alice").isEmpty())
+                .findFirst()
+                .orElseThrow();
+
+        // then
+        assertEquals(List.of(3L, 1L), repository.findByAccountIdOrderBySequenceDesc("alice").stream()
+                .map(Transaction::getSequence).toList());
+        assertEquals(600, repository.findBalance("alice"));
+        assertEquals(List.of(Money.of("6.00")), repository.findBalances("alice"));
+        assertEquals(0, repository.findBalance("nobody"));
+        assertEquals(List.of(), repository.findBalances("nobody"));
+    }
+
+    @Test
+    void shouldStoreBothTransferLegsInOneBatch() {
+        // given
+        List<JdbcTransactionRepository> shards = store.repositories(2);
+        Transaction debit = new Transaction(UUID.randomUUID(), 1, "alice", TransactionType.TRANSFER_OUT, Money.of("1.00"), now);
+        Transaction credit = new Transaction(UUID.randomUUID(), 2, "bob", TransactionType.TRANSFER_IN, Money.of("1.00"), now);
+
+        // when
+        CompletableFuture<Void> stored = shards.get(0).enqueueTransfer(debit, shards.get(1), credit);
+
+        // then - alice has no balance row, so the debit conflicts and neither leg is stored
+        assertThrows(Exception.class, stored::join);
+        assertEquals(0, count("SELECT COUNT(*) FROM ledger_transaction"));
+    }
+
+    @Test
+    void shouldStoreEveryEntryLegAcrossShards() {
+        // given
+        LedgerService ledger = LedgerService.resume(store.repositories(4), Clock.systemUTC());
+        ledger.deposit("alice", Money.of("10.00"));
+
+        // when
+        ledger.post(List.of(Posting.debit("alice", Money.of("10.00")),
+                Posting.credit("bob", Money.of("6.00")), Posting.credit("carol", Money.of("4.00"))));
+
+        // then
+        assertEquals(0, count("SELECT balance FROM ledger_balance WHERE account_id = 'alice'"));
+        assertEquals(600, count("SELECT balance FROM ledger_balance WHERE account_id = 'bob'"));
+        assertEquals(400, count("SELECT balance FROM ledger_balance WHERE account_id = 'carol'"));
+        assertEquals(4, count("SELECT COUNT(*) FROM ledger_transaction"));
+        assertEquals(4, ledger.getVersion());
+    }
+
+    @Test
+    void shouldRejectFewerShardsThanStored() {
+        // given
+        store.repositories(4).get(3).save(
+                new Transaction(UUID.randomUUID(), 1, "alice", TransactionType.DEPOSIT, Money.of("1.00"), now));
+
+        // when & then
+        assertThrows(IllegalStateException.class, () -> store.repositories(2));
+    }
+
+    @Test
+    void shouldRejectMoreShardsThanRecorded() {
+        // given
+        store.repositories(2);
+
+        // when & then
+        IllegalStateException ex = assertThrows(IllegalStateException.class, () -> store.repositories(4));
+        assertEquals("Stored transactions use 2 shards but 4 are configured", ex.getMessage());
+    }
+
+    @Test
+    void shouldRecordShardCountOfTablesWrittenBeforeItWasRecorded() throws SQLException {
+        // given
+        store.repositories(4).get(3).save(
+                new Transaction(UUID.randomUUID(), 1, "alice", TransactionType.DEPOSIT, Money.of("1.00"), now));
+        execute("DELETE FROM ledger_meta");
+        assertEquals(OptionalInt.empty(), store.storedShardCount());
+
+        // when
+        store.repositories(4);
+
+        // then
+        assertEquals(OptionalInt.of(4), store.storedShardCount());
+    }
+
+    private long count(String sql) {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery(sql)) {
+            rows.next();
+            return rows.getLong(1);
+        } catch (SQLException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+}
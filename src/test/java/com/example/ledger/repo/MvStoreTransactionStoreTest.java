@@ -0,0 +1,207 @@
+package com.example.ledger.repo;
+
+import com.example.ledger.domain.LedgerService;
+import com.example.ledger.domain.Money;
+import com.example.ledger.domain.Transaction;
+import com.example.ledger.domain.TransactionType;
+import org.h2.mvstore.MVMap;
+import org.h2.mvstore.MVStore;
+import org.h2.mvstore.type.LongDataType;
+import org.h2.mvstore.type.StringDataType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Currency;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MvStoreTransactionStoreTest {
+
+    private final Instant now = Instant.parse("2023-10-01T10:15:30.123456789Z");
+
+    @TempDir
+    Path directory;
+
+    private MvStoreTransactionStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = open();
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    void shouldSaveAndReadShardHistory() {
+        // given
+        List<MvStoreTransactionRepository> shards = store.repositories(2);
+        Transaction first = transaction(1, "alice", TransactionType.DEPOSIT, "10.00");
+        Transaction second = transaction(2, "alice", TransactionType.WITHDRAW, "2.50");
+        Transaction other = transaction(3, "bob", TransactionType.DEPOSIT, "1.00");
+
+        // when
+        shards.get(0).save(first);
+        shards.get(0).save(second);
+        shards.get(1).save(other);
+
+        // then
+        List<Transaction> history = shards.get(0).findAllOrderByTimestampDesc();
+        assertEquals(List.of(second, first), history);
+        assertEquals(now, history.get(1).getCreatedAt());
+        assertEquals(Money.of("2.50"), history.get(0).getAmount());
+        assertEquals(TransactionType.WITHDRAW, history.get(0).getType());
+        assertEquals(List.of(second), shards.get(0).findAllAfterSequence(1));
+        assertEquals(2, shards.get(0).findLastSequence());
+        assertEquals(3, shards.get(1).findLastSequence());
+        assertEquals(0, store.repositories(2).get(1).findAllAfterSequence(3).size());
+    }
+
+    @Test
+    void shouldScanOneAccountBackwardsAndKeepItsBalance() {
+        // given
+        MvStoreTransactionRepository repository = store.repositories(1).getFirst();
+        repository.save(transaction(1, "a", TransactionType.DEPOSIT, "5.00"));
+        repository.save(transaction(2, "ab", TransactionType.DEPOSIT, "7.00"));
+        repository.save(transaction(3, "a", TransactionType.TRANSFER_OUT, "1.25"));
+        repository.save(transaction(300, "a", TransactionType.TRANSFER_IN, "0.50"));
+        repository.save(transaction(301, "", TransactionType.DEPOSIT, "9.00"));
+
+        // when
+        List<Transaction> history = repository.findByAccountIdOrderBySequenceDesc("a");
+
+        // then
+        assertEquals(List.of(300L, 3L, 1L), history.stream().map(Transaction::getSequence).toList());
+        assertTrue(history.stream().allMatch(transaction -> transaction.getAccountId().equals("a")));
+        assertEquals(425, repository.findBalance("a"));
+        assertEquals(700, repository.findBalance("ab"));
+        assertEquals(900, repository.findBalance(""));
+        assertEquals(0, repository.findBalance("abc"));
+        assertEquals(List.of(), repository.findByAccountIdOrderBySequenceDesc("abc"));
+    }
+
+    @Test
+    void shouldResumeLedgerFromFile() {
+        // given
+        Clock clock = Clock.fixed(now, ZoneOffset.UTC);
+        LedgerService ledger = LedgerService.resume(store.repositories(4), clock);
+        ledger.deposit("alice", Money.of("100.00"));
+        ledger.withdraw("alice", Money.of("30.00"));
+        ledger.transfer("alice", "bob", Money.of("20.00"));
+        store.close();
+
+        // when
+        store = open();
+        LedgerService resumed = LedgerService.resume(store.repositories(4), clock);
+        Transaction next = resumed.deposit("bob", Money.of("1.00"));
+
+        // then
+        assertEquals(Money.of("50.00"), resumed.getBalance("alice"));
+        assertEquals(Money.of("21.00"), resumed.getBalance("bob"));
+        assertEquals(5, next.getSequence());
+        assertEquals(List.of(3L, 2L, 1L), resumed.getTransactions("alice").stream().map(Transaction::getSequence).toList());
+        assertEquals(5, resumed.getTransactionsSince(0).size());
+    }
+
+    @Test
+    void shouldResumeBalancesPerCurrency() {
+        // given
+        Clock clock = Clock.fixed(now, ZoneOffset.UTC);
+        Currency dollar = Currency.getInstance("USD");
+        Currency yen = Currency.getInstance("JPY");
+        LedgerService ledger = LedgerService.resume(store.repositories(1), clock);
+        ledger.deposit("alice", Money.of("10.00"));
+        ledger.deposit("alice", Money.of("12.50", dollar));
+        ledger.deposit("alice", Money.of("800", yen));
+        ledger.withdraw("alice", Money.of("300", yen));
+        store.close();
+
+        // when
+        store = open();
+        MvStoreTransactionRepository repository = store.repositories(1).getFirst();
+        LedgerService resumed = LedgerService.resume(store.repositories(1), clock);
+
+        // then
+        assertEquals(500, repository.findBalance("alice", yen));
+        assertEquals(List.of(Money.of("10.00"), Money.of("500", yen), Money.of("12.50", dollar)), repository.findBalances("alice"));
+        assertEquals(Money.of("500", yen), resumed.getBalance("alice", yen));
+        assertEquals(Money.of("12.50", dollar), resumed.getBalance("alice", dollar));
+        assertEquals(Money.of("10.00"), resumed.getBalance("alice"));
+    }
+
+    @Test
+    void shouldReconcileIndexAndBalancesAfterCrash() {
+        // given - a file whose maps were committed at different points of the last saves
+        MvStoreTransactionRepository repository = store.repositories(1).getFirst();
+        repository.save(transaction(1, "alice", TransactionType.DEPOSIT, "10.00"));
+        repository.save(transaction(2, "alice", TransactionType.WITHDRAW, "4.00"));
+        repository.save(transaction(3, "bob", TransactionType.DEPOSIT, "2.00"));
+        store.close();
+        MVStore raw = MVStore.open(directory.resolve("ledger.mv.db").toString());
+        raw.<String, String>openMap("ledger").remove("closedCleanly");
+        MVMap<Long, String> sequences = raw.openMap("sequence.0", new MVMap.Builder<Long, String>()
+                .keyType(LongDataType.INSTANCE).valueType(StringDataType.INSTANCE));
+        MVMap<String, Long> balances = raw.openMap("balance.0", new MVMap.Builder<String, Long>()
+                .keyType(StringDataType.INSTANCE).valueType(LongDataType.INSTANCE));
+        sequences.remove(3L);
+        sequences.put(4L, "carol");
+        balances.put("alice\u0000EUR", 1000L);
+        balances.put("carol\u0000EUR", 500L);
+        raw.close();
+
+        // when
+        store = open();
+        MvStoreTransactionRepository reopened = store.repositories(1).getFirst();
+
+        // then
+        assertEquals(3, reopened.findLastSequence());
+        assertEquals(List.of(1L, 2L, 3L), reopened.findAllAfterSequence(0).stream().map(Transaction::getSequence).toList());
+        assertEquals(List.of(Money.of("6.00")), reopened.findBalances("alice"));
+        assertEquals(200, reopened.findBalance("bob"));
+        assertEquals(List.of(), reopened.findBalances("carol"));
+    }
+
+    @Test
+    void shouldRejectDifferentShardCount() {
+        // given
+        store.repositories(4);
+
+        // when & then
+        IllegalStateException ex = assertThrows(IllegalStateException.class, () -> store.repositories(2));
+        assertEquals("Stored transactions use 4 shards but 2 are configured", ex.getMessage());
+    }
+
+    @Test
+    void shouldReportStoredShardCount() {
+        // given
+        assertEquals(OptionalInt.empty(), store.storedShardCount());
+
+        // when
+        store.repositories(3);
+
+        // then
+        assertEquals(OptionalInt.of(3), store.storedShardCount());
+    }
+
+    private MvStoreTransactionStore open() {
+        MvStoreTransactionStore opened = new MvStoreTransactionStore(directory.resolve("ledger.mv.db"), 1, Duration.ofSeconds(1));
+        opened.start();
+        return opened;
+    }
+
+    private Transaction transaction(long sequence, String accountId, TransactionType type, String amount) {
+        return new Transaction(UUID.randomUUID(), sequence, accountId, type, Money.of(amount), now);
+    }
+}
@@ -0,0 +1,226 @@
+package com.example.ledger.repo;
+
+import com.example.ledger.domain.LedgerService;
+import com.example.ledger.domain.Money;
+import com.example.ledger.domain.Transaction;
+import com.example.ledger.domain.TransactionType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TieredTransactionStoreTest {
+
+    private final Instant now = Instant.parse("2023-10-01T10:15:30.123456789Z");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldMoveOldestTransactionsIntoBlocks() throws IOException {
+        // given
+        TieredTransactionRepository repository = start(8, 4).repositories(1).getFirst();
+
+        // when
+        List<Transaction> saved = saveMinutes(repository, 17);
+
+        // then
+        assertEquals(3, repository.getBlockCount());
+        assertEquals(5, repository.getHotCount());
+        assertEquals(3, blockFiles().size());
+        assertEquals(17, repository.findLastSequence());
+        assertEquals(saved.reversed(), repository.findAllOrderByTimestampDesc());
+        assertEquals(saved.subList(2, 17), repository.findAllAfterSequence(2));
+        Transaction restored = repository.findAllAfterSequence(0).getFirst();
+        assertEquals(saved.getFirst().getId(), restored.getId());
+        assertEquals(saved.getFirst().getCreatedAt(), restored.getCreatedAt());
+        assertEquals(saved.getFirst().getAmount(), restored.getAmount());
+        assertEquals("account-1", restored.getAccountId());
+    }
+
+    @Test
+    void shouldSkipNewerBlocksUsingTheTimeIndex() throws IOException {
+        // given
+        TieredTransactionRepository repository = start(4, 4).repositories(1).getFirst();
+        List<Transaction> saved = saveMinutes(repository, 13);
+        // The later blocks only hold transactions from minute 5 on, so they must not be opened
+        Files.delete(blockFiles().get(1));
+
+        // when
+        List<Transaction> prefix = repository.findAllUntil(now.plusSeconds(3 * 60));
+
+        // then
+        assertEquals(saved.subList(0, 4), prefix);
+    }
+
+    @Test
+    void shouldSkipNewerBlocksWhenReadingAnAccountAsOf() throws IOException {
+        // given
+        TieredTransactionRepository repository = start(4, 4).repositories(1).getFirst();
+        List<Transaction> saved = saveMinutes(repository, 13);
+        // The later blocks only hold transactions from minute 5 on, so they must not be opened
+        Files.delete(blockFiles().get(1));
+
+        // when
+        List<Transaction> account3 = repository.findByAccountIdUntil("account-3", now.plusSeconds(3 * 60));
+        List<Transaction> account6 = repository.findByAccountIdUntil("account-6", now.plusSeconds(3 * 60));
+
+        // then
+        assertEquals(List.of(saved.get(2)), account3);
+        assertEquals(List.of(), account6);
+    }
+
+    @Test
+    void shouldServeLedgerHistoryAcrossTiers() throws IOException {
+        // given
+        MutableClock clock = new MutableClock();
+        LedgerService ledger = LedgerService.resume(start(4, 2).repositories(2), clock);
+        for (int i = 0; i < 20; i++) {
+            clock.instant = now.plusSeconds(i);
+            ledger.deposit("alice", Money.of("1.00"));
+            ledger.deposit("bob", Money.of("2.00"));
+        }
+
+        // when
+        Money aliceAsOf = ledger.getBalance("alice", now.plusSeconds(9));
+        List<Transaction> bobAsOf = ledger.getTransactions("bob", now.plusSeconds(4));
+
+        // then
+        assertFalse(blockFiles().isEmpty());
+        assertEquals(Money.of("10.00"), aliceAsOf);
+        assertEquals(5, bobAsOf.size());
+        assertEquals(now.plusSeconds(4), bobAsOf.getFirst().getCreatedAt());
+        assertEquals(20, ledger.getTransactions("alice").size());
+        assertEquals(40, ledger.getTransactionsSince(0).size());
+    }
+
+    @Test
+    void shouldOpenOnlyBlocksOverlappingTheSequenceRange() throws IOException {
+        // given
+        TieredTransactionRepository repository = start(4, 4).repositories(1).getFirst();
+        List<Transaction> saved = saveMinutes(repository, 13);
+        Files.delete(blockFiles().get(0));
+
+        // when
+        List<Transaction> range = repository.findAllInSequenceRange(5, 10);
+
+        // then
+        assertEquals(saved.subList(5, 10), range);
+    }
+
+    @Test
+    void shouldReadAccountHistoryNewestFirstAcrossTiers() throws IOException {
+        // given
+        TieredTransactionRepository repository = start(4, 2).repositories(1).getFirst();
+        List<Transaction> saved = new ArrayList<>();
+        for (int i = 1; i <= 12; i++) {
+            Transaction transaction = new Transaction(UUID.randomUUID(), i, i % 3 == 0 ? "bob" : "alice",
+                    i == 6 ? TransactionType.WITHDRAW : TransactionType.DEPOSIT,
+                    Money.ofMinorUnits(i * 100L), now.plusSeconds(i));
+            saved.add(repository.save(transaction));
+        }
+
+        // when
+        List<Transaction> bob = repository.findByAccountIdOrderBySequenceDesc("bob");
+
+        // then
+        assertEquals(4, repository.getBlockCount());
+        assertEquals(List.of(saved.get(11), saved.get(8), saved.get(5), saved.get(2)), bob);
+        assertEquals(300 - 600 + 900 + 1200, repository.findBalance("bob"));
+        assertEquals(List.of(Money.ofMinorUnits(1800)), repository.findBalances("bob"));
+        assertEquals(List.of(), repository.findByAccountIdOrderBySequenceDesc("carol"));
+        assertEquals(List.of(), repository.findBalances("carol"));
+    }
+
+    @Test
+    void shouldSkipBlocksWithoutTheAccount() throws IOException {
+        // given
+        TieredTransactionRepository repository = start(4, 4).repositories(1).getFirst();
+        saveMinutes(repository, 12);
+        // The first two blocks hold accounts 1 to 8 only, so reading account 12 must not open them
+        Files.delete(blockFiles().get(0));
+        Files.delete(blockFiles().get(0));
+
+        // when
+        List<Transaction> history = repository.findByAccountIdOrderBySequenceDesc("account-12");
+
+        // then
+        assertEquals(1, history.size());
+        assertEquals(12, history.getFirst().getSequence());
+    }
+
+    @Test
+    void shouldDeleteBlocksOfPreviousRun() throws IOException {
+        // given
+        saveMinutes(start(2, 2).repositories(1).getFirst(), 6);
+        Path unrelated = Files.writeString(directory.resolve("notes.txt"), "keep");
+
+        // when
+        TieredTransactionRepository repository = start(2, 2).repositories(1).getFirst();
+
+        // then
+        assertEquals(List.of(), blockFiles());
+        assertEquals(0, repository.findLastSequence());
+        assertTrue(Files.exists(unrelated));
+    }
+
+    @Test
+    void shouldRejectBlockLargerThanHotWindow() {
+        // when & then
+        assertThrows(IllegalArgumentException.class, () -> new TieredTransactionStore(directory, 2, 4));
+    }
+
+    private TieredTransactionStore start(int hotCapacity, int blockSize) throws IOException {
+        TieredTransactionStore store = new TieredTransactionStore(directory, hotCapacity, blockSize);
+        store.start();
+        return store;
+    }
+
+    private List<Transaction> saveMinutes(TieredTransactionRepository repository, int count) {
+        List<Transaction> saved = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            Transaction transaction = new Transaction(UUID.randomUUID(), i, "account-" + i,
+                    i % 2 == 0 ? TransactionType.WITHDRAW : TransactionType.DEPOSIT,
+                    Money.ofMinorUnits(i * 100L), now.plusSeconds(60L * i));
+            saved.add(repository.save(transaction));
+        }
+        return saved;
+    }
+
+    private List<Path> blockFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(file -> file.toString().endsWith(".block")).sorted().toList();
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant instant;
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.ledger.retention;
+
+import com.example.ledger.domain.LedgerService;
+import com.example.ledger.domain.Money;
+import com.example.ledger.domain.TransactionType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RetentionJobTest {
+
+    private final Instant now = Instant.parse("2023-10-01T10:15:30Z");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldArchiveAndFoldTransactionsOlderThanMaxAge() throws Exception {
+        // given
+        LedgerService ledger = new LedgerService(2, Clock.fixed(now.minus(Duration.ofDays(40)), ZoneOffset.UTC));
+        ledger.deposit("alice", Money.of("10.00"));
+        ledger.withdraw("alice", Money.of("2.50"));
+        Path archiveFile = directory.resolve("archive/ledger.csv");
+        RetentionJob job = new RetentionJob(ledger, Clock.fixed(now, ZoneOffset.UTC), Duration.ofDays(30),
+                Duration.ofHours(1), archiveFile.toString());
+
+        // when
+        int folded = job.run();
+
+        // then
+        assertEquals(2, folded);
+        assertEquals(Money.of("7.50"), ledger.getBalance("alice"));
+        assertEquals(TransactionType.BALANCE_FORWARD, ledger.getTransactions("alice").getFirst().getType());
+        List<String> lines = Files.readAllLines(archiveFile);
+        assertEquals(3, lines.size());
+        assertEquals("sequence,id,accountId,type,amount,currency,createdAt", lines.get(0));
+        assertTrue(lines.get(1).startsWith("1,"));
+        assertTrue(lines.get(2).endsWith(",alice,WITHDRAW,2.50,EUR,2023-08-22T10:15:30Z"));
+        assertEquals(0, job.run());
+        assertEquals(3, Files.readAllLines(archiveFile).size());
+    }
+
+    @Test
+    void shouldKeepTransactionsWhenArchiveFails() throws Exception {
+        // given
+        LedgerService ledger = new LedgerService(1, Clock.fixed(now.minus(Duration.ofDays(40)), ZoneOffset.UTC));
+        ledger.deposit("alice", Money.of("10.00"));
+        Path notADirectory = Files.writeString(directory.resolve("file"), "");
+        RetentionJob job = new RetentionJob(ledger, Clock.fixed(now, ZoneOffset.UTC), Duration.ofDays(30),
+                Duration.ofHours(1), notADirectory.resolve("ledger.csv").toString());
+
+        // when
+        int folded = job.run();
+
+        // then
+        assertEquals(0, folded);
+        assertEquals(0, ledger.getCompactedThrough());
+        assertEquals(TransactionType.DEPOSIT, ledger.getTransactions("alice").getFirst().getType());
+    }
+}